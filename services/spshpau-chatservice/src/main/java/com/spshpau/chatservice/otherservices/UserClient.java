@@ -3,12 +3,20 @@ package com.spshpau.chatservice.otherservices;
 import com.spshpau.chatservice.controller.dto.UserSummaryDto;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.UUID;
 
 @FeignClient(name = "userservice", url = "${application.cofig.userclienturl}")
 public interface UserClient {
-    @GetMapping("/me/connections/all")
+    @GetMapping("/interactions/me/connections/all")
     List<UserSummaryDto> findConnectionsByJwt(@RequestHeader("Authorization") String bearerToken);
+
+    // Up to 200 IDs per call; unknown IDs are left out of the result
+    @PostMapping("/users/batch")
+    List<UserSummaryDto> getUserInfoByIds(@RequestHeader("Authorization") String bearerToken, @RequestBody Collection<UUID> userIds);
 }
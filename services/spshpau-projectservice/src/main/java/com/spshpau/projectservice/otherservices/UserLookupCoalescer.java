@@ -0,0 +1,167 @@
+package com.spshpau.projectservice.otherservices;
+
+import com.spshpau.projectservice.dto.UserSummaryDto;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Resolves single users through {@link UserClient#getUserInfoByIds}, merging lookups that arrive within a short
+ * window into one batch call.
+ * <p>
+ * The first lookup opens a batch and schedules it to be sent once the window has passed; lookups arriving in the
+ * meantime join it, and a batch that reaches the maximum size is sent right away. Batches are kept per bearer
+ * token, so every call to the user service carries the credentials of the callers it serves. The threads that
+ * send batches are only started by the first lookup.
+ */
+@Component
+@Slf4j
+public class UserLookupCoalescer {
+
+    private final UserClient userClient;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final int threads;
+
+    // Created by the first lookup; guarded by this
+    private ScheduledExecutorService executor;
+    private boolean shutDown;
+    // Batches still accepting lookups, by bearer token; guarded by this
+    private final Map<String, PendingBatch> openBatches = new HashMap<>();
+
+    @Autowired
+    public UserLookupCoalescer(UserClient userClient,
+                               @Value("${application.cofig.user-lookup.window:PT0.005S}") Duration window,
+                               @Value("${application.cofig.user-lookup.max-batch-size:100}") int maxBatchSize,
+                               @Value("${application.cofig.user-lookup.threads:4}") int threads) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("Maximum batch size must be positive");
+        }
+        this.userClient = userClient;
+        this.windowNanos = window.toNanos();
+        this.maxBatchSize = maxBatchSize;
+        this.threads = threads;
+    }
+
+    /**
+     * Looks up a user as part of the next batch for the token.
+     *
+     * @param bearerToken The Authorization header value to call the user service with.
+     * @param userId      The unique identifier of the user.
+     * @return A future completed with the user's summary, or an empty Optional if no user has the ID.
+     * Completed exceptionally if the batch call fails.
+     */
+    public CompletableFuture<Optional<UserSummaryDto>> lookup(String bearerToken, UUID userId) {
+        Objects.requireNonNull(userId, "userId");
+        CompletableFuture<Optional<UserSummaryDto>> result = new CompletableFuture<>();
+        PendingBatch fullBatch = null;
+        ScheduledExecutorService sender;
+        synchronized (this) {
+            sender = executor();
+            PendingBatch batch = openBatches.get(bearerToken);
+            if (batch == null) {
+                PendingBatch opened = new PendingBatch(bearerToken);
+                opened.timer = sender.schedule(() -> sendIfOpen(opened), windowNanos, TimeUnit.NANOSECONDS);
+                openBatches.put(bearerToken, opened);
+                batch = opened;
+            }
+            batch.waiters.computeIfAbsent(userId, id -> new ArrayList<>()).add(result);
+            if (batch.waiters.size() >= maxBatchSize) {
+                openBatches.remove(bearerToken);
+                fullBatch = batch;
+            }
+        }
+        if (fullBatch != null) {
+            PendingBatch toSend = fullBatch;
+            toSend.timer.cancel(false);
+            sender.execute(() -> send(toSend));
+        }
+        return result;
+    }
+
+    /**
+     * Blocking variant of {@link #lookup}, with the error handling of a direct {@link UserClient} call.
+     *
+     * @param bearerToken The Authorization header value to call the user service with.
+     * @param userId      The unique identifier of the user.
+     * @return The user's summary, or an empty Optional if no user has the ID.
+     */
+    public Optional<UserSummaryDto> getUserInfoById(String bearerToken, UUID userId) {
+        try {
+            return lookup(bearerToken, userId).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    // Called while holding the lock on this
+    private ScheduledExecutorService executor() {
+        if (shutDown) {
+            throw new RejectedExecutionException("User lookups have been shut down");
+        }
+        if (executor == null) {
+            AtomicInteger threadCount = new AtomicInteger();
+            executor = Executors.newScheduledThreadPool(threads, runnable -> {
+                Thread thread = new Thread(runnable, "user-lookup-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return executor;
+    }
+
+    private void sendIfOpen(PendingBatch batch) {
+        synchronized (this) {
+            if (openBatches.get(batch.bearerToken) != batch) {
+                // Already sent because it filled up
+                return;
+            }
+            openBatches.remove(batch.bearerToken);
+        }
+        send(batch);
+    }
+
+    private void send(PendingBatch batch) {
+        List<UUID> userIds = new ArrayList<>(batch.waiters.keySet());
+        try {
+            Map<UUID, UserSummaryDto> found = userClient.getUserInfoByIds(batch.bearerToken, userIds).stream()
+                    .collect(Collectors.toMap(UserSummaryDto::getId, Function.identity(), (first, second) -> first));
+            log.debug("Resolved {} of {} coalesced user lookups", found.size(), userIds.size());
+            batch.waiters.forEach((userId, futures) ->
+                    futures.forEach(future -> future.complete(Optional.ofNullable(found.get(userId)))));
+        } catch (RuntimeException e) {
+            log.warn("Batch lookup of {} users failed", userIds.size(), e);
+            batch.waiters.values().forEach(futures -> futures.forEach(future -> future.completeExceptionally(e)));
+        }
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        shutDown = true;
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    private static class PendingBatch {
+        private final String bearerToken;
+        private final Map<UUID, List<CompletableFuture<Optional<UserSummaryDto>>>> waiters = new LinkedHashMap<>();
+        private ScheduledFuture<?> timer;
+
+        private PendingBatch(String bearerToken) {
+            this.bearerToken = bearerToken;
+        }
+    }
+}
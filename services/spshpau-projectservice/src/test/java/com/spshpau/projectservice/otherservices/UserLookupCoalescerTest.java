@@ -0,0 +1,127 @@
+package com.spshpau.projectservice.otherservices;
+
+import com.spshpau.projectservice.dto.UserSummaryDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserLookupCoalescerTest {
+
+    private static final String TOKEN = "Bearer token";
+
+    @Mock
+    private UserClient userClient;
+
+    private UserLookupCoalescer coalescer;
+
+    @AfterEach
+    void tearDown() {
+        coalescer.shutdown();
+    }
+
+    @Test
+    void lookup_concurrentLookups_shouldBeSentAsOneBatch() throws Exception {
+        coalescer = new UserLookupCoalescer(userClient, Duration.ofMillis(200), 100, 2);
+        List<UUID> userIds = List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+        when(userClient.getUserInfoByIds(eq(TOKEN), anyCollection()))
+                .thenReturn(List.of(summary(userIds.get(0)), summary(userIds.get(2))));
+
+        List<CompletableFuture<Optional<UserSummaryDto>>> results = new ArrayList<>();
+        for (UUID userId : userIds) {
+            results.add(coalescer.lookup(TOKEN, userId));
+        }
+        // A repeated ID joins the same batch
+        results.add(coalescer.lookup(TOKEN, userIds.get(0)));
+
+        assertEquals(userIds.get(0), results.get(0).get(5, TimeUnit.SECONDS).orElseThrow().getId());
+        assertTrue(results.get(1).get(5, TimeUnit.SECONDS).isEmpty());
+        assertEquals(userIds.get(2), results.get(2).get(5, TimeUnit.SECONDS).orElseThrow().getId());
+        assertEquals(userIds.get(0), results.get(3).get(5, TimeUnit.SECONDS).orElseThrow().getId());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<UUID>> sent = ArgumentCaptor.forClass(Collection.class);
+        verify(userClient, times(1)).getUserInfoByIds(eq(TOKEN), sent.capture());
+        assertEquals(userIds, List.copyOf(sent.getValue()));
+    }
+
+    @Test
+    void lookup_fullBatch_shouldBeSentWithoutWaitingForTheWindow() throws Exception {
+        coalescer = new UserLookupCoalescer(userClient, Duration.ofHours(1), 2, 2);
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        when(userClient.getUserInfoByIds(eq(TOKEN), anyCollection())).thenReturn(List.of(summary(first), summary(second)));
+
+        CompletableFuture<Optional<UserSummaryDto>> firstResult = coalescer.lookup(TOKEN, first);
+        CompletableFuture<Optional<UserSummaryDto>> secondResult = coalescer.lookup(TOKEN, second);
+
+        assertTrue(firstResult.get(5, TimeUnit.SECONDS).isPresent());
+        assertTrue(secondResult.get(5, TimeUnit.SECONDS).isPresent());
+        verify(userClient, times(1)).getUserInfoByIds(eq(TOKEN), anyCollection());
+    }
+
+    @Test
+    void lookup_differentTokens_shouldNotShareABatch() throws Exception {
+        coalescer = new UserLookupCoalescer(userClient, Duration.ofMillis(50), 100, 2);
+        UUID userId = UUID.randomUUID();
+        when(userClient.getUserInfoByIds(any(), anyCollection())).thenReturn(List.of(summary(userId)));
+
+        CompletableFuture<Optional<UserSummaryDto>> first = coalescer.lookup("Bearer first", userId);
+        CompletableFuture<Optional<UserSummaryDto>> second = coalescer.lookup("Bearer second", userId);
+        first.get(5, TimeUnit.SECONDS);
+        second.get(5, TimeUnit.SECONDS);
+
+        verify(userClient).getUserInfoByIds(eq("Bearer first"), anyCollection());
+        verify(userClient).getUserInfoByIds(eq("Bearer second"), anyCollection());
+    }
+
+    @Test
+    void getUserInfoById_whenBatchCallFails_shouldRethrowTheClientException() {
+        coalescer = new UserLookupCoalescer(userClient, Duration.ofMillis(10), 100, 2);
+        IllegalStateException failure = new IllegalStateException("userservice unavailable");
+        when(userClient.getUserInfoByIds(eq(TOKEN), anyCollection())).thenThrow(failure);
+
+        IllegalStateException thrown = assertThrows(IllegalStateException.class,
+                () -> coalescer.getUserInfoById(TOKEN, UUID.randomUUID()));
+        assertSame(failure, thrown);
+    }
+
+    @Test
+    void lookup_afterABatchWasSent_shouldOpenANewBatch() {
+        coalescer = new UserLookupCoalescer(userClient, Duration.ofMillis(10), 100, 2);
+        UUID userId = UUID.randomUUID();
+        when(userClient.getUserInfoByIds(eq(TOKEN), anyCollection())).thenReturn(List.of(summary(userId)));
+
+        assertTrue(coalescer.getUserInfoById(TOKEN, userId).isPresent());
+        assertTrue(coalescer.getUserInfoById(TOKEN, userId).isPresent());
+
+        verify(userClient, times(2)).getUserInfoByIds(eq(TOKEN), anyCollection());
+    }
+
+    @Test
+    void lookup_afterShutdown_shouldBeRejected() {
+        coalescer = new UserLookupCoalescer(userClient, Duration.ofMillis(10), 100, 2);
+        coalescer.shutdown();
+
+        assertThrows(RejectedExecutionException.class, () -> coalescer.lookup(TOKEN, UUID.randomUUID()));
+        verifyNoInteractions(userClient);
+    }
+
+    private static UserSummaryDto summary(UUID userId) {
+        return new UserSummaryDto(userId, "user-" + userId, "First", "Last", null);
+    }
+}
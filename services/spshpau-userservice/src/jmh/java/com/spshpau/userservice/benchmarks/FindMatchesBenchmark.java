@@ -0,0 +1,82 @@
+package com.spshpau.userservice.benchmarks;
+
+import com.spshpau.userservice.dto.userdto.UserSummaryDto;
+import com.spshpau.userservice.services.blocking.BlockRelationStore;
+import com.spshpau.userservice.services.impl.UserServiceImpl;
+import com.spshpau.userservice.services.matching.*;
+import com.spshpau.userservice.services.profile.ProfileReadCache;
+import com.spshpau.userservice.services.search.UsernamePrefixIndex;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end ranking pipeline of {@link UserServiceImpl#findMatches}: exclusion context, candidate generation,
+ * scoring, top-K selection and DTO mapping of the first page. Repositories are served from memory and the
+ * Spring cache is not involved, so every invocation ranks from scratch.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx8g"})
+public class FindMatchesBenchmark {
+
+    private static final int CALLERS = 256;
+
+    @Param({"10000", "100000", "1000000"})
+    public int users;
+
+    @Param({"exact", MinHashLshIndex.MODE_APPROXIMATE})
+    public String candidates;
+
+    private UserServiceImpl userService;
+    private List<UUID> callerIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SyntheticPopulation population = SyntheticPopulation.generate(users, 42L);
+        MatchIndex matchIndex = new MatchIndex(new FeatureDictionary(), new MinHashLshIndex(candidates, 2_000, 32, 2));
+        population.getUsers().forEach(matchIndex::indexUser);
+
+        userService = new UserServiceImpl(
+                InMemoryRepositories.userRepository(population),
+                InMemoryRepositories.userConnectionRepository(population),
+                matchIndex,
+                new MatchScorer(20_000),
+                event -> { },
+                new SqlMatchEngine(InMemoryRepositories.matchScoreRepository(), "java"),
+                new MaterializedMatchStore(InMemoryRepositories.userMatchScoreRepository(),
+                        InMemoryRepositories.userMatchMaterializationRepository(), false),
+                new UsernamePrefixIndex(),
+                new BlockRelationStore(InMemoryRepositories.userRepository(population)),
+                new ProfileReadCache());
+        callerIds = population.sampleCallerIds(CALLERS, 7L);
+    }
+
+    @State(Scope.Thread)
+    public static class CallerCursor {
+        private int next;
+
+        UUID next(List<UUID> callerIds) {
+            UUID callerId = callerIds.get(next);
+            next = (next + 1) % callerIds.size();
+            return callerId;
+        }
+    }
+
+    @Benchmark
+    public Page<UserSummaryDto> findMatchesFirstPage(CallerCursor cursor) {
+        return userService.findMatches(cursor.next(callerIds), PageRequest.of(0, 20));
+    }
+
+    @Benchmark
+    public Page<UserSummaryDto> findMatchesDeepPage(CallerCursor cursor) {
+        return userService.findMatches(cursor.next(callerIds), PageRequest.of(10, 20));
+    }
+}
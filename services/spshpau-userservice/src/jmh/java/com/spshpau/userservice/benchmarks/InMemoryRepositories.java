@@ -0,0 +1,84 @@
+package com.spshpau.userservice.benchmarks;
+
+import com.spshpau.userservice.repositories.*;
+
+import java.lang.reflect.Proxy;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Database-free stand-ins for the repositories read by the matching pipeline, backed by a {@link SyntheticPopulation}.
+ * Only the queries used while ranking matches are implemented; any other call fails loudly so a benchmark
+ * never silently measures a stub.
+ */
+final class InMemoryRepositories {
+
+    private InMemoryRepositories() {
+    }
+
+    static UserRepository userRepository(SyntheticPopulation population) {
+        return proxy(UserRepository.class, Map.of(
+                "findById", args -> Optional.ofNullable(population.getUser((UUID) args[0])),
+                "findBlockRowsInvolving", args -> {
+                    UUID userId = (UUID) args[0];
+                    List<UserRepository.BlockRow> rows = new ArrayList<>();
+                    // Exclusion ignores the direction, so every relation is reported as blocked by the user
+                    population.getBlockRelatedUserIds(userId).forEach(otherId -> rows.add(blockRow(userId, otherId)));
+                    return rows;
+                },
+                "findActiveWithProfilesByIdIn", args -> {
+                    Collection<?> ids = (Collection<?>) args[0];
+                    List<Object> users = new ArrayList<>(ids.size());
+                    ids.forEach(id -> users.add(population.getUser((UUID) id)));
+                    return users;
+                }));
+    }
+
+    static UserConnectionRepository userConnectionRepository(SyntheticPopulation population) {
+        return proxy(UserConnectionRepository.class, Map.of(
+                "findConnectedUserIds", args -> population.getConnectedUserIds((UUID) args[0])));
+    }
+
+    static MatchScoreRepository matchScoreRepository() {
+        return proxy(MatchScoreRepository.class, Map.of());
+    }
+
+    static UserMatchScoreRepository userMatchScoreRepository() {
+        return proxy(UserMatchScoreRepository.class, Map.of());
+    }
+
+    // Nobody is materialized, so every request runs the live ranking pipeline
+    static UserMatchMaterializationRepository userMatchMaterializationRepository() {
+        return proxy(UserMatchMaterializationRepository.class, Map.of("findById", args -> Optional.empty()));
+    }
+
+    private static UserRepository.BlockRow blockRow(UUID blockerId, UUID blockedId) {
+        return new UserRepository.BlockRow() {
+            @Override
+            public UUID getBlockerId() {
+                return blockerId;
+            }
+
+            @Override
+            public UUID getBlockedId() {
+                return blockedId;
+            }
+        };
+    }
+
+    private static <T> T proxy(Class<T> type, Map<String, Function<Object[], Object>> handlers) {
+        Object instance = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (self, method, args) -> {
+            Function<Object[], Object> handler = handlers.get(method.getName());
+            if (handler != null) {
+                return handler.apply(args);
+            }
+            return switch (method.getName()) {
+                case "toString" -> "InMemory" + type.getSimpleName();
+                case "hashCode" -> System.identityHashCode(self);
+                case "equals" -> self == args[0];
+                default -> throw new UnsupportedOperationException(type.getSimpleName() + "." + method.getName());
+            };
+        });
+        return type.cast(instance);
+    }
+}
@@ -0,0 +1,84 @@
+package com.spshpau.userservice.benchmarks;
+
+import com.spshpau.userservice.model.User;
+import com.spshpau.userservice.services.matching.FeatureDictionary;
+import com.spshpau.userservice.services.matching.MatchFeatures;
+import com.spshpau.userservice.services.matching.MatchIndex;
+import com.spshpau.userservice.services.matching.MatchScorer;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the scoring kernel: the per-candidate rules and a full pass over the population.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx8g"})
+public class MatchScorerBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int users;
+
+    private MatchFeatures caller;
+    private MatchFeatures[] candidates;
+    private boolean[] connected;
+    private MatchScorer sequentialScorer;
+    private MatchScorer defaultScorer;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SyntheticPopulation population = SyntheticPopulation.generate(users, 42L);
+        MatchIndex matchIndex = new MatchIndex(new FeatureDictionary());
+        population.getUsers().forEach(matchIndex::indexUser);
+
+        User callerUser = population.getUser(population.sampleCallerIds(1, 7L).get(0));
+        caller = matchIndex.getFeatures(callerUser.getId());
+        List<User> all = population.getUsers();
+        candidates = new MatchFeatures[all.size()];
+        connected = new boolean[all.size()];
+        for (int i = 0; i < all.size(); i++) {
+            candidates[i] = matchIndex.getFeatures(all.get(i).getId());
+            connected[i] = population.getConnectedUserIds(callerUser.getId()).contains(all.get(i).getId());
+        }
+        sequentialScorer = new MatchScorer(Integer.MAX_VALUE);
+        defaultScorer = new MatchScorer(20_000);
+    }
+
+    private int nextCandidate() {
+        int index = next;
+        next = index + 1 == candidates.length ? 0 : index + 1;
+        return index;
+    }
+
+    @Benchmark
+    public double calculateMatchScore() {
+        int i = nextCandidate();
+        return MatchScorer.calculateMatchScore(caller, candidates[i], connected[i]);
+    }
+
+    @Benchmark
+    public double calculateSpecificGenreMatchScore() {
+        return MatchScorer.calculateSpecificGenreMatchScore(caller.getAllGenres(), candidates[nextCandidate()].getAllGenres());
+    }
+
+    @Benchmark
+    public double calculateExperienceScore() {
+        return MatchScorer.calculateExperienceScore(caller.getArtistLevel(), candidates[nextCandidate()].getProducerLevel());
+    }
+
+    @Benchmark
+    public double[] scoreAllSequential() {
+        return sequentialScorer.scoreAll(caller, candidates, connected);
+    }
+
+    @Benchmark
+    public double[] scoreAllDefaultThreshold() {
+        return defaultScorer.scoreAll(caller, candidates, connected);
+    }
+}
@@ -0,0 +1,154 @@
+package com.spshpau.userservice.benchmarks;
+
+import com.spshpau.userservice.model.*;
+import com.spshpau.userservice.model.enums.ExperienceLevel;
+
+import java.util.*;
+
+/**
+ * Deterministic in-memory population of users with profiles, genres and skills for the matching benchmarks.
+ * Genre and skill popularity follows a Zipf distribution, so a few genres dominate as on the real platform.
+ * Accepted connections and blocks are generated alongside, keyed by user ID.
+ */
+public final class SyntheticPopulation {
+
+    public static final int GENRE_COUNT = 60;
+    public static final int SKILL_COUNT = 20;
+    private static final double ZIPF_EXPONENT = 1.1;
+    private static final int CONNECTIONS_PER_USER = 5;
+    private static final double BLOCK_PROBABILITY = 0.05;
+
+    private final List<User> users;
+    private final Map<UUID, User> usersById;
+    private final Map<UUID, Set<UUID>> connectedUserIds = new HashMap<>();
+    private final Map<UUID, Set<UUID>> blockRelatedUserIds = new HashMap<>();
+
+    private SyntheticPopulation(List<User> users) {
+        this.users = users;
+        this.usersById = new HashMap<>(users.size() * 2);
+        users.forEach(user -> usersById.put(user.getId(), user));
+    }
+
+    /**
+     * @param size Number of users to generate.
+     * @param seed Random seed; equal seeds produce equal populations.
+     */
+    public static SyntheticPopulation generate(int size, long seed) {
+        Random random = new Random(seed);
+        List<Genre> genres = new ArrayList<>(GENRE_COUNT);
+        for (int i = 0; i < GENRE_COUNT; i++) {
+            Genre genre = new Genre("Genre " + i);
+            genre.setId(new UUID(1L, i));
+            genres.add(genre);
+        }
+        List<Skill> skills = new ArrayList<>(SKILL_COUNT);
+        for (int i = 0; i < SKILL_COUNT; i++) {
+            Skill skill = new Skill("Skill " + i);
+            skill.setId(new UUID(2L, i));
+            skills.add(skill);
+        }
+        double[] genreWeights = zipfCumulative(GENRE_COUNT);
+        double[] skillWeights = zipfCumulative(SKILL_COUNT);
+        ExperienceLevel[] levels = ExperienceLevel.values();
+
+        List<User> users = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            User user = new User();
+            user.setId(new UUID(0L, i));
+            user.setUsername("user" + i);
+            user.setEmail("user" + i + "@example.com");
+            user.setFirstName("First" + i);
+            user.setLastName("Last" + i);
+            user.setActive(true);
+            if (random.nextDouble() < 0.65) {
+                ArtistProfile ap = new ArtistProfile();
+                ap.setId(user.getId());
+                ap.setExperienceLevel(levels[random.nextInt(levels.length)]);
+                ap.setAvailability(random.nextDouble() < 0.4);
+                ap.setGenres(pick(random, genres, genreWeights, 1 + random.nextInt(4)));
+                ap.setSkills(pick(random, skills, skillWeights, random.nextInt(4)));
+                user.setArtistProfile(ap);
+            }
+            if (random.nextDouble() < 0.3) {
+                ProducerProfile pp = new ProducerProfile();
+                pp.setId(user.getId());
+                pp.setExperienceLevel(levels[random.nextInt(levels.length)]);
+                pp.setAvailability(random.nextDouble() < 0.4);
+                pp.setGenres(pick(random, genres, genreWeights, 1 + random.nextInt(4)));
+                user.setProducerProfile(pp);
+            }
+            users.add(user);
+        }
+
+        SyntheticPopulation population = new SyntheticPopulation(users);
+        for (int i = 0; i < size; i++) {
+            for (int c = 0; c < CONNECTIONS_PER_USER / 2; c++) {
+                population.link(population.connectedUserIds, users.get(i).getId(), users.get(random.nextInt(size)).getId());
+            }
+            if (random.nextDouble() < BLOCK_PROBABILITY) {
+                population.link(population.blockRelatedUserIds, users.get(i).getId(), users.get(random.nextInt(size)).getId());
+            }
+        }
+        return population;
+    }
+
+    private void link(Map<UUID, Set<UUID>> relation, UUID a, UUID b) {
+        if (!a.equals(b)) {
+            relation.computeIfAbsent(a, k -> new HashSet<>()).add(b);
+            relation.computeIfAbsent(b, k -> new HashSet<>()).add(a);
+        }
+    }
+
+    private static double[] zipfCumulative(int size) {
+        double[] cumulative = new double[size];
+        double sum = 0.0;
+        for (int rank = 1; rank <= size; rank++) {
+            sum += 1.0 / Math.pow(rank, ZIPF_EXPONENT);
+            cumulative[rank - 1] = sum;
+        }
+        for (int i = 0; i < size; i++) {
+            cumulative[i] /= sum;
+        }
+        return cumulative;
+    }
+
+    private static <T> Set<T> pick(Random random, List<T> catalog, double[] cumulative, int count) {
+        Set<T> picked = new HashSet<>();
+        for (int i = 0; i < count; i++) {
+            int index = Arrays.binarySearch(cumulative, random.nextDouble());
+            picked.add(catalog.get(Math.min(index >= 0 ? index : -index - 1, catalog.size() - 1)));
+        }
+        return picked;
+    }
+
+    public List<User> getUsers() {
+        return users;
+    }
+
+    public User getUser(UUID userId) {
+        return usersById.get(userId);
+    }
+
+    public Set<UUID> getConnectedUserIds(UUID userId) {
+        return connectedUserIds.getOrDefault(userId, Set.of());
+    }
+
+    public Set<UUID> getBlockRelatedUserIds(UUID userId) {
+        return blockRelatedUserIds.getOrDefault(userId, Set.of());
+    }
+
+    /**
+     * @return Up to {@code count} IDs of users holding at least one profile, spread over the population.
+     */
+    public List<UUID> sampleCallerIds(int count, long seed) {
+        Random random = new Random(seed);
+        List<UUID> callerIds = new ArrayList<>(count);
+        for (int attempts = 0; callerIds.size() < count && attempts < count * 10; attempts++) {
+            User user = users.get(random.nextInt(users.size()));
+            if (user.getArtistProfile() != null || user.getProducerProfile() != null) {
+                callerIds.add(user.getId());
+            }
+        }
+        return callerIds;
+    }
+}
@@ -11,6 +11,10 @@ import java.util.concurrent.TimeUnit;
 @Configuration
 public class CacheConfig {
 
+    /**
+     * Match pages keyed by {@link com.spshpau.userservice.services.matching.MatchCacheKey}.
+     * Hit, miss and eviction statistics are published as {@code cache.*} actuator metrics.
+     */
     public static final String USER_MATCHES_CACHE = "userMatches";
 
     @Bean
@@ -19,7 +23,6 @@ public class CacheConfig {
         cacheManager.setCaffeine(Caffeine.newBuilder()
                 .expireAfterWrite(15, TimeUnit.MINUTES)
                 .maximumSize(500)
-                .weakKeys()
                 .recordStats()
         );
 
@@ -0,0 +1,45 @@
+package com.spshpau.userservice.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Creates the pg_trgm GIN indexes backing the user search term. The schema itself is managed by Hibernate,
+ * which cannot express expression or GIN indexes, so they are created here idempotently on startup.
+ * <p>
+ * The indexes cover exactly the {@code lower(column) LIKE '%term%'} predicates of
+ * {@link com.spshpau.userservice.repositories.specifications.UserSpecification}, so PostgreSQL can answer
+ * them with bitmap index scans instead of a sequential scan of {@code users}. The same extension provides
+ * {@code word_similarity}, used for relevance ordering.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SearchIndexInitializer implements CommandLineRunner {
+
+    static final List<String> STATEMENTS = List.of(
+            "CREATE EXTENSION IF NOT EXISTS pg_trgm",
+            "CREATE INDEX IF NOT EXISTS idx_users_username_trgm ON users USING gin (lower(username) gin_trgm_ops)",
+            "CREATE INDEX IF NOT EXISTS idx_users_first_name_trgm ON users USING gin (lower(first_name) gin_trgm_ops)",
+            "CREATE INDEX IF NOT EXISTS idx_users_last_name_trgm ON users USING gin (lower(last_name) gin_trgm_ops)");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void run(String... args) {
+        try {
+            STATEMENTS.forEach(jdbcTemplate::execute);
+            log.info("User search trigram indexes are in place");
+        } catch (DataAccessException e) {
+            // Typically a missing privilege for CREATE EXTENSION; search still works, but scans the table
+            log.error("Could not create user search trigram indexes, search term filtering will use sequential scans " +
+                    "and relevance ordering is unavailable", e);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.spshpau.userservice.controller;
+
+import com.spshpau.userservice.dto.eventdto.DomainEventFeedDto;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RequestParam;
+
+public interface EventFeedController {
+
+    /**
+     * Reads the feed of connection, block and user changes, for services that keep local replicas of them.
+     * Events are numbered by consecutive positions; a consumer stores the {@code lastPosition} of the response
+     * and passes it as {@code after} on its next request, repeating at once while {@code hasMore} is true.
+     * Events are delivered at least once, so consumers should apply them idempotently.
+     * This endpoint is restricted to clients with administrative privileges.
+     *
+     * @param after The position of the last event the consumer applied, or 0 to read from the start.
+     * @param limit The maximum number of events to return (1 to 1000).
+     * @return ResponseEntity containing a {@link DomainEventFeedDto},
+     * 400 Bad Request if the parameters are out of range,
+     * or 410 Gone if events following {@code after} were already deleted, in which case the consumer reads
+     * the head position, reloads its replica through the regular endpoints and continues from that position.
+     * Example Success Response (200 OK):
+     * <pre>{@code
+     * {
+     * "events": [
+     * {"position": 41, "type": "CONNECTION_ACCEPTED", "userId": "uuid-1", "otherUserId": "uuid-2",
+     *  "occurredAt": "2025-05-10T14:32:05", "payload": null},
+     * {"position": 42, "type": "USER_UPDATED", "userId": "uuid-1", "otherUserId": null,
+     *  "occurredAt": "2025-05-10T14:33:12",
+     *  "payload": {"id": "uuid-1", "username": "jdoe", "previousUsername": null, "firstName": "John",
+     *              "lastName": "Doe", "location": "Prague", "active": true}}
+     * ],
+     * "lastPosition": 42,
+     * "hasMore": false
+     * }
+     * }</pre>
+     */
+    ResponseEntity<DomainEventFeedDto> getEvents(@RequestParam long after, @RequestParam int limit);
+
+    /**
+     * Retrieves the position of the newest published event, for consumers starting a replica from a full load.
+     * Reading the head before the full load and then the feed from it may repeat some changes but misses none.
+     * This endpoint is restricted to clients with administrative privileges.
+     *
+     * @return ResponseEntity containing the head position, 0 if no event was published yet.
+     * Example Success Response (200 OK):
+     * <pre>{@code
+     * 42
+     * }</pre>
+     */
+    ResponseEntity<Long> getHeadPosition();
+}
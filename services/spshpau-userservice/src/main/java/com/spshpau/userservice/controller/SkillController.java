@@ -6,6 +6,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 
 import java.util.UUID;
@@ -42,10 +43,13 @@ public interface SkillController {
 
     /**
      * Retrieves all Skills with support for pagination.
+     * Every page carries the {@code ETag} of the whole skill catalog. A request whose {@code If-None-Match}
+     * header holds the current tag is answered with 304 Not Modified and no body, without querying the database.
      *
      * @param pageable Pagination information (e.g., page number, size, sort order).
-     * @return ResponseEntity containing a Page of {@link SkillSummaryDto},
-     * or an error status if retrieval fails.
+     * @param request  The current request, used to evaluate {@code If-None-Match}.
+     * @return ResponseEntity containing a Page of {@link SkillSummaryDto} and the catalog {@code ETag},
+     * a 304 Not Modified status if the catalog did not change, or an error status if retrieval fails.
      * Example Success Response (200 OK):
      * <pre>{@code
      * {
@@ -73,5 +77,5 @@ public interface SkillController {
      * }
      * }</pre>
      */
-    ResponseEntity<Page<SkillSummaryDto>> getAllSkills(Pageable pageable);
+    ResponseEntity<Page<SkillSummaryDto>> getAllSkills(Pageable pageable, WebRequest request);
 }
@@ -1,7 +1,11 @@
 package com.spshpau.userservice.controller;
 
 import com.spshpau.userservice.dto.userdto.LocationUpdateRequest;
+import com.spshpau.userservice.dto.userdto.MatchCursorPageDto;
 import com.spshpau.userservice.dto.userdto.UserDetailDto;
+import com.spshpau.userservice.dto.userdto.UserFacetCountsDto;
+import com.spshpau.userservice.dto.userdto.UserSearchSliceDto;
+import com.spshpau.userservice.dto.userdto.UserSuggestionDto;
 import com.spshpau.userservice.dto.userdto.UserSummaryDto;
 import com.spshpau.userservice.model.User;
 import com.spshpau.userservice.model.enums.ExperienceLevel;
@@ -12,6 +16,7 @@ import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 import java.util.UUID;
@@ -23,7 +28,10 @@ public interface UserController {
      * Retrieves the details of the currently authenticated user.
      * If the user's profile does not exist locally, it may attempt to sync it from Keycloak.
      *
-     * @param jwt The JWT token representing the authenticated principal.
+     * @param jwt    The JWT token representing the authenticated principal.
+     * @param fields Optional comma-separated list of properties to return, e.g.
+     *               {@code id,username,artistProfile.genres}; everything is returned if omitted.
+     *               Unselected profiles are not loaded. 400 Bad Request for an unknown property.
      * @return ResponseEntity containing the {@link UserDetailDto} if found or synced (200 OK),
      * or 401/404 if authentication fails or the user cannot be synced.
      * Example Success Response (200 OK):
@@ -48,12 +56,13 @@ public interface UserController {
      * }
      * }</pre>
      */
-    ResponseEntity<UserDetailDto> getCurrentUser(Jwt jwt);
+    ResponseEntity<UserDetailDto> getCurrentUser(Jwt jwt, @RequestParam(required = false) String fields);
 
     /**
      * Retrieves a user by their username.
      *
      * @param username The username to search for.
+     * @param fields   Optional comma-separated list of properties to return, as for {@link #getCurrentUser}.
      * @return ResponseEntity containing the {@link UserDetailDto} if found (200 OK),
      * or 404 Not Found if no user matches the username.
      * Example Success Response (200 OK):
@@ -77,12 +86,14 @@ public interface UserController {
      * }
      * }</pre>
      */
-    ResponseEntity<UserDetailDto> getUserByUsername(@RequestParam String username);
+    ResponseEntity<UserDetailDto> getUserByUsername(@RequestParam String username,
+                                                    @RequestParam(required = false) String fields);
 
     /**
      * Retrieves a summary of a user by their unique ID.
      *
      * @param userId The UUID of the user to search for.
+     * @param fields Optional comma-separated list of properties to return, as for {@link #getCurrentUser}.
      * @return ResponseEntity containing the {@link UserSummaryDto} if found (200 OK),
      * or 404 Not Found if no user matches the ID.
      * Example Success Response (200 OK):
@@ -98,7 +109,30 @@ public interface UserController {
      * }
      * }</pre>
      */
-    ResponseEntity<UserSummaryDto> getUserById(UUID userId);
+    ResponseEntity<UserSummaryDto> getUserById(UUID userId, @RequestParam(required = false) String fields);
+
+    /**
+     * Retrieves the summaries of several users by their unique IDs in one call, for services that need to
+     * resolve many users at once instead of calling {@link #getUserById} per user.
+     * IDs that match no user are left out of the response; duplicate IDs are returned once.
+     * Profile summaries are not included.
+     *
+     * @param userIds A JSON array of up to 200 user UUIDs.
+     * @return ResponseEntity containing the list of {@link UserSummaryDto} found, in request order (200 OK),
+     * or 400 Bad Request if the list is missing, empty or too long.
+     * Example Request Body:
+     * <pre>{@code
+     * ["user-uuid-1", "user-uuid-2", "unknown-uuid"]
+     * }</pre>
+     * Example Success Response (200 OK):
+     * <pre>{@code
+     * [
+     * {"id": "user-uuid-1", "username": "userOne", "firstName": "User", "lastName": "One", "location": "Berlin", "artistProfile": null, "producerProfile": null},
+     * {"id": "user-uuid-2", "username": "userTwo", "firstName": "User", "lastName": "Two", "location": null, "artistProfile": null, "producerProfile": null}
+     * ]
+     * }</pre>
+     */
+    ResponseEntity<List<UserSummaryDto>> getUsersByIds(List<UUID> userIds);
 
     /**
      * Updates the location for the currently authenticated user.
@@ -180,12 +214,19 @@ public interface UserController {
      * @param searchTerm              Optional string to match against username, first name, and last name.
      * @param genreIds                Optional list of Genre UUIDs to filter by (users must have at least one).
      * @param skillIds                Optional list of Skill UUIDs to filter by (users must have at least one in their artist profile).
+     * @param matchAllGenres           Optional; if true, users must have all of {@code genreIds} instead of at least one.
+     * @param matchAllSkills          Optional; if true, users must have all of {@code skillIds} instead of at least one.
      * @param hasArtist               Optional boolean to filter by the existence of an artist profile.
      * @param hasProducer             Optional boolean to filter by the existence of a producer profile.
      * @param artistExperienceLevel   Optional experience level to filter artists by.
      * @param artistAvailability      Optional boolean to filter artists by their availability.
      * @param producerExperienceLevel Optional experience level to filter producers by.
      * @param producerAvailability    Optional boolean to filter producers by their availability.
+     * @param orderByRelevance        Optional; if true and a search term is given, results are ordered by how well
+     *                                the term matches username, first or last name (best first), ignoring the sort
+     *                                of {@code pageable}.
+     * @param fields                  Optional comma-separated list of properties to return for each user, as for
+     *                                {@link #getCurrentUser}. Without a profile property the profiles are not joined.
      * @param pageable                Pagination information (page number, size, sort).
      * @return A ResponseEntity containing a paginated list of {@link UserSummaryDto} objects
      * matching the criteria, or an error status.
@@ -216,15 +257,139 @@ public interface UserController {
             @RequestParam(required = false) String searchTerm,
             @RequestParam(required = false) List<UUID> genreIds,
             @RequestParam(required = false) List<UUID> skillIds,
+            @RequestParam(required = false) Boolean matchAllGenres,
+            @RequestParam(required = false) Boolean matchAllSkills,
             @RequestParam(required = false) Boolean hasArtist,
             @RequestParam(required = false) Boolean hasProducer,
             @RequestParam(required = false) ExperienceLevel artistExperienceLevel,
             @RequestParam(required = false) Boolean artistAvailability,
             @RequestParam(required = false) ExperienceLevel producerExperienceLevel,
             @RequestParam(required = false) Boolean producerAvailability,
+            @RequestParam(required = false) Boolean orderByRelevance,
+            @RequestParam(required = false) String fields,
             Pageable pageable
     );
 
+    /**
+     * Keyset-paginated variant of {@link #searchUsers}, selected by the presence of the {@code cursor} request
+     * parameter. Results are ordered by username and no total count is computed, so every slice costs the same
+     * regardless of depth. Pass an empty cursor for the first slice and the returned {@code nextCursor} for every
+     * following slice; {@code hasNext} is false on the last one.
+     *
+     * @param jwt                     The JWT token representing the authenticated principal (caller).
+     * @param searchTerm              Optional string to match against username, first name, and last name.
+     * @param genreIds                Optional list of Genre UUIDs to filter by (users must have at least one).
+     * @param skillIds                Optional list of Skill UUIDs to filter by (users must have at least one in their artist profile).
+     * @param matchAllGenres           Optional; if true, users must have all of {@code genreIds} instead of at least one.
+     * @param matchAllSkills          Optional; if true, users must have all of {@code skillIds} instead of at least one.
+     * @param hasArtist               Optional boolean to filter by the existence of an artist profile.
+     * @param hasProducer             Optional boolean to filter by the existence of a producer profile.
+     * @param artistExperienceLevel   Optional experience level to filter artists by.
+     * @param artistAvailability      Optional boolean to filter artists by their availability.
+     * @param producerExperienceLevel Optional experience level to filter producers by.
+     * @param producerAvailability    Optional boolean to filter producers by their availability.
+     * @param cursor                  Opaque cursor from the previous response, or empty for the first slice.
+     * @param size                    Number of users per slice (1-500, default 20).
+     * @param fields                  Optional comma-separated list of properties to return for each user, as for
+     *                                {@link #getCurrentUser}.
+     * @return A ResponseEntity containing a {@link UserSearchSliceDto} (200 OK),
+     * or 400 Bad Request for a malformed cursor or size.
+     * Example Success Response (200 OK):
+     * <pre>{@code
+     * {
+     * "content": [
+     * {"id": "user1-uuid", "username": "userOne", "firstName": "User", "lastName": "One", "location": "City A", ...}
+     * ],
+     * "hasNext": true,
+     * "nextCursor": "dXNlcjEtdXVpZDp1c2VyT25l"
+     * }
+     * }</pre>
+     */
+    ResponseEntity<UserSearchSliceDto> searchUsersByCursor(
+            Jwt jwt,
+            @RequestParam(required = false) String searchTerm,
+            @RequestParam(required = false) List<UUID> genreIds,
+            @RequestParam(required = false) List<UUID> skillIds,
+            @RequestParam(required = false) Boolean matchAllGenres,
+            @RequestParam(required = false) Boolean matchAllSkills,
+            @RequestParam(required = false) Boolean hasArtist,
+            @RequestParam(required = false) Boolean hasProducer,
+            @RequestParam(required = false) ExperienceLevel artistExperienceLevel,
+            @RequestParam(required = false) Boolean artistAvailability,
+            @RequestParam(required = false) ExperienceLevel producerExperienceLevel,
+            @RequestParam(required = false) Boolean producerAvailability,
+            String cursor,
+            int size,
+            @RequestParam(required = false) String fields
+    );
+
+    /**
+     * Counts the facets of a user search for the given filters, to display next to each filter option.
+     * Each count applies every other selected filter but not the ones of its own facet, i.e. it is the number
+     * of results the search would return with that value selected. The current user is never counted.
+     *
+     * @param jwt                     The JWT token representing the authenticated principal (caller).
+     * @param searchTerm              Optional string to match against username, first name, and last name.
+     * @param genreIds                Optional list of Genre UUIDs to filter by (users must have at least one).
+     * @param skillIds                Optional list of Skill UUIDs to filter by (users must have at least one in their artist profile).
+     * @param matchAllGenres          Optional; if true, users must have all of {@code genreIds} instead of at least one.
+     * @param matchAllSkills          Optional; if true, users must have all of {@code skillIds} instead of at least one.
+     * @param hasArtist               Optional boolean to filter by the existence of an artist profile.
+     * @param hasProducer             Optional boolean to filter by the existence of a producer profile.
+     * @param artistExperienceLevel   Optional experience level to filter artists by.
+     * @param artistAvailability      Optional boolean to filter artists by their availability.
+     * @param producerExperienceLevel Optional experience level to filter producers by.
+     * @param producerAvailability    Optional boolean to filter producers by their availability.
+     * @return A ResponseEntity containing the {@link UserFacetCountsDto} (200 OK), or an error status.
+     * Example Success Response (200 OK):
+     * <pre>{@code
+     * {
+     * "total": 1204,
+     * "genres": {"genre1-uuid": 1204, "genre2-uuid": 311},
+     * "skills": {"skill1-uuid": 420},
+     * "artistExperienceLevels": {"BEGINNER": 200, "INTERMEDIATE": 390, "ADVANCED": 250, "EXPERT": 64},
+     * "producerExperienceLevels": {"BEGINNER": 41, "INTERMEDIATE": 102, "ADVANCED": 87, "EXPERT": 20},
+     * "availableArtists": 512, "unavailableArtists": 392,
+     * "availableProducers": 130, "unavailableProducers": 120,
+     * "artists": 904, "producers": 250
+     * }
+     * }</pre>
+     */
+    ResponseEntity<UserFacetCountsDto> getSearchFacets(
+            Jwt jwt,
+            @RequestParam(required = false) String searchTerm,
+            @RequestParam(required = false) List<UUID> genreIds,
+            @RequestParam(required = false) List<UUID> skillIds,
+            @RequestParam(required = false) Boolean matchAllGenres,
+            @RequestParam(required = false) Boolean matchAllSkills,
+            @RequestParam(required = false) Boolean hasArtist,
+            @RequestParam(required = false) Boolean hasProducer,
+            @RequestParam(required = false) ExperienceLevel artistExperienceLevel,
+            @RequestParam(required = false) Boolean artistAvailability,
+            @RequestParam(required = false) ExperienceLevel producerExperienceLevel,
+            @RequestParam(required = false) Boolean producerAvailability
+    );
+
+    /**
+     * Suggests users for mention and autocomplete inputs whose username, full name or last name starts with the
+     * given prefix (case-insensitive). Username matches come first. Answered from an in-memory index without
+     * querying the database per keystroke; the current user and users blocked in either direction are excluded.
+     *
+     * @param jwt    The JWT token representing the authenticated principal (caller).
+     * @param prefix The typed prefix.
+     * @param limit  Maximum number of suggestions (1-50, default 10).
+     * @return A ResponseEntity containing a list of {@link UserSuggestionDto} objects (200 OK),
+     * or 400 Bad Request for an invalid limit.
+     * Example Success Response (200 OK):
+     * <pre>{@code
+     * [
+     * {"id": "user1-uuid", "username": "jazz", "firstName": "Jazz", "lastName": "Player"},
+     * {"id": "user2-uuid", "username": "jazzmaster99", "firstName": "Ondrej", "lastName": "Novak"}
+     * ]
+     * }</pre>
+     */
+    ResponseEntity<List<UserSuggestionDto>> suggestUsers(Jwt jwt, String prefix, int limit);
+
     /**
      * Finds potential collaborators for the currently authenticated user.
      * The matching logic is based on criteria such as shared genres, complementary profile types (artist/producer),
@@ -257,4 +422,65 @@ public interface UserController {
      * }</pre>
      */
     ResponseEntity<Page<UserSummaryDto>> findMatches(Jwt jwt, Pageable pageable);
+
+    /**
+     * Cursor-paginated variant of {@link #findMatches(Jwt, Pageable)}, selected by the presence of the
+     * {@code cursor} request parameter. Pass an empty cursor for the first page and the returned
+     * {@code nextCursor} for every following page. Results do not shift between requests the way
+     * page numbers can, and deep pages are cheap.
+     *
+     * @param jwt    The JWT token representing the authenticated principal.
+     * @param cursor Opaque cursor from the previous response, or empty for the first page.
+     * @param size   Number of matches per page (1-100, default 10).
+     * @return A ResponseEntity containing a {@link MatchCursorPageDto} (200 OK),
+     * 400 Bad Request for a malformed cursor or size, or 404 Not Found if the current user is not active.
+     * Example Success Response (200 OK):
+     * <pre>{@code
+     * {
+     * "content": [
+     * {"id": "match1-uuid", "username": "matchOne", "firstName": "Match", "lastName": "One", "location": "City X", ...}
+     * ],
+     * "nextCursor": "MjAuMDptYXRjaE9uZQ"
+     * }
+     * }</pre>
+     */
+    ResponseEntity<MatchCursorPageDto> findMatchesByCursor(Jwt jwt, String cursor, int size);
+
+    /**
+     * Streams the current user's matches as newline-delimited JSON ({@code application/x-ndjson}),
+     * one {@link UserSummaryDto} per line in ranking order. Entries are written as soon as their chunk of the
+     * ranking is final, so the first matches arrive without waiting for the whole ranking. The ranking is produced
+     * only as fast as the client reads.
+     *
+     * @param jwt   The JWT token representing the authenticated principal.
+     * @param limit Maximum number of matches to stream (1-1000, default 200).
+     * @return A streaming response (200 OK), 400 Bad Request for an invalid limit,
+     * or 404 Not Found if the current user is not active.
+     * Example Success Response (200 OK):
+     * <pre>{@code
+     * {"id": "match1-uuid", "username": "matchOne", "firstName": "Match", "lastName": "One", ...}
+     * {"id": "match2-uuid", "username": "matchTwo", "firstName": "Match", "lastName": "Two", ...}
+     * }</pre>
+     */
+    ResponseEntity<StreamingResponseBody> streamMatchesAsNdjson(Jwt jwt, int limit);
+
+    /**
+     * Server-Sent Events ({@code text/event-stream}) variant of {@link #streamMatchesAsNdjson(Jwt, int)}.
+     * Every match is sent as a {@code match} event whose id is its rank; an {@code end} event closes the stream.
+     *
+     * @param jwt   The JWT token representing the authenticated principal.
+     * @param limit Maximum number of matches to stream (1-1000, default 200).
+     * @return A streaming response (200 OK), 400 Bad Request for an invalid limit,
+     * or 404 Not Found if the current user is not active.
+     * Example Success Response (200 OK):
+     * <pre>{@code
+     * id: 1
+     * event: match
+     * data: {"id": "match1-uuid", "username": "matchOne", ...}
+     *
+     * event: end
+     * data: 1
+     * }</pre>
+     */
+    ResponseEntity<StreamingResponseBody> streamMatchesAsEvents(Jwt jwt, int limit);
 }
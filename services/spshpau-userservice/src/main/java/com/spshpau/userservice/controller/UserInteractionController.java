@@ -1,7 +1,8 @@
 package com.spshpau.userservice.controller;
 
+import com.spshpau.userservice.dto.userdto.ConnectionSuggestionDto;
+import com.spshpau.userservice.dto.userdto.UserSearchSliceDto;
 import com.spshpau.userservice.dto.userdto.UserSummaryDto;
-import com.spshpau.userservice.model.User;
 import com.spshpau.userservice.services.enums.InteractionStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -11,6 +12,7 @@ import org.springframework.web.bind.annotation.PathVariable;
 
 
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 public interface UserInteractionController {
@@ -36,7 +38,7 @@ public interface UserInteractionController {
      * @param requesterId The UUID of the user who sent the connection request.
      * @param jwt         The JWT token of the authenticated user (acceptor).
      * @return ResponseEntity with 200 OK if the request is successfully accepted,
-     * or an error status (e.g., if the request doesn't exist, or users not found).
+     * or an error status (e.g., if the request doesn't exist, users not found, or a block exists between them).
      * Example Success Response (200 OK):
      * (Empty Body, or could return the updated connection details if designed so)
      */
@@ -146,6 +148,52 @@ public interface UserInteractionController {
      */
     ResponseEntity<Page<UserSummaryDto>> getMyPendingOutgoing(Pageable pageable, Jwt jwt);
 
+    // --- Connection Graph ---
+
+    /**
+     * Counts the connections the currently authenticated user shares with each of several other users, for
+     * "N mutual connections" badges on list views. Served from the in-memory connection graph.
+     * The authenticated user's own ID is left out of the response; unknown IDs count 0.
+     *
+     * @param otherUserIds A JSON array of up to 200 user UUIDs.
+     * @param jwt          The JWT token of the authenticated user.
+     * @return ResponseEntity containing a map from user UUID to the number of mutual connections, in request order
+     * (200 OK), 400 Bad Request if the list is missing, empty or too long, or 404 if the authenticated user is not found.
+     * Example Request Body:
+     * <pre>{@code
+     * ["user-uuid-1", "user-uuid-2"]
+     * }</pre>
+     * Example Success Response (200 OK):
+     * <pre>{@code
+     * {
+     * "user-uuid-1": 4,
+     * "user-uuid-2": 0
+     * }
+     * }</pre>
+     */
+    ResponseEntity<Map<UUID, Integer>> getMutualConnectionCounts(List<UUID> otherUserIds, Jwt jwt);
+
+    /**
+     * Suggests people the currently authenticated user's connections are connected to, ranked by the number of
+     * connections they share. Current connections, pending requests and blocked users in either direction are
+     * never suggested.
+     *
+     * @param limit The maximum number of suggestions (1-100, default 20).
+     * @param jwt   The JWT token of the authenticated user.
+     * @return ResponseEntity containing a List of {@link ConnectionSuggestionDto} (200 OK),
+     * 400 Bad Request for an invalid limit, or 404 if the authenticated user is not found.
+     * Example Success Response (200 OK):
+     * <pre>{@code
+     * [
+     * {
+     * "user": {"id": "user3-uuid", "username": "userThree", "firstName": "User", "lastName": "Three", "location": "City C", ...},
+     * "mutualConnections": 5
+     * }
+     * ]
+     * }</pre>
+     */
+    ResponseEntity<List<ConnectionSuggestionDto>> getConnectionSuggestions(int limit, Jwt jwt);
+
     // --- Blocking ---
 
     /**
@@ -174,21 +222,20 @@ public interface UserInteractionController {
     ResponseEntity<Void> unblockUser(@PathVariable UUID blockedId, Jwt jwt);
 
     /**
-     * Retrieves a paginated list of users blocked by the currently authenticated user.
-     * (Note: The return type in the interface is Page<User>, so the example reflects full User objects,
-     * which might include sensitive information not usually exposed. Often this might return UserSummaryDto).
+     * Retrieves a paginated list of users blocked by the currently authenticated user, ordered by username.
+     * Any sort requested through the pageable is ignored.
      *
      * @param pageable Pagination information.
      * @param jwt      The JWT token of the authenticated user.
-     * @return ResponseEntity containing a Page of {@link User} objects representing blocked users.
+     * @return ResponseEntity containing a Page of {@link UserSummaryDto} objects representing blocked users.
      * Example Success Response (200 OK):
      * <pre>{@code
      * {
      * "content": [
      * {
-     * "id": "blocked1-uuid", "username": "blockedUserOne", "email": "blocked1@example.com",
-     * "firstName": "Blocked", "lastName": "UserOne", "location": "Somewhere", "active": true,
-     * "blockedUsers": [], "producerProfile": null, "artistProfile": null
+     * "id": "blocked1-uuid", "username": "blockedUserOne",
+     * "firstName": "Blocked", "lastName": "UserOne", "location": "Somewhere",
+     * "artistProfile": null, "producerProfile": null
      * }
      * ],
      * "pageable": {...},
@@ -198,7 +245,31 @@ public interface UserInteractionController {
      * }
      * }</pre>
      */
-    ResponseEntity<Page<User>> getMyBlockedUsers(Pageable pageable, Jwt jwt);
+    ResponseEntity<Page<UserSummaryDto>> getMyBlockedUsers(Pageable pageable, Jwt jwt);
+
+    /**
+     * Retrieves the users blocked by the currently authenticated user with keyset pagination, in the same order as
+     * {@link #getMyBlockedUsers}. Selected over the paged variant when a {@code cursor} parameter is present; pass
+     * it empty for the first slice and then the {@code nextCursor} of the previous response. No total count is
+     * computed and deep slices cost the same as the first one, for accounts with very long block lists.
+     *
+     * @param cursor Opaque cursor from the previous response, or empty for the first slice.
+     * @param size   Number of users per slice (1-500, default 20).
+     * @param jwt    The JWT token of the authenticated user.
+     * @return ResponseEntity containing a {@link UserSearchSliceDto} (200 OK),
+     * or 400 Bad Request for a malformed cursor or size.
+     * Example Success Response (200 OK):
+     * <pre>{@code
+     * {
+     * "content": [
+     * {"id": "blocked1-uuid", "username": "blockedUserOne", "firstName": "Blocked", "lastName": "UserOne", ...}
+     * ],
+     * "hasNext": true,
+     * "nextCursor": "YmxvY2tlZDEtdXVpZDpibG9ja2VkVXNlck9uZQ"
+     * }
+     * }</pre>
+     */
+    ResponseEntity<UserSearchSliceDto> getMyBlockedUsersByCursor(String cursor, int size, Jwt jwt);
 
     // --- Status ---
 
@@ -221,4 +292,27 @@ public interface UserInteractionController {
      */
     ResponseEntity<InteractionStatus> getInteractionStatus(@PathVariable UUID otherUserId, Jwt jwt);
 
+    /**
+     * Retrieves the interaction status between the currently authenticated user and several other users in one
+     * call, for list views such as search results and matches that show a status badge on every row.
+     * IDs that match no user are left out of the response; duplicate IDs are returned once.
+     *
+     * @param otherUserIds A JSON array of up to 200 user UUIDs.
+     * @param jwt          The JWT token of the authenticated user.
+     * @return ResponseEntity containing a map from user UUID to {@link InteractionStatus}, in request order (200 OK),
+     * 400 Bad Request if the list is missing, empty or too long, or 404 if the authenticated user is not found.
+     * Example Request Body:
+     * <pre>{@code
+     * ["user-uuid-1", "user-uuid-2"]
+     * }</pre>
+     * Example Success Response (200 OK):
+     * <pre>{@code
+     * {
+     * "user-uuid-1": "CONNECTION_ACCEPTED",
+     * "user-uuid-2": "PENDING_INCOMING"
+     * }
+     * }</pre>
+     */
+    ResponseEntity<Map<UUID, InteractionStatus>> getInteractionStatuses(List<UUID> otherUserIds, Jwt jwt);
+
 }
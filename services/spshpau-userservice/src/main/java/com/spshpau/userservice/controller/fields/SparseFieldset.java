@@ -0,0 +1,21 @@
+package com.spshpau.userservice.controller.fields;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a handler whose user DTOs are trimmed to the properties named by the {@code fields} request parameter,
+ * see {@link com.spshpau.userservice.dto.userdto.UserFieldSelection}.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface SparseFieldset {
+
+    /**
+     * @return The property of the response body holding the list of user DTOs (e.g. {@code content} of a page),
+     * or an empty string if the body is a single user DTO.
+     */
+    String items() default "";
+}
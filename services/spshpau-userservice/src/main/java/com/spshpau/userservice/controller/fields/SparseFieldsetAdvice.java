@@ -0,0 +1,83 @@
+package com.spshpau.userservice.controller.fields;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.spshpau.userservice.dto.userdto.UserFieldSelection;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Removes the properties not named by the {@code fields} parameter from the responses of
+ * {@link SparseFieldset} handlers, before they are written as JSON.
+ * <p>
+ * The handlers pass the same selection to the services, which leave unselected parts unloaded; this advice makes
+ * sure they are also left out of the payload, including from views the services served from a cache.
+ */
+@ControllerAdvice
+@RequiredArgsConstructor
+public class SparseFieldsetAdvice implements ResponseBodyAdvice<Object> {
+
+    public static final String FIELDS_PARAMETER = "fields";
+
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return returnType.hasMethodAnnotation(SparseFieldset.class)
+                && MappingJackson2HttpMessageConverter.class.isAssignableFrom(converterType);
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (body == null || !(request instanceof ServletServerHttpRequest servletRequest)) {
+            return body;
+        }
+        UserFieldSelection fields;
+        try {
+            fields = UserFieldSelection.parse(servletRequest.getServletRequest().getParameter(FIELDS_PARAMETER));
+        } catch (IllegalArgumentException e) {
+            // Rejected by the handler already, unless it failed before parsing; the body is an error then
+            return body;
+        }
+        if (fields.isAll()) {
+            return body;
+        }
+
+        JsonNode tree = objectMapper.valueToTree(body);
+        String items = returnType.getMethodAnnotation(SparseFieldset.class).items();
+        JsonNode users = items.isEmpty() ? tree : tree.path(items);
+        if (users.isArray()) {
+            users.forEach(user -> retain(user, fields));
+        } else {
+            retain(users, fields);
+        }
+        return tree;
+    }
+
+    private static void retain(JsonNode user, UserFieldSelection fields) {
+        if (!(user instanceof ObjectNode userObject)) {
+            return;
+        }
+        Map<String, Set<String>> selected = fields.getSelected();
+        userObject.retain(selected.keySet());
+        selected.forEach((field, nested) -> {
+            if (nested != null && userObject.get(field) instanceof ObjectNode nestedObject) {
+                nestedObject.retain(nested);
+            }
+        });
+    }
+}
@@ -0,0 +1,49 @@
+package com.spshpau.userservice.controller.impl;
+
+import com.spshpau.userservice.controller.EventFeedController;
+import com.spshpau.userservice.dto.eventdto.DomainEventFeedDto;
+import com.spshpau.userservice.services.EventFeedService;
+import com.spshpau.userservice.services.exceptions.EventsExpiredException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+@RestController
+@RequestMapping("/api/v1/events")
+@RequiredArgsConstructor
+public class EventFeedControllerImpl implements EventFeedController {
+    private static final int MAX_FEED_LIMIT = 1000;
+
+    private final EventFeedService eventFeedService;
+
+    @Override
+    @GetMapping
+    @PreAuthorize("hasRole('client_admin')")
+    public ResponseEntity<DomainEventFeedDto> getEvents(@RequestParam(defaultValue = "0") long after,
+                                                        @RequestParam(defaultValue = "100") int limit) {
+        if (after < 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "After must not be negative");
+        }
+        if (limit < 1 || limit > MAX_FEED_LIMIT) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Limit must be between 1 and " + MAX_FEED_LIMIT);
+        }
+        try {
+            return ResponseEntity.ok(eventFeedService.getEventsAfter(after, limit));
+        } catch (EventsExpiredException ex) {
+            throw new ResponseStatusException(HttpStatus.GONE, ex.getMessage(), ex);
+        }
+    }
+
+    @Override
+    @GetMapping("/head")
+    @PreAuthorize("hasRole('client_admin')")
+    public ResponseEntity<Long> getHeadPosition() {
+        return ResponseEntity.ok(eventFeedService.getHeadPosition());
+    }
+}
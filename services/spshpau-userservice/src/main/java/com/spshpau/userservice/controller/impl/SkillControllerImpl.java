@@ -16,6 +16,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
@@ -65,10 +66,15 @@ public class SkillControllerImpl implements SkillController {
     @Override
     @GetMapping
     public ResponseEntity<Page<SkillSummaryDto>> getAllSkills(
-            @PageableDefault(size = 20, sort = "name") Pageable pageable) {
+            @PageableDefault(size = 20, sort = "name") Pageable pageable, WebRequest request) {
         try {
+            // Served from the in-process catalog snapshot, so revalidation needs no query
+            String etag = skillService.getSkillCatalog().etag();
+            if (request.checkNotModified(etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            }
             Page<SkillSummaryDto> skillPage = skillService.getAllSkills(pageable);
-            return ResponseEntity.ok(skillPage);
+            return ResponseEntity.ok().eTag(etag).body(skillPage);
         } catch (Exception ex) {
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Error retrieving skills", ex);
         }
@@ -1,26 +1,36 @@
 package com.spshpau.userservice.controller.impl;
 
 import com.spshpau.userservice.controller.UserController;
+import com.spshpau.userservice.controller.fields.SparseFieldset;
 import com.spshpau.userservice.dto.userdto.LocationUpdateRequest;
+import com.spshpau.userservice.dto.userdto.MatchCursorPageDto;
 import com.spshpau.userservice.dto.userdto.UserDetailDto;
+import com.spshpau.userservice.dto.userdto.UserFacetCountsDto;
+import com.spshpau.userservice.dto.userdto.UserFieldSelection;
 import com.spshpau.userservice.dto.userdto.UserSearchCriteria;
+import com.spshpau.userservice.dto.userdto.UserSearchSliceDto;
+import com.spshpau.userservice.dto.userdto.UserSuggestionDto;
 import com.spshpau.userservice.dto.userdto.UserSummaryDto;
-import com.spshpau.userservice.model.User;
 import com.spshpau.userservice.model.enums.ExperienceLevel;
 import com.spshpau.userservice.services.UserService;
 import com.spshpau.userservice.services.exceptions.UserNotFoundException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
 import java.util.List;
 import java.util.UUID;
 
@@ -28,11 +38,20 @@ import java.util.UUID;
 @RequestMapping("/api/v1/users")
 public class UserControllerImpl implements UserController {
 
+    private static final int MAX_MATCH_PAGE_SIZE = 100;
+    private static final int MAX_MATCH_STREAM_LIMIT = 1000;
+    private static final int MAX_SEARCH_SLICE_SIZE = 500;
+    private static final int MAX_SUGGESTIONS = 50;
+    private static final int MAX_BATCH_LOOKUP_SIZE = 200;
+    private static final String NDJSON_VALUE = "application/x-ndjson";
+
     private final UserService userService;
+    private final ObjectMapper objectMapper;
 
     @Autowired
-    public UserControllerImpl(UserService userService) {
+    public UserControllerImpl(UserService userService, ObjectMapper objectMapper) {
         this.userService = userService;
+        this.objectMapper = objectMapper;
     }
 
     // Helper method to extract UUID from JWT
@@ -51,11 +70,22 @@ public class UserControllerImpl implements UserController {
         }
     }
 
+    // Helper method to parse the fields parameter of sparse fieldset handlers
+    private UserFieldSelection parseFields(String fields) {
+        try {
+            return UserFieldSelection.parse(fields);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
     @Override
     @GetMapping("/me")
-    public ResponseEntity<UserDetailDto> getCurrentUser(@AuthenticationPrincipal Jwt jwt) {
+    @SparseFieldset
+    public ResponseEntity<UserDetailDto> getCurrentUser(@AuthenticationPrincipal Jwt jwt,
+                                                        @RequestParam(required = false) String fields) {
         UUID userUuid = getUserIdFromJwt(jwt);
-        return userService.getUserDetailById(userUuid)
+        return userService.getUserDetailById(userUuid, parseFields(fields))
                 .map(user -> {
                     return ResponseEntity.ok(user);
                 })
@@ -67,29 +97,36 @@ public class UserControllerImpl implements UserController {
 
     @Override
     @GetMapping("/search/username/{username}")
-    public ResponseEntity<UserDetailDto> getUserByUsername(@PathVariable String username) {
-        return userService.getUserDetailByUsername(username)
+    @SparseFieldset
+    public ResponseEntity<UserDetailDto> getUserByUsername(@PathVariable String username,
+                                                           @RequestParam(required = false) String fields) {
+        return userService.getUserDetailByUsername(username, parseFields(fields))
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @Override
     @GetMapping("/search/id/{userId}")
-    public ResponseEntity<UserSummaryDto> getUserById(@PathVariable UUID userId) {
-        User user = userService.getUserEntityById(userId).orElse(null);
-
-        if (user == null) {
+    @SparseFieldset
+    public ResponseEntity<UserSummaryDto> getUserById(@PathVariable UUID userId,
+                                                      @RequestParam(required = false) String fields) {
+        parseFields(fields);
+        // The summary never includes the profiles, so one projected select serves every selection
+        List<UserSummaryDto> found = userService.getUserSummariesByIds(List.of(userId));
+        if (found.isEmpty()) {
             return ResponseEntity.notFound().build();
         }
+        return ResponseEntity.ok(found.get(0));
+    }
 
-        UserSummaryDto dto = new UserSummaryDto();
-        dto.setId(user.getId());
-        dto.setUsername(user.getUsername());
-        dto.setFirstName(user.getFirstName());
-        dto.setLastName(user.getLastName());
-        dto.setLocation(user.getLocation());
-
-        return ResponseEntity.ok(dto);
+    @Override
+    @PostMapping("/batch")
+    public ResponseEntity<List<UserSummaryDto>> getUsersByIds(@RequestBody(required = false) List<UUID> userIds) {
+        if (userIds == null || userIds.isEmpty() || userIds.size() > MAX_BATCH_LOOKUP_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Between 1 and " + MAX_BATCH_LOOKUP_SIZE + " user IDs must be given");
+        }
+        return ResponseEntity.ok(userService.getUserSummariesByIds(userIds));
     }
 
     @Override
@@ -176,38 +213,143 @@ public class UserControllerImpl implements UserController {
 
     @Override
     @GetMapping("/search/filter")
+    @SparseFieldset(items = "content")
     public ResponseEntity<Page<UserSummaryDto>> searchUsers(
             @AuthenticationPrincipal Jwt jwt,
             @RequestParam(required = false) String searchTerm,
             @RequestParam(required = false) List<UUID> genreIds,
             @RequestParam(required = false) List<UUID> skillIds,
+            @RequestParam(required = false) Boolean matchAllGenres,
+            @RequestParam(required = false) Boolean matchAllSkills,
             @RequestParam(required = false) Boolean hasArtist,
             @RequestParam(required = false) Boolean hasProducer,
             @RequestParam(required = false) ExperienceLevel artistExperienceLevel,
             @RequestParam(required = false) Boolean artistAvailability,
             @RequestParam(required = false) ExperienceLevel producerExperienceLevel,
             @RequestParam(required = false) Boolean producerAvailability,
+            @RequestParam(required = false) Boolean orderByRelevance,
+            @RequestParam(required = false) String fields,
             @PageableDefault(size = 10, sort = "username") Pageable pageable) {
 
         UUID currentUserId = getUserIdFromJwt(jwt);
 
+        UserSearchCriteria criteria = buildSearchCriteria(searchTerm, genreIds, skillIds, matchAllGenres, matchAllSkills,
+                hasArtist, hasProducer, artistExperienceLevel, artistAvailability, producerExperienceLevel, producerAvailability);
+        criteria.setOrderByRelevance(orderByRelevance);
+        UserFieldSelection fieldSelection = parseFields(fields);
+
+        try {
+            Page<UserSummaryDto> results = userService.findActiveUsers(currentUserId, criteria, pageable, fieldSelection);
+            return ResponseEntity.ok(results);
+        } catch (Exception ex) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Error searching users", ex);
+        }
+    }
+
+    @Override
+    @GetMapping(value = "/search/filter", params = "cursor")
+    @SparseFieldset(items = "content")
+    public ResponseEntity<UserSearchSliceDto> searchUsersByCursor(
+            @AuthenticationPrincipal Jwt jwt,
+            @RequestParam(required = false) String searchTerm,
+            @RequestParam(required = false) List<UUID> genreIds,
+            @RequestParam(required = false) List<UUID> skillIds,
+            @RequestParam(required = false) Boolean matchAllGenres,
+            @RequestParam(required = false) Boolean matchAllSkills,
+            @RequestParam(required = false) Boolean hasArtist,
+            @RequestParam(required = false) Boolean hasProducer,
+            @RequestParam(required = false) ExperienceLevel artistExperienceLevel,
+            @RequestParam(required = false) Boolean artistAvailability,
+            @RequestParam(required = false) ExperienceLevel producerExperienceLevel,
+            @RequestParam(required = false) Boolean producerAvailability,
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String fields) {
+
+        UUID currentUserId = getUserIdFromJwt(jwt);
+        if (size < 1 || size > MAX_SEARCH_SLICE_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Size must be between 1 and " + MAX_SEARCH_SLICE_SIZE);
+        }
+        // The slice is read by a single fetch-joined statement either way; the selection only trims the payload
+        parseFields(fields);
+
+        UserSearchCriteria criteria = buildSearchCriteria(searchTerm, genreIds, skillIds, matchAllGenres, matchAllSkills,
+                hasArtist, hasProducer, artistExperienceLevel, artistAvailability, producerExperienceLevel, producerAvailability);
+
+        try {
+            return ResponseEntity.ok(userService.findActiveUsersAfter(currentUserId, criteria, cursor, size));
+        } catch (IllegalArgumentException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage(), ex);
+        } catch (Exception ex) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Error searching users", ex);
+        }
+    }
+
+    @Override
+    @GetMapping("/search/facets")
+    public ResponseEntity<UserFacetCountsDto> getSearchFacets(
+            @AuthenticationPrincipal Jwt jwt,
+            @RequestParam(required = false) String searchTerm,
+            @RequestParam(required = false) List<UUID> genreIds,
+            @RequestParam(required = false) List<UUID> skillIds,
+            @RequestParam(required = false) Boolean matchAllGenres,
+            @RequestParam(required = false) Boolean matchAllSkills,
+            @RequestParam(required = false) Boolean hasArtist,
+            @RequestParam(required = false) Boolean hasProducer,
+            @RequestParam(required = false) ExperienceLevel artistExperienceLevel,
+            @RequestParam(required = false) Boolean artistAvailability,
+            @RequestParam(required = false) ExperienceLevel producerExperienceLevel,
+            @RequestParam(required = false) Boolean producerAvailability) {
+
+        UUID currentUserId = getUserIdFromJwt(jwt);
+
+        UserSearchCriteria criteria = buildSearchCriteria(searchTerm, genreIds, skillIds, matchAllGenres, matchAllSkills,
+                hasArtist, hasProducer, artistExperienceLevel, artistAvailability, producerExperienceLevel, producerAvailability);
+
+        try {
+            return ResponseEntity.ok(userService.countSearchFacets(currentUserId, criteria));
+        } catch (Exception ex) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Error counting search facets", ex);
+        }
+    }
+
+    @Override
+    @GetMapping("/search/suggest")
+    public ResponseEntity<List<UserSuggestionDto>> suggestUsers(
+            @AuthenticationPrincipal Jwt jwt,
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "10") int limit) {
+
+        UUID currentUserId = getUserIdFromJwt(jwt);
+        if (limit < 1 || limit > MAX_SUGGESTIONS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Limit must be between 1 and " + MAX_SUGGESTIONS);
+        }
+
+        try {
+            return ResponseEntity.ok(userService.suggestUsers(currentUserId, prefix, limit));
+        } catch (Exception ex) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Error suggesting users", ex);
+        }
+    }
+
+    private UserSearchCriteria buildSearchCriteria(String searchTerm, List<UUID> genreIds, List<UUID> skillIds,
+                                                   Boolean matchAllGenres, Boolean matchAllSkills,
+                                                   Boolean hasArtist, Boolean hasProducer,
+                                                   ExperienceLevel artistExperienceLevel, Boolean artistAvailability,
+                                                   ExperienceLevel producerExperienceLevel, Boolean producerAvailability) {
         UserSearchCriteria criteria = new UserSearchCriteria();
         criteria.setSearchTerm(searchTerm);
         criteria.setGenreIds(genreIds);
         criteria.setSkillIds(skillIds);
+        criteria.setMatchAllGenres(matchAllGenres);
+        criteria.setMatchAllSkills(matchAllSkills);
         criteria.setHasArtistProfile(hasArtist);
         criteria.setHasProducerProfile(hasProducer);
         criteria.setArtistExperienceLevel(artistExperienceLevel);
         criteria.setArtistAvailability(artistAvailability);
         criteria.setProducerExperienceLevel(producerExperienceLevel);
         criteria.setProducerAvailability(producerAvailability);
-
-        try {
-            Page<UserSummaryDto> results = userService.findActiveUsers(currentUserId, criteria, pageable);
-            return ResponseEntity.ok(results);
-        } catch (Exception ex) {
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Error searching users", ex);
-        }
+        return criteria;
     }
 
     @Override
@@ -227,4 +369,86 @@ public class UserControllerImpl implements UserController {
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Error finding matches", ex);
         }
     }
+
+    @Override
+    @GetMapping(value = "/matches", params = "cursor")
+    public ResponseEntity<MatchCursorPageDto> findMatchesByCursor(
+            @AuthenticationPrincipal Jwt jwt,
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+
+        UUID currentUserId = getUserIdFromJwt(jwt);
+        if (size < 1 || size > MAX_MATCH_PAGE_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Size must be between 1 and " + MAX_MATCH_PAGE_SIZE);
+        }
+
+        try {
+            return ResponseEntity.ok(userService.findMatchesAfter(currentUserId, cursor, size));
+        } catch (UserNotFoundException ex) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, ex.getMessage(), ex);
+        } catch (IllegalArgumentException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage(), ex);
+        } catch (Exception ex) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Error finding matches", ex);
+        }
+    }
+
+    @Override
+    @GetMapping(value = "/matches/stream", produces = NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamMatchesAsNdjson(
+            @AuthenticationPrincipal Jwt jwt,
+            @RequestParam(defaultValue = "200") int limit) {
+
+        Iterator<List<UserSummaryDto>> chunks = openMatchStream(jwt, limit);
+        StreamingResponseBody body = out -> {
+            while (chunks.hasNext()) {
+                for (UserSummaryDto match : chunks.next()) {
+                    out.write(objectMapper.writeValueAsBytes(match));
+                    out.write('\n');
+                }
+                // Blocks while the client is not reading, which also holds back the next chunk
+                out.flush();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON_VALUE)).body(body);
+    }
+
+    @Override
+    @GetMapping(value = "/matches/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamMatchesAsEvents(
+            @AuthenticationPrincipal Jwt jwt,
+            @RequestParam(defaultValue = "200") int limit) {
+
+        Iterator<List<UserSummaryDto>> chunks = openMatchStream(jwt, limit);
+        StreamingResponseBody body = out -> {
+            int rank = 0;
+            while (chunks.hasNext()) {
+                for (UserSummaryDto match : chunks.next()) {
+                    rank++;
+                    String event = "id: " + rank + "\nevent: match\ndata: " + objectMapper.writeValueAsString(match) + "\n\n";
+                    out.write(event.getBytes(StandardCharsets.UTF_8));
+                }
+                out.flush();
+            }
+            out.write(("event: end\ndata: " + rank + "\n\n").getBytes(StandardCharsets.UTF_8));
+            out.flush();
+        };
+        return ResponseEntity.ok().contentType(MediaType.TEXT_EVENT_STREAM).body(body);
+    }
+
+    // Validates and resolves the caller before the response is committed, so errors still map to status codes
+    private Iterator<List<UserSummaryDto>> openMatchStream(Jwt jwt, int limit) {
+        UUID currentUserId = getUserIdFromJwt(jwt);
+        if (limit < 1 || limit > MAX_MATCH_STREAM_LIMIT) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Limit must be between 1 and " + MAX_MATCH_STREAM_LIMIT);
+        }
+
+        try {
+            return userService.streamMatches(currentUserId, limit);
+        } catch (UserNotFoundException ex) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, ex.getMessage(), ex);
+        } catch (Exception ex) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Error finding matches", ex);
+        }
+    }
 }
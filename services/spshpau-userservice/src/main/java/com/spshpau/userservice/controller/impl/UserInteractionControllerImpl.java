@@ -1,8 +1,9 @@
 package com.spshpau.userservice.controller.impl;
 
 import com.spshpau.userservice.controller.UserInteractionController;
+import com.spshpau.userservice.dto.userdto.ConnectionSuggestionDto;
+import com.spshpau.userservice.dto.userdto.UserSearchSliceDto;
 import com.spshpau.userservice.dto.userdto.UserSummaryDto;
-import com.spshpau.userservice.model.User;
 import com.spshpau.userservice.services.enums.InteractionStatus;
 import com.spshpau.userservice.services.UserInteractionService;
 import com.spshpau.userservice.services.exceptions.BlockedException;
@@ -22,12 +23,17 @@ import org.springframework.web.server.ResponseStatusException;
 
 
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/v1/interactions/me")
 @RequiredArgsConstructor
 public class UserInteractionControllerImpl implements UserInteractionController {
+    private static final int MAX_BATCH_STATUS_SIZE = 200;
+    private static final int MAX_BLOCKED_SLICE_SIZE = 500;
+    private static final int MAX_CONNECTION_SUGGESTIONS = 100;
+
     private final UserInteractionService userInteractionService;
 
     // Helper Method
@@ -69,6 +75,8 @@ public class UserInteractionControllerImpl implements UserInteractionController
             return ResponseEntity.ok().build();
         } catch (EntityNotFoundException | UserNotActiveException | ConnectionException ex) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, ex.getMessage(), ex);
+        } catch (BlockedException ex) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, ex.getMessage(), ex);
         } catch (Exception ex) {
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Error accepting request", ex);
         }
@@ -131,6 +139,39 @@ public class UserInteractionControllerImpl implements UserInteractionController
     }
 
 
+    // --- Connection Graph ---
+
+    @Override
+    @PostMapping("/connections/mutual/counts")
+    public ResponseEntity<Map<UUID, Integer>> getMutualConnectionCounts(@RequestBody(required = false) List<UUID> otherUserIds,
+                                                                       @AuthenticationPrincipal Jwt jwt) {
+        UUID currentUserId = getUserIdFromJwt(jwt);
+        if (otherUserIds == null || otherUserIds.isEmpty() || otherUserIds.size() > MAX_BATCH_STATUS_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Between 1 and " + MAX_BATCH_STATUS_SIZE + " user IDs must be given");
+        }
+        try {
+            return ResponseEntity.ok(userInteractionService.countMutualConnections(currentUserId, otherUserIds));
+        } catch (EntityNotFoundException ex) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, ex.getMessage(), ex);
+        }
+    }
+
+    @Override
+    @GetMapping("/connections/suggestions")
+    public ResponseEntity<List<ConnectionSuggestionDto>> getConnectionSuggestions(@RequestParam(defaultValue = "20") int limit,
+                                                                                 @AuthenticationPrincipal Jwt jwt) {
+        UUID currentUserId = getUserIdFromJwt(jwt);
+        if (limit < 1 || limit > MAX_CONNECTION_SUGGESTIONS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Limit must be between 1 and " + MAX_CONNECTION_SUGGESTIONS);
+        }
+        try {
+            return ResponseEntity.ok(userInteractionService.suggestConnections(currentUserId, limit));
+        } catch (EntityNotFoundException ex) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, ex.getMessage(), ex);
+        }
+    }
+
     // --- Blocking ---
 
     @Override
@@ -165,7 +206,7 @@ public class UserInteractionControllerImpl implements UserInteractionController
 
     @Override
     @GetMapping("/blocks")
-    public ResponseEntity<Page<User>> getMyBlockedUsers(@PageableDefault(size=20) Pageable pageable, @AuthenticationPrincipal Jwt jwt) {
+    public ResponseEntity<Page<UserSummaryDto>> getMyBlockedUsers(@PageableDefault(size=20) Pageable pageable, @AuthenticationPrincipal Jwt jwt) {
         UUID userId = getUserIdFromJwt(jwt);
         try {
             return ResponseEntity.ok(userInteractionService.getBlockedUsers(userId, pageable));
@@ -174,6 +215,24 @@ public class UserInteractionControllerImpl implements UserInteractionController
         }
     }
 
+    @Override
+    @GetMapping(value = "/blocks", params = "cursor")
+    public ResponseEntity<UserSearchSliceDto> getMyBlockedUsersByCursor(@RequestParam String cursor,
+                                                                        @RequestParam(defaultValue = "20") int size,
+                                                                        @AuthenticationPrincipal Jwt jwt) {
+        UUID userId = getUserIdFromJwt(jwt);
+        if (size < 1 || size > MAX_BLOCKED_SLICE_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Size must be between 1 and " + MAX_BLOCKED_SLICE_SIZE);
+        }
+        try {
+            return ResponseEntity.ok(userInteractionService.getBlockedUsersAfter(userId, cursor, size));
+        } catch (EntityNotFoundException ex) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, ex.getMessage(), ex);
+        } catch (IllegalArgumentException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage(), ex);
+        }
+    }
+
     // --- Status ---
 
     @Override
@@ -187,4 +246,20 @@ public class UserInteractionControllerImpl implements UserInteractionController
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, ex.getMessage(), ex);
         }
     }
+
+    @Override
+    @PostMapping("/status/batch")
+    public ResponseEntity<Map<UUID, InteractionStatus>> getInteractionStatuses(@RequestBody(required = false) List<UUID> otherUserIds,
+                                                                            @AuthenticationPrincipal Jwt jwt) {
+        UUID currentUserId = getUserIdFromJwt(jwt);
+        if (otherUserIds == null || otherUserIds.isEmpty() || otherUserIds.size() > MAX_BATCH_STATUS_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Between 1 and " + MAX_BATCH_STATUS_SIZE + " user IDs must be given");
+        }
+        try {
+            return ResponseEntity.ok(userInteractionService.checkInteractionStatuses(currentUserId, otherUserIds));
+        } catch (EntityNotFoundException ex) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, ex.getMessage(), ex);
+        }
+    }
 }
@@ -0,0 +1,23 @@
+package com.spshpau.userservice.dto.eventdto;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import com.spshpau.userservice.model.enums.DomainEventType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DomainEventDto {
+    private long position;
+    private DomainEventType type;
+    private UUID userId;
+    private UUID otherUserId; // null for USER_UPDATED
+    private LocalDateTime occurredAt;
+    @JsonRawValue
+    private String payload; // JSON object stored by the outbox, null for connection and block events
+}
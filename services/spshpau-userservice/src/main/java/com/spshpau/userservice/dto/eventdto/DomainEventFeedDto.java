@@ -0,0 +1,16 @@
+package com.spshpau.userservice.dto.eventdto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DomainEventFeedDto {
+    private List<DomainEventDto> events;
+    private long lastPosition; // position to pass as 'after' on the next request
+    private boolean hasMore;
+}
@@ -0,0 +1,13 @@
+package com.spshpau.userservice.dto.userdto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConnectionSuggestionDto {
+    private UserSummaryDto user;
+    private int mutualConnections;
+}
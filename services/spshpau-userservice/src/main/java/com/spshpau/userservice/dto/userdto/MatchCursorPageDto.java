@@ -0,0 +1,15 @@
+package com.spshpau.userservice.dto.userdto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MatchCursorPageDto {
+    private List<UserSummaryDto> content;
+    private String nextCursor; // null when there are no further matches
+}
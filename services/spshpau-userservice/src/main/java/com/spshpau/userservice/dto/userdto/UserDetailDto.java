@@ -21,4 +21,14 @@ public class UserDetailDto {
     private boolean active;
     private ArtistProfileDetailDto artistProfile;
     private ProducerProfileDetailDto producerProfile;
+
+    public UserDetailDto(UUID id, String username, String email, String firstName, String lastName, String location, boolean active) {
+        this.id = id;
+        this.username = username;
+        this.email = email;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.location = location;
+        this.active = active;
+    }
 }
@@ -0,0 +1,31 @@
+package com.spshpau.userservice.dto.userdto;
+
+import com.spshpau.userservice.model.enums.ExperienceLevel;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Facet counts of a user search. Each count applies every selected filter except the ones of its own facet,
+ * so it is the number of results the search would have with that value selected (instead of the facet's
+ * current selection). Genres and skills without any matching user are omitted.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserFacetCountsDto {
+    private long total; // Results of the search with every filter applied
+    private Map<UUID, Long> genres;
+    private Map<UUID, Long> skills;
+    private Map<ExperienceLevel, Long> artistExperienceLevels;
+    private Map<ExperienceLevel, Long> producerExperienceLevels;
+    private long availableArtists;
+    private long unavailableArtists;
+    private long availableProducers;
+    private long unavailableProducers;
+    private long artists;
+    private long producers;
+}
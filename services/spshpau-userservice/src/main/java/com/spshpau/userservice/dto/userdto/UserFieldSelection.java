@@ -0,0 +1,117 @@
+package com.spshpau.userservice.dto.userdto;
+
+import java.util.*;
+
+/**
+ * The parts of a user DTO a caller asked for with the {@code fields} parameter, e.g.
+ * {@code fields=id,username,artistProfile.genres}.
+ * <p>
+ * Names are the JSON property names of {@link UserDetailDto} and {@link UserSummaryDto}. A profile name on its own
+ * selects the whole profile; {@code profile.property} selects single properties of it. The selection decides both
+ * which properties are serialized and which associations the services load.
+ */
+public final class UserFieldSelection {
+
+    public static final UserFieldSelection ALL = new UserFieldSelection(null);
+
+    public static final String ARTIST_PROFILE = "artistProfile";
+    public static final String PRODUCER_PROFILE = "producerProfile";
+
+    private static final Set<String> USER_FIELDS = Set.of(
+            "id", "username", "email", "firstName", "lastName", "location", "active", ARTIST_PROFILE, PRODUCER_PROFILE);
+    private static final Map<String, Set<String>> PROFILE_FIELDS = Map.of(
+            ARTIST_PROFILE, Set.of("id", "availability", "bio", "experienceLevel", "genres", "skills"),
+            PRODUCER_PROFILE, Set.of("id", "availability", "bio", "experienceLevel", "genres"));
+
+    // Selected top-level property -> selected nested properties, or null for the whole property; null for all
+    private final Map<String, Set<String>> selected;
+
+    private UserFieldSelection(Map<String, Set<String>> selected) {
+        this.selected = selected;
+    }
+
+    /**
+     * Parses a comma-separated field list.
+     *
+     * @param fields The value of the {@code fields} parameter; {@code null} or blank selects everything.
+     * @return The selection.
+     * @throws IllegalArgumentException If a name is not a property of the user DTOs.
+     */
+    public static UserFieldSelection parse(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return ALL;
+        }
+        Map<String, Set<String>> selected = new LinkedHashMap<>();
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            int dot = name.indexOf('.');
+            String parent = dot < 0 ? name : name.substring(0, dot);
+            if (!USER_FIELDS.contains(parent)) {
+                throw new IllegalArgumentException("Unknown field: " + name);
+            }
+            if (dot < 0) {
+                selected.put(parent, null);
+                continue;
+            }
+            String child = name.substring(dot + 1);
+            if (!PROFILE_FIELDS.getOrDefault(parent, Set.of()).contains(child)) {
+                throw new IllegalArgumentException("Unknown field: " + name);
+            }
+            if (!selected.containsKey(parent) || selected.get(parent) != null) {
+                selected.computeIfAbsent(parent, p -> new LinkedHashSet<>()).add(child);
+            }
+        }
+        return selected.isEmpty() ? ALL : new UserFieldSelection(selected);
+    }
+
+    /**
+     * @return {@code true} if no selection was made and the whole DTO is wanted.
+     */
+    public boolean isAll() {
+        return selected == null;
+    }
+
+    /**
+     * @param field A top-level property name.
+     * @return {@code true} if the property is selected, wholly or through one of its nested properties.
+     */
+    public boolean includes(String field) {
+        return selected == null || selected.containsKey(field);
+    }
+
+    /**
+     * @param field  A top-level property name.
+     * @param nested A property of that property.
+     * @return {@code true} if the nested property is selected.
+     */
+    public boolean includes(String field, String nested) {
+        if (selected == null) {
+            return true;
+        }
+        if (!selected.containsKey(field)) {
+            return false;
+        }
+        Set<String> nestedFields = selected.get(field);
+        return nestedFields == null || nestedFields.contains(nested);
+    }
+
+    public boolean includesProfiles() {
+        return includes(ARTIST_PROFILE) || includes(PRODUCER_PROFILE);
+    }
+
+    /**
+     * @return The selected top-level properties, each with its selected nested properties or {@code null} if
+     * selected as a whole; empty if {@link #isAll()}.
+     */
+    public Map<String, Set<String>> getSelected() {
+        return selected == null ? Map.of() : Collections.unmodifiableMap(selected);
+    }
+
+    @Override
+    public String toString() {
+        return selected == null ? "*" : selected.toString();
+    }
+}
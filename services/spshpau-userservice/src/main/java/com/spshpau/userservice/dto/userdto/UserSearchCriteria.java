@@ -11,6 +11,8 @@ import java.util.UUID;
 public class UserSearchCriteria {
     private List<UUID> genreIds; // Filter by users having profiles with ANY of these genres
     private List<UUID> skillIds; // Filter by users having artist profiles with ANY of these skills
+    private Boolean matchAllGenres; // true = users must have ALL of genreIds instead of ANY
+    private Boolean matchAllSkills; // true = users must have ALL of skillIds instead of ANY
     private Boolean hasArtistProfile; // true = must have, false = must NOT have, null = don't filter
     private Boolean hasProducerProfile; // true = must have, false = must NOT have, null = don't filter
 
@@ -23,4 +25,6 @@ public class UserSearchCriteria {
     private Boolean producerAvailability; // Filter by producer availability
 
     private String searchTerm; // General text search
+
+    private Boolean orderByRelevance; // true = order by how well the search term matches, best first
 }
@@ -0,0 +1,16 @@
+package com.spshpau.userservice.dto.userdto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserSearchSliceDto {
+    private List<UserSummaryDto> content;
+    private boolean hasNext;
+    private String nextCursor; // null when there are no further results
+}
@@ -5,6 +5,8 @@ import com.fasterxml.jackson.annotation.JsonManagedReference;
 import com.spshpau.userservice.model.enums.ExperienceLevel;
 import jakarta.persistence.*;
 import lombok.Getter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
@@ -48,6 +50,7 @@ public class ArtistProfile {
             joinColumns = @JoinColumn(name = "artist_profile_id"),
             inverseJoinColumns = @JoinColumn(name = "genre_id")
     )
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     @JsonManagedReference
     private Set<Genre> genres = new HashSet<>();
 
@@ -57,6 +60,7 @@ public class ArtistProfile {
             joinColumns = @JoinColumn(name = "artist_profile_id"),
             inverseJoinColumns = @JoinColumn(name = "skill_id")
     )
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     @JsonManagedReference
     private Set<Skill> skills = new HashSet<>();
 
@@ -0,0 +1,61 @@
+package com.spshpau.userservice.model;
+
+import com.spshpau.userservice.model.enums.DomainEventType;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A change written to the outbox in the same transaction as the change itself. {@code position} is the offset
+ * of the event in the feed read by other services; it stays {@code null} until the relay publishes the event,
+ * which happens only once the writing transaction has committed, so positions never appear out of order.
+ */
+@Entity
+@Table(name = "outbox_events",
+        uniqueConstraints = @UniqueConstraint(name = "uk_outbox_event_position", columnNames = "position"),
+        indexes = @Index(name = "idx_outbox_event_published", columnList = "published_at"))
+@Getter
+@Setter
+@NoArgsConstructor
+public class OutboxEvent {
+
+    // Identity keeps the insertion order of the events of one transaction
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "position")
+    private Long position;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "type", nullable = false, length = 32)
+    private DomainEventType type;
+
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    @Column(name = "other_user_id")
+    private UUID otherUserId;
+
+    @Column(name = "payload", columnDefinition = "TEXT")
+    private String payload;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "published_at")
+    private LocalDateTime publishedAt;
+
+    public OutboxEvent(DomainEventType type, UUID userId, UUID otherUserId, String payload) {
+        this.type = type;
+        this.userId = userId;
+        this.otherUserId = otherUserId;
+        this.payload = payload;
+    }
+}
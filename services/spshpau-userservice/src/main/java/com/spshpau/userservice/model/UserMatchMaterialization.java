@@ -0,0 +1,44 @@
+package com.spshpau.userservice.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Change-tracking marker of a user's materialized match ranking in {@code user_match_scores}.
+ * {@code dirtySince} is set when the user's matching inputs change and cleared once the ranking is recomputed.
+ */
+@Entity
+@Table(name = "user_match_materializations", indexes = {
+        @Index(name = "idx_match_materialization_dirty", columnList = "dirty_since"),
+        @Index(name = "idx_match_materialization_materialized", columnList = "materialized_at")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+public class UserMatchMaterialization {
+
+    @Id
+    @Column(name = "user_id", nullable = false, updatable = false)
+    private UUID userId;
+
+    @Column(name = "materialized_at")
+    private LocalDateTime materializedAt;
+
+    @Column(name = "dirty_since")
+    private LocalDateTime dirtySince;
+
+    @Column(name = "materialized_count", nullable = false)
+    private int materializedCount;
+
+    @Column(name = "total_matches", nullable = false)
+    private long totalMatches;
+
+    public UserMatchMaterialization(UUID userId) {
+        this.userId = userId;
+    }
+}
@@ -0,0 +1,48 @@
+package com.spshpau.userservice.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.domain.Persistable;
+
+import java.util.UUID;
+
+/**
+ * One precomputed entry of a user's match ranking. The primary key (user_id, match_rank)
+ * doubles as the index that serves a page of matches as a single range read; the match user index finds the
+ * rankings to recompute when a ranked user changes.
+ */
+@Entity
+@Table(name = "user_match_scores",
+        indexes = @Index(name = "idx_user_match_scores_match_user", columnList = "match_user_id"))
+@Getter
+@Setter
+@NoArgsConstructor
+public class UserMatchScore implements Persistable<UserMatchScoreId> {
+
+    @EmbeddedId
+    private UserMatchScoreId id;
+
+    @Column(name = "match_user_id", nullable = false)
+    private UUID matchUserId;
+
+    @Column(name = "match_username", nullable = false)
+    private String matchUsername;
+
+    @Column(nullable = false)
+    private double score;
+
+    public UserMatchScore(UUID userId, int rank, UUID matchUserId, String matchUsername, double score) {
+        this.id = new UserMatchScoreId(userId, rank);
+        this.matchUserId = matchUserId;
+        this.matchUsername = matchUsername;
+        this.score = score;
+    }
+
+    // Rows are only ever inserted after the user's previous rows were deleted
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+}
@@ -0,0 +1,16 @@
+package com.spshpau.userservice.model.enums;
+
+/**
+ * Kinds of changes published to other services through the event feed. Connection and block events carry the
+ * acting user as {@code userId} and the other user as {@code otherUserId}; {@code USER_UPDATED} carries a
+ * snapshot of the user's account fields.
+ */
+public enum DomainEventType {
+    CONNECTION_REQUESTED,
+    CONNECTION_ACCEPTED,
+    CONNECTION_REJECTED,
+    CONNECTION_REMOVED,
+    USER_BLOCKED,
+    USER_UNBLOCKED,
+    USER_UPDATED
+}
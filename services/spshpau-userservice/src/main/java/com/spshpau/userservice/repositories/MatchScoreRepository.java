@@ -0,0 +1,149 @@
+package com.spshpau.userservice.repositories;
+
+import com.spshpau.userservice.model.User;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Native PostgreSQL implementation of the match scoring formula, used when {@code matching.engine=sql}.
+ * Computes the same score as {@link com.spshpau.userservice.services.matching.MatchScorer} for every active,
+ * non-blocked user and returns only the requested slice, ordered by score (descending) and username
+ * (ascending, byte order to match Java string ordering).
+ */
+@org.springframework.stereotype.Repository
+public interface MatchScoreRepository extends org.springframework.data.repository.Repository<User, UUID> {
+
+    /**
+     * One scored row per rankable user.
+     */
+    interface MatchScoreRow {
+        UUID getUserId();
+        String getUsername();
+        Double getScore();
+    }
+
+    String SCORED_MATCHES_CTE =
+            "WITH caller_artist AS (" +
+            "    SELECT ap.user_id, " +
+            "           CASE ap.experience_level WHEN 'BEGINNER' THEN 0 WHEN 'INTERMEDIATE' THEN 1 " +
+            "                WHEN 'ADVANCED' THEN 2 WHEN 'EXPERT' THEN 3 END AS level " +
+            "    FROM artist_profiles ap WHERE ap.user_id = :userId), " +
+            "caller_producer AS (" +
+            "    SELECT pp.user_id, " +
+            "           CASE pp.experience_level WHEN 'BEGINNER' THEN 0 WHEN 'INTERMEDIATE' THEN 1 " +
+            "                WHEN 'ADVANCED' THEN 2 WHEN 'EXPERT' THEN 3 END AS level " +
+            "    FROM producer_profiles pp WHERE pp.user_id = :userId), " +
+            "caller_artist_genres AS (SELECT ag.genre_id FROM artist_genres ag WHERE ag.artist_profile_id = :userId), " +
+            "caller_producer_genres AS (SELECT pg.genre_id FROM producer_genres pg WHERE pg.producer_profile_id = :userId), " +
+            "caller_genres AS (SELECT genre_id FROM caller_artist_genres UNION SELECT genre_id FROM caller_producer_genres), " +
+            "caller_skills AS (SELECT ask.skill_id FROM artist_skills ask WHERE ask.artist_profile_id = :userId), " +
+            "excluded AS (" +
+            "    SELECT ub.blocked_id AS user_id FROM user_blocks ub WHERE ub.blocker_id = :userId " +
+            "    UNION SELECT ub.blocker_id FROM user_blocks ub WHERE ub.blocked_id = :userId), " +
+            "connected AS (" +
+            "    SELECT CASE WHEN uc.requester_id = :userId THEN uc.addressee_id ELSE uc.requester_id END AS user_id " +
+            "    FROM user_connections uc " +
+            "    WHERE (uc.requester_id = :userId OR uc.addressee_id = :userId) AND uc.status = 'ACCEPTED'), " +
+            "candidates AS (" +
+            "    SELECT u.id, u.username, " +
+            "           ap.user_id AS artist_id, ap.availability AS artist_available, " +
+            "           CASE ap.experience_level WHEN 'BEGINNER' THEN 0 WHEN 'INTERMEDIATE' THEN 1 " +
+            "                WHEN 'ADVANCED' THEN 2 WHEN 'EXPERT' THEN 3 END AS artist_level, " +
+            "           pp.user_id AS producer_id, pp.availability AS producer_available, " +
+            "           CASE pp.experience_level WHEN 'BEGINNER' THEN 0 WHEN 'INTERMEDIATE' THEN 1 " +
+            "                WHEN 'ADVANCED' THEN 2 WHEN 'EXPERT' THEN 3 END AS producer_level, " +
+            "           (c.user_id IS NOT NULL) AS is_connected " +
+            "    FROM users u " +
+            "    LEFT JOIN artist_profiles ap ON ap.user_id = u.id " +
+            "    LEFT JOIN producer_profiles pp ON pp.user_id = u.id " +
+            "    LEFT JOIN connected c ON c.user_id = u.id " +
+            "    WHERE u.active = true AND u.id <> :userId " +
+            "      AND NOT EXISTS (SELECT 1 FROM excluded e WHERE e.user_id = u.id)), " +
+            "scored AS (" +
+            "    SELECT cand.id AS user_id, cand.username, CAST(" +
+            // Rule 1: already connected penalty
+            "        (CASE WHEN cand.is_connected THEN -10 ELSE 0 END) " +
+            // Rule 2, scenario 1: caller is producer, candidate is artist; a missing level only drops the experience part
+            "      + COALESCE((SELECT 2 + " +
+            "            CASE WHEN cp.level IS NULL OR cand.artist_level IS NULL THEN 0 " +
+            "                 ELSE CASE ABS(cp.level - cand.artist_level) WHEN 0 THEN 20 WHEN 1 THEN 16 WHEN 2 THEN 12 " +
+            "                      WHEN 3 THEN 8 WHEN 4 THEN 4 ELSE 0 END END " +
+            "          + 5 * (SELECT COUNT(*) FROM artist_genres ag " +
+            "                 WHERE ag.artist_profile_id = cand.id " +
+            "                   AND ag.genre_id IN (SELECT genre_id FROM caller_producer_genres)) " +
+            "          + CASE WHEN cand.artist_available THEN 10 ELSE 0 END " +
+            "          FROM caller_producer cp WHERE cand.artist_id IS NOT NULL), 0) " +
+            // Rule 2, scenario 2: caller is artist, candidate is producer
+            "      + COALESCE((SELECT 2 + " +
+            "            CASE WHEN ca.level IS NULL OR cand.producer_level IS NULL THEN 0 " +
+            "                 ELSE CASE ABS(ca.level - cand.producer_level) WHEN 0 THEN 20 WHEN 1 THEN 16 WHEN 2 THEN 12 " +
+            "                      WHEN 3 THEN 8 WHEN 4 THEN 4 ELSE 0 END END " +
+            "          + 5 * (SELECT COUNT(*) FROM producer_genres pg " +
+            "                 WHERE pg.producer_profile_id = cand.id " +
+            "                   AND pg.genre_id IN (SELECT genre_id FROM caller_artist_genres)) " +
+            "          + CASE WHEN cand.producer_available THEN 10 ELSE 0 END " +
+            "          FROM caller_artist ca WHERE cand.producer_id IS NOT NULL), 0) " +
+            // Rule 3: shared genres across all profiles, shared skills between artists
+            "      + (SELECT COUNT(*) FROM (" +
+            "            SELECT ag.genre_id FROM artist_genres ag WHERE ag.artist_profile_id = cand.id " +
+            "            UNION SELECT pg.genre_id FROM producer_genres pg WHERE pg.producer_profile_id = cand.id) cg " +
+            "         WHERE cg.genre_id IN (SELECT genre_id FROM caller_genres)) " +
+            "      + (SELECT COUNT(*) FROM artist_skills ask " +
+            "         WHERE ask.artist_profile_id = cand.id AND ask.skill_id IN (SELECT skill_id FROM caller_skills) " +
+            "           AND EXISTS (SELECT 1 FROM caller_artist)) " +
+            "    AS double precision) AS score " +
+            "    FROM candidates cand) ";
+
+    /**
+     * Scores all rankable users for the given caller and returns one slice of the ranking.
+     * @param userId The UUID of the user looking for matches.
+     * @param limit The maximum number of rows to return.
+     * @param offset The number of leading ranked rows to skip.
+     * @return The scored rows, ordered by score (descending) and username (ascending).
+     */
+    @Query(value = SCORED_MATCHES_CTE +
+            "SELECT s.user_id AS userId, s.username AS username, s.score AS score FROM scored s " +
+            "ORDER BY s.score DESC, s.username COLLATE \"C\" ASC " +
+            "LIMIT :limit OFFSET :offset",
+            nativeQuery = true)
+    List<MatchScoreRow> findMatchScores(@Param("userId") UUID userId,
+                                        @Param("limit") int limit,
+                                        @Param("offset") long offset);
+
+    /**
+     * Scores all rankable users for the given caller and returns the rows ranked strictly after the given position.
+     * @param userId The UUID of the user looking for matches.
+     * @param afterScore The score of the last row of the previous slice.
+     * @param afterUsername The username of the last row of the previous slice.
+     * @param limit The maximum number of rows to return.
+     * @return The scored rows, ordered by score (descending) and username (ascending).
+     */
+    @Query(value = SCORED_MATCHES_CTE +
+            "SELECT s.user_id AS userId, s.username AS username, s.score AS score FROM scored s " +
+            "WHERE s.score < :afterScore " +
+            "   OR (s.score = :afterScore AND s.username COLLATE \"C\" > CAST(:afterUsername AS varchar) COLLATE \"C\") " +
+            "ORDER BY s.score DESC, s.username COLLATE \"C\" ASC " +
+            "LIMIT :limit",
+            nativeQuery = true)
+    List<MatchScoreRow> findMatchScoresAfter(@Param("userId") UUID userId,
+                                             @Param("afterScore") double afterScore,
+                                             @Param("afterUsername") String afterUsername,
+                                             @Param("limit") int limit);
+
+    /**
+     * Counts the users that take part in the caller's ranking: active users other than the caller
+     * without a block relationship to them.
+     * @param userId The UUID of the user looking for matches.
+     * @return The total number of rankable users.
+     */
+    @Query(value = "SELECT COUNT(*) FROM users u " +
+            "WHERE u.active = true AND u.id <> :userId " +
+            "  AND NOT EXISTS (SELECT 1 FROM user_blocks ub " +
+            "                  WHERE (ub.blocker_id = :userId AND ub.blocked_id = u.id) " +
+            "                     OR (ub.blocked_id = :userId AND ub.blocker_id = u.id))",
+            nativeQuery = true)
+    long countRankableUsers(@Param("userId") UUID userId);
+}
@@ -0,0 +1,66 @@
+package com.spshpau.userservice.repositories;
+
+import com.spshpau.userservice.model.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Takes a Postgres advisory lock held until the current transaction ends, so that only one instance
+     * assigns feed positions at a time.
+     * @param key The lock key.
+     * @return Always 1.
+     */
+    @Query(value = "SELECT 1 FROM pg_advisory_xact_lock(:key)", nativeQuery = true)
+    int acquireTransactionLock(@Param("key") long key);
+
+    /**
+     * Finds committed events that have not been given a feed position yet, in insertion order.
+     * @param pageable Limits the number of returned events.
+     * @return The events to publish.
+     */
+    @Query("SELECT e FROM OutboxEvent e WHERE e.position IS NULL ORDER BY e.id")
+    List<OutboxEvent> findUnpublished(Pageable pageable);
+
+    /**
+     * @return The position of the newest published event, or 0 if none was published yet.
+     */
+    @Query("SELECT COALESCE(MAX(e.position), 0) FROM OutboxEvent e")
+    long findHeadPosition();
+
+    /**
+     * @return The position of the oldest event still retained, if any event was published.
+     */
+    @Query("SELECT MIN(e.position) FROM OutboxEvent e")
+    Optional<Long> findOldestPosition();
+
+    /**
+     * Reads the feed after the given position.
+     * @param after The position of the last event the reader has seen.
+     * @param pageable An unsorted first page whose size is the number of events to load.
+     * @return The published events after {@code after}, by position.
+     */
+    @Query("SELECT e FROM OutboxEvent e WHERE e.position > :after ORDER BY e.position")
+    List<OutboxEvent> findPublishedAfter(@Param("after") long after, Pageable pageable);
+
+    /**
+     * Deletes events published before the given instant. The newest published event is always kept, as the
+     * next positions continue from it.
+     * @param threshold Events published before this instant are deleted.
+     * @return The number of deleted events.
+     */
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE e.publishedAt < :threshold " +
+            "AND e.position < (SELECT MAX(o.position) FROM OutboxEvent o)")
+    int deletePublishedBefore(@Param("threshold") LocalDateTime threshold);
+}
@@ -1,5 +1,6 @@
 package com.spshpau.userservice.repositories;
 
+import com.spshpau.userservice.dto.userdto.UserSummaryDto;
 import com.spshpau.userservice.model.UserConnection;
 import com.spshpau.userservice.model.enums.ConnectionStatus;
 import org.springframework.data.domain.Page;
@@ -10,8 +11,10 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 @Repository
@@ -43,6 +46,55 @@ public interface UserConnectionRepository extends JpaRepository<UserConnection,
     @Query("SELECT uc FROM UserConnection uc WHERE (uc.requester.id = :userId OR uc.addressee.id = :userId) AND uc.status = :status")
     List<UserConnection> findAllAcceptedConnectionsForUser(@Param("userId") UUID userId, @Param("status") ConnectionStatus status);
 
+    // Find the IDs of the users on the other side of a user's connections with the given status, without loading entities
+    @Query("SELECT CASE WHEN uc.requester.id = :userId THEN uc.addressee.id ELSE uc.requester.id END " +
+            "FROM UserConnection uc WHERE (uc.requester.id = :userId OR uc.addressee.id = :userId) AND uc.status = :status")
+    Set<UUID> findConnectedUserIds(@Param("userId") UUID userId, @Param("status") ConnectionStatus status);
+
+    // One connection between a user and another, with its direction and status
+    interface ConnectionRow {
+        UUID getRequesterId();
+        UUID getAddresseeId();
+        ConnectionStatus getStatus();
+    }
+
+    // Find the connections (pending or accepted, either direction) between a user and any of the given users, without loading entities
+    @Query("SELECT uc.requester.id AS requesterId, uc.addressee.id AS addresseeId, uc.status AS status FROM UserConnection uc WHERE " +
+            "(uc.requester.id = :userId AND uc.addressee.id IN :otherUserIds) OR " +
+            "(uc.addressee.id = :userId AND uc.requester.id IN :otherUserIds)")
+    List<ConnectionRow> findConnectionRowsBetween(@Param("userId") UUID userId, @Param("otherUserIds") Collection<UUID> otherUserIds);
+
+    // Find every connection with the given status as ID pairs only, for building the in-memory connection graph
+    @Query("SELECT uc.requester.id AS requesterId, uc.addressee.id AS addresseeId, uc.status AS status " +
+            "FROM UserConnection uc WHERE uc.status = :status")
+    List<ConnectionRow> findConnectionRowsByStatus(@Param("status") ConnectionStatus status);
+
+    // Summaries of the users on the other side of a user's connections with the given status, selected in one query
+    @Query(value = "SELECT new com.spshpau.userservice.dto.userdto.UserSummaryDto(u.id, u.username, u.firstName, u.lastName, u.location) " +
+            "FROM UserConnection uc JOIN User u ON u.id = CASE WHEN uc.requester.id = :userId THEN uc.addressee.id ELSE uc.requester.id END " +
+            "WHERE (uc.requester.id = :userId OR uc.addressee.id = :userId) AND uc.status = :status",
+            countQuery = "SELECT COUNT(uc) FROM UserConnection uc " +
+                    "WHERE (uc.requester.id = :userId OR uc.addressee.id = :userId) AND uc.status = :status")
+    Page<UserSummaryDto> findConnectedUserSummaries(@Param("userId") UUID userId, @Param("status") ConnectionStatus status, Pageable pageable);
+
+    // Summaries of the users on the other side of all of a user's connections with the given status, without pagination
+    @Query("SELECT new com.spshpau.userservice.dto.userdto.UserSummaryDto(u.id, u.username, u.firstName, u.lastName, u.location) " +
+            "FROM UserConnection uc JOIN User u ON u.id = CASE WHEN uc.requester.id = :userId THEN uc.addressee.id ELSE uc.requester.id END " +
+            "WHERE (uc.requester.id = :userId OR uc.addressee.id = :userId) AND uc.status = :status")
+    List<UserSummaryDto> findAllConnectedUserSummaries(@Param("userId") UUID userId, @Param("status") ConnectionStatus status);
+
+    // Summaries of the requesters of a user's incoming connections with the given status
+    @Query(value = "SELECT new com.spshpau.userservice.dto.userdto.UserSummaryDto(u.id, u.username, u.firstName, u.lastName, u.location) " +
+            "FROM UserConnection uc JOIN uc.requester u WHERE uc.addressee.id = :addresseeId AND uc.status = :status",
+            countQuery = "SELECT COUNT(uc) FROM UserConnection uc WHERE uc.addressee.id = :addresseeId AND uc.status = :status")
+    Page<UserSummaryDto> findRequesterSummariesByAddresseeIdAndStatus(@Param("addresseeId") UUID addresseeId, @Param("status") ConnectionStatus status, Pageable pageable);
+
+    // Summaries of the addressees of a user's outgoing connections with the given status
+    @Query(value = "SELECT new com.spshpau.userservice.dto.userdto.UserSummaryDto(u.id, u.username, u.firstName, u.lastName, u.location) " +
+            "FROM UserConnection uc JOIN uc.addressee u WHERE uc.requester.id = :requesterId AND uc.status = :status",
+            countQuery = "SELECT COUNT(uc) FROM UserConnection uc WHERE uc.requester.id = :requesterId AND uc.status = :status")
+    Page<UserSummaryDto> findAddresseeSummariesByRequesterIdAndStatus(@Param("requesterId") UUID requesterId, @Param("status") ConnectionStatus status, Pageable pageable);
+
     // Delete connection between two users
     void deleteByRequesterIdAndAddresseeId(UUID requesterId, UUID addresseeId);
 }
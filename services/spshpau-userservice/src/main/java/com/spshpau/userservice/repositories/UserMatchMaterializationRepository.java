@@ -0,0 +1,81 @@
+package com.spshpau.userservice.repositories;
+
+import com.spshpau.userservice.model.UserMatchMaterialization;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface UserMatchMaterializationRepository extends JpaRepository<UserMatchMaterialization, UUID> {
+
+    /**
+     * Finds users whose matching inputs changed since their ranking was last materialized, oldest change first.
+     * @param pageable Limits the number of returned IDs.
+     * @return The IDs of the users to recompute.
+     */
+    @Query("SELECT m.userId FROM UserMatchMaterialization m WHERE m.dirtySince IS NOT NULL ORDER BY m.dirtySince")
+    List<UUID> findDirtyUserIds(Pageable pageable);
+
+    /**
+     * Finds active users that have never been materialized.
+     * @param pageable Limits the number of returned IDs.
+     * @return The IDs of the users to materialize.
+     */
+    @Query("SELECT u.id FROM User u WHERE u.active = true " +
+            "AND NOT EXISTS (SELECT m FROM UserMatchMaterialization m WHERE m.userId = u.id)")
+    List<UUID> findUnmaterializedUserIds(Pageable pageable);
+
+    /**
+     * Finds clean materializations older than the given instant, oldest first. These may be stale because of
+     * profile changes of other users, which are not tracked per caller.
+     * @param threshold Materializations computed before this instant are returned.
+     * @param pageable Limits the number of returned IDs.
+     * @return The IDs of the users to recompute.
+     */
+    @Query("SELECT m.userId FROM UserMatchMaterialization m " +
+            "WHERE m.dirtySince IS NULL AND m.materializedAt < :threshold ORDER BY m.materializedAt")
+    List<UUID> findStaleUserIds(@Param("threshold") LocalDateTime threshold, Pageable pageable);
+
+    /**
+     * Counts clean materializations older than the given instant.
+     * @param threshold Materializations computed before this instant are counted.
+     * @return The number of rankings the refresh job has fallen behind on.
+     */
+    @Query("SELECT COUNT(m) FROM UserMatchMaterialization m WHERE m.dirtySince IS NULL AND m.materializedAt < :threshold")
+    long countStale(@Param("threshold") LocalDateTime threshold);
+
+    /**
+     * Marks the given users' materializations as dirty, keeping the original instant of those already dirty.
+     * Users without a materialization are not affected.
+     * @param userIds The IDs of the users whose rankings changed.
+     * @param now The instant of the change.
+     * @return The number of newly dirtied materializations.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE UserMatchMaterialization m SET m.dirtySince = :now WHERE m.userId IN :userIds AND m.dirtySince IS NULL")
+    int markDirty(@Param("userIds") Collection<UUID> userIds, @Param("now") LocalDateTime now);
+
+    /**
+     * @return The oldest pending change, if any materialization is dirty.
+     */
+    @Query("SELECT MIN(m.dirtySince) FROM UserMatchMaterialization m")
+    Optional<LocalDateTime> findOldestDirtySince();
+
+    /**
+     * Marks a user's materialization as clean, unless it was marked dirty again after the recomputation started.
+     * @return The number of updated rows (0 if the marker was dirtied concurrently).
+     */
+    @Modifying
+    @Query("UPDATE UserMatchMaterialization m SET m.dirtySince = NULL " +
+            "WHERE m.userId = :userId AND m.dirtySince IS NOT NULL AND m.dirtySince <= :startedAt")
+    int clearDirtyIfUnchangedSince(@Param("userId") UUID userId, @Param("startedAt") LocalDateTime startedAt);
+}
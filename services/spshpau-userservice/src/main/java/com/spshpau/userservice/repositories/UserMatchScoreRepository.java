@@ -0,0 +1,46 @@
+package com.spshpau.userservice.repositories;
+
+import com.spshpau.userservice.model.UserMatchScore;
+import com.spshpau.userservice.model.UserMatchScoreId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface UserMatchScoreRepository extends JpaRepository<UserMatchScore, UserMatchScoreId> {
+
+    /**
+     * Reads a contiguous range of a user's materialized ranking.
+     * @param userId The UUID of the user whose matches are read.
+     * @param fromRank The first rank to return (inclusive, zero-based).
+     * @param toRank The rank to stop at (exclusive).
+     * @return The materialized entries ordered by rank.
+     */
+    @Query("SELECT s FROM UserMatchScore s WHERE s.id.userId = :userId " +
+            "AND s.id.rank >= :fromRank AND s.id.rank < :toRank ORDER BY s.id.rank")
+    List<UserMatchScore> findRankRange(@Param("userId") UUID userId,
+                                       @Param("fromRank") int fromRank,
+                                       @Param("toRank") int toRank);
+
+    /**
+     * Finds the users whose materialized ranking lists any of the given users.
+     * @param matchUserIds The UUIDs of the ranked users.
+     * @return The UUIDs of the users owning those rankings.
+     */
+    @Query("SELECT DISTINCT s.id.userId FROM UserMatchScore s WHERE s.matchUserId IN :matchUserIds")
+    List<UUID> findUserIdsRanking(@Param("matchUserIds") Collection<UUID> matchUserIds);
+
+    /**
+     * Deletes a user's whole materialized ranking.
+     * @param userId The UUID of the user whose ranking is removed.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM UserMatchScore s WHERE s.id.userId = :userId")
+    void deleteAllForUser(@Param("userId") UUID userId);
+}
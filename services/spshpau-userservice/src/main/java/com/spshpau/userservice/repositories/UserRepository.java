@@ -1,18 +1,25 @@
 package com.spshpau.userservice.repositories;
 
+import com.spshpau.userservice.dto.userdto.UserDetailDto;
+import com.spshpau.userservice.dto.userdto.UserSuggestionDto;
+import com.spshpau.userservice.dto.userdto.UserSummaryDto;
 import com.spshpau.userservice.model.User;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, UUID>, JpaSpecificationExecutor<User> {
+public interface UserRepository extends JpaRepository<User, UUID>, JpaSpecificationExecutor<User>, UserSummaryQueries {
 
     /**
      * Finds a user by their username.
@@ -43,4 +50,160 @@ public interface UserRepository extends JpaRepository<User, UUID>, JpaSpecificat
      */
     @Query("SELECT u.id FROM User u JOIN u.blockedUsers bu WHERE bu.id = :userId")
     Set<UUID> findBlockerUserIdsByBlockedId(@Param("userId") UUID userId);
+
+    /**
+     * Checks the {@code user_blocks} table for a block between two users in either direction.
+     * @param userId1 One user.
+     * @param userId2 The other user.
+     * @return {@code true} if either user has blocked the other.
+     */
+    @Query("SELECT COUNT(u) > 0 FROM User u JOIN u.blockedUsers bu " +
+            "WHERE (u.id = :userId1 AND bu.id = :userId2) OR (u.id = :userId2 AND bu.id = :userId1)")
+    boolean existsBlockBetween(@Param("userId1") UUID userId1, @Param("userId2") UUID userId2);
+
+    /**
+     * One row of the {@code user_blocks} join table.
+     */
+    interface BlockRow {
+        UUID getBlockerId();
+        UUID getBlockedId();
+    }
+
+    /**
+     * Finds the block relationships of the specified user in both directions, keeping their direction.
+     * @param userId The UUID of the user.
+     * @return The rows in which the user is the blocker or the blocked user.
+     */
+    @Query("SELECT u.id AS blockerId, bu.id AS blockedId " +
+            "FROM User u JOIN u.blockedUsers bu WHERE u.id = :userId OR bu.id = :userId")
+    List<BlockRow> findBlockRowsInvolving(@Param("userId") UUID userId);
+
+    /**
+     * Finds every block relationship, as ID pairs only.
+     * @return All rows of the {@code user_blocks} join table.
+     */
+    @Query("SELECT u.id AS blockerId, bu.id AS blockedId FROM User u JOIN u.blockedUsers bu")
+    List<BlockRow> findAllBlockRows();
+
+    /**
+     * Loads one page of the summaries of the users blocked by the specified user, ordered by username and then id,
+     * joining {@code user_blocks} to {@code users} without initializing the blocker's {@code blockedUsers} collection.
+     * The order is fixed by the query, so the pageable must not carry a sort.
+     * @param blockerId The UUID of the user doing the blocking.
+     * @param pageable  Page number and size, unsorted.
+     * @return A Page of {@link UserSummaryDto} for the blocked users.
+     */
+    @Query(value = "SELECT new com.spshpau.userservice.dto.userdto.UserSummaryDto(bu.id, bu.username, bu.firstName, bu.lastName, bu.location) " +
+            "FROM User u JOIN u.blockedUsers bu WHERE u.id = :blockerId ORDER BY bu.username, bu.id",
+            countQuery = "SELECT COUNT(bu) FROM User u JOIN u.blockedUsers bu WHERE u.id = :blockerId")
+    Page<UserSummaryDto> findBlockedUserSummaries(@Param("blockerId") UUID blockerId, Pageable pageable);
+
+    /**
+     * Loads the summaries of the users blocked by the specified user that rank after the given keyset position
+     * in the (username, id) order of {@link #findBlockedUserSummaries}. Skips no rows and runs no count query,
+     * so every slice costs the same however deep into the list it is.
+     * @param blockerId The UUID of the user doing the blocking.
+     * @param username  Username of the last user of the previous slice, or an empty string for the first slice.
+     * @param id        ID of the last user of the previous slice; any ID for the first slice.
+     * @param pageable  An unsorted first page whose size is the number of rows to load.
+     * @return A List of {@link UserSummaryDto} for the next blocked users.
+     */
+    @Query("SELECT new com.spshpau.userservice.dto.userdto.UserSummaryDto(bu.id, bu.username, bu.firstName, bu.lastName, bu.location) " +
+            "FROM User u JOIN u.blockedUsers bu WHERE u.id = :blockerId " +
+            "AND (bu.username > :username OR (bu.username = :username AND bu.id > :id)) " +
+            "ORDER BY bu.username, bu.id")
+    List<UserSummaryDto> findBlockedUserSummariesAfter(@Param("blockerId") UUID blockerId,
+                                                       @Param("username") String username,
+                                                       @Param("id") UUID id,
+                                                       Pageable pageable);
+
+    /**
+     * Checks which of the given user IDs exist, without loading the users.
+     * @param ids The UUIDs to check.
+     * @return The subset of {@code ids} that belong to a user.
+     */
+    @Query("SELECT u.id FROM User u WHERE u.id IN :ids")
+    Set<UUID> findExistingIds(@Param("ids") Collection<UUID> ids);
+
+    /**
+     * Finds the IDs of all active users, without loading the users.
+     * @return The IDs of all active users.
+     */
+    @Query("SELECT u.id FROM User u WHERE u.active = true")
+    List<UUID> findAllActiveIds();
+
+    /**
+     * Loads all active users together with both profiles and their genres and skills in a single query.
+     * @return A List of active users with initialized profile graphs.
+     */
+    @Query("SELECT DISTINCT u FROM User u " +
+            "LEFT JOIN FETCH u.artistProfile ap LEFT JOIN FETCH ap.genres LEFT JOIN FETCH ap.skills " +
+            "LEFT JOIN FETCH u.producerProfile pp LEFT JOIN FETCH pp.genres " +
+            "WHERE u.active = true")
+    List<User> findAllActiveWithProfiles();
+
+    /**
+     * Loads the given active users together with both profiles and their genres and skills in a single query.
+     * @param ids The UUIDs of the users to load.
+     * @return A List of the matching active users with initialized profile graphs.
+     */
+    @Query("SELECT DISTINCT u FROM User u " +
+            "LEFT JOIN FETCH u.artistProfile ap LEFT JOIN FETCH ap.genres LEFT JOIN FETCH ap.skills " +
+            "LEFT JOIN FETCH u.producerProfile pp LEFT JOIN FETCH pp.genres " +
+            "WHERE u.active = true AND u.id IN :ids")
+    List<User> findActiveWithProfilesByIdIn(@Param("ids") Collection<UUID> ids);
+
+    /**
+     * Finds the IDs of active users whose username, first name or last name matches the pattern.
+     * Same predicate as the search term filter of user search, served by the pg_trgm indexes.
+     * @param pattern A lower-case LIKE pattern, e.g. {@code %jazz%}.
+     * @return A List of UUIDs of the matching active users.
+     */
+    @Query("SELECT u.id FROM User u WHERE u.active = true AND (LOWER(u.username) LIKE :pattern " +
+            "OR LOWER(u.firstName) LIKE :pattern OR LOWER(u.lastName) LIKE :pattern)")
+    List<UUID> findActiveIdsBySearchPattern(@Param("pattern") String pattern);
+
+    /**
+     * Loads the username and display name of every active user, without their profiles.
+     * @return A List of {@link UserSuggestionDto} for all active users.
+     */
+    @Query("SELECT new com.spshpau.userservice.dto.userdto.UserSuggestionDto(u.id, u.username, u.firstName, u.lastName) " +
+            "FROM User u WHERE u.active = true")
+    List<UserSuggestionDto> findAllActiveSuggestions();
+
+    /**
+     * Loads the summary fields of the given users in a single query, without their profiles.
+     * Unlike the other lookups by ID, inactive users are included, matching the single user lookup by ID.
+     * @param ids The UUIDs of the users to load.
+     * @return A List of {@link UserSummaryDto} for the users that exist, in no particular order.
+     */
+    @Query("SELECT new com.spshpau.userservice.dto.userdto.UserSummaryDto(u.id, u.username, u.firstName, u.lastName, u.location) " +
+            "FROM User u WHERE u.id IN :ids")
+    List<UserSummaryDto> findSummariesByIdIn(@Param("ids") Collection<UUID> ids);
+
+    /**
+     * Loads the summary fields of the given active users in a single query, without their profiles.
+     * @param ids The UUIDs of the users to load.
+     * @return A List of {@link UserSummaryDto} for the users that exist and are active, in no particular order.
+     */
+    @Query("SELECT new com.spshpau.userservice.dto.userdto.UserSummaryDto(u.id, u.username, u.firstName, u.lastName, u.location) " +
+            "FROM User u WHERE u.active = true AND u.id IN :ids")
+    List<UserSummaryDto> findActiveSummariesByIdIn(@Param("ids") Collection<UUID> ids);
+
+    /**
+     * Loads the account fields of a user without touching either profile.
+     * @param id The UUID of the user.
+     * @return An Optional containing a {@link UserDetailDto} without profiles if the user exists, otherwise empty.
+     */
+    @Query("SELECT new com.spshpau.userservice.dto.userdto.UserDetailDto(u.id, u.username, u.email, u.firstName, u.lastName, u.location, u.active) " +
+            "FROM User u WHERE u.id = :id")
+    Optional<UserDetailDto> findDetailById(@Param("id") UUID id);
+
+    /**
+     * Loads a user together with both profiles in a single query. Genres and skills stay lazy.
+     * @param id The UUID of the user.
+     * @return An Optional containing the User if found, otherwise empty.
+     */
+    @Query("SELECT u FROM User u LEFT JOIN FETCH u.artistProfile LEFT JOIN FETCH u.producerProfile WHERE u.id = :id")
+    Optional<User> findWithProfilesById(@Param("id") UUID id);
 }
@@ -0,0 +1,22 @@
+package com.spshpau.userservice.repositories;
+
+import com.spshpau.userservice.dto.userdto.UserSummaryDto;
+import com.spshpau.userservice.model.User;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Queries of {@link UserRepository} that select user summaries as scalar projections instead of entities.
+ */
+public interface UserSummaryQueries {
+
+    /**
+     * Finds a page of users matching the specification, selecting only the summary columns of the users table.
+     * No profile is joined or loaded, so the profile summaries of the returned DTOs are {@code null}.
+     * @param spec     The search specification.
+     * @param pageable The page request; its sort, if any, replaces an ordering set by the specification.
+     * @return A Page of {@link UserSummaryDto} without profile summaries.
+     */
+    Page<UserSummaryDto> findSummaries(Specification<User> spec, Pageable pageable);
+}
@@ -0,0 +1,61 @@
+package com.spshpau.userservice.repositories.specifications;
+
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Keyset position in user search results ordered by {@link #SORT} (username, then id), exchanged with clients
+ * as an opaque URL-safe token so the next slice can continue right after the last returned user.
+ * The blocked users listing is ordered the same way and uses the same cursor.
+ */
+public record UserSearchCursor(String username, UUID id) {
+
+    public static final Sort SORT = Sort.by("username", "id");
+
+    private static final char SEPARATOR = ':';
+
+    public String encode() {
+        String raw = id.toString() + SEPARATOR + username;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return The scroll position of the users ranked after this cursor.
+     */
+    public KeysetScrollPosition toScrollPosition() {
+        Map<String, Object> keys = new LinkedHashMap<>();
+        keys.put("username", username);
+        keys.put("id", id);
+        return ScrollPosition.forward(keys);
+    }
+
+    /**
+     * @param token A token previously produced by {@link #encode()}.
+     * @return The decoded cursor.
+     * @throws IllegalArgumentException if the token is malformed.
+     */
+    public static UserSearchCursor decode(String token) {
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid search cursor", e);
+        }
+        int separator = raw.indexOf(SEPARATOR);
+        if (separator <= 0 || separator == raw.length() - 1) {
+            throw new IllegalArgumentException("Invalid search cursor");
+        }
+        try {
+            return new UserSearchCursor(raw.substring(separator + 1), UUID.fromString(raw.substring(0, separator)));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid search cursor", e);
+        }
+    }
+}
@@ -10,6 +10,8 @@ import org.springframework.util.StringUtils;
 
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.UUID;
 
@@ -22,6 +24,8 @@ public class UserSpecification implements Specification<User> {
     @Override
     public Predicate toPredicate(Root<User> root, CriteriaQuery<?> query, CriteriaBuilder cb) {
         List<Predicate> predicates = new ArrayList<>();
+        boolean countQuery = Long.class.equals(query.getResultType());
+        boolean entityQuery = User.class.equals(query.getResultType());
 
         // Mandatory Filters: Active and Not Self
         predicates.add(cb.isTrue(root.get("active")));
@@ -30,6 +34,7 @@ public class UserSpecification implements Specification<User> {
         // Optional Filters:
 
         // --- General Search Term Filter ---
+        // lower(column) LIKE '%term%' is served by the pg_trgm GIN indexes created by SearchIndexInitializer
         if (StringUtils.hasText(criteria.getSearchTerm())) {
             String likePattern = "%" + criteria.getSearchTerm().toLowerCase() + "%";
             Predicate usernameMatch = cb.like(cb.lower(root.get("username")), likePattern);
@@ -44,7 +49,7 @@ public class UserSpecification implements Specification<User> {
 
         // --- Profile Attribute Filters ---
         Join<User, ArtistProfile> apJoin = null;
-        if (criteria.getArtistExperienceLevel() != null || criteria.getArtistAvailability() != null || !CollectionUtils.isEmpty(criteria.getSkillIds())) {
+        if (criteria.getArtistExperienceLevel() != null || criteria.getArtistAvailability() != null) {
             apJoin = root.join("artistProfile", JoinType.INNER);
         }
 
@@ -69,41 +74,77 @@ public class UserSpecification implements Specification<User> {
         }
 
 
+        // Genre and skill filters are correlated EXISTS semi-joins rather than joins on the collections,
+        // so a user matching several of the selected values still yields a single row and no DISTINCT is needed
+
         // --- Genre Filter ---
         if (!CollectionUtils.isEmpty(criteria.getGenreIds())) {
-            query.distinct(true);
-
-            Join<User, ArtistProfile> artistProfileJoinForGenre = root.join("artistProfile", JoinType.LEFT);
-            Join<ArtistProfile, Genre> artistGenreJoin = artistProfileJoinForGenre.join("genres", JoinType.LEFT);
-            Predicate artistGenrePredicate = cb.and(
-                    cb.isNotNull(artistProfileJoinForGenre.get("id")),
-                    artistGenreJoin.get("id").in(criteria.getGenreIds())
-            );
-
-            Join<User, ProducerProfile> producerProfileJoinForGenre = root.join("producerProfile", JoinType.LEFT);
-            Join<ProducerProfile, Genre> producerGenreJoin = producerProfileJoinForGenre.join("genres", JoinType.LEFT);
-            Predicate producerGenrePredicate = cb.and(
-                    cb.isNotNull(producerProfileJoinForGenre.get("id")),
-                    producerGenreJoin.get("id").in(criteria.getGenreIds())
-            );
-
-            predicates.add(cb.or(artistGenrePredicate, producerGenrePredicate));
+            if (Boolean.TRUE.equals(criteria.getMatchAllGenres())) {
+                for (UUID genreId : new LinkedHashSet<>(criteria.getGenreIds())) {
+                    predicates.add(hasGenre(root, query, cb, List.of(genreId)));
+                }
+            } else {
+                predicates.add(hasGenre(root, query, cb, criteria.getGenreIds()));
+            }
         }
 
         // --- Skill Filter ---
         if (!CollectionUtils.isEmpty(criteria.getSkillIds())) {
-            if (apJoin == null) {
-                apJoin = root.join("artistProfile", JoinType.INNER);
+            if (Boolean.TRUE.equals(criteria.getMatchAllSkills())) {
+                for (UUID skillId : new LinkedHashSet<>(criteria.getSkillIds())) {
+                    predicates.add(profileHasAny(root, query, cb, ArtistProfile.class, "skills", List.of(skillId)));
+                }
+            } else {
+                predicates.add(profileHasAny(root, query, cb, ArtistProfile.class, "skills", criteria.getSkillIds()));
             }
-            query.distinct(true);
-            Join<ArtistProfile, Skill> artistSkillJoin = apJoin.join("skills");
-            predicates.add(artistSkillJoin.get("id").in(criteria.getSkillIds()));
         }
 
 
+        // --- Profile Summaries ---
+        // Both profiles are fetched with the page of users, so mapping it to summaries issues no further selects.
+        // One-to-one joins keep a single row per user. Skipped for count queries and scalar projections
+        if (entityQuery) {
+            root.fetch("artistProfile", JoinType.LEFT);
+            root.fetch("producerProfile", JoinType.LEFT);
+        }
+
+        // --- Relevance Ordering ---
+        // Skipped for count queries
+        if (Boolean.TRUE.equals(criteria.getOrderByRelevance()) && StringUtils.hasText(criteria.getSearchTerm())
+                && !countQuery) {
+            query.orderBy(cb.desc(relevance(root, cb, criteria.getSearchTerm().toLowerCase())), cb.asc(root.get("username")));
+        }
+
         return cb.and(predicates.toArray(new Predicate[0]));
     }
 
+    // The user has any of the genres in their artist or producer profile
+    private Predicate hasGenre(Root<User> root, CriteriaQuery<?> query, CriteriaBuilder cb, Collection<UUID> genreIds) {
+        return cb.or(
+                profileHasAny(root, query, cb, ArtistProfile.class, "genres", genreIds),
+                profileHasAny(root, query, cb, ProducerProfile.class, "genres", genreIds));
+    }
+
+    // EXISTS (SELECT 1 FROM <profile> p JOIN <collection> c WHERE p.user_id = user.id AND c.id IN (:ids))
+    private <P> Predicate profileHasAny(Root<User> root, CriteriaQuery<?> query, CriteriaBuilder cb,
+                                       Class<P> profileType, String collectionAttributeName, Collection<UUID> ids) {
+        Subquery<Integer> subquery = query.subquery(Integer.class);
+        Root<P> profile = subquery.from(profileType);
+        Join<P, ?> value = profile.join(collectionAttributeName);
+        subquery.select(cb.literal(1))
+                .where(cb.equal(profile.get("id"), root.get("id")), value.get("id").in(ids));
+        return cb.exists(subquery);
+    }
+
+    // Best pg_trgm word similarity of the term against username, first name and last name (0 to 1)
+    private Expression<Double> relevance(Root<User> root, CriteriaBuilder cb, String term) {
+        Expression<String> termLiteral = cb.literal(term);
+        return cb.function("greatest", Double.class,
+                cb.function("word_similarity", Double.class, termLiteral, cb.lower(root.get("username"))),
+                cb.function("word_similarity", Double.class, termLiteral, cb.lower(root.get("firstName"))),
+                cb.function("word_similarity", Double.class, termLiteral, cb.lower(root.get("lastName"))));
+    }
+
     // Helper method for profile existence filters
     private void handleProfileExistenceFilter(Root<User> root, CriteriaBuilder cb, List<Predicate> predicates, Boolean hasProfile, String profileAttributeName) {
         if (hasProfile != null) {
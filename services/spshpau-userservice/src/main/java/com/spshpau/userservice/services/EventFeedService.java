@@ -0,0 +1,22 @@
+package com.spshpau.userservice.services;
+
+import com.spshpau.userservice.dto.eventdto.DomainEventFeedDto;
+
+public interface EventFeedService {
+
+    /**
+     * Reads the published events following a feed position, oldest first.
+     *
+     * @param after The position of the last event the reader has applied, or 0 to read from the start.
+     * @param limit The maximum number of events to return.
+     * @return The events after {@code after}, with the position to continue from.
+     * @throws com.spshpau.userservice.services.exceptions.EventsExpiredException if events following
+     *                                                                            {@code after} were already deleted.
+     */
+    DomainEventFeedDto getEventsAfter(long after, int limit);
+
+    /**
+     * @return The position of the newest published event, or 0 if none was published yet.
+     */
+    long getHeadPosition();
+}
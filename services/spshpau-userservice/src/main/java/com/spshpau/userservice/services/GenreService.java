@@ -3,6 +3,7 @@ package com.spshpau.userservice.services;
 import com.spshpau.userservice.dto.profiledto.GenreDto;
 import com.spshpau.userservice.dto.profiledto.GenreSummaryDto;
 import com.spshpau.userservice.model.Genre;
+import com.spshpau.userservice.services.catalog.CatalogSnapshot;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
@@ -38,4 +39,12 @@ public interface GenreService {
      * @return A {@link Page} of {@link GenreSummaryDto} objects. Returns an empty page if no genres are found.
      */
     Page<GenreSummaryDto> getAllGenres(Pageable pageable);
+
+    /**
+     * Retrieves the whole genre catalog, ordered by name, from an in-process snapshot.
+     * The snapshot is rebuilt after a genre has been created or deleted.
+     *
+     * @return A {@link CatalogSnapshot} of {@link GenreSummaryDto} objects with the entity tag of the current catalog.
+     */
+    CatalogSnapshot<GenreSummaryDto> getGenreCatalog();
 }
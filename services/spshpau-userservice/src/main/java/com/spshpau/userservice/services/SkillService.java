@@ -2,6 +2,7 @@ package com.spshpau.userservice.services;
 
 import com.spshpau.userservice.dto.profiledto.SkillDto;
 import com.spshpau.userservice.dto.profiledto.SkillSummaryDto;
+import com.spshpau.userservice.services.catalog.CatalogSnapshot;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
@@ -37,4 +38,12 @@ public interface SkillService {
      * @return A {@link Page} of {@link SkillSummaryDto} objects. Returns an empty page if no skills are found.
      */
     Page<SkillSummaryDto> getAllSkills(Pageable pageable);
+
+    /**
+     * Retrieves the whole skill catalog, ordered by name, from an in-process snapshot.
+     * The snapshot is rebuilt after a skill has been created or deleted.
+     *
+     * @return A {@link CatalogSnapshot} of {@link SkillSummaryDto} objects with the entity tag of the current catalog.
+     */
+    CatalogSnapshot<SkillSummaryDto> getSkillCatalog();
 }
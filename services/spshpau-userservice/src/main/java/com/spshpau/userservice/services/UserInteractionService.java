@@ -1,13 +1,16 @@
 package com.spshpau.userservice.services;
 
+import com.spshpau.userservice.dto.userdto.ConnectionSuggestionDto;
+import com.spshpau.userservice.dto.userdto.UserSearchSliceDto;
 import com.spshpau.userservice.dto.userdto.UserSummaryDto;
-import com.spshpau.userservice.model.User;
 import com.spshpau.userservice.model.UserConnection;
 import com.spshpau.userservice.services.enums.InteractionStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 public interface UserInteractionService {
@@ -35,6 +38,7 @@ public interface UserInteractionService {
      * @return The updated {@link UserConnection} object with status ACCEPTED.
      * @throws com.spshpau.userservice.services.exceptions.ConnectionException if no pending connection request is found from the requester to the acceptor.
      * @throws com.spshpau.userservice.services.exceptions.UserNotActiveException if either user involved in the connection is not active.
+     * @throws com.spshpau.userservice.services.exceptions.BlockedException if either user has blocked the other since the request was sent.
      * @throws com.spshpau.userservice.services.exceptions.UserNotFoundException if involved users cannot be found (implicitly checked by connection lookup).
      */
     UserConnection acceptConnectionRequest(UUID acceptorId, UUID requesterId);
@@ -96,6 +100,32 @@ public interface UserInteractionService {
      */
     Page<UserSummaryDto> getPendingOutgoingRequestsDto(UUID userId, Pageable pageable);
 
+    // --- Connection Graph ---
+
+    /**
+     * Counts the connections the specified user shares with each of the given users, for "N mutual connections"
+     * badges. Answered from the in-memory connection graph without querying connections.
+     *
+     * @param userId       The unique identifier of the user viewing the counts.
+     * @param otherUserIds The unique identifiers of the other users.
+     * @return The number of mutual accepted connections per other user, in request order. The user's own ID is
+     * left out; unknown IDs have no connections and count 0.
+     * @throws com.spshpau.userservice.services.exceptions.UserNotFoundException if the user does not exist.
+     */
+    Map<UUID, Integer> countMutualConnections(UUID userId, Collection<UUID> otherUserIds);
+
+    /**
+     * Suggests active users the specified user is not connected to yet but shares connections with
+     * (friends of friends), ranked by the number of shared connections. Users with a pending request or a block
+     * in either direction are never suggested.
+     *
+     * @param userId The unique identifier of the user to suggest connections for.
+     * @param limit  The maximum number of suggestions.
+     * @return A List of {@link ConnectionSuggestionDto}, most mutual connections first.
+     * @throws com.spshpau.userservice.services.exceptions.UserNotFoundException if the user does not exist.
+     */
+    List<ConnectionSuggestionDto> suggestConnections(UUID userId, int limit);
+
     // --- Blocking ---
 
     /**
@@ -120,15 +150,29 @@ public interface UserInteractionService {
     void unblockUser(UUID blockerId, UUID blockedId);
 
     /**
-     * Retrieves a paginated list of users who have been blocked by the specified user.
+     * Retrieves a paginated list of users who have been blocked by the specified user, ordered by username.
+     * Only the requested page is read from the database.
      *
      * @param userId   The unique identifier of the user (blocker) whose blocked list is to be retrieved.
-     * @param pageable Pagination information.
-     * @return A {@link Page} of {@link User} objects representing the blocked users.
-     * Note: Returning full User objects might expose sensitive data; consider UserSummaryDto.
+     * @param pageable Pagination information. Any sort is ignored in favour of the fixed username order.
+     * @return A {@link Page} of {@link UserSummaryDto} objects representing the blocked users.
      * @throws com.spshpau.userservice.services.exceptions.UserNotFoundException if the user (blocker) does not exist.
      */
-    Page<User> getBlockedUsers(UUID userId, Pageable pageable);
+    Page<UserSummaryDto> getBlockedUsers(UUID userId, Pageable pageable);
+
+    /**
+     * Retrieves the next slice of users blocked by the specified user using keyset pagination, in the same order
+     * as {@link #getBlockedUsers}. Each slice costs the same regardless of its depth and no total count is computed,
+     * which suits accounts with very long block lists.
+     *
+     * @param userId The unique identifier of the user (blocker) whose blocked list is to be retrieved.
+     * @param cursor Opaque cursor returned with the previous slice, or {@code null}/blank for the first slice.
+     * @param size   The maximum number of users in the slice.
+     * @return A {@link UserSearchSliceDto} with the blocked users and the cursor of the following slice.
+     * @throws com.spshpau.userservice.services.exceptions.UserNotFoundException if the user (blocker) does not exist.
+     * @throws IllegalArgumentException if the cursor is malformed.
+     */
+    UserSearchSliceDto getBlockedUsersAfter(UUID userId, String cursor, int size);
 
     // --- Status Checks ---
 
@@ -143,13 +187,24 @@ public interface UserInteractionService {
      */
     InteractionStatus checkInteractionStatus(UUID viewingUserId, UUID targetUserId);
 
+    /**
+     * Checks the interaction status between one user and many others at once, for list views that show a status
+     * per row. Costs a fixed number of queries regardless of the number of target users.
+     *
+     * @param viewingUserId The unique identifier of the user from whose perspective the statuses are checked.
+     * @param targetUserIds The unique identifiers of the other users.
+     * @return The {@link InteractionStatus} of each existing target user, in request order; unknown IDs are left out.
+     * @throws com.spshpau.userservice.services.exceptions.UserNotFoundException if the viewing user does not exist.
+     */
+    Map<UUID, InteractionStatus> checkInteractionStatuses(UUID viewingUserId, Collection<UUID> targetUserIds);
+
     /**
      * Determines if there is any block relationship (in either direction) between two users.
+     * Unknown user IDs are not looked up and simply have no blocks.
      *
      * @param userId1 The unique identifier of the first user.
      * @param userId2 The unique identifier of the second user.
      * @return {@code true} if a block exists in either direction, {@code false} otherwise.
-     * @throws com.spshpau.userservice.services.exceptions.UserNotFoundException if either user does not exist.
      */
     boolean isBlocked(UUID userId1, UUID userId2);
 }
\ No newline at end of file
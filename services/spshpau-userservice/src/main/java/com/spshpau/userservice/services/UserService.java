@@ -1,12 +1,21 @@
 package com.spshpau.userservice.services;
 
+import com.spshpau.userservice.dto.userdto.MatchCursorPageDto;
 import com.spshpau.userservice.dto.userdto.UserDetailDto;
+import com.spshpau.userservice.dto.userdto.UserFacetCountsDto;
+import com.spshpau.userservice.dto.userdto.UserFieldSelection;
 import com.spshpau.userservice.dto.userdto.UserSearchCriteria;
+import com.spshpau.userservice.dto.userdto.UserSearchSliceDto;
+import com.spshpau.userservice.dto.userdto.UserSuggestionDto;
 import com.spshpau.userservice.dto.userdto.UserSummaryDto;
 import com.spshpau.userservice.model.User;
+import com.spshpau.userservice.services.wrappers.MatchRanking;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -55,6 +64,28 @@ public interface UserService {
      */
     Optional<UserDetailDto> getUserDetailByUsername(String username);
 
+    /**
+     * Variant of {@link #getUserDetailById(UUID)} that loads only the selected parts of the user.
+     * Unselected profiles, genres and skills are left {@code null} and cost no queries, unless the full view
+     * of the user is cached anyway.
+     *
+     * @param userId The unique identifier of the user to retrieve.
+     * @param fields The parts of the DTO the caller needs.
+     * @return An {@link Optional} containing the {@link UserDetailDto} if the user is found,
+     * otherwise an empty Optional.
+     */
+    Optional<UserDetailDto> getUserDetailById(UUID userId, UserFieldSelection fields);
+
+    /**
+     * Variant of {@link #getUserDetailByUsername(String)} that loads only the selected parts of the user.
+     *
+     * @param username The username of the user to retrieve.
+     * @param fields   The parts of the DTO the caller needs.
+     * @return An {@link Optional} containing the {@link UserDetailDto} if the user is found,
+     * otherwise an empty Optional.
+     */
+    Optional<UserDetailDto> getUserDetailByUsername(String username, UserFieldSelection fields);
+
     /**
      * Retrieves the raw {@link User} entity by its unique ID.
      * Use with caution, as this returns the JPA entity which might have implications
@@ -66,6 +97,16 @@ public interface UserService {
      */
     Optional<User> getUserEntityById(UUID userId);
 
+    /**
+     * Retrieves the summaries of several users by their unique IDs in one lookup.
+     * IDs that do not belong to any user are skipped; duplicates are resolved once.
+     *
+     * @param userIds The unique identifiers of the users to retrieve.
+     * @return A List of {@link UserSummaryDto} for the users found, in the order of their first occurrence in
+     * {@code userIds}. Profile summaries are not included.
+     */
+    List<UserSummaryDto> getUserSummariesByIds(Collection<UUID> userIds);
+
     /**
      * Deactivates a user account, effectively marking them as inactive (e.g., banned).
      * An inactive user might be restricted from certain actions or visibility.
@@ -94,6 +135,57 @@ public interface UserService {
      */
     Page<UserSummaryDto> findActiveUsers(UUID currentUserId, UserSearchCriteria criteria, Pageable pageable);
 
+    /**
+     * Variant of {@link #findActiveUsers(UUID, UserSearchCriteria, Pageable)} for callers that need only some
+     * parts of the summaries. If neither profile is selected, only the user columns are queried and the profile
+     * summaries are left {@code null}.
+     *
+     * @param currentUserId The unique identifier of the user initiating the search (to be excluded from results).
+     * @param criteria      A {@link UserSearchCriteria} object containing the filter parameters.
+     * @param pageable      Pagination information (page number, size, sort order).
+     * @param fields        The parts of the summaries the caller needs.
+     * @return A {@link Page} of {@link UserSummaryDto} objects matching the criteria.
+     */
+    Page<UserSummaryDto> findActiveUsers(UUID currentUserId, UserSearchCriteria criteria, Pageable pageable, UserFieldSelection fields);
+
+    /**
+     * Keyset-paginated, count-free variant of {@link #findActiveUsers(UUID, UserSearchCriteria, Pageable)}.
+     * Results are ordered by username (then id) and each slice continues right after the position encoded in
+     * {@code cursor}, so deep slices cost the same as the first and no total count is computed.
+     * Relevance ordering is not applied in this mode.
+     *
+     * @param currentUserId The unique identifier of the user initiating the search (to be excluded from results).
+     * @param criteria      A {@link UserSearchCriteria} object containing the filter parameters.
+     * @param cursor        The {@code nextCursor} of the previous slice, or null/blank for the first slice.
+     * @param size          The maximum number of users to return.
+     * @return A {@link UserSearchSliceDto} with the users, whether more follow and the cursor of the next slice.
+     * @throws IllegalArgumentException if the cursor is malformed.
+     */
+    UserSearchSliceDto findActiveUsersAfter(UUID currentUserId, UserSearchCriteria criteria, String cursor, int size);
+
+    /**
+     * Counts the facets of a user search (genres, skills, experience levels, availability and profile types)
+     * for the given filters in one call. Counts come from in-memory bitmaps kept in sync with the profiles;
+     * only a search term costs a database query.
+     *
+     * @param currentUserId The unique identifier of the user initiating the search (to be excluded from counts).
+     * @param criteria      A {@link UserSearchCriteria} object containing the filter parameters.
+     * @return A {@link UserFacetCountsDto} with the total and the count of every facet value.
+     */
+    UserFacetCountsDto countSearchFacets(UUID currentUserId, UserSearchCriteria criteria);
+
+    /**
+     * Suggests active users whose username, full name or last name starts with the given prefix,
+     * for mention and autocomplete inputs. Served from memory; the current user and users blocked
+     * in either direction are never suggested.
+     *
+     * @param currentUserId The unique identifier of the user typing.
+     * @param prefix        The typed prefix (case-insensitive).
+     * @param limit         The maximum number of suggestions.
+     * @return Up to {@code limit} suggestions, username matches first.
+     */
+    List<UserSuggestionDto> suggestUsers(UUID currentUserId, String prefix, int limit);
+
     /**
      * Finds matching users for the {@code currentUserId} based on a predefined matching algorithm.
      * This algorithm typically considers factors like:
@@ -115,4 +207,46 @@ public interface UserService {
      * @throws com.spshpau.userservice.services.exceptions.UserNotFoundException if an active user with the {@code currentUserId} is not found.
      */
     Page<UserSummaryDto> findMatches(UUID currentUserId, Pageable pageable);
+
+    /**
+     * Cursor-based variant of {@link #findMatches(UUID, Pageable)}.
+     * Returns the next {@code size} matches ranked after the position encoded in {@code cursor},
+     * using the same ranking (score descending, then username). Only a bounded top-K of the ranking is
+     * materialized per request, so deep pages do not require sorting every candidate.
+     *
+     * @param currentUserId The unique identifier of the user for whom matches are being sought.
+     * @param cursor        The {@code nextCursor} of the previous page, or null/blank for the first page.
+     * @param size          The maximum number of matches to return.
+     * @return A {@link MatchCursorPageDto} with the matches and the cursor of the following page
+     * ({@code null} if there are no more matches).
+     * @throws com.spshpau.userservice.services.exceptions.UserNotFoundException if an active user with the {@code currentUserId} is not found.
+     * @throws IllegalArgumentException if the cursor is malformed.
+     */
+    MatchCursorPageDto findMatchesAfter(UUID currentUserId, String cursor, int size);
+
+    /**
+     * Streaming variant of {@link #findMatches(UUID, Pageable)}. The caller's exclusion and connection context
+     * is resolved immediately; the ranking itself is produced lazily in consecutive, growing chunks
+     * (20, 80, 320, ... entries), each final once returned. The first chunk only needs a small bounded top-K,
+     * so it is available long before the whole ranking would be, and nothing is computed ahead of the consumer.
+     * The iterator does not depend on an open transaction or persistence context; each chunk returns detached,
+     * fully loaded summaries.
+     *
+     * @param currentUserId The unique identifier of the user for whom matches are being sought.
+     * @param limit         The maximum total number of matches to produce.
+     * @return An iterator over consecutive chunks of the ranking, in score order.
+     * @throws com.spshpau.userservice.services.exceptions.UserNotFoundException if an active user with the {@code currentUserId} is not found.
+     */
+    Iterator<List<UserSummaryDto>> streamMatches(UUID currentUserId, int limit);
+
+    /**
+     * Computes the first {@code limit} entries of a user's match ranking with their scores, using the configured
+     * live engine and bypassing the cache and any materialized ranking. Used to (re)build the materialized ranking.
+     *
+     * @param currentUserId The unique identifier of the user for whom matches are being ranked.
+     * @param limit         The number of top entries to compute.
+     * @return The top entries and the total number of rankable users.
+     * @throws com.spshpau.userservice.services.exceptions.UserNotFoundException if an active user with the {@code currentUserId} is not found.
+     */
+    MatchRanking computeMatchRanking(UUID currentUserId, int limit);
 }
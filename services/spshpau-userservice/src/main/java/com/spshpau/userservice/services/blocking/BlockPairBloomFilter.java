@@ -0,0 +1,97 @@
+package com.spshpau.userservice.services.blocking;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter over directed (blocker, blocked) pairs. A negative answer is definite; a positive one may be
+ * a false positive at roughly the rate the filter was sized for. Pairs cannot be removed, so the filter is
+ * rebuilt from the database from time to time to drop unblocked pairs.
+ * <p>
+ * Positions are derived from two 64-bit hashes of the pair (Kirsch-Mitzenmacher double hashing). Bits are
+ * set with atomic updates, so concurrent puts and reads need no locking.
+ */
+final class BlockPairBloomFilter {
+
+    private static final int MIN_BITS = 1 << 10;
+
+    private final AtomicLongArray words;
+    private final long bitCount;
+    private final int hashCount;
+
+    private BlockPairBloomFilter(long bitCount, int hashCount) {
+        this.words = new AtomicLongArray((int) ((bitCount + 63) / 64));
+        this.bitCount = bitCount;
+        this.hashCount = hashCount;
+    }
+
+    /**
+     * @param expectedPairs     Number of pairs the filter should hold at the given false positive rate.
+     * @param falsePositiveRate Target probability of a positive answer for a pair that was never put.
+     * @return An empty filter with the optimal number of bits and hash functions for the target.
+     */
+    static BlockPairBloomFilter create(long expectedPairs, double falsePositiveRate) {
+        long n = Math.max(expectedPairs, 1);
+        double ln2 = Math.log(2);
+        long bits = Math.max(MIN_BITS, (long) Math.ceil(-n * Math.log(falsePositiveRate) / (ln2 * ln2)));
+        int hashes = Math.max(1, (int) Math.round((double) bits / n * ln2));
+        return new BlockPairBloomFilter(bits, hashes);
+    }
+
+    void put(UUID blockerId, UUID blockedId) {
+        long h1 = hash1(blockerId, blockedId);
+        long h2 = hash2(blockerId, blockedId);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitCount);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current = words.get(word);
+            while ((current & mask) == 0 && !words.compareAndSet(word, current, current | mask)) {
+                current = words.get(word);
+            }
+        }
+    }
+
+    boolean mightContain(UUID blockerId, UUID blockedId) {
+        long h1 = hash1(blockerId, blockedId);
+        long h2 = hash2(blockerId, blockedId);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitCount);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    long bitCount() {
+        return bitCount;
+    }
+
+    int hashCount() {
+        return hashCount;
+    }
+
+    // Mixes in the order of the pair, so (a, b) and (b, a) hash apart
+    private static long hash1(UUID blockerId, UUID blockedId) {
+        return mix(mix(blockerId) ^ (mix(blockedId) * 0x9E3779B97F4A7C15L));
+    }
+
+    private static long hash2(UUID blockerId, UUID blockedId) {
+        return mix(mix(blockedId) ^ (mix(blockerId) * 0xC2B2AE3D27D4EB4FL)) | 1L;
+    }
+
+    private static long mix(UUID id) {
+        return mix(id.getMostSignificantBits() ^ mix(id.getLeastSignificantBits()));
+    }
+
+    // Murmur3 64-bit finalizer
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
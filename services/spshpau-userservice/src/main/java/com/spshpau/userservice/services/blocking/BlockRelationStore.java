@@ -0,0 +1,279 @@
+package com.spshpau.userservice.services.blocking;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.spshpau.userservice.repositories.UserRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Answers block questions between users without loading {@code User} entities or their {@code blockedUsers}
+ * collections.
+ * <p>
+ * A global {@link BlockPairBloomFilter} over all (blocker, blocked) pairs answers "definitely not blocked"
+ * without a query, which is the answer to almost every check. Anything else is resolved from a per-user cache
+ * entry holding the IDs the user blocked and the IDs of users blocking them, as {@link SortedUuidArray}s loaded
+ * with a single ID-only query. {@link #recordBlock} and {@link #recordUnblock} keep both up to date once the
+ * block or unblock has committed.
+ * <p>
+ * The filter is rebuilt from {@code user_blocks} on a fixed delay, which drops unblocked pairs and picks up
+ * blocks made through other instances; cache entries expire after the same kind of interval. Answers may therefore
+ * miss a block made elsewhere until then, so they only serve reads: actions that must not pass a block confirm it
+ * with {@link UserRepository#existsBlockBetween}. Until the first
+ * build the filter is skipped and every check goes to the cache. Metrics: {@code cache.*} for
+ * {@value #BLOCK_RELATIONS_CACHE} and {@code blocks.bloom.negatives} (checks answered by the filter alone).
+ */
+@Component
+@Slf4j
+public class BlockRelationStore implements MeterBinder {
+
+    public static final String BLOCK_RELATIONS_CACHE = "blockRelations";
+
+    private static final long DEFAULT_MAX_WEIGHT = 1_000_000;
+    private static final Duration DEFAULT_EXPIRE_AFTER_WRITE = Duration.ofMinutes(10);
+    private static final double DEFAULT_FALSE_POSITIVE_RATE = 0.01;
+
+    // The filter is sized for twice the current pairs, so blocks made until the next rebuild keep the rate
+    private static final long MIN_EXPECTED_PAIRS = 10_000;
+
+    private final UserRepository userRepository;
+    private final Cache<UUID, BlockRelations> relations;
+    private final double falsePositiveRate;
+    private final LongAdder bloomNegatives = new LongAdder();
+
+    private final Object filterLock = new Object();
+    private volatile BlockPairBloomFilter filter;
+    // Pairs blocked while a rebuild scans the table, replayed into the new filter; guarded by filterLock
+    private List<BlockPair> blockedDuringRebuild;
+
+    public BlockRelationStore(UserRepository userRepository) {
+        this(userRepository, DEFAULT_MAX_WEIGHT, DEFAULT_EXPIRE_AFTER_WRITE, DEFAULT_FALSE_POSITIVE_RATE);
+    }
+
+    @Autowired
+    public BlockRelationStore(UserRepository userRepository,
+                              @Value("${blocks.cache.max-weight:1000000}") long maxWeight,
+                              @Value("${blocks.cache.expire-after-write:PT10M}") Duration expireAfterWrite,
+                              @Value("${blocks.bloom.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.userRepository = userRepository;
+        this.falsePositiveRate = falsePositiveRate;
+        this.relations = Caffeine.newBuilder()
+                .maximumWeight(maxWeight)
+                .weigher((UUID userId, BlockRelations entry) -> 1 + entry.blocked().size() + entry.blockedBy().size())
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, relations, BLOCK_RELATIONS_CACHE);
+        FunctionCounter.builder("blocks.bloom.negatives", bloomNegatives, LongAdder::sum)
+                .description("Block checks answered by the bloom filter without consulting the block lists")
+                .register(registry);
+    }
+
+    // --- Reads ---
+
+    /**
+     * @param userId1 One user.
+     * @param userId2 The other user.
+     * @return {@code true} if either user has blocked the other.
+     */
+    public boolean isBlocked(UUID userId1, UUID userId2) {
+        if (definitelyNotBlocked(userId1, userId2) && definitelyNotBlocked(userId2, userId1)) {
+            bloomNegatives.increment();
+            return false;
+        }
+        BlockRelations entry = relationsOf(userId1);
+        return entry.blocked().contains(userId2) || entry.blockedBy().contains(userId2);
+    }
+
+    /**
+     * @param blockerId The user who might have blocked the other.
+     * @param blockedId The user who might be blocked.
+     * @return {@code true} if {@code blockerId} has blocked {@code blockedId}.
+     */
+    public boolean hasBlocked(UUID blockerId, UUID blockedId) {
+        if (definitelyNotBlocked(blockerId, blockedId)) {
+            bloomNegatives.increment();
+            return false;
+        }
+        return relationsOf(blockerId).blocked().contains(blockedId);
+    }
+
+    /**
+     * Same as {@code hasBlocked(blockerId, userId)}, but resolved from the cache entry of {@code userId}, so a
+     * caller checking both directions for one user needs only that user's entry.
+     * @param userId    The user who might be blocked.
+     * @param blockerId The user who might have blocked them.
+     * @return {@code true} if {@code blockerId} has blocked {@code userId}.
+     */
+    public boolean isBlockedBy(UUID userId, UUID blockerId) {
+        if (definitelyNotBlocked(blockerId, userId)) {
+            bloomNegatives.increment();
+            return false;
+        }
+        return relationsOf(userId).blockedBy().contains(blockerId);
+    }
+
+    /**
+     * @param userId The unique identifier of the user.
+     * @return A new, modifiable set of the IDs of all users the user has blocked or is blocked by.
+     */
+    public Set<UUID> getBlockRelatedUserIds(UUID userId) {
+        BlockRelations entry = relationsOf(userId);
+        Set<UUID> ids = new HashSet<>(entry.blocked().size() + entry.blockedBy().size());
+        entry.blocked().addTo(ids);
+        entry.blockedBy().addTo(ids);
+        return ids;
+    }
+
+    // --- Updates ---
+
+    /**
+     * Records that {@code blockerId} blocked {@code blockedId}. The filter learns the pair right away, since
+     * a false positive is harmless; the cached block lists change once the surrounding transaction has committed.
+     */
+    public void recordBlock(UUID blockerId, UUID blockedId) {
+        putInFilter(blockerId, blockedId);
+        afterCommit(() -> {
+            // Again after commit, in case a rebuild scanned the table between the first put and the commit
+            putInFilter(blockerId, blockedId);
+            relations.asMap().computeIfPresent(blockerId, (id, entry) -> entry.withBlocked(blockedId));
+            relations.asMap().computeIfPresent(blockedId, (id, entry) -> entry.withBlockedBy(blockerId));
+        });
+    }
+
+    /**
+     * Records that {@code blockerId} unblocked {@code blockedId}, once the surrounding transaction has committed.
+     * The pair stays in the filter until the next rebuild.
+     */
+    public void recordUnblock(UUID blockerId, UUID blockedId) {
+        afterCommit(() -> {
+            relations.asMap().computeIfPresent(blockerId, (id, entry) -> entry.withoutBlocked(blockedId));
+            relations.asMap().computeIfPresent(blockedId, (id, entry) -> entry.withoutBlockedBy(blockerId));
+        });
+    }
+
+    /**
+     * Rebuilds the bloom filter from {@code user_blocks}, dropping pairs that have been unblocked since the
+     * last build. Runs at startup and then on a fixed delay.
+     */
+    @Scheduled(fixedDelayString = "${blocks.bloom.rebuild-interval:PT10M}")
+    public void rebuildFilter() {
+        long start = System.currentTimeMillis();
+        synchronized (filterLock) {
+            blockedDuringRebuild = new ArrayList<>();
+        }
+        try {
+            List<UserRepository.BlockRow> rows = userRepository.findAllBlockRows();
+            BlockPairBloomFilter rebuilt = BlockPairBloomFilter.create(
+                    Math.max(MIN_EXPECTED_PAIRS, 2L * rows.size()), falsePositiveRate);
+            rows.forEach(row -> rebuilt.put(row.getBlockerId(), row.getBlockedId()));
+            synchronized (filterLock) {
+                blockedDuringRebuild.forEach(pair -> rebuilt.put(pair.blockerId(), pair.blockedId()));
+                filter = rebuilt;
+            }
+            log.info("Block bloom filter rebuilt with {} pairs ({} bits, {} hashes) in {} ms",
+                    rows.size(), rebuilt.bitCount(), rebuilt.hashCount(), System.currentTimeMillis() - start);
+        } catch (RuntimeException e) {
+            log.warn("Rebuilding the block bloom filter failed, keeping the previous one", e);
+        } finally {
+            synchronized (filterLock) {
+                blockedDuringRebuild = null;
+            }
+        }
+    }
+
+    // --- Internals ---
+
+    private boolean definitelyNotBlocked(UUID blockerId, UUID blockedId) {
+        BlockPairBloomFilter current = filter;
+        return current != null && !current.mightContain(blockerId, blockedId);
+    }
+
+    private void putInFilter(UUID blockerId, UUID blockedId) {
+        synchronized (filterLock) {
+            if (filter != null) {
+                filter.put(blockerId, blockedId);
+            }
+            if (blockedDuringRebuild != null) {
+                blockedDuringRebuild.add(new BlockPair(blockerId, blockedId));
+            }
+        }
+    }
+
+    private BlockRelations relationsOf(UUID userId) {
+        return relations.get(userId, this::loadRelations);
+    }
+
+    private BlockRelations loadRelations(UUID userId) {
+        List<UUID> blocked = new ArrayList<>();
+        List<UUID> blockedBy = new ArrayList<>();
+        for (UserRepository.BlockRow row : userRepository.findBlockRowsInvolving(userId)) {
+            if (row.getBlockerId().equals(userId)) {
+                blocked.add(row.getBlockedId());
+            } else {
+                blockedBy.add(row.getBlockerId());
+            }
+        }
+        return new BlockRelations(SortedUuidArray.of(blocked), SortedUuidArray.of(blockedBy));
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private record BlockPair(UUID blockerId, UUID blockedId) {
+    }
+
+    /**
+     * @param blocked   IDs of the users the user has blocked.
+     * @param blockedBy IDs of the users who have blocked the user.
+     */
+    private record BlockRelations(SortedUuidArray blocked, SortedUuidArray blockedBy) {
+
+        BlockRelations withBlocked(UUID id) {
+            return new BlockRelations(blocked.with(id), blockedBy);
+        }
+
+        BlockRelations withoutBlocked(UUID id) {
+            return new BlockRelations(blocked.without(id), blockedBy);
+        }
+
+        BlockRelations withBlockedBy(UUID id) {
+            return new BlockRelations(blocked, blockedBy.with(id));
+        }
+
+        BlockRelations withoutBlockedBy(UUID id) {
+            return new BlockRelations(blocked, blockedBy.without(id));
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.spshpau.userservice.services.blocking;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Immutable sorted set of UUIDs stored as one primitive array of (most, least) significant bit pairs,
+ * so a user's block list costs 16 bytes per ID and is searched by binary search without boxing.
+ * Updates return a copy, which keeps instances safe to share between threads.
+ */
+final class SortedUuidArray {
+
+    static final SortedUuidArray EMPTY = new SortedUuidArray(new long[0]);
+
+    // msb0, lsb0, msb1, lsb1, ... ordered by msb, then lsb (signed)
+    private final long[] bits;
+
+    private SortedUuidArray(long[] bits) {
+        this.bits = bits;
+    }
+
+    static SortedUuidArray of(Collection<UUID> ids) {
+        if (ids.isEmpty()) {
+            return EMPTY;
+        }
+        UUID[] sorted = new HashSet<>(ids).toArray(new UUID[0]);
+        Arrays.sort(sorted, SortedUuidArray::compare);
+        long[] bits = new long[sorted.length * 2];
+        for (int i = 0; i < sorted.length; i++) {
+            bits[2 * i] = sorted[i].getMostSignificantBits();
+            bits[2 * i + 1] = sorted[i].getLeastSignificantBits();
+        }
+        return new SortedUuidArray(bits);
+    }
+
+    int size() {
+        return bits.length / 2;
+    }
+
+    boolean contains(UUID id) {
+        return indexOf(id) >= 0;
+    }
+
+    SortedUuidArray with(UUID id) {
+        int index = indexOf(id);
+        if (index >= 0) {
+            return this;
+        }
+        int insertAt = -(index + 1);
+        long[] copy = new long[bits.length + 2];
+        System.arraycopy(bits, 0, copy, 0, insertAt * 2);
+        copy[insertAt * 2] = id.getMostSignificantBits();
+        copy[insertAt * 2 + 1] = id.getLeastSignificantBits();
+        System.arraycopy(bits, insertAt * 2, copy, insertAt * 2 + 2, bits.length - insertAt * 2);
+        return new SortedUuidArray(copy);
+    }
+
+    SortedUuidArray without(UUID id) {
+        int index = indexOf(id);
+        if (index < 0) {
+            return this;
+        }
+        if (bits.length == 2) {
+            return EMPTY;
+        }
+        long[] copy = new long[bits.length - 2];
+        System.arraycopy(bits, 0, copy, 0, index * 2);
+        System.arraycopy(bits, index * 2 + 2, copy, index * 2, bits.length - index * 2 - 2);
+        return new SortedUuidArray(copy);
+    }
+
+    void addTo(Set<UUID> target) {
+        for (int i = 0; i < bits.length; i += 2) {
+            target.add(new UUID(bits[i], bits[i + 1]));
+        }
+    }
+
+    // Same contract as Arrays.binarySearch: the element index, or -(insertion point + 1)
+    private int indexOf(UUID id) {
+        long msb = id.getMostSignificantBits();
+        long lsb = id.getLeastSignificantBits();
+        int low = 0;
+        int high = size() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = Long.compare(bits[2 * mid], msb);
+            if (cmp == 0) {
+                cmp = Long.compare(bits[2 * mid + 1], lsb);
+            }
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    private static int compare(UUID a, UUID b) {
+        int cmp = Long.compare(a.getMostSignificantBits(), b.getMostSignificantBits());
+        return cmp != 0 ? cmp : Long.compare(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+    }
+}
@@ -0,0 +1,14 @@
+package com.spshpau.userservice.services.catalog;
+
+/**
+ * Published whenever an entry is added to or removed from a reference catalog.
+ *
+ * @param catalog The catalog whose snapshot is no longer valid.
+ */
+public record CatalogChangedEvent(Catalog catalog) {
+
+    public enum Catalog {
+        GENRES,
+        SKILLS
+    }
+}
@@ -0,0 +1,40 @@
+package com.spshpau.userservice.services.catalog;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * An immutable copy of a whole reference catalog together with an entity tag of its content.
+ * The tag only changes when an entry is added, removed or renamed, so clients can revalidate with
+ * {@code If-None-Match} and skip the payload while nothing changed.
+ *
+ * @param items The catalog entries, in catalog order.
+ * @param etag  A strong entity tag (without quotes) derived from the entries.
+ */
+public record CatalogSnapshot<T>(List<T> items, String etag) {
+
+    /**
+     * @param items The catalog entries, in catalog order.
+     * @param key   The identity of an entry, e.g. its ID and name. Entries with equal keys are the same content.
+     * @return A snapshot tagged with a digest of the entry keys.
+     */
+    public static <T> CatalogSnapshot<T> of(List<T> items, Function<T, String> key) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+        for (T item : items) {
+            digest.update(key.apply(item).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) '\n');
+        }
+        // 128 bits are plenty to tell catalog versions apart
+        String etag = HexFormat.of().formatHex(digest.digest(), 0, 16);
+        return new CatalogSnapshot<>(List.copyOf(items), etag);
+    }
+}
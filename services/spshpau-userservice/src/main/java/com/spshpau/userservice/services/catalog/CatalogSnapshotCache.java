@@ -0,0 +1,63 @@
+package com.spshpau.userservice.services.catalog;
+
+import com.spshpau.userservice.services.catalog.CatalogChangedEvent.Catalog;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Holds one in-process {@link CatalogSnapshot} per reference catalog, so catalog reads and conditional GETs
+ * need no database round trip while nothing changed.
+ * A snapshot is dropped once a change to its catalog has committed, signalled by the {@link CatalogChangedEvent}
+ * the genre and skill services publish, and rebuilt on the next read.
+ */
+@Component
+@Slf4j
+public class CatalogSnapshotCache {
+
+    private final Map<Catalog, CatalogSnapshot<?>> snapshots = new ConcurrentHashMap<>();
+    // Bumped on every change, so a snapshot loaded while a change committed is not kept
+    private final Map<Catalog, Long> generations = new EnumMap<>(Catalog.class);
+
+    /**
+     * @param catalog The catalog.
+     * @param loader  Loads a fresh snapshot of the catalog if none is held.
+     * @return The current snapshot of the catalog.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CatalogSnapshot<T> get(Catalog catalog, Supplier<CatalogSnapshot<T>> loader) {
+        CatalogSnapshot<T> snapshot = (CatalogSnapshot<T>) snapshots.get(catalog);
+        if (snapshot != null) {
+            return snapshot;
+        }
+        long generation = generation(catalog);
+        snapshot = loader.get();
+        synchronized (generations) {
+            if (generations.getOrDefault(catalog, 0L) == generation) {
+                snapshots.put(catalog, snapshot);
+            }
+        }
+        log.debug("Loaded {} snapshot with {} entries", catalog, snapshot.items().size());
+        return snapshot;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        synchronized (generations) {
+            generations.merge(event.catalog(), 1L, Long::sum);
+            snapshots.remove(event.catalog());
+        }
+        log.debug("Evicted {} snapshot", event.catalog());
+    }
+
+    private long generation(Catalog catalog) {
+        synchronized (generations) {
+            return generations.getOrDefault(catalog, 0L);
+        }
+    }
+}
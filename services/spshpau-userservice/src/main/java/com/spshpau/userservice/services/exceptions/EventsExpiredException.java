@@ -0,0 +1,7 @@
+package com.spshpau.userservice.services.exceptions;
+
+public class EventsExpiredException extends RuntimeException {
+    public EventsExpiredException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,22 @@
+package com.spshpau.userservice.services.graph;
+
+import java.util.UUID;
+
+/**
+ * Published whenever an accepted connection between two users starts or ends: a request is accepted,
+ * a connection is removed, or a block removes one.
+ *
+ * @param userId1   One user of the connection.
+ * @param userId2   The other user.
+ * @param connected {@code true} if the users are connected now, {@code false} if they no longer are.
+ */
+public record ConnectionChangedEvent(UUID userId1, UUID userId2, boolean connected) {
+
+    public static ConnectionChangedEvent connected(UUID userId1, UUID userId2) {
+        return new ConnectionChangedEvent(userId1, userId2, true);
+    }
+
+    public static ConnectionChangedEvent disconnected(UUID userId1, UUID userId2) {
+        return new ConnectionChangedEvent(userId1, userId2, false);
+    }
+}
@@ -0,0 +1,291 @@
+package com.spshpau.userservice.services.graph;
+
+import com.spshpau.userservice.model.enums.ConnectionStatus;
+import com.spshpau.userservice.repositories.UserConnectionRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * In-memory graph of accepted connections, answering mutual connection counts and friends-of-friends
+ * suggestions without touching {@code user_connections}.
+ * <p>
+ * The bulk of the graph is an immutable {@link CsrAdjacency} built from {@code user_connections}. Connections
+ * accepted or removed since the build are kept in a small copy-on-write overlay of added and removed neighbours,
+ * applied once the change has committed ({@link ConnectionChangedEvent}). Users without overlay entries, which
+ * is nearly all of them, are answered from the sorted CSR rows alone.
+ * <p>
+ * The base is rebuilt on a fixed delay, which empties the overlay and picks up connections changed through
+ * other instances; the first request before the initial build waits for it. Metrics:
+ * {@code connections.graph.nodes}, {@code connections.graph.edges}, {@code connections.graph.size}
+ * (bytes held by the base) and {@code connections.graph.overlay.users}.
+ */
+@Component
+@Slf4j
+public class ConnectionGraph implements MeterBinder {
+
+    private static final int DEFAULT_MAX_EXPANDED_EDGES = 100_000;
+
+    private final UserConnectionRepository userConnectionRepository;
+    private final int maxExpandedEdges;
+
+    private final Object rebuildLock = new Object();
+    private final Object stateLock = new Object();
+    private volatile GraphState state;
+    // Changes committed while a rebuild scans the table, replayed onto the new base; guarded by stateLock
+    private List<ConnectionChangedEvent> changedDuringRebuild;
+
+    public ConnectionGraph(UserConnectionRepository userConnectionRepository) {
+        this(userConnectionRepository, DEFAULT_MAX_EXPANDED_EDGES);
+    }
+
+    @Autowired
+    public ConnectionGraph(UserConnectionRepository userConnectionRepository,
+                           @Value("${connections.graph.max-expanded-edges:100000}") int maxExpandedEdges) {
+        this.userConnectionRepository = userConnectionRepository;
+        this.maxExpandedEdges = maxExpandedEdges;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("connections.graph.nodes", this, graph -> graph.baseOrEmpty().nodeCount())
+                .description("Users with at least one accepted connection in the connection graph base")
+                .register(registry);
+        Gauge.builder("connections.graph.edges", this, graph -> graph.baseOrEmpty().edgeCount())
+                .description("Accepted connections in the connection graph base")
+                .register(registry);
+        Gauge.builder("connections.graph.size", this, graph -> graph.baseOrEmpty().sizeInBytes())
+                .description("Memory held by the arrays of the connection graph base")
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("connections.graph.overlay.users", this, graph -> {
+                    GraphState current = graph.state;
+                    return current != null ? current.overlayUsers() : 0;
+                })
+                .description("Users whose connections changed since the connection graph base was built")
+                .register(registry);
+    }
+
+    // --- Reads ---
+
+    /**
+     * @param userId1 One user.
+     * @param userId2 The other user.
+     * @return The number of users with an accepted connection to both users.
+     */
+    public int countMutualConnections(UUID userId1, UUID userId2) {
+        GraphState current = current();
+        if (!current.hasOverlay(userId1) && !current.hasOverlay(userId2)) {
+            int node1 = current.base().indexOf(userId1);
+            int node2 = current.base().indexOf(userId2);
+            return node1 < 0 || node2 < 0 ? 0 : current.base().countCommonNeighbors(node1, node2);
+        }
+        Set<UUID> neighbors1 = current.neighborIds(userId1);
+        Set<UUID> neighbors2 = current.neighborIds(userId2);
+        Set<UUID> smaller = neighbors1.size() <= neighbors2.size() ? neighbors1 : neighbors2;
+        Set<UUID> larger = smaller == neighbors1 ? neighbors2 : neighbors1;
+        return (int) smaller.stream().filter(larger::contains).count();
+    }
+
+    /**
+     * Ranks the users two hops away from a user by the number of connections they share with them.
+     * Expansion is bounded: once the rows visited would exceed {@code connections.graph.max-expanded-edges},
+     * further connections of the user are skipped, so a user with many well-connected connections gets
+     * suggestions from a subset of them.
+     *
+     * @param userId   The user to suggest connections for.
+     * @param excluded Users never to suggest, in addition to the user and their current connections.
+     * @param limit    The maximum number of suggestions.
+     * @return Up to {@code limit} users, by mutual connections descending, then by ID.
+     */
+    public List<SecondDegreeConnection> findSecondDegreeConnections(UUID userId, Set<UUID> excluded, int limit) {
+        GraphState current = current();
+        Set<UUID> direct = current.neighborIds(userId);
+        Map<UUID, Integer> mutualCounts = new HashMap<>();
+        int budget = maxExpandedEdges;
+        for (UUID connection : direct) {
+            int degree = current.degree(connection);
+            if (degree > budget) {
+                continue;
+            }
+            budget -= degree;
+            current.forEachNeighbor(connection, candidate -> mutualCounts.merge(candidate, 1, Integer::sum));
+        }
+        mutualCounts.remove(userId);
+        mutualCounts.keySet().removeAll(direct);
+        mutualCounts.keySet().removeAll(excluded);
+
+        return mutualCounts.entrySet().stream()
+                .map(entry -> new SecondDegreeConnection(entry.getKey(), entry.getValue()))
+                .sorted(Comparator.comparingInt(SecondDegreeConnection::mutualConnections).reversed()
+                        .thenComparing(SecondDegreeConnection::userId))
+                .limit(limit)
+                .toList();
+    }
+
+    // --- Updates ---
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onConnectionChanged(ConnectionChangedEvent event) {
+        synchronized (stateLock) {
+            if (state != null) {
+                state = state.apply(event);
+            }
+            if (changedDuringRebuild != null) {
+                changedDuringRebuild.add(event);
+            }
+        }
+    }
+
+    /**
+     * Rebuilds the CSR base from the accepted connections in {@code user_connections} and empties the overlay.
+     * Runs at startup and then on a fixed delay.
+     */
+    @Scheduled(fixedDelayString = "${connections.graph.rebuild-interval:PT10M}")
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            long start = System.currentTimeMillis();
+            synchronized (stateLock) {
+                changedDuringRebuild = new ArrayList<>();
+            }
+            try {
+                CsrAdjacency base = CsrAdjacency.build(
+                        userConnectionRepository.findConnectionRowsByStatus(ConnectionStatus.ACCEPTED));
+                synchronized (stateLock) {
+                    GraphState rebuilt = new GraphState(base, Map.of(), Map.of());
+                    for (ConnectionChangedEvent event : changedDuringRebuild) {
+                        rebuilt = rebuilt.apply(event);
+                    }
+                    state = rebuilt;
+                }
+                log.info("Connection graph rebuilt with {} users and {} connections ({} bytes) in {} ms",
+                        base.nodeCount(), base.edgeCount(), base.sizeInBytes(), System.currentTimeMillis() - start);
+            } catch (RuntimeException e) {
+                if (state == null) {
+                    throw e;
+                }
+                log.warn("Rebuilding the connection graph failed, keeping the previous one", e);
+            } finally {
+                synchronized (stateLock) {
+                    changedDuringRebuild = null;
+                }
+            }
+        }
+    }
+
+    // --- Internals ---
+
+    private GraphState current() {
+        GraphState current = state;
+        if (current == null) {
+            synchronized (rebuildLock) {
+                if (state == null) {
+                    rebuild();
+                }
+            }
+            current = state;
+        }
+        return current;
+    }
+
+    private CsrAdjacency baseOrEmpty() {
+        GraphState current = state;
+        return current != null ? current.base() : CsrAdjacency.EMPTY;
+    }
+
+    /**
+     * @param userId            A user two hops away.
+     * @param mutualConnections The number of connections they share with the user the suggestion is for.
+     */
+    public record SecondDegreeConnection(UUID userId, int mutualConnections) {
+    }
+
+    /**
+     * The base graph plus the neighbours added and removed since it was built. Never mutated; every change
+     * produces a new state that copies only the overlay.
+     */
+    private record GraphState(CsrAdjacency base, Map<UUID, Set<UUID>> added, Map<UUID, Set<UUID>> removed) {
+
+        boolean hasOverlay(UUID userId) {
+            return added.containsKey(userId) || removed.containsKey(userId);
+        }
+
+        int overlayUsers() {
+            Set<UUID> users = new HashSet<>(added.keySet());
+            users.addAll(removed.keySet());
+            return users.size();
+        }
+
+        int degree(UUID userId) {
+            int node = base.indexOf(userId);
+            int degree = node < 0 ? 0 : base.degree(node);
+            return degree + added.getOrDefault(userId, Set.of()).size() - removed.getOrDefault(userId, Set.of()).size();
+        }
+
+        void forEachNeighbor(UUID userId, Consumer<UUID> action) {
+            int node = base.indexOf(userId);
+            Set<UUID> removedNeighbors = removed.getOrDefault(userId, Set.of());
+            if (node >= 0) {
+                base.forEachNeighbor(node, neighbor -> {
+                    UUID neighborId = base.idAt(neighbor);
+                    if (!removedNeighbors.contains(neighborId)) {
+                        action.accept(neighborId);
+                    }
+                });
+            }
+            added.getOrDefault(userId, Set.of()).forEach(action);
+        }
+
+        Set<UUID> neighborIds(UUID userId) {
+            Set<UUID> ids = new HashSet<>();
+            forEachNeighbor(userId, ids::add);
+            return ids;
+        }
+
+        GraphState apply(ConnectionChangedEvent event) {
+            Map<UUID, Set<UUID>> nextAdded = new HashMap<>(added);
+            Map<UUID, Set<UUID>> nextRemoved = new HashMap<>(removed);
+            applyDirected(event.userId1(), event.userId2(), event.connected(), nextAdded, nextRemoved);
+            applyDirected(event.userId2(), event.userId1(), event.connected(), nextAdded, nextRemoved);
+            return new GraphState(base, Map.copyOf(nextAdded), Map.copyOf(nextRemoved));
+        }
+
+        // Keeps the overlay minimal: a change that restores the base state removes the overlay entry instead
+        private void applyDirected(UUID userId, UUID otherId, boolean connected,
+                                   Map<UUID, Set<UUID>> nextAdded, Map<UUID, Set<UUID>> nextRemoved) {
+            int node = base.indexOf(userId);
+            int other = base.indexOf(otherId);
+            boolean inBase = node >= 0 && other >= 0 && base.isConnected(node, other);
+            if (connected) {
+                update(nextRemoved, userId, set -> set.remove(otherId));
+                if (!inBase) {
+                    update(nextAdded, userId, set -> set.add(otherId));
+                }
+            } else {
+                update(nextAdded, userId, set -> set.remove(otherId));
+                if (inBase) {
+                    update(nextRemoved, userId, set -> set.add(otherId));
+                }
+            }
+        }
+
+        private static void update(Map<UUID, Set<UUID>> overlay, UUID userId, Consumer<Set<UUID>> change) {
+            Set<UUID> updated = new HashSet<>(overlay.getOrDefault(userId, Set.of()));
+            change.accept(updated);
+            if (updated.isEmpty()) {
+                overlay.remove(userId);
+            } else {
+                overlay.put(userId, Set.copyOf(updated));
+            }
+        }
+    }
+}
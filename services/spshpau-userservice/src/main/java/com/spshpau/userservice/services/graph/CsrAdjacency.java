@@ -0,0 +1,218 @@
+package com.spshpau.userservice.services.graph;
+
+import com.spshpau.userservice.repositories.UserConnectionRepository.ConnectionRow;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.IntConsumer;
+
+/**
+ * Immutable undirected graph in compressed sparse row form. Users are numbered by their position in a sorted
+ * table of (most, least) significant bit pairs, and the neighbours of node {@code i} are the sorted node numbers
+ * {@code neighbors[offsets[i]] .. neighbors[offsets[i + 1] - 1]}. Each connection is stored once per direction,
+ * so it costs 8 bytes, and each user 20 bytes, with no object per node or per edge.
+ * <p>
+ * Sorted rows make the common neighbours of two users a merge of two int ranges, or a series of binary
+ * searches when one user has far more connections than the other.
+ */
+final class CsrAdjacency {
+
+    static final CsrAdjacency EMPTY = new CsrAdjacency(new long[0], new int[1], new int[0]);
+
+    // Below this size ratio a linear merge beats searching the larger row for each entry of the smaller one
+    private static final int GALLOP_RATIO = 32;
+
+    private static final Comparator<UUID> NODE_ORDER = Comparator.comparingLong(UUID::getMostSignificantBits)
+            .thenComparingLong(UUID::getLeastSignificantBits);
+
+    // msb0, lsb0, msb1, lsb1, ... ordered by msb, then lsb (signed)
+    private final long[] nodeIds;
+    private final int[] offsets;
+    private final int[] neighbors;
+
+    private CsrAdjacency(long[] nodeIds, int[] offsets, int[] neighbors) {
+        this.nodeIds = nodeIds;
+        this.offsets = offsets;
+        this.neighbors = neighbors;
+    }
+
+    /**
+     * @param rows Connections to include regardless of their status; duplicates and self-connections are dropped.
+     * @return The graph of the given connections.
+     */
+    static CsrAdjacency build(List<? extends ConnectionRow> rows) {
+        if (rows.isEmpty()) {
+            return EMPTY;
+        }
+        UUID[] endpoints = new UUID[rows.size() * 2];
+        for (int i = 0; i < rows.size(); i++) {
+            endpoints[2 * i] = rows.get(i).getRequesterId();
+            endpoints[2 * i + 1] = rows.get(i).getAddresseeId();
+        }
+        Arrays.sort(endpoints, NODE_ORDER);
+        int nodeCount = 0;
+        long[] nodeIds = new long[endpoints.length * 2];
+        for (int i = 0; i < endpoints.length; i++) {
+            if (i == 0 || !endpoints[i].equals(endpoints[i - 1])) {
+                nodeIds[2 * nodeCount] = endpoints[i].getMostSignificantBits();
+                nodeIds[2 * nodeCount + 1] = endpoints[i].getLeastSignificantBits();
+                nodeCount++;
+            }
+        }
+        nodeIds = Arrays.copyOf(nodeIds, nodeCount * 2);
+
+        int[] sources = new int[rows.size()];
+        int[] targets = new int[rows.size()];
+        int[] degrees = new int[nodeCount + 1];
+        for (int i = 0; i < rows.size(); i++) {
+            sources[i] = indexOf(nodeIds, rows.get(i).getRequesterId());
+            targets[i] = indexOf(nodeIds, rows.get(i).getAddresseeId());
+            if (sources[i] != targets[i]) {
+                degrees[sources[i]]++;
+                degrees[targets[i]]++;
+            }
+        }
+        int[] offsets = new int[nodeCount + 1];
+        for (int node = 0; node < nodeCount; node++) {
+            offsets[node + 1] = offsets[node] + degrees[node];
+        }
+        int[] neighbors = new int[offsets[nodeCount]];
+        int[] fill = Arrays.copyOf(offsets, nodeCount);
+        for (int i = 0; i < rows.size(); i++) {
+            if (sources[i] != targets[i]) {
+                neighbors[fill[sources[i]]++] = targets[i];
+                neighbors[fill[targets[i]]++] = sources[i];
+            }
+        }
+
+        // Sort every row and squeeze out the connections that appear twice
+        int write = 0;
+        int rowStart = 0;
+        for (int node = 0; node < nodeCount; node++) {
+            int rowEnd = offsets[node + 1];
+            Arrays.sort(neighbors, rowStart, rowEnd);
+            offsets[node] = write;
+            for (int i = rowStart; i < rowEnd; i++) {
+                if (i == rowStart || neighbors[i] != neighbors[i - 1]) {
+                    neighbors[write++] = neighbors[i];
+                }
+            }
+            rowStart = rowEnd;
+        }
+        offsets[nodeCount] = write;
+        return new CsrAdjacency(nodeIds, offsets, write == neighbors.length ? neighbors : Arrays.copyOf(neighbors, write));
+    }
+
+    int nodeCount() {
+        return offsets.length - 1;
+    }
+
+    int edgeCount() {
+        return neighbors.length / 2;
+    }
+
+    long sizeInBytes() {
+        return nodeIds.length * 8L + offsets.length * 4L + neighbors.length * 4L;
+    }
+
+    /**
+     * @return The node number of the user, or {@code -1} if the user has no connections in this graph.
+     */
+    int indexOf(UUID id) {
+        return indexOf(nodeIds, id);
+    }
+
+    UUID idAt(int node) {
+        return new UUID(nodeIds[2 * node], nodeIds[2 * node + 1]);
+    }
+
+    int degree(int node) {
+        return offsets[node + 1] - offsets[node];
+    }
+
+    boolean isConnected(int node1, int node2) {
+        return Arrays.binarySearch(neighbors, offsets[node1], offsets[node1 + 1], node2) >= 0;
+    }
+
+    void forEachNeighbor(int node, IntConsumer action) {
+        for (int i = offsets[node]; i < offsets[node + 1]; i++) {
+            action.accept(neighbors[i]);
+        }
+    }
+
+    /**
+     * @return The number of users connected to both nodes.
+     */
+    int countCommonNeighbors(int node1, int node2) {
+        int start1 = offsets[node1];
+        int end1 = offsets[node1 + 1];
+        int start2 = offsets[node2];
+        int end2 = offsets[node2 + 1];
+        if (end1 - start1 > end2 - start2) {
+            int start = start1, end = end1;
+            start1 = start2; end1 = end2;
+            start2 = start; end2 = end;
+        }
+        int smaller = end1 - start1;
+        int larger = end2 - start2;
+        if (smaller == 0) {
+            return 0;
+        }
+
+        int common = 0;
+        if ((long) smaller * GALLOP_RATIO < larger) {
+            // Both rows are sorted, so each search resumes where the previous one stopped
+            int from = start2;
+            for (int i = start1; i < end1 && from < end2; i++) {
+                int found = Arrays.binarySearch(neighbors, from, end2, neighbors[i]);
+                if (found >= 0) {
+                    common++;
+                    from = found + 1;
+                } else {
+                    from = -(found + 1);
+                }
+            }
+            return common;
+        }
+        int i = start1;
+        int j = start2;
+        while (i < end1 && j < end2) {
+            int a = neighbors[i];
+            int b = neighbors[j];
+            if (a == b) {
+                common++;
+                i++;
+                j++;
+            } else if (a < b) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return common;
+    }
+
+    private static int indexOf(long[] nodeIds, UUID id) {
+        long msb = id.getMostSignificantBits();
+        long lsb = id.getLeastSignificantBits();
+        int low = 0;
+        int high = nodeIds.length / 2 - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = Long.compare(nodeIds[2 * mid], msb);
+            if (cmp == 0) {
+                cmp = Long.compare(nodeIds[2 * mid + 1], lsb);
+            }
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+}
@@ -8,13 +8,18 @@ import com.spshpau.userservice.model.*;
 import com.spshpau.userservice.repositories.*;
 import com.spshpau.userservice.services.ArtistProfileService;
 import com.spshpau.userservice.services.exceptions.*;
+import com.spshpau.userservice.services.matching.MatchInputsChangedEvent;
+import com.spshpau.userservice.services.profile.ProfileReadCache;
+import com.spshpau.userservice.services.profile.UserProfileChangedEvent;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
@@ -26,9 +31,11 @@ import java.util.stream.Collectors;
 public class ArtistProfileServiceImpl implements ArtistProfileService {
 
     private final ArtistProfileRepository artistProfileRepository;
+    private final ApplicationEventPublisher eventPublisher;
     private final UserRepository userRepository;
     private final GenreRepository genreRepository;
     private final SkillRepository skillRepository;
+    private final ProfileReadCache profileReadCache;
 
     private static final int MAX_GENRES = 10;
     private static final int MAX_SKILLS = 5;
@@ -49,11 +56,32 @@ public class ArtistProfileServiceImpl implements ArtistProfileService {
         return dto;
     }
 
+    // Every profile mutation changes the owner's match inputs and cached profile views; the index, match caches,
+    // materialized rankings and outbox all react to these two events
+    private void profileChanged(UUID userId) {
+        eventPublisher.publishEvent(MatchInputsChangedEvent.of(userId));
+        eventPublisher.publishEvent(UserProfileChangedEvent.of(userId));
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Optional<ArtistProfileDetailDto> getArtistProfileByUserId(UUID userId) {
         log.debug("Fetching artist profile for user ID: {}", userId);
-        return artistProfileRepository.findById(userId).map(this::mapEntityToDetailDto);
+        return profileReadCache.getArtistProfile(userId,
+                id -> artistProfileRepository.findById(id).map(this::mapEntityToDetailDto));
+    }
+
+    private ArtistProfileDetailDto getCachedProfileOrThrow(UUID userId) {
+        return getArtistProfileByUserId(userId)
+                .orElseThrow(() -> {
+                    log.warn("ArtistProfile not found for user ID: {}", userId);
+                    return new ProfileNotFoundException("ArtistProfile not found for user ID: " + userId);
+                });
+    }
+
+    private UUID resolveUserIdOrThrow(String username) {
+        return profileReadCache.resolveUserId(username, name -> userRepository.findByUsername(name).map(User::getId))
+                .orElseThrow(() -> new UserNotFoundException("User not found with username: " + username));
     }
 
     private ArtistProfile findProfileByUserIdOrThrow(UUID userId) {
@@ -93,6 +121,7 @@ public class ArtistProfileServiceImpl implements ArtistProfileService {
         }
 
         ArtistProfile savedProfile = artistProfileRepository.save(profile);
+        profileChanged(userId);
         return mapEntityToDetailDto(savedProfile);
     }
 
@@ -114,6 +143,7 @@ public class ArtistProfileServiceImpl implements ArtistProfileService {
         }
 
         ArtistProfile savedProfile = artistProfileRepository.save(profile);
+        profileChanged(userId);
         return mapEntityToDetailDto(savedProfile);
     }
 
@@ -131,6 +161,7 @@ public class ArtistProfileServiceImpl implements ArtistProfileService {
         }
         profile.addGenre(genre);
         ArtistProfile savedProfile = artistProfileRepository.save(profile);
+        profileChanged(userId);
         return mapEntityToDetailDto(savedProfile);
     }
 
@@ -143,6 +174,7 @@ public class ArtistProfileServiceImpl implements ArtistProfileService {
                 .orElseThrow(() -> new GenreNotFoundException("Genre not found with ID: " + genreId));
         profile.removeGenre(genre);
         ArtistProfile savedProfile = artistProfileRepository.save(profile);
+        profileChanged(userId);
         return mapEntityToDetailDto(savedProfile);
     }
 
@@ -159,6 +191,7 @@ public class ArtistProfileServiceImpl implements ArtistProfileService {
         }
         profile.addSkill(skill);
         ArtistProfile savedProfile = artistProfileRepository.save(profile);
+        profileChanged(userId);
         return mapEntityToDetailDto(savedProfile);
     }
 
@@ -171,55 +204,41 @@ public class ArtistProfileServiceImpl implements ArtistProfileService {
                 .orElseThrow(() -> new SkillNotFoundException("Skill not found with ID: " + skillId));
         profile.removeSkill(skill);
         ArtistProfile savedProfile = artistProfileRepository.save(profile);
+        profileChanged(userId);
         return mapEntityToDetailDto(savedProfile);
     }
 
+    // Copies, since the cached sets are shared
+
     @Override
     @Transactional(readOnly = true)
     public Set<GenreSummaryDto> getArtistProfileGenres(UUID userId) {
-        ArtistProfile profile = findProfileByUserIdOrThrow(userId);
-        return profile.getGenres().stream()
-                .map(g -> new GenreSummaryDto(g.getId(), g.getName()))
-                .collect(Collectors.toSet());
+        return new HashSet<>(getCachedProfileOrThrow(userId).getGenres());
     }
 
     @Override
     @Transactional(readOnly = true)
     public Set<SkillSummaryDto> getArtistProfileSkills(UUID userId) {
-        ArtistProfile profile = findProfileByUserIdOrThrow(userId);
-        return profile.getSkills().stream()
-                .map(s -> new SkillSummaryDto(s.getId(), s.getName()))
-                .collect(Collectors.toSet());
+        return new HashSet<>(getCachedProfileOrThrow(userId).getSkills());
     }
 
     @Override
     @Transactional(readOnly = true)
     public Optional<ArtistProfileDetailDto> getArtistProfileByUsername(String username) {
         log.debug("Fetching artist profile for username: {}", username);
-        return userRepository.findByUsername(username)
-                .flatMap(user -> artistProfileRepository.findById(user.getId()))
-                .map(this::mapEntityToDetailDto);
+        return profileReadCache.resolveUserId(username, name -> userRepository.findByUsername(name).map(User::getId))
+                .flatMap(this::getArtistProfileByUserId);
     }
 
     @Override
     @Transactional(readOnly = true)
     public Set<GenreSummaryDto> getArtistProfileGenresByUsername(String username) {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new UserNotFoundException("User not found with username: " + username));
-        ArtistProfile profile = findProfileByUserIdOrThrow(user.getId());
-        return profile.getGenres().stream()
-                .map(g -> new GenreSummaryDto(g.getId(), g.getName()))
-                .collect(Collectors.toSet());
+        return getArtistProfileGenres(resolveUserIdOrThrow(username));
     }
 
     @Override
     @Transactional(readOnly = true)
     public Set<SkillSummaryDto> getArtistProfileSkillsByUsername(String username) {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new UserNotFoundException("User not found with username: " + username));
-        ArtistProfile profile = findProfileByUserIdOrThrow(user.getId());
-        return profile.getSkills().stream()
-                .map(s -> new SkillSummaryDto(s.getId(), s.getName()))
-                .collect(Collectors.toSet());
+        return getArtistProfileSkills(resolveUserIdOrThrow(username));
     }
 }
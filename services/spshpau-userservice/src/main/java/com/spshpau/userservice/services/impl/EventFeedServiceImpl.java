@@ -0,0 +1,53 @@
+package com.spshpau.userservice.services.impl;
+
+import com.spshpau.userservice.dto.eventdto.DomainEventDto;
+import com.spshpau.userservice.dto.eventdto.DomainEventFeedDto;
+import com.spshpau.userservice.model.OutboxEvent;
+import com.spshpau.userservice.repositories.OutboxEventRepository;
+import com.spshpau.userservice.services.EventFeedService;
+import com.spshpau.userservice.services.exceptions.EventsExpiredException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class EventFeedServiceImpl implements EventFeedService {
+
+    private final OutboxEventRepository outboxEventRepository;
+
+    @Override
+    @Transactional(readOnly = true)
+    public DomainEventFeedDto getEventsAfter(long after, int limit) {
+        log.debug("Reading up to {} events after position {}", limit, after);
+        // Positions have no gaps, so a retained range starting beyond the next position means events were deleted
+        Optional<Long> oldest = outboxEventRepository.findOldestPosition();
+        if (oldest.isPresent() && oldest.get() > after + 1) {
+            log.warn("Events after position {} requested, but the oldest retained event is at position {}", after, oldest.get());
+            throw new EventsExpiredException("Events after position " + after + " are no longer retained; resynchronize from the head position.");
+        }
+
+        // One extra row tells whether more events follow
+        List<OutboxEvent> rows = outboxEventRepository.findPublishedAfter(after, PageRequest.of(0, limit + 1));
+        boolean hasMore = rows.size() > limit;
+        List<DomainEventDto> events = rows.stream()
+                .limit(limit)
+                .map(event -> new DomainEventDto(event.getPosition(), event.getType(), event.getUserId(),
+                        event.getOtherUserId(), event.getCreatedAt(), event.getPayload()))
+                .toList();
+        long lastPosition = events.isEmpty() ? after : events.get(events.size() - 1).getPosition();
+        return new DomainEventFeedDto(events, lastPosition, hasMore);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long getHeadPosition() {
+        return outboxEventRepository.findHeadPosition();
+    }
+}
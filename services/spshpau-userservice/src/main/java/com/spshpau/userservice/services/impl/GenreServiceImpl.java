@@ -5,13 +5,18 @@ import com.spshpau.userservice.dto.profiledto.GenreSummaryDto;
 import com.spshpau.userservice.model.Genre;
 import com.spshpau.userservice.repositories.GenreRepository;
 import com.spshpau.userservice.services.GenreService;
+import com.spshpau.userservice.services.catalog.CatalogChangedEvent;
+import com.spshpau.userservice.services.catalog.CatalogSnapshot;
+import com.spshpau.userservice.services.catalog.CatalogSnapshotCache;
 import com.spshpau.userservice.services.exceptions.DuplicateException;
 import com.spshpau.userservice.services.exceptions.GenreNotFoundException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -25,6 +30,8 @@ import java.util.UUID;
 public class GenreServiceImpl implements GenreService {
 
     private final GenreRepository genreRepository;
+    private final CatalogSnapshotCache catalogSnapshotCache;
+    private final ApplicationEventPublisher eventPublisher;
 
     private GenreSummaryDto mapEntityToSummaryDto(Genre entity) {
         if (entity == null) return null;
@@ -42,6 +49,7 @@ public class GenreServiceImpl implements GenreService {
 
         Genre newGenre = new Genre(genreDto.getName());
         Genre savedGenre = genreRepository.save(newGenre);
+        eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Catalog.GENRES));
         log.info("Successfully created genre '{}' with ID: {}", savedGenre.getName(), savedGenre.getId());
         return mapEntityToSummaryDto(savedGenre);
     }
@@ -56,6 +64,7 @@ public class GenreServiceImpl implements GenreService {
         }
         try {
             genreRepository.deleteById(genreId);
+            eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Catalog.GENRES));
             log.info("Successfully deleted genre with ID: {}", genreId);
         } catch (Exception e) {
             log.error("An unexpected error occurred while deleting genre with ID: {}", genreId, e);
@@ -70,4 +79,12 @@ public class GenreServiceImpl implements GenreService {
         Page<Genre> genrePage = genreRepository.findAll(pageable);
         return genrePage.map(this::mapEntityToSummaryDto);
     }
+
+    @Override
+    public CatalogSnapshot<GenreSummaryDto> getGenreCatalog() {
+        // Not transactional, so serving a held snapshot does not take a database connection
+        return catalogSnapshotCache.get(CatalogChangedEvent.Catalog.GENRES, () -> CatalogSnapshot.of(
+                genreRepository.findAll(Sort.by("name")).stream().map(this::mapEntityToSummaryDto).toList(),
+                genre -> genre.getId() + "\t" + genre.getName()));
+    }
 }
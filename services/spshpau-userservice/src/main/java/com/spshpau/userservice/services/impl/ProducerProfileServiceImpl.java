@@ -10,13 +10,18 @@ import com.spshpau.userservice.services.exceptions.GenreLimitExceededException;
 import com.spshpau.userservice.services.exceptions.GenreNotFoundException;
 import com.spshpau.userservice.services.exceptions.ProfileNotFoundException;
 import com.spshpau.userservice.services.exceptions.UserNotFoundException;
+import com.spshpau.userservice.services.matching.MatchInputsChangedEvent;
+import com.spshpau.userservice.services.profile.ProfileReadCache;
+import com.spshpau.userservice.services.profile.UserProfileChangedEvent;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
@@ -28,8 +33,10 @@ import java.util.stream.Collectors;
 public class ProducerProfileServiceImpl implements ProducerProfileService {
 
     private final ProducerProfileRepository producerProfileRepository;
+    private final ApplicationEventPublisher eventPublisher;
     private final UserRepository userRepository;
     private final GenreRepository genreRepository;
+    private final ProfileReadCache profileReadCache;
 
     private static final int MAX_GENRES = 10;
 
@@ -58,11 +65,32 @@ public class ProducerProfileServiceImpl implements ProducerProfileService {
                 });
     }
 
+    // Every profile mutation changes the owner's match inputs and cached profile views; the index, match caches,
+    // materialized rankings and outbox all react to these two events
+    private void profileChanged(UUID userId) {
+        eventPublisher.publishEvent(MatchInputsChangedEvent.of(userId));
+        eventPublisher.publishEvent(UserProfileChangedEvent.of(userId));
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Optional<ProducerProfileDetailDto> getProducerProfileByUserId(UUID userId) {
         log.debug("Fetching producer profile for user ID: {}", userId);
-        return producerProfileRepository.findById(userId).map(this::mapEntityToDetailDto);
+        return profileReadCache.getProducerProfile(userId,
+                id -> producerProfileRepository.findById(id).map(this::mapEntityToDetailDto));
+    }
+
+    private ProducerProfileDetailDto getCachedProfileOrThrow(UUID userId) {
+        return getProducerProfileByUserId(userId)
+                .orElseThrow(() -> {
+                    log.warn("ProducerProfile not found for user ID: {}", userId);
+                    return new ProfileNotFoundException("ProducerProfile not found for user ID: " + userId);
+                });
+    }
+
+    private UUID resolveUserIdOrThrow(String username) {
+        return profileReadCache.resolveUserId(username, name -> userRepository.findByUsername(name).map(User::getId))
+                .orElseThrow(() -> new UserNotFoundException("User not found with username: " + username));
     }
 
     @Override
@@ -90,6 +118,7 @@ public class ProducerProfileServiceImpl implements ProducerProfileService {
 
 
         ProducerProfile savedProfile = producerProfileRepository.save(profile);
+        profileChanged(userId);
         return mapEntityToDetailDto(savedProfile);
     }
 
@@ -111,6 +140,7 @@ public class ProducerProfileServiceImpl implements ProducerProfileService {
         }
 
         ProducerProfile savedProfile = producerProfileRepository.save(profile);
+        profileChanged(userId);
         return mapEntityToDetailDto(savedProfile);
     }
 
@@ -128,6 +158,7 @@ public class ProducerProfileServiceImpl implements ProducerProfileService {
         }
         profile.addGenre(genre);
         ProducerProfile savedProfile = producerProfileRepository.save(profile);
+        profileChanged(userId);
         return mapEntityToDetailDto(savedProfile);
     }
 
@@ -140,36 +171,29 @@ public class ProducerProfileServiceImpl implements ProducerProfileService {
                 .orElseThrow(() -> new GenreNotFoundException("Genre not found with ID: " + genreId));
         profile.removeGenre(genre);
         ProducerProfile savedProfile = producerProfileRepository.save(profile);
+        profileChanged(userId);
         return mapEntityToDetailDto(savedProfile);
     }
 
     @Override
     @Transactional(readOnly = true)
     public Set<GenreSummaryDto> getProducerProfileGenres(UUID userId) {
-        ProducerProfile profile = findProfileByUserIdOrThrow(userId);
-        return profile.getGenres().stream()
-                .map(g -> new GenreSummaryDto(g.getId(), g.getName()))
-                .collect(Collectors.toSet());
+        // A copy, since the cached set is shared
+        return new HashSet<>(getCachedProfileOrThrow(userId).getGenres());
     }
 
     @Override
     @Transactional(readOnly = true)
     public Optional<ProducerProfileDetailDto> getProducerProfileByUsername(String username) {
         log.debug("Fetching producer profile for username: {}", username);
-        return userRepository.findByUsername(username)
-                .flatMap(user -> producerProfileRepository.findById(user.getId()))
-                .map(this::mapEntityToDetailDto);
+        return profileReadCache.resolveUserId(username, name -> userRepository.findByUsername(name).map(User::getId))
+                .flatMap(this::getProducerProfileByUserId);
     }
 
     @Override
     @Transactional(readOnly = true)
     public Set<GenreSummaryDto> getProducerProfileGenresByUsername(String username) {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new UserNotFoundException("User not found with username: " + username));
-        ProducerProfile profile = findProfileByUserIdOrThrow(user.getId());
-        return profile.getGenres().stream()
-                .map(g -> new GenreSummaryDto(g.getId(), g.getName()))
-                .collect(Collectors.toSet());
+        return getProducerProfileGenres(resolveUserIdOrThrow(username));
     }
 }
 
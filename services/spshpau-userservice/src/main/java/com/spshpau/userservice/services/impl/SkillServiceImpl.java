@@ -5,13 +5,18 @@ import com.spshpau.userservice.dto.profiledto.SkillSummaryDto;
 import com.spshpau.userservice.model.Skill;
 import com.spshpau.userservice.repositories.SkillRepository;
 import com.spshpau.userservice.services.SkillService;
+import com.spshpau.userservice.services.catalog.CatalogChangedEvent;
+import com.spshpau.userservice.services.catalog.CatalogSnapshot;
+import com.spshpau.userservice.services.catalog.CatalogSnapshotCache;
 import com.spshpau.userservice.services.exceptions.DuplicateException;
 import com.spshpau.userservice.services.exceptions.SkillNotFoundException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -25,6 +30,8 @@ import java.util.UUID;
 public class SkillServiceImpl implements SkillService {
 
     private final SkillRepository skillRepository;
+    private final CatalogSnapshotCache catalogSnapshotCache;
+    private final ApplicationEventPublisher eventPublisher;
 
     private SkillSummaryDto mapEntityToSummaryDto(Skill entity) {
         if (entity == null) return null;
@@ -43,6 +50,7 @@ public class SkillServiceImpl implements SkillService {
 
         Skill newSkill = new Skill(skillDto.getName());
         Skill savedSkill = skillRepository.save(newSkill);
+        eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Catalog.SKILLS));
         log.info("Successfully created skill '{}' with ID: {}", savedSkill.getName(), savedSkill.getId());
         return mapEntityToSummaryDto(savedSkill);
     }
@@ -57,6 +65,7 @@ public class SkillServiceImpl implements SkillService {
         }
         try {
             skillRepository.deleteById(skillId);
+            eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Catalog.SKILLS));
             log.info("Successfully deleted skill with ID: {}", skillId);
         } catch (Exception e) {
             log.error("An unexpected error occurred while deleting skill with ID: {}", skillId, e);
@@ -71,4 +80,12 @@ public class SkillServiceImpl implements SkillService {
         Page<Skill> skillPage = skillRepository.findAll(pageable);
         return skillPage.map(this::mapEntityToSummaryDto);
     }
+
+    @Override
+    public CatalogSnapshot<SkillSummaryDto> getSkillCatalog() {
+        // Not transactional, so serving a held snapshot does not take a database connection
+        return catalogSnapshotCache.get(CatalogChangedEvent.Catalog.SKILLS, () -> CatalogSnapshot.of(
+                skillRepository.findAll(Sort.by("name")).stream().map(this::mapEntityToSummaryDto).toList(),
+                skill -> skill.getId() + "\t" + skill.getName()));
+    }
 }
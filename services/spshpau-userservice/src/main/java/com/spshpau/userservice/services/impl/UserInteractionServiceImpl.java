@@ -1,27 +1,35 @@
 package com.spshpau.userservice.services.impl;
 
+import com.spshpau.userservice.dto.userdto.ConnectionSuggestionDto;
+import com.spshpau.userservice.dto.userdto.UserSearchSliceDto;
 import com.spshpau.userservice.dto.userdto.UserSummaryDto;
 import com.spshpau.userservice.model.User;
 import com.spshpau.userservice.model.UserConnection;
 import com.spshpau.userservice.model.enums.ConnectionStatus;
+import com.spshpau.userservice.model.enums.DomainEventType;
 import com.spshpau.userservice.repositories.UserConnectionRepository;
 import com.spshpau.userservice.repositories.UserRepository;
+import com.spshpau.userservice.repositories.specifications.UserSearchCursor;
 import com.spshpau.userservice.services.UserInteractionService;
+import com.spshpau.userservice.services.blocking.BlockRelationStore;
 import com.spshpau.userservice.services.enums.InteractionStatus;
 import com.spshpau.userservice.services.exceptions.*;
+import com.spshpau.userservice.services.graph.ConnectionChangedEvent;
+import com.spshpau.userservice.services.graph.ConnectionGraph;
+import com.spshpau.userservice.services.matching.MatchInputsChangedEvent;
+import com.spshpau.userservice.services.outbox.InteractionChangedEvent;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
-import java.util.List;
-import java.util.Optional;
-import java.util.UUID;
-import java.util.stream.Collectors;
+import java.util.*;
 
 
 @Service
@@ -29,8 +37,15 @@ import java.util.stream.Collectors;
 @Slf4j
 public class UserInteractionServiceImpl implements UserInteractionService {
 
+    // Keyset ID paired with the empty username before the first slice; never compared, as no username is empty
+    private static final UUID FIRST_SLICE_ID = new UUID(0L, 0L);
+    private static final int SUGGESTION_OVERFETCH = 2;
+
     private final UserRepository userRepository;
     private final UserConnectionRepository userConnectionRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final BlockRelationStore blockRelationStore;
+    private final ConnectionGraph connectionGraph;
 
     private User findUserOrThrow(UUID userId) {
         log.debug("Attempting to find user with ID: {}", userId);
@@ -41,6 +56,24 @@ public class UserInteractionServiceImpl implements UserInteractionService {
                 });
     }
 
+    // Existence check for read paths that need no entity, resolved with a single ID-only query
+    private void checkUserExists(UUID userId) {
+        if (!userRepository.existsById(userId)) {
+            log.warn("User not found with ID: {}", userId);
+            throw new UserNotFoundException("User not found with ID: " + userId);
+        }
+    }
+
+    private void checkUsersExist(UUID userId1, UUID userId2) {
+        Set<UUID> existingIds = userRepository.findExistingIds(List.of(userId1, userId2));
+        for (UUID userId : List.of(userId1, userId2)) {
+            if (!existingIds.contains(userId)) {
+                log.warn("User not found with ID: {}", userId);
+                throw new UserNotFoundException("User not found with ID: " + userId);
+            }
+        }
+    }
+
     private void checkUserActive(User user) {
         if (!user.isActive()) {
             log.warn("User {} (ID: {}) is deactivated.", user.getUsername(), user.getId());
@@ -63,7 +96,8 @@ public class UserInteractionServiceImpl implements UserInteractionService {
         checkUserActive(requester);
         checkUserActive(addressee);
 
-        if (isBlocked(requesterId, addresseeId)) {
+        // Confirmed against the table: the block store may not have seen a block made through another instance yet
+        if (userRepository.existsBlockBetween(requesterId, addresseeId)) {
             log.warn("Connection request failed: A block exists between users {} and {}.", requesterId, addresseeId);
             throw new BlockedException("Cannot send connection request; a block exists between users.");
         }
@@ -76,6 +110,7 @@ public class UserInteractionServiceImpl implements UserInteractionService {
 
         UserConnection newConnection = new UserConnection(requester, addressee);
         UserConnection savedConnection = userConnectionRepository.save(newConnection);
+        eventPublisher.publishEvent(new InteractionChangedEvent(DomainEventType.CONNECTION_REQUESTED, requesterId, addresseeId));
         log.info("Successfully sent connection request. Connection ID: {}, Requester: {}, Addressee: {}", savedConnection.getId(), requesterId, addresseeId);
         return savedConnection;
     }
@@ -94,9 +129,17 @@ public class UserInteractionServiceImpl implements UserInteractionService {
         checkUserActive(connection.getAddressee());
         checkUserActive(connection.getRequester());
 
+        if (userRepository.existsBlockBetween(acceptorId, requesterId)) {
+            log.warn("Accept connection failed: A block exists between users {} and {}.", acceptorId, requesterId);
+            throw new BlockedException("Cannot accept connection request; a block exists between users.");
+        }
+
         connection.setStatus(ConnectionStatus.ACCEPTED);
         connection.setAcceptTimestamp(LocalDateTime.now());
         UserConnection savedConnection = userConnectionRepository.save(connection);
+        eventPublisher.publishEvent(MatchInputsChangedEvent.of(acceptorId, requesterId));
+        eventPublisher.publishEvent(ConnectionChangedEvent.connected(acceptorId, requesterId));
+        eventPublisher.publishEvent(new InteractionChangedEvent(DomainEventType.CONNECTION_ACCEPTED, acceptorId, requesterId));
         log.info("Successfully accepted connection request. Connection ID: {}, Acceptor: {}, Requester: {}", savedConnection.getId(), acceptorId, requesterId);
         return savedConnection;
     }
@@ -113,6 +156,7 @@ public class UserInteractionServiceImpl implements UserInteractionService {
                 });
 
         userConnectionRepository.delete(connection);
+        eventPublisher.publishEvent(new InteractionChangedEvent(DomainEventType.CONNECTION_REJECTED, rejectorId, requesterId));
         log.info("Successfully rejected and deleted connection request. Connection ID: {}, Rejector: {}, Requester: {}", connection.getId(), rejectorId, requesterId);
     }
 
@@ -128,6 +172,9 @@ public class UserInteractionServiceImpl implements UserInteractionService {
                 });
 
         userConnectionRepository.delete(connection);
+        eventPublisher.publishEvent(MatchInputsChangedEvent.of(userId1, userId2));
+        eventPublisher.publishEvent(ConnectionChangedEvent.disconnected(userId1, userId2));
+        eventPublisher.publishEvent(new InteractionChangedEvent(DomainEventType.CONNECTION_REMOVED, userId1, userId2));
         log.info("Successfully removed connection. Connection ID: {}, User1: {}, User2: {}", connection.getId(), userId1, userId2);
     }
 
@@ -135,24 +182,17 @@ public class UserInteractionServiceImpl implements UserInteractionService {
     @Transactional(readOnly = true)
     public Page<UserSummaryDto> getConnectionsDto(UUID userId, Pageable pageable) {
         log.debug("Fetching connections DTO for user ID: {} with pageable: {}", userId, pageable);
-        Page<UserConnection> connectionsPage = userConnectionRepository.findAcceptedConnectionsForUser(userId, ConnectionStatus.ACCEPTED, pageable);
-        List<UserSummaryDto> dtoList = connectionsPage.getContent().stream()
-                .map(conn -> conn.getRequester().getId().equals(userId) ? conn.getAddressee() : conn.getRequester())
-                .map(user -> new UserSummaryDto(user.getId(), user.getUsername(), user.getFirstName(), user.getLastName(), user.getLocation()))
-                .collect(Collectors.toList());
-        log.debug("Found {} connections for user ID: {} on page {}/{}", dtoList.size(), userId, pageable.getPageNumber(), connectionsPage.getTotalPages());
-        return new PageImpl<>(dtoList, pageable, connectionsPage.getTotalElements());
+        // Projected in the query, so the connected users are not loaded one by one
+        Page<UserSummaryDto> connectionsPage = userConnectionRepository.findConnectedUserSummaries(userId, ConnectionStatus.ACCEPTED, pageable);
+        log.debug("Found {} connections for user ID: {} on page {}/{}", connectionsPage.getNumberOfElements(), userId, pageable.getPageNumber(), connectionsPage.getTotalPages());
+        return connectionsPage;
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<UserSummaryDto> getAllConnectionsDto(UUID userId) {
         log.debug("Fetching all connections DTO for user ID: {}", userId);
-        List<UserConnection> connections = userConnectionRepository.findAllAcceptedConnectionsForUser(userId, ConnectionStatus.ACCEPTED);
-        List<UserSummaryDto> dtoList = connections.stream()
-                .map(conn -> conn.getRequester().getId().equals(userId) ? conn.getAddressee() : conn.getRequester())
-                .map(user -> new UserSummaryDto(user.getId(), user.getUsername(), user.getFirstName(), user.getLastName(), user.getLocation()))
-                .toList();
+        List<UserSummaryDto> dtoList = userConnectionRepository.findAllConnectedUserSummaries(userId, ConnectionStatus.ACCEPTED);
         log.debug("Found {} total connections for user ID: {}", dtoList.size(), userId);
         return dtoList;
     }
@@ -161,28 +201,65 @@ public class UserInteractionServiceImpl implements UserInteractionService {
     @Transactional(readOnly = true)
     public Page<UserSummaryDto> getPendingIncomingRequestsDto(UUID userId, Pageable pageable) {
         log.debug("Fetching pending incoming requests DTO for user ID: {} with pageable: {}", userId, pageable);
-        Page<UserConnection> requestsPage = userConnectionRepository.findByAddresseeIdAndStatus(userId, ConnectionStatus.PENDING, pageable);
-        List<UserSummaryDto> dtoList = requestsPage.getContent().stream()
-                .map(UserConnection::getRequester)
-                .map(user -> new UserSummaryDto(user.getId(), user.getUsername(), user.getFirstName(), user.getLastName(), user.getLocation()))
-                .collect(Collectors.toList());
-        log.debug("Found {} pending incoming requests for user ID: {} on page {}/{}", dtoList.size(), userId, pageable.getPageNumber(), requestsPage.getTotalPages());
-        return new PageImpl<>(dtoList, pageable, requestsPage.getTotalElements());
+        Page<UserSummaryDto> requestsPage = userConnectionRepository.findRequesterSummariesByAddresseeIdAndStatus(userId, ConnectionStatus.PENDING, pageable);
+        log.debug("Found {} pending incoming requests for user ID: {} on page {}/{}", requestsPage.getNumberOfElements(), userId, pageable.getPageNumber(), requestsPage.getTotalPages());
+        return requestsPage;
     }
 
     @Override
     @Transactional(readOnly = true)
     public Page<UserSummaryDto> getPendingOutgoingRequestsDto(UUID userId, Pageable pageable) {
         log.debug("Fetching pending outgoing requests DTO for user ID: {} with pageable: {}", userId, pageable);
-        Page<UserConnection> requestsPage = userConnectionRepository.findByRequesterIdAndStatus(userId, ConnectionStatus.PENDING, pageable);
-        List<UserSummaryDto> dtoList = requestsPage.getContent().stream()
-                .map(UserConnection::getAddressee)
-                .map(user -> new UserSummaryDto(user.getId(), user.getUsername(), user.getFirstName(), user.getLastName(), user.getLocation()))
-                .collect(Collectors.toList());
-        log.debug("Found {} pending outgoing requests for user ID: {} on page {}/{}", dtoList.size(), userId, pageable.getPageNumber(), requestsPage.getTotalPages());
-        return new PageImpl<>(dtoList, pageable, requestsPage.getTotalElements());
+        Page<UserSummaryDto> requestsPage = userConnectionRepository.findAddresseeSummariesByRequesterIdAndStatus(userId, ConnectionStatus.PENDING, pageable);
+        log.debug("Found {} pending outgoing requests for user ID: {} on page {}/{}", requestsPage.getNumberOfElements(), userId, pageable.getPageNumber(), requestsPage.getTotalPages());
+        return requestsPage;
+    }
+
+
+    // --- Connection Graph ---
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<UUID, Integer> countMutualConnections(UUID userId, Collection<UUID> otherUserIds) {
+        log.debug("Counting mutual connections between user ID: {} and {} other users", userId, otherUserIds.size());
+        checkUserExists(userId);
+        Map<UUID, Integer> counts = new LinkedHashMap<>();
+        for (UUID otherUserId : otherUserIds) {
+            if (!otherUserId.equals(userId)) {
+                counts.computeIfAbsent(otherUserId, id -> connectionGraph.countMutualConnections(userId, id));
+            }
+        }
+        return counts;
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<ConnectionSuggestionDto> suggestConnections(UUID userId, int limit) {
+        log.debug("Suggesting up to {} connections for user ID: {}", limit, userId);
+        checkUserExists(userId);
+        Set<UUID> excluded = blockRelationStore.getBlockRelatedUserIds(userId);
+        excluded.addAll(userConnectionRepository.findConnectedUserIds(userId, ConnectionStatus.PENDING));
+
+        // Ranked in memory; extra candidates make up for inactive users, which the summary query leaves out
+        List<ConnectionGraph.SecondDegreeConnection> candidates =
+                connectionGraph.findSecondDegreeConnections(userId, excluded, limit * SUGGESTION_OVERFETCH);
+        if (candidates.isEmpty()) {
+            return List.of();
+        }
+        Map<UUID, UserSummaryDto> summaries = new HashMap<>();
+        userRepository.findActiveSummariesByIdIn(candidates.stream().map(ConnectionGraph.SecondDegreeConnection::userId).toList())
+                .forEach(summary -> summaries.put(summary.getId(), summary));
+
+        List<ConnectionSuggestionDto> suggestions = new ArrayList<>();
+        for (ConnectionGraph.SecondDegreeConnection candidate : candidates) {
+            UserSummaryDto summary = summaries.get(candidate.userId());
+            if (summary != null && suggestions.size() < limit) {
+                suggestions.add(new ConnectionSuggestionDto(summary, candidate.mutualConnections()));
+            }
+        }
+        log.debug("Returning {} connection suggestions for user ID: {}", suggestions.size(), userId);
+        return suggestions;
+    }
 
     // --- Blocking ---
 
@@ -203,11 +280,18 @@ public class UserInteractionServiceImpl implements UserInteractionService {
                     log.info("Removing existing connection (ID: {}, Status: {}) between blocker {} and blocked {} before blocking.",
                             connection.getId(), connection.getStatus(), blockerId, blockedId);
                     userConnectionRepository.delete(connection);
+                    if (connection.getStatus() == ConnectionStatus.ACCEPTED) {
+                        eventPublisher.publishEvent(ConnectionChangedEvent.disconnected(blockerId, blockedId));
+                    }
+                    eventPublisher.publishEvent(new InteractionChangedEvent(DomainEventType.CONNECTION_REMOVED, blockerId, blockedId));
                 });
 
         boolean added = blocker.getBlockedUsers().add(blocked);
         if(added) {
             userRepository.save(blocker);
+            blockRelationStore.recordBlock(blockerId, blockedId);
+            eventPublisher.publishEvent(MatchInputsChangedEvent.of(blockerId, blockedId));
+            eventPublisher.publishEvent(new InteractionChangedEvent(DomainEventType.USER_BLOCKED, blockerId, blockedId));
             log.info("User ID: {} successfully blocked by user ID: {}", blockedId, blockerId);
         } else {
             log.info("User ID: {} was already blocked by user ID: {}. No changes made.", blockedId, blockerId);
@@ -224,6 +308,9 @@ public class UserInteractionServiceImpl implements UserInteractionService {
         boolean removed = blocker.getBlockedUsers().remove(blocked);
         if (removed) {
             userRepository.save(blocker);
+            blockRelationStore.recordUnblock(blockerId, blockedId);
+            eventPublisher.publishEvent(MatchInputsChangedEvent.of(blockerId, blockedId));
+            eventPublisher.publishEvent(new InteractionChangedEvent(DomainEventType.USER_UNBLOCKED, blockerId, blockedId));
             log.info("User ID: {} successfully unblocked by user ID: {}", blockedId, blockerId);
         } else {
             log.info("User ID: {} was not blocked by user ID: {}. No changes made.", blockedId, blockerId);
@@ -232,18 +319,39 @@ public class UserInteractionServiceImpl implements UserInteractionService {
 
     @Override
     @Transactional(readOnly = true)
-    public Page<User> getBlockedUsers(UUID userId, Pageable pageable) {
+    public Page<UserSummaryDto> getBlockedUsers(UUID userId, Pageable pageable) {
         log.debug("Fetching blocked users for user ID: {} with pageable: {}", userId, pageable);
-        User user = findUserOrThrow(userId);
-        List<User> blockedList = user.getBlockedUsers().stream().toList();
-        log.debug("User ID: {} has {} blocked users in total.", userId, blockedList.size());
-
-        int start = (int) pageable.getOffset();
-        int end = Math.min((start + pageable.getPageSize()), blockedList.size());
-        List<User> pageContent = (start <= end && start < blockedList.size()) ? blockedList.subList(start, end) : List.of();
+        checkUserExists(userId);
+        // The query orders by username and id itself; a client sort would break the stable page order
+        Pageable unsorted = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize());
+        Page<UserSummaryDto> blockedPage = userRepository.findBlockedUserSummaries(userId, unsorted);
+        log.debug("Returning {} of {} blocked users for user ID: {} on page {}", blockedPage.getNumberOfElements(),
+                blockedPage.getTotalElements(), userId, pageable.getPageNumber());
+        return blockedPage;
+    }
 
-        log.debug("Returning {} blocked users for user ID: {} on page {}/{}", pageContent.size(), userId, pageable.getPageNumber(), (blockedList.size() + pageable.getPageSize() -1)/pageable.getPageSize() );
-        return new PageImpl<>(pageContent, pageable, blockedList.size());
+    @Override
+    @Transactional(readOnly = true)
+    public UserSearchSliceDto getBlockedUsersAfter(UUID userId, String cursor, int size) {
+        log.debug("Fetching blocked users for user ID: {} after cursor: {} with size: {}", userId, cursor, size);
+        UserSearchCursor after = (cursor == null || cursor.isBlank()) ? null : UserSearchCursor.decode(cursor);
+        checkUserExists(userId);
+
+        // Every username sorts after the empty string, so the first slice starts at the beginning of the order.
+        // One extra row tells whether a next slice exists.
+        List<UserSummaryDto> rows = userRepository.findBlockedUserSummariesAfter(userId,
+                after != null ? after.username() : "",
+                after != null ? after.id() : FIRST_SLICE_ID,
+                PageRequest.of(0, size + 1));
+        boolean hasNext = rows.size() > size;
+        List<UserSummaryDto> content = hasNext ? rows.subList(0, size) : rows;
+
+        String nextCursor = null;
+        if (hasNext) {
+            UserSummaryDto last = content.get(content.size() - 1);
+            nextCursor = new UserSearchCursor(last.getUsername(), last.getId()).encode();
+        }
+        return new UserSearchSliceDto(new ArrayList<>(content), hasNext, nextCursor);
     }
 
     // --- Status Checks ---
@@ -257,49 +365,91 @@ public class UserInteractionServiceImpl implements UserInteractionService {
             return InteractionStatus.NONE;
         }
 
-        User viewingUser = findUserOrThrow(viewingUserId);
-        User targetUser = findUserOrThrow(targetUserId);
+        checkUsersExist(viewingUserId, targetUserId);
+
+        // Answered from the block store; the filter usually settles both directions without a query
+        boolean blockedByYou = blockRelationStore.hasBlocked(viewingUserId, targetUserId);
+        boolean blockedByOther = blockRelationStore.isBlockedBy(viewingUserId, targetUserId);
 
-        boolean blockedByYou = viewingUser.getBlockedUsers().contains(targetUser);
-        boolean blockedByOther = targetUser.getBlockedUsers().contains(viewingUser);
+        Optional<UserConnection> connectionOpt = blockedByYou || blockedByOther
+                ? Optional.empty()
+                : userConnectionRepository.findConnectionBetweenUsers(viewingUserId, targetUserId);
 
+        InteractionStatus statusToReturn = toInteractionStatus(blockedByYou, blockedByOther,
+                connectionOpt.map(UserConnection::getStatus).orElse(null),
+                connectionOpt.map(connection -> connection.getRequester().getId().equals(viewingUserId)).orElse(false));
+        log.debug("InteractionStatus for {} and {}: {}", viewingUserId, targetUserId, statusToReturn);
+        return statusToReturn;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<UUID, InteractionStatus> checkInteractionStatuses(UUID viewingUserId, Collection<UUID> targetUserIds) {
+        log.debug("Checking interaction status between viewing user ID: {} and {} target users", viewingUserId, targetUserIds.size());
+        Set<UUID> requested = new LinkedHashSet<>(targetUserIds);
+        Set<UUID> lookupIds = new HashSet<>(requested);
+        lookupIds.add(viewingUserId);
+        Set<UUID> existingIds = userRepository.findExistingIds(lookupIds);
+        if (!existingIds.contains(viewingUserId)) {
+            log.warn("User not found with ID: {}", viewingUserId);
+            throw new UserNotFoundException("User not found with ID: " + viewingUserId);
+        }
+        requested.retainAll(existingIds);
+
+        // One query for all connections in either direction; blocks come from the viewer's entry in the block store
+        Set<UUID> otherUserIds = new HashSet<>(requested);
+        otherUserIds.remove(viewingUserId);
+        Map<UUID, UserConnectionRepository.ConnectionRow> connections = new HashMap<>();
+        if (!otherUserIds.isEmpty()) {
+            for (UserConnectionRepository.ConnectionRow row : userConnectionRepository.findConnectionRowsBetween(viewingUserId, otherUserIds)) {
+                boolean outgoing = row.getRequesterId().equals(viewingUserId);
+                connections.put(outgoing ? row.getAddresseeId() : row.getRequesterId(), row);
+            }
+        }
+
+        Map<UUID, InteractionStatus> statuses = new LinkedHashMap<>();
+        for (UUID targetUserId : requested) {
+            if (targetUserId.equals(viewingUserId)) {
+                statuses.put(targetUserId, InteractionStatus.NONE);
+                continue;
+            }
+            UserConnectionRepository.ConnectionRow connection = connections.get(targetUserId);
+            statuses.put(targetUserId, toInteractionStatus(
+                    blockRelationStore.hasBlocked(viewingUserId, targetUserId),
+                    blockRelationStore.isBlockedBy(viewingUserId, targetUserId),
+                    connection != null ? connection.getStatus() : null,
+                    connection != null && connection.getRequesterId().equals(viewingUserId)));
+        }
+        log.debug("Resolved {} interaction statuses for viewing user ID: {}", statuses.size(), viewingUserId);
+        return statuses;
+    }
+
+    // Blocks take precedence over connections; a connection is pending in the direction of its request
+    private static InteractionStatus toInteractionStatus(boolean blockedByYou, boolean blockedByOther,
+                                                         ConnectionStatus connectionStatus, boolean viewerIsRequester) {
         if (blockedByYou && blockedByOther) {
-            log.debug("InteractionStatus for {} and {}: BLOCKED_MUTUAL", viewingUserId, targetUserId);
             return InteractionStatus.BLOCKED_MUTUAL;
         }
         if (blockedByYou) {
-            log.debug("InteractionStatus for {} and {}: BLOCKED_BY_YOU", viewingUserId, targetUserId);
             return InteractionStatus.BLOCKED_BY_YOU;
         }
         if (blockedByOther) {
-            log.debug("InteractionStatus for {} and {}: BLOCKED_BY_OTHER", viewingUserId, targetUserId);
             return InteractionStatus.BLOCKED_BY_OTHER;
         }
-
-        Optional<UserConnection> connectionOpt = userConnectionRepository.findConnectionBetweenUsers(viewingUserId, targetUserId);
-
-        InteractionStatus statusToReturn = InteractionStatus.NONE;
-        if (connectionOpt.isPresent()) {
-            UserConnection connection = connectionOpt.get();
-            if (connection.getStatus() == ConnectionStatus.ACCEPTED) {
-                statusToReturn = InteractionStatus.CONNECTION_ACCEPTED;
-            } else if (connection.getRequester().getId().equals(viewingUserId)) {
-                statusToReturn = InteractionStatus.PENDING_OUTGOING;
-            } else {
-                statusToReturn = InteractionStatus.PENDING_INCOMING;
-            }
+        if (connectionStatus == null) {
+            return InteractionStatus.NONE;
         }
-        log.debug("InteractionStatus for {} and {}: {}", viewingUserId, targetUserId, statusToReturn);
-        return statusToReturn;
+        if (connectionStatus == ConnectionStatus.ACCEPTED) {
+            return InteractionStatus.CONNECTION_ACCEPTED;
+        }
+        return viewerIsRequester ? InteractionStatus.PENDING_OUTGOING : InteractionStatus.PENDING_INCOMING;
     }
 
     @Override
-    @Transactional(readOnly = true)
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
     public boolean isBlocked(UUID userId1, UUID userId2) {
         log.debug("Checking if a block exists between user ID: {} and user ID: {}", userId1, userId2);
-        User user1 = findUserOrThrow(userId1);
-        User user2 = findUserOrThrow(userId2);
-        boolean isBlockedResult = user1.getBlockedUsers().contains(user2) || user2.getBlockedUsers().contains(user1);
+        boolean isBlockedResult = blockRelationStore.isBlocked(userId1, userId2);
         log.debug("Block status between {} and {}: {}", userId1, userId2, isBlockedResult);
         return isBlockedResult;
     }
@@ -2,35 +2,55 @@ package com.spshpau.userservice.services.impl;
 
 import com.spshpau.userservice.config.CacheConfig;
 import com.spshpau.userservice.dto.profiledto.*;
+import com.spshpau.userservice.dto.userdto.MatchCursorPageDto;
 import com.spshpau.userservice.dto.userdto.UserDetailDto;
+import com.spshpau.userservice.dto.userdto.UserFacetCountsDto;
+import com.spshpau.userservice.dto.userdto.UserFieldSelection;
 import com.spshpau.userservice.dto.userdto.UserSearchCriteria;
+import com.spshpau.userservice.dto.userdto.UserSearchSliceDto;
+import com.spshpau.userservice.dto.userdto.UserSuggestionDto;
 import com.spshpau.userservice.dto.userdto.UserSummaryDto;
 import com.spshpau.userservice.model.ArtistProfile;
 import com.spshpau.userservice.model.ProducerProfile;
 import com.spshpau.userservice.model.User;
-import com.spshpau.userservice.model.Genre;
 import com.spshpau.userservice.model.enums.ConnectionStatus;
-import com.spshpau.userservice.model.enums.ExperienceLevel;
 import com.spshpau.userservice.repositories.UserConnectionRepository;
 import com.spshpau.userservice.repositories.UserRepository;
+import com.spshpau.userservice.repositories.specifications.UserSearchCursor;
 import com.spshpau.userservice.repositories.specifications.UserSpecification;
 import com.spshpau.userservice.services.UserService;
+import com.spshpau.userservice.services.blocking.BlockRelationStore;
 import com.spshpau.userservice.services.exceptions.UserNotFoundException;
+import com.spshpau.userservice.services.matching.MatchCursor;
+import com.spshpau.userservice.services.matching.MatchFeatures;
+import com.spshpau.userservice.services.matching.MatchIndex;
+import com.spshpau.userservice.services.matching.MatchInputsChangedEvent;
+import com.spshpau.userservice.services.matching.MatchScorer;
+import com.spshpau.userservice.services.matching.MaterializedMatchStore;
+import com.spshpau.userservice.services.matching.SqlMatchEngine;
+import com.spshpau.userservice.services.profile.ProfileReadCache;
+import com.spshpau.userservice.services.profile.UserProfileChangedEvent;
+import com.spshpau.userservice.services.search.UsernamePrefixIndex;
+import com.spshpau.userservice.services.wrappers.MatchRanking;
 import com.spshpau.userservice.services.wrappers.MatchedUser;
-import jakarta.persistence.criteria.JoinType;
-import jakarta.persistence.criteria.Predicate;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
 
 import java.util.*;
+import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 @Service
@@ -39,47 +59,69 @@ import java.util.stream.Collectors;
 public class UserServiceImpl implements UserService {
     private final UserRepository userRepository;
     private final UserConnectionRepository userConnectionRepository;
+    private final MatchIndex matchIndex;
+    private final MatchScorer matchScorer;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SqlMatchEngine sqlMatchEngine;
+    private final MaterializedMatchStore materializedMatchStore;
+    private final UsernamePrefixIndex usernamePrefixIndex;
+    private final BlockRelationStore blockRelationStore;
+    private final ProfileReadCache profileReadCache;
+
+    private static final Comparator<MatchedUser> MATCH_ORDER = Comparator
+            .comparingDouble(MatchedUser::getScore).reversed()
+            .thenComparing(MatchedUser::getUsername);
+
+    private static final int FIRST_STREAM_CHUNK_SIZE = 20;
+    private static final int STREAM_CHUNK_GROWTH = 4;
 
 
     private UserDetailDto mapUserToDetailDto(User user) {
+        return mapUserToDetailDto(user, UserFieldSelection.ALL);
+    }
+
+    // Only touches the selected profiles and collections, so unselected lazy associations are never loaded
+    private UserDetailDto mapUserToDetailDto(User user, UserFieldSelection fields) {
         if (user == null) {
             return null;
         }
-        UserDetailDto dto = new UserDetailDto();
-        dto.setId(user.getId());
-        dto.setUsername(user.getUsername());
-        dto.setEmail(user.getEmail());
-        dto.setFirstName(user.getFirstName());
-        dto.setLastName(user.getLastName());
-        dto.setLocation(user.getLocation());
-        dto.setActive(user.isActive());
-
-        if (user.getArtistProfile() != null) {
+        UserDetailDto dto = new UserDetailDto(user.getId(), user.getUsername(), user.getEmail(),
+                user.getFirstName(), user.getLastName(), user.getLocation(), user.isActive());
+
+        String artist = UserFieldSelection.ARTIST_PROFILE;
+        if (user.getArtistProfile() != null && fields.includes(artist)) {
             ArtistProfile apEntity = user.getArtistProfile();
             ArtistProfileDetailDto apDto = new ArtistProfileDetailDto();
             apDto.setId(apEntity.getId());
             apDto.setAvailability(apEntity.isAvailability());
             apDto.setBio(apEntity.getBio());
             apDto.setExperienceLevel(apEntity.getExperienceLevel());
-            apDto.setGenres(apEntity.getGenres().stream()
-                    .map(g -> new GenreSummaryDto(g.getId(), g.getName()))
-                    .collect(Collectors.toSet()));
-            apDto.setSkills(apEntity.getSkills().stream()
-                    .map(s -> new SkillSummaryDto(s.getId(), s.getName()))
-                    .collect(Collectors.toSet()));
+            if (fields.includes(artist, "genres")) {
+                apDto.setGenres(apEntity.getGenres().stream()
+                        .map(g -> new GenreSummaryDto(g.getId(), g.getName()))
+                        .collect(Collectors.toSet()));
+            }
+            if (fields.includes(artist, "skills")) {
+                apDto.setSkills(apEntity.getSkills().stream()
+                        .map(s -> new SkillSummaryDto(s.getId(), s.getName()))
+                        .collect(Collectors.toSet()));
+            }
             dto.setArtistProfile(apDto);
         }
 
-        if (user.getProducerProfile() != null) {
+        String producer = UserFieldSelection.PRODUCER_PROFILE;
+        if (user.getProducerProfile() != null && fields.includes(producer)) {
             ProducerProfile ppEntity = user.getProducerProfile();
             ProducerProfileDetailDto ppDto = new ProducerProfileDetailDto();
             ppDto.setId(ppEntity.getId());
             ppDto.setAvailability(ppEntity.isAvailability());
             ppDto.setBio(ppEntity.getBio());
             ppDto.setExperienceLevel(ppEntity.getExperienceLevel());
-            ppDto.setGenres(ppEntity.getGenres().stream()
-                    .map(g -> new GenreSummaryDto(g.getId(), g.getName()))
-                    .collect(Collectors.toSet()));
+            if (fields.includes(producer, "genres")) {
+                ppDto.setGenres(ppEntity.getGenres().stream()
+                        .map(g -> new GenreSummaryDto(g.getId(), g.getName()))
+                        .collect(Collectors.toSet()));
+            }
             dto.setProducerProfile(ppDto);
         }
         return dto;
@@ -138,7 +180,9 @@ public class UserServiceImpl implements UserService {
     @Override
     @Transactional
     public UserDetailDto syncUserFromKeycloak(UUID keycloakId, String username, String email, String firstName, String lastName) {
-        User user = userRepository.findById(keycloakId)
+        Optional<User> existing = userRepository.findById(keycloakId);
+        String previousUsername = existing.map(User::getUsername).orElse(null);
+        User user = existing
                 .map(existingUser -> {
                     existingUser.setUsername(username);
                     existingUser.setEmail(email);
@@ -162,6 +206,8 @@ public class UserServiceImpl implements UserService {
         User savedUser = userRepository.save(user);
         if (savedUser.getArtistProfile() != null) savedUser.getArtistProfile().getGenres().size();
         if (savedUser.getProducerProfile() != null) savedUser.getProducerProfile().getGenres().size();
+        eventPublisher.publishEvent(new UserProfileChangedEvent(keycloakId,
+                Objects.equals(previousUsername, username) ? null : previousUsername));
         return mapUserToDetailDto(savedUser);
     }
 
@@ -171,28 +217,49 @@ public class UserServiceImpl implements UserService {
         User user = findUserOrThrow(userId);
         user.setLocation(location);
         User updatedUser = userRepository.save(user);
+        eventPublisher.publishEvent(UserProfileChangedEvent.of(userId));
         return mapUserToDetailDto(updatedUser);
     }
 
     @Override
     @Transactional(readOnly = true)
     public Optional<UserDetailDto> getUserDetailById(UUID userId) {
-        return userRepository.findById(userId).map(user -> {
-            if (user.getArtistProfile() != null) {
-                user.getArtistProfile().getGenres().size();
-                user.getArtistProfile().getSkills().size();
-            }
-            if (user.getProducerProfile() != null) {
-                user.getProducerProfile().getGenres().size();
-            }
-            return mapUserToDetailDto(user);
-        });
+        return profileReadCache.getUserDetail(userId, this::loadUserDetail);
     }
 
     @Override
     @Transactional(readOnly = true)
     public Optional<UserDetailDto> getUserDetailByUsername(String username) {
-        return userRepository.findByUsername(username).map(user -> {
+        return profileReadCache.resolveUserId(username, name -> userRepository.findByUsername(name).map(User::getId))
+                .flatMap(this::getUserDetailById);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<UserDetailDto> getUserDetailById(UUID userId, UserFieldSelection fields) {
+        if (fields.isAll()) {
+            return getUserDetailById(userId);
+        }
+        Optional<UserDetailDto> cached = profileReadCache.peekUserDetail(userId);
+        if (cached.isPresent()) {
+            return cached;
+        }
+        // Partial views are not cached, since a later full read must not be served from them
+        if (!fields.includesProfiles()) {
+            return userRepository.findDetailById(userId);
+        }
+        return userRepository.findWithProfilesById(userId).map(user -> mapUserToDetailDto(user, fields));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<UserDetailDto> getUserDetailByUsername(String username, UserFieldSelection fields) {
+        return profileReadCache.resolveUserId(username, name -> userRepository.findByUsername(name).map(User::getId))
+                .flatMap(userId -> getUserDetailById(userId, fields));
+    }
+
+    private Optional<UserDetailDto> loadUserDetail(UUID userId) {
+        return userRepository.findById(userId).map(user -> {
             if (user.getArtistProfile() != null) {
                 user.getArtistProfile().getGenres().size();
                 user.getArtistProfile().getSkills().size();
@@ -210,12 +277,30 @@ public class UserServiceImpl implements UserService {
         return userRepository.findById(userId);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<UserSummaryDto> getUserSummariesByIds(Collection<UUID> userIds) {
+        Set<UUID> requested = new LinkedHashSet<>(userIds);
+        requested.remove(null);
+        if (requested.isEmpty()) {
+            return List.of();
+        }
+        Map<UUID, UserSummaryDto> found = userRepository.findSummariesByIdIn(requested).stream()
+                .collect(Collectors.toMap(UserSummaryDto::getId, Function.identity()));
+        return requested.stream()
+                .map(found::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
     @Override
     @Transactional
     public void deactivateUser(UUID userId) {
         User user = findUserOrThrow(userId);
         user.setActive(false);
         userRepository.save(user);
+        eventPublisher.publishEvent(MatchInputsChangedEvent.of(userId));
+        eventPublisher.publishEvent(UserProfileChangedEvent.of(userId));
         log.info("Deactivated user with ID: {}", userId);
     }
 
@@ -225,13 +310,31 @@ public class UserServiceImpl implements UserService {
         User user = findUserOrThrow(userId);
         user.setActive(true);
         userRepository.save(user);
+        eventPublisher.publishEvent(MatchInputsChangedEvent.of(userId));
+        eventPublisher.publishEvent(UserProfileChangedEvent.of(userId));
         log.info("Reactivated user with ID: {}", userId);
     }
 
     @Override
     @Transactional(readOnly = true)
     public Page<UserSummaryDto> findActiveUsers(UUID currentUserId, UserSearchCriteria criteria, Pageable pageable) {
+        return findActiveUsers(currentUserId, criteria, pageable, UserFieldSelection.ALL);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<UserSummaryDto> findActiveUsers(UUID currentUserId, UserSearchCriteria criteria, Pageable pageable,
+                                                UserFieldSelection fields) {
         UserSpecification spec = new UserSpecification(criteria, currentUserId);
+        if (Boolean.TRUE.equals(criteria.getOrderByRelevance()) && StringUtils.hasText(criteria.getSearchTerm())) {
+            // The specification orders by relevance; a sort on the pageable would replace that ordering
+            pageable = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize());
+        }
+        if (!fields.includesProfiles()) {
+            // Neither profile summary is wanted, so the users table alone answers the search
+            Page<UserSummaryDto> summaries = userRepository.findSummaries(spec, pageable);
+            return summaries != null ? summaries : Page.empty(pageable);
+        }
         Page<User> userPage = userRepository.findAll(spec, pageable);
         if (userPage == null) {
             return Page.empty(pageable);
@@ -244,14 +347,180 @@ public class UserServiceImpl implements UserService {
 
     @Override
     @Transactional(readOnly = true)
-    @Cacheable(cacheNames = CacheConfig.USER_MATCHES_CACHE, key = "#currentUserId.toString() + ':' + #pageable.pageNumber + ':' + #pageable.pageSize + ':' + #pageable.sort.toString()")
+    public UserSearchSliceDto findActiveUsersAfter(UUID currentUserId, UserSearchCriteria criteria, String cursor, int size) {
+        UserSearchCursor after = (cursor == null || cursor.isBlank()) ? null : UserSearchCursor.decode(cursor);
+        ScrollPosition position = after != null ? after.toScrollPosition() : ScrollPosition.keyset();
+
+        // Keyset scrolling fetches one extra row to detect a next slice, no COUNT query and no OFFSET
+        Window<User> window = userRepository.findBy(new UserSpecification(criteria, currentUserId),
+                query -> query.sortBy(UserSearchCursor.SORT).limit(size).scroll(position));
+        if (window == null) {
+            return new UserSearchSliceDto(List.of(), false, null);
+        }
+        List<UserSummaryDto> content = window.getContent().stream()
+                .map(this::mapUserToSummaryDto)
+                .collect(Collectors.toList());
+
+        String nextCursor = null;
+        if (window.hasNext() && !window.isEmpty()) {
+            User last = window.getContent().get(window.size() - 1);
+            nextCursor = new UserSearchCursor(last.getUsername(), last.getId()).encode();
+        }
+        return new UserSearchSliceDto(content, window.hasNext(), nextCursor);
+    }
+
+    @Override
+    public List<UserSuggestionDto> suggestUsers(UUID currentUserId, String prefix, int limit) {
+        return usernamePrefixIndex.suggest(prefix, limit,
+                userId -> userId.equals(currentUserId) || blockRelationStore.isBlocked(currentUserId, userId));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public UserFacetCountsDto countSearchFacets(UUID currentUserId, UserSearchCriteria criteria) {
+        List<UUID> searchTermMatches = null;
+        if (StringUtils.hasText(criteria.getSearchTerm())) {
+            // The only filter the bitmaps cannot evaluate, resolved with a single trigram-indexed query
+            searchTermMatches = userRepository.findActiveIdsBySearchPattern("%" + criteria.getSearchTerm().toLowerCase() + "%");
+        }
+        return matchIndex.countFacets(criteria, currentUserId, searchTermMatches);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.USER_MATCHES_CACHE, key = "T(com.spshpau.userservice.services.matching.MatchCacheKey).of(#currentUserId, #pageable)")
     public Page<UserSummaryDto> findMatches(UUID currentUserId, Pageable pageable) {
         log.info("--- Executing findMatches logic for user {} ---", currentUserId);
 
-        User currentUser = userRepository.findById(currentUserId)
+        Optional<Page<MatchedUser>> materialized = materializedMatchStore.findPage(currentUserId, pageable);
+        if (materialized.isPresent()) {
+            Page<MatchedUser> page = materialized.get();
+            List<UserSummaryDto> summaries = loadMatchSummaries(page.getContent());
+            if (summaries.size() == page.getNumberOfElements()) {
+                log.debug("Serving matches for user {} from the materialized ranking", currentUserId);
+                return new PageImpl<>(summaries, pageable, page.getTotalElements());
+            }
+            // A ranked user was deactivated since materialization, so both the page and its total are off
+            log.debug("Materialized ranking of user {} lists inactive users, scoring live", currentUserId);
+        }
+
+        if (sqlMatchEngine.isEnabled()) {
+            findActiveUserOrThrow(currentUserId);
+            Page<MatchedUser> page = sqlMatchEngine.findMatches(currentUserId, pageable);
+            return new PageImpl<>(loadMatchSummaries(page.getContent()), pageable, page.getTotalElements());
+        }
+
+        MatchContext context = buildMatchContext(currentUserId);
+        int start = (int) pageable.getOffset();
+        MatchRanking ranked = rankMatches(context, null, start + pageable.getPageSize());
+        List<MatchedUser> pageMatches = (start < ranked.top().size())
+                ? ranked.top().subList(start, ranked.top().size())
+                : List.of();
+
+        return new PageImpl<>(loadMatchSummaries(pageMatches), pageable, ranked.total());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public MatchCursorPageDto findMatchesAfter(UUID currentUserId, String cursor, int size) {
+        log.info("--- Executing cursor findMatches logic for user {} ---", currentUserId);
+        MatchCursor after = (cursor == null || cursor.isBlank()) ? null : MatchCursor.decode(cursor);
+
+        // One extra entry tells whether another page follows
+        List<MatchedUser> top;
+        if (sqlMatchEngine.isEnabled()) {
+            findActiveUserOrThrow(currentUserId);
+            top = sqlMatchEngine.findMatchesAfter(currentUserId, after, size + 1);
+        } else {
+            top = rankMatches(buildMatchContext(currentUserId), after, size + 1).top();
+        }
+        List<MatchedUser> pageMatches = top.size() > size ? top.subList(0, size) : top;
+
+        String nextCursor = null;
+        if (top.size() > size) {
+            MatchedUser last = pageMatches.get(pageMatches.size() - 1);
+            nextCursor = new MatchCursor(last.getScore(), last.getUsername()).encode();
+        }
+        return new MatchCursorPageDto(loadMatchSummaries(pageMatches), nextCursor);
+    }
+
+    // Not transactional: the iterator is consumed after this method returns, so the caller is loaded with its
+    // whole profile graph up front and every chunk reads fully fetched summaries in its own repository call
+    @Override
+    public Iterator<List<UserSummaryDto>> streamMatches(UUID currentUserId, int limit) {
+        log.info("--- Executing streaming findMatches logic for user {} ---", currentUserId);
+        User currentUser = userRepository.findActiveWithProfilesByIdIn(List.of(currentUserId)).stream()
+                .findFirst()
+                .orElseThrow(() -> new UserNotFoundException("Active user not found for ID: " + currentUserId));
+        MatchContext context = sqlMatchEngine.isEnabled() ? null : buildMatchContext(currentUser);
+
+        // Each chunk continues after the last emitted entry, so chunks never overlap even if the index changes
+        return new Iterator<>() {
+            private MatchCursor after;
+            private int emitted;
+            private int chunkSize = FIRST_STREAM_CHUNK_SIZE;
+            private boolean exhausted;
+
+            @Override
+            public boolean hasNext() {
+                return !exhausted && emitted < limit;
+            }
+
+            @Override
+            public List<UserSummaryDto> next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                int size = Math.min(chunkSize, limit - emitted);
+                List<MatchedUser> chunk = context == null
+                        ? sqlMatchEngine.findMatchesAfter(currentUserId, after, size)
+                        : rankMatches(context, after, size).top();
+                if (chunk.size() < size) {
+                    exhausted = true;
+                }
+                if (!chunk.isEmpty()) {
+                    MatchedUser last = chunk.get(chunk.size() - 1);
+                    after = new MatchCursor(last.getScore(), last.getUsername());
+                }
+                emitted += chunk.size();
+                chunkSize *= STREAM_CHUNK_GROWTH;
+                return loadMatchSummaries(chunk);
+            }
+        };
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public MatchRanking computeMatchRanking(UUID currentUserId, int limit) {
+        if (sqlMatchEngine.isEnabled()) {
+            findActiveUserOrThrow(currentUserId);
+            Page<MatchedUser> page = sqlMatchEngine.findMatches(currentUserId, PageRequest.of(0, limit));
+            return new MatchRanking(page.getContent(), page.getTotalElements());
+        }
+        return rankMatches(buildMatchContext(currentUserId), null, limit);
+    }
+
+    /**
+     * Everything about the caller needed to rank matches: their encoded features, the users to exclude,
+     * accepted connections (for the penalty) and the index candidates that can score above zero. Approximate
+     * candidates are only a sample of those, so the users outside them are not ranked at all.
+     */
+    private record MatchContext(MatchFeatures callerFeatures, Set<UUID> excludedUserIds,
+                                Set<UUID> connectedUserIds, Set<UUID> candidateIds, boolean approximate) {
+    }
+
+    private User findActiveUserOrThrow(UUID currentUserId) {
+        return userRepository.findById(currentUserId)
                 .filter(User::isActive)
                 .orElseThrow(() -> new UserNotFoundException("Active user not found for ID: " + currentUserId));
+    }
+
+    private MatchContext buildMatchContext(UUID currentUserId) {
+        return buildMatchContext(findActiveUserOrThrow(currentUserId));
+    }
 
+    private MatchContext buildMatchContext(User currentUser) {
+        UUID currentUserId = currentUser.getId();
         ArtistProfile currentUserArtistProfile = currentUser.getArtistProfile();
         ProducerProfile currentUserProducerProfile = currentUser.getProducerProfile();
 
@@ -267,157 +536,148 @@ public class UserServiceImpl implements UserService {
             currentUserProducerProfile.getGenres().forEach(g -> allCurrentUserGenreIds.add(g.getId()));
         }
 
-        Set<UUID> usersBlockingCurrentUser = userRepository.findBlockerUserIdsByBlockedId(currentUserId);
-        Set<UUID> usersBlockedByCurrentUser = userRepository.findBlockedUserIdsByBlockerId(currentUserId);
-        Set<UUID> excludedUserIds = new HashSet<>(usersBlockingCurrentUser);
-        excludedUserIds.addAll(usersBlockedByCurrentUser);
+        // Exclusion and penalty context: cached block lists and one ID-only query regardless of the number of users
+        Set<UUID> excludedUserIds = blockRelationStore.getBlockRelatedUserIds(currentUserId);
         excludedUserIds.add(currentUserId);
-
-        Specification<User> spec = (root, query, cb) -> {
-            List<Predicate> predicates = new ArrayList<>();
-            predicates.add(cb.isTrue(root.get("active")));
-            if (!excludedUserIds.isEmpty()) {
-                predicates.add(root.get("id").in(excludedUserIds).not());
-            }
-            if (query.getResultType() != Long.class && query.getResultType() != long.class) {
-                root.fetch("artistProfile", JoinType.LEFT).fetch("genres", JoinType.LEFT);
-                root.fetch("artistProfile", JoinType.LEFT).fetch("skills", JoinType.LEFT);
-                root.fetch("producerProfile", JoinType.LEFT).fetch("genres", JoinType.LEFT);
-                query.distinct(true);
-            }
-            return cb.and(predicates.toArray(new Predicate[0]));
-        };
-
-        List<User> candidates = userRepository.findAll(spec);
-        log.info("Found {} total potential candidates for user {}", candidates.size(), currentUserId);
-
-        List<MatchedUser> scoredMatches = candidates.stream()
-                .map(candidate -> {
-                    boolean alreadyConnected = userConnectionRepository
-                            .findConnectionBetweenUsers(currentUserId, candidate.getId())
-                            .map(conn -> conn.getStatus() == ConnectionStatus.ACCEPTED)
-                            .orElse(false);
-
-                    return new MatchedUser(
-                            candidate,
-                            calculateMatchScore(
-                                    currentUser, currentUserArtistProfile, currentUserProducerProfile,
-                                    allCurrentUserGenreIds, currentUserArtistSkillIds,
-                                    candidate, alreadyConnected
-                            )
-                    );
-                })
-                .collect(Collectors.toList());
-
-        scoredMatches.sort(Comparator.comparing(MatchedUser::getScore).reversed()
-                .thenComparing(mu -> mu.getUser().getUsername()));
-
-        int totalMatches = scoredMatches.size();
-        int start = (int) pageable.getOffset();
-        int end = Math.min((start + pageable.getPageSize()), totalMatches);
-        List<User> paginatedUsers = (start < end) ? scoredMatches.subList(start, end).stream()
-                .map(MatchedUser::getUser)
-                .toList()
-                : List.of();
-
-        List<UserSummaryDto> dtoList = paginatedUsers.stream()
-                .map(this::mapUserToSummaryDto)
-                .collect(Collectors.toList());
-
-        return new PageImpl<>(dtoList, pageable, totalMatches);
+        Set<UUID> connectedUserIds = userConnectionRepository.findConnectedUserIds(currentUserId, ConnectionStatus.ACCEPTED);
+
+        MatchFeatures callerFeatures = matchIndex.encode(currentUserArtistProfile, currentUserProducerProfile);
+
+        // Only users sharing a genre/skill or holding the opposite profile type can score above zero;
+        // in approximate mode the LSH buckets narrow that down to the most similar users
+        boolean approximate = matchIndex.isApproximate();
+        Set<UUID> candidateIds = approximate
+                ? matchIndex.findApproximateCandidateIds(callerFeatures)
+                : matchIndex.findCandidateIds(
+                        allCurrentUserGenreIds, currentUserArtistSkillIds,
+                        currentUserArtistProfile != null, currentUserProducerProfile != null);
+        candidateIds.removeAll(excludedUserIds);
+        log.info("Match index returned {} scoring candidates out of {} active users for user {}",
+                candidateIds.size(), matchIndex.size(), currentUserId);
+
+        return new MatchContext(callerFeatures, excludedUserIds, connectedUserIds, candidateIds, approximate);
     }
 
-    private double calculateMatchScore(
-            User currentUser, ArtistProfile callerAp, ProducerProfile callerPp,
-            Set<UUID> allCallerGenreIds, Set<UUID> callerArtistSkillIds,
-            User candidate, boolean areAlreadyConnected) {
-
-        double score = 0.0;
-        ArtistProfile candidateAp = candidate.getArtistProfile();
-        ProducerProfile candidatePp = candidate.getProducerProfile();
-
-        // Rule 1: Already connected penalty
-        if (areAlreadyConnected) {
-            score -= 10.0;
-        }
-
-        // Rule 2: Profile genres
-        boolean matchedOppositeProfile = false;
-
-        // Scenario 1: Caller is Producer, Candidate is Artist
-        if (callerPp != null && candidateAp != null) {
-            matchedOppositeProfile = true;
-            score += 2.0;
-            score += calculateExperienceScore(callerPp.getExperienceLevel(), candidateAp.getExperienceLevel());
-            score += calculateSpecificGenreMatchScore(callerPp.getGenres(), candidateAp.getGenres());
-            if (candidateAp.isAvailability()) {
-                score += 10.0;
+    /**
+     * Returns the best {@code limit} matches ranked strictly after {@code after} (or from the top if null).
+     * Scored candidates go through a bounded heap, so memory is proportional to {@code limit}, not to the user count.
+     */
+    private MatchRanking rankMatches(MatchContext context, MatchCursor after, int limit) {
+        Set<UUID> candidateIds = context.candidateIds();
+        Set<UUID> excludedUserIds = context.excludedUserIds();
+        Set<UUID> connectedUserIds = context.connectedUserIds();
+        MatchedUser afterMarker = after != null ? new MatchedUser(null, after.username(), after.score()) : null;
+        Predicate<MatchedUser> isAfterCursor = match -> afterMarker == null || MATCH_ORDER.compare(match, afterMarker) > 0;
+
+        // Score candidates straight from the compact index features; no entity graphs are loaded here
+        List<UUID> scoredIds = new ArrayList<>(candidateIds.size());
+        List<MatchFeatures> scoredFeatures = new ArrayList<>(candidateIds.size());
+        for (UUID candidateId : candidateIds) {
+            MatchFeatures features = matchIndex.getFeatures(candidateId);
+            if (features != null) {
+                scoredIds.add(candidateId);
+                scoredFeatures.add(features);
             }
         }
-
-        // Scenario 2: Caller is Artist, Candidate is Producer
-        if (callerAp != null && candidatePp != null) {
-            matchedOppositeProfile = true;
-            score += 2.0;
-            score += calculateExperienceScore(callerAp.getExperienceLevel(), candidatePp.getExperienceLevel());
-            score += calculateSpecificGenreMatchScore(callerAp.getGenres(), candidatePp.getGenres());
-            if (candidatePp.isAvailability()) {
-                score += 10.0;
+        boolean[] connected = new boolean[scoredIds.size()];
+        for (int i = 0; i < connected.length; i++) {
+            connected[i] = connectedUserIds.contains(scoredIds.get(i));
+        }
+        double[] scores = matchScorer.scoreAll(context.callerFeatures(), scoredFeatures.toArray(new MatchFeatures[0]), connected);
+
+        // Max-heap on "worst first" keeps only the best `limit` scored matches
+        PriorityQueue<MatchedUser> topScored = new PriorityQueue<>(Math.max(limit, 1) + 1, MATCH_ORDER.reversed());
+        long scoredCount = 0;
+        for (int i = 0; i < scores.length; i++) {
+            UUID candidateId = scoredIds.get(i);
+            String username = matchIndex.getUsername(candidateId);
+            if (username == null) {
+                continue;
+            }
+            scoredCount++;
+            MatchedUser match = new MatchedUser(candidateId, username, scores[i]);
+            if (limit <= 0 || !isAfterCursor.test(match)) {
+                continue;
+            }
+            if (topScored.size() < limit) {
+                topScored.add(match);
+            } else if (MATCH_ORDER.compare(match, topScored.peek()) < 0) {
+                topScored.poll();
+                topScored.add(match);
             }
         }
+        List<MatchedUser> scoredMatches = new ArrayList<>(topScored);
+        scoredMatches.sort(MATCH_ORDER);
 
-        // Rule 3: General matching genre or skill
-
-        // Collect all candidate genres
-        Set<UUID> allCandidateGenreIds = new HashSet<>();
-        if (candidateAp != null) {
-            candidateAp.getGenres().forEach(g -> allCandidateGenreIds.add(g.getId()));
-        }
-        if (candidatePp != null) {
-            candidatePp.getGenres().forEach(g -> allCandidateGenreIds.add(g.getId()));
+        if (context.approximate()) {
+            // Users outside the LSH candidates were never scored, so they are neither ranked nor counted
+            return new MatchRanking(scoredMatches, scoredCount);
         }
 
-        // Calculate general genre intersection
-        if (!allCallerGenreIds.isEmpty() && !allCandidateGenreIds.isEmpty()) {
-            Set<UUID> commonGenres = new HashSet<>(allCallerGenreIds);
-            commonGenres.retainAll(allCandidateGenreIds);
-            score += commonGenres.size() * 1.0;
+        // Every remaining active user scores exactly 0, or the penalty alone if already connected
+        Predicate<UUID> isUnscored = id -> !candidateIds.contains(id) && !excludedUserIds.contains(id);
+        List<MatchedUser> connectedUnscored = connectedUserIds.stream()
+                .filter(isUnscored)
+                .filter(matchIndex::contains)
+                .map(id -> new MatchedUser(id, matchIndex.getUsername(id), MatchScorer.CONNECTED_PENALTY))
+                .filter(isAfterCursor)
+                .sorted(MATCH_ORDER)
+                .toList();
+        NavigableMap<String, UUID> zeroScoreRange = matchIndex.usersByUsername();
+        if (after != null && after.score() < 0.0) {
+            zeroScoreRange = Collections.emptyNavigableMap();
+        } else if (after != null && after.score() == 0.0) {
+            zeroScoreRange = zeroScoreRange.tailMap(after.username(), false);
         }
+        Iterator<MatchedUser> unconnectedUnscored = zeroScoreRange.entrySet().stream()
+                .filter(entry -> isUnscored.test(entry.getValue()) && !connectedUserIds.contains(entry.getValue()))
+                .map(entry -> new MatchedUser(entry.getValue(), entry.getKey(), 0.0))
+                .iterator();
 
-        // Calculate general skill intersection
-        if (callerAp != null && candidateAp != null && !callerArtistSkillIds.isEmpty()) {
-            Set<UUID> candidateArtistSkillIds = new HashSet<>();
-            candidateAp.getSkills().forEach(s -> candidateArtistSkillIds.add(s.getId()));
-            if(!candidateArtistSkillIds.isEmpty()){
-                Set<UUID> commonSkills = new HashSet<>(callerArtistSkillIds);
-                commonSkills.retainAll(candidateArtistSkillIds);
-                score += commonSkills.size() * 1.0;
-            }
-        }
+        long excludedIndexed = excludedUserIds.stream().filter(matchIndex::contains).count();
+        long unscoredCount = Math.max(0, matchIndex.size() - candidateIds.size() - excludedIndexed);
 
-        log.trace("Calculated score for candidate {}: {}", candidate.getUsername(), score);
-        return score;
+        List<MatchedUser> top = mergeRanked(limit,
+                scoredMatches.iterator(), unconnectedUnscored, connectedUnscored.iterator());
+        return new MatchRanking(top, scoredCount + unscoredCount);
     }
 
-    private double calculateSpecificGenreMatchScore(Set<Genre> callerGenres, Set<Genre> candidateProfileGenres) {
-        if (callerGenres == null || candidateProfileGenres == null || callerGenres.isEmpty() || candidateProfileGenres.isEmpty()) {
-            return 0.0;
+    private List<UserSummaryDto> loadMatchSummaries(List<MatchedUser> matches) {
+        Map<UUID, User> loadedUsers = new HashMap<>();
+        if (!matches.isEmpty()) {
+            userRepository.findActiveWithProfilesByIdIn(matches.stream().map(MatchedUser::getUserId).toList())
+                    .forEach(user -> loadedUsers.put(user.getId(), user));
         }
-        Set<UUID> callerGenreIds = callerGenres.stream().map(Genre::getId).collect(Collectors.toSet());
-        long commonCount = candidateProfileGenres.stream().map(Genre::getId).filter(callerGenreIds::contains).count();
-        return commonCount * 5.0;
+        return matches.stream()
+                .map(match -> loadedUsers.get(match.getUserId()))
+                .filter(Objects::nonNull)
+                .map(this::mapUserToSummaryDto)
+                .collect(Collectors.toList());
     }
 
-    private double calculateExperienceScore(ExperienceLevel level1, ExperienceLevel level2) {
-        if (level1 == null || level2 == null) return 0.0;
-        int diff = Math.abs(level1.ordinal() - level2.ordinal());
-        return switch (diff) {
-            case 0 -> 20.0; // Exact match -> + 20 points
-            case 1 -> 16.0;  // 1 level difference -> + 16 points
-            case 2 -> 12.0;  // 2 levels difference -> + 12 points
-            case 3 -> 8.0;  // 3 levels difference -> + 8 points
-            case 4 -> 4.0; // Should not happen
-            default -> 0.0; // Should not happen
-        };
+    /**
+     * Merges individually sorted match streams into the first {@code limit} entries of the global ranking.
+     */
+    @SafeVarargs
+    private static List<MatchedUser> mergeRanked(int limit, Iterator<MatchedUser>... sources) {
+        MatchedUser[] heads = new MatchedUser[sources.length];
+        for (int i = 0; i < sources.length; i++) {
+            heads[i] = sources[i].hasNext() ? sources[i].next() : null;
+        }
+        List<MatchedUser> merged = new ArrayList<>(Math.max(limit, 0));
+        while (merged.size() < limit) {
+            int best = -1;
+            for (int i = 0; i < heads.length; i++) {
+                if (heads[i] != null && (best < 0 || MATCH_ORDER.compare(heads[i], heads[best]) < 0)) {
+                    best = i;
+                }
+            }
+            if (best < 0) {
+                break;
+            }
+            merged.add(heads[best]);
+            heads[best] = sources[best].hasNext() ? sources[best].next() : null;
+        }
+        return merged;
     }
 }
@@ -0,0 +1,39 @@
+package com.spshpau.userservice.services.matching;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Assigns dense, stable ordinals to genre and skill IDs so that profile features
+ * can be encoded as {@link FeatureSet} bitmasks. Ordinals are assigned on first use
+ * and never reused for the lifetime of the application.
+ */
+@Component
+public class FeatureDictionary {
+
+    private final Map<UUID, Integer> genreOrdinals = new ConcurrentHashMap<>();
+    private final Map<UUID, Integer> skillOrdinals = new ConcurrentHashMap<>();
+    private final AtomicInteger nextGenreOrdinal = new AtomicInteger();
+    private final AtomicInteger nextSkillOrdinal = new AtomicInteger();
+
+    public int genreOrdinal(UUID genreId) {
+        return genreOrdinals.computeIfAbsent(genreId, id -> nextGenreOrdinal.getAndIncrement());
+    }
+
+    public int skillOrdinal(UUID skillId) {
+        return skillOrdinals.computeIfAbsent(skillId, id -> nextSkillOrdinal.getAndIncrement());
+    }
+
+    public FeatureSet encodeGenres(Collection<UUID> genreIds) {
+        return FeatureSet.of(genreIds.stream().mapToInt(this::genreOrdinal).toArray());
+    }
+
+    public FeatureSet encodeSkills(Collection<UUID> skillIds) {
+        return FeatureSet.of(skillIds.stream().mapToInt(this::skillOrdinal).toArray());
+    }
+}
@@ -0,0 +1,157 @@
+package com.spshpau.userservice.services.matching;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Immutable, compact set of dense feature ordinals (genres or skills) encoded as a bitmask.
+ * Ordinals 0-63 live in a single {@code long}; larger catalogs spill into an overflow word array,
+ * so intersections of typical profiles are a single {@link Long#bitCount(long)} without allocation.
+ */
+public final class FeatureSet {
+
+    public static final FeatureSet EMPTY = new FeatureSet(0L, null);
+
+    private final long low;
+    private final long[] high;
+
+    private FeatureSet(long low, long[] high) {
+        this.low = low;
+        this.high = high;
+    }
+
+    /**
+     * Creates a set from dense ordinals as assigned by {@link FeatureDictionary}.
+     *
+     * @param ordinals Non-negative feature ordinals.
+     * @return The encoded set, or {@link #EMPTY} if no ordinals are given.
+     */
+    public static FeatureSet of(int... ordinals) {
+        if (ordinals.length == 0) {
+            return EMPTY;
+        }
+        long low = 0L;
+        int maxOrdinal = Arrays.stream(ordinals).max().getAsInt();
+        long[] high = maxOrdinal >= Long.SIZE ? new long[(maxOrdinal - Long.SIZE) / Long.SIZE + 1] : null;
+        for (int ordinal : ordinals) {
+            if (ordinal < 0) {
+                throw new IllegalArgumentException("Feature ordinal must not be negative: " + ordinal);
+            }
+            if (ordinal < Long.SIZE) {
+                low |= 1L << ordinal;
+            } else {
+                int overflow = ordinal - Long.SIZE;
+                high[overflow / Long.SIZE] |= 1L << (overflow % Long.SIZE);
+            }
+        }
+        return new FeatureSet(low, high);
+    }
+
+    /**
+     * @return The number of ordinals contained in both sets.
+     */
+    public int intersectionSize(FeatureSet other) {
+        int count = Long.bitCount(low & other.low);
+        if (high != null && other.high != null) {
+            int words = Math.min(high.length, other.high.length);
+            for (int i = 0; i < words; i++) {
+                count += Long.bitCount(high[i] & other.high[i]);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return A set containing the ordinals of both sets.
+     */
+    public FeatureSet union(FeatureSet other) {
+        if (other.isEmpty()) {
+            return this;
+        }
+        if (isEmpty()) {
+            return other;
+        }
+        long[] mergedHigh = null;
+        if (high != null || other.high != null) {
+            long[] longer = high == null || (other.high != null && other.high.length > high.length) ? other.high : high;
+            long[] shorter = longer == high ? other.high : high;
+            mergedHigh = longer.clone();
+            if (shorter != null) {
+                for (int i = 0; i < shorter.length; i++) {
+                    mergedHigh[i] |= shorter[i];
+                }
+            }
+        }
+        return new FeatureSet(low | other.low, mergedHigh);
+    }
+
+    public boolean contains(int ordinal) {
+        if (ordinal < 0) {
+            return false;
+        }
+        if (ordinal < Long.SIZE) {
+            return (low & (1L << ordinal)) != 0;
+        }
+        int overflow = ordinal - Long.SIZE;
+        int word = overflow / Long.SIZE;
+        return high != null && word < high.length && (high[word] & (1L << (overflow % Long.SIZE))) != 0;
+    }
+
+    /**
+     * Calls the action for every contained ordinal, in ascending order.
+     */
+    public void forEach(IntConsumer action) {
+        for (long word = low; word != 0; word &= word - 1) {
+            action.accept(Long.numberOfTrailingZeros(word));
+        }
+        if (high != null) {
+            for (int i = 0; i < high.length; i++) {
+                for (long word = high[i]; word != 0; word &= word - 1) {
+                    action.accept(Long.SIZE + i * Long.SIZE + Long.numberOfTrailingZeros(word));
+                }
+            }
+        }
+    }
+
+    public int size() {
+        int count = Long.bitCount(low);
+        if (high != null) {
+            for (long word : high) {
+                count += Long.bitCount(word);
+            }
+        }
+        return count;
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        FeatureSet that = (FeatureSet) o;
+        if (low != that.low) return false;
+        long[] a = high != null ? high : new long[0];
+        long[] b = that.high != null ? that.high : new long[0];
+        int words = Math.max(a.length, b.length);
+        for (int i = 0; i < words; i++) {
+            if ((i < a.length ? a[i] : 0L) != (i < b.length ? b[i] : 0L)) return false;
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        long hash = low;
+        if (high != null) {
+            for (int i = 0; i < high.length; i++) {
+                if (high[i] != 0L) {
+                    hash = 31 * hash + (high[i] ^ i);
+                }
+            }
+        }
+        return Long.hashCode(hash);
+    }
+}
@@ -0,0 +1,37 @@
+package com.spshpau.userservice.services.matching;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.spshpau.userservice.config.CacheConfig;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Evicts the cached match pages of the callers named in a {@link MatchInputsChangedEvent}
+ * once the transaction that changed their matching inputs has committed.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class MatchCacheInvalidator {
+
+    private final CacheManager cacheManager;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMatchInputsChanged(MatchInputsChangedEvent event) {
+        org.springframework.cache.Cache cache = cacheManager.getCache(CacheConfig.USER_MATCHES_CACHE);
+        if (cache == null || event.userIds().isEmpty()) {
+            return;
+        }
+        if (!(cache.getNativeCache() instanceof Cache<?, ?> nativeCache)) {
+            log.warn("Unexpected native cache type for {}, clearing the whole cache", CacheConfig.USER_MATCHES_CACHE);
+            cache.clear();
+            return;
+        }
+        boolean evicted = nativeCache.asMap().keySet()
+                .removeIf(key -> key instanceof MatchCacheKey matchKey && event.userIds().contains(matchKey.userId()));
+        log.debug("Match inputs changed for users {}, evicted cached pages: {}", event.userIds(), evicted);
+    }
+}
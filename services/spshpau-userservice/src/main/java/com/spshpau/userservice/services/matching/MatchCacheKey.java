@@ -0,0 +1,16 @@
+package com.spshpau.userservice.services.matching;
+
+import org.springframework.data.domain.Pageable;
+
+import java.util.UUID;
+
+/**
+ * Value-based key of the {@code userMatches} cache. Keeping the caller's ID as a separate component
+ * allows all cached pages of a single caller to be evicted without touching other entries.
+ */
+public record MatchCacheKey(UUID userId, int pageNumber, int pageSize, String sort) {
+
+    public static MatchCacheKey of(UUID userId, Pageable pageable) {
+        return new MatchCacheKey(userId, pageable.getPageNumber(), pageable.getPageSize(), pageable.getSort().toString());
+    }
+}
@@ -0,0 +1,41 @@
+package com.spshpau.userservice.services.matching;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position in the match ranking (score descending, username ascending), exchanged with clients
+ * as an opaque URL-safe token so the next page can continue right after the last returned match.
+ */
+public record MatchCursor(double score, String username) {
+
+    private static final char SEPARATOR = ':';
+
+    public String encode() {
+        String raw = Double.toString(score) + SEPARATOR + username;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param token A token previously produced by {@link #encode()}.
+     * @return The decoded cursor.
+     * @throws IllegalArgumentException if the token is malformed.
+     */
+    public static MatchCursor decode(String token) {
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid match cursor", e);
+        }
+        int separator = raw.indexOf(SEPARATOR);
+        if (separator <= 0 || separator == raw.length() - 1) {
+            throw new IllegalArgumentException("Invalid match cursor");
+        }
+        try {
+            return new MatchCursor(Double.parseDouble(raw.substring(0, separator)), raw.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid match cursor", e);
+        }
+    }
+}
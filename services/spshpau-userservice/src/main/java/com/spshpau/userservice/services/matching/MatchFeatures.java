@@ -0,0 +1,50 @@
+package com.spshpau.userservice.services.matching;
+
+import com.spshpau.userservice.model.enums.ExperienceLevel;
+import lombok.Getter;
+
+/**
+ * Compact, immutable snapshot of everything the matching algorithm reads from a user's profiles.
+ * Experience levels are stored as ordinals ({@link #NO_LEVEL} when absent), genres and skills as bitmasks.
+ */
+@Getter
+public final class MatchFeatures {
+
+    public static final int NO_LEVEL = -1;
+    public static final MatchFeatures NONE = new MatchFeatures(
+            false, NO_LEVEL, false, FeatureSet.EMPTY, FeatureSet.EMPTY,
+            false, NO_LEVEL, false, FeatureSet.EMPTY);
+
+    private final boolean artist;
+    private final int artistLevel;
+    private final boolean artistAvailable;
+    private final FeatureSet artistGenres;
+    private final FeatureSet artistSkills;
+
+    private final boolean producer;
+    private final int producerLevel;
+    private final boolean producerAvailable;
+    private final FeatureSet producerGenres;
+
+    private final FeatureSet allGenres;
+
+    public MatchFeatures(boolean artist, int artistLevel, boolean artistAvailable,
+                         FeatureSet artistGenres, FeatureSet artistSkills,
+                         boolean producer, int producerLevel, boolean producerAvailable,
+                         FeatureSet producerGenres) {
+        this.artist = artist;
+        this.artistLevel = artistLevel;
+        this.artistAvailable = artistAvailable;
+        this.artistGenres = artistGenres;
+        this.artistSkills = artistSkills;
+        this.producer = producer;
+        this.producerLevel = producerLevel;
+        this.producerAvailable = producerAvailable;
+        this.producerGenres = producerGenres;
+        this.allGenres = artistGenres.union(producerGenres);
+    }
+
+    public static int levelOrdinal(ExperienceLevel level) {
+        return level != null ? level.ordinal() : NO_LEVEL;
+    }
+}
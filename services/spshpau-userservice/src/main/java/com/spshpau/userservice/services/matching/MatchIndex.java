@@ -0,0 +1,459 @@
+package com.spshpau.userservice.services.matching;
+
+import com.spshpau.userservice.dto.userdto.UserFacetCountsDto;
+import com.spshpau.userservice.dto.userdto.UserSearchCriteria;
+import com.spshpau.userservice.model.ArtistProfile;
+import com.spshpau.userservice.model.Genre;
+import com.spshpau.userservice.model.ProducerProfile;
+import com.spshpau.userservice.model.Skill;
+import com.spshpau.userservice.model.User;
+import com.spshpau.userservice.model.enums.ExperienceLevel;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory inverted index over the profile features of all active users.
+ * Each genre, skill, experience level and availability flag maps to a posting list of user IDs,
+ * which lets the matching algorithm restrict exact scoring to users that can actually score.
+ * Alongside the postings, every user's profiles are kept as compact {@link MatchFeatures},
+ * so candidates can be scored without loading their entity graphs, and mirrored into the
+ * {@link MinHashLshIndex} when approximate candidate generation is enabled and into the
+ * {@link UserFacetIndex} used for search facet counts.
+ * <p>
+ * The index is populated once at startup by {@link MatchIndexInitializer} and is kept up to date by the
+ * {@link UserIndexSynchronizer}, which reloads a user once a change to them or their profiles has committed
+ * and periodically reconciles the whole index with the database.
+ */
+@Component
+@Slf4j
+public class MatchIndex {
+
+    private final FeatureDictionary featureDictionary;
+    private final MinHashLshIndex lshIndex;
+    private final UserFacetIndex facetIndex;
+
+    private final Map<UUID, String> usernames = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<String, UUID> usersByUsername = new ConcurrentSkipListMap<>();
+
+    private final Map<UUID, ProfileFeatures> artistProfiles = new ConcurrentHashMap<>();
+    private final Map<UUID, ProfileFeatures> producerProfiles = new ConcurrentHashMap<>();
+    private final Map<UUID, MatchFeatures> matchFeatures = new ConcurrentHashMap<>();
+
+    // --- Posting lists ---
+    private final Map<UUID, Set<UUID>> artistGenrePostings = new ConcurrentHashMap<>();
+    private final Map<UUID, Set<UUID>> producerGenrePostings = new ConcurrentHashMap<>();
+    private final Map<UUID, Set<UUID>> skillPostings = new ConcurrentHashMap<>();
+    private final Map<ExperienceLevel, Set<UUID>> artistLevelPostings = new EnumMap<>(ExperienceLevel.class);
+    private final Map<ExperienceLevel, Set<UUID>> producerLevelPostings = new EnumMap<>(ExperienceLevel.class);
+    private final Set<UUID> availableArtists = ConcurrentHashMap.newKeySet();
+    private final Set<UUID> availableProducers = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Creates an index with exact candidate generation only.
+     */
+    public MatchIndex(FeatureDictionary featureDictionary) {
+        this(featureDictionary, new MinHashLshIndex("exact", 0, 1, 1));
+    }
+
+    public MatchIndex(FeatureDictionary featureDictionary, MinHashLshIndex lshIndex) {
+        this(featureDictionary, lshIndex, new UserFacetIndex());
+    }
+
+    @Autowired
+    public MatchIndex(FeatureDictionary featureDictionary, MinHashLshIndex lshIndex, UserFacetIndex facetIndex) {
+        this.featureDictionary = featureDictionary;
+        this.lshIndex = lshIndex;
+        this.facetIndex = facetIndex;
+        for (ExperienceLevel level : ExperienceLevel.values()) {
+            artistLevelPostings.put(level, ConcurrentHashMap.newKeySet());
+            producerLevelPostings.put(level, ConcurrentHashMap.newKeySet());
+        }
+    }
+
+    /**
+     * Indexed snapshot of a single artist or producer profile.
+     * Producer profiles never carry skills, so their skill set is always empty.
+     */
+    record ProfileFeatures(ExperienceLevel experienceLevel, boolean availability,
+                                   Set<UUID> genreIds, Set<UUID> skillIds) {
+    }
+
+    // --- Updates ---
+
+    /**
+     * (Re)indexes a user together with both of their profiles.
+     * Inactive users are removed from the index instead.
+     *
+     * @param user The user entity; its profiles and their genres/skills are read (and lazily loaded if needed).
+     */
+    public synchronized void indexUser(User user) {
+        if (user == null || user.getId() == null || user.getUsername() == null) {
+            return;
+        }
+        if (!user.isActive()) {
+            removeUser(user.getId());
+            return;
+        }
+        UUID userId = user.getId();
+        String previousUsername = usernames.put(userId, user.getUsername());
+        if (previousUsername != null && !previousUsername.equals(user.getUsername())) {
+            usersByUsername.remove(previousUsername, userId);
+        }
+        usersByUsername.put(user.getUsername(), userId);
+        updateArtistProfile(userId, user.getArtistProfile());
+        updateProducerProfile(userId, user.getProducerProfile());
+    }
+
+    /**
+     * Removes a user and all of their postings from the index.
+     *
+     * @param userId The unique identifier of the user to remove.
+     */
+    public synchronized void removeUser(UUID userId) {
+        String username = usernames.remove(userId);
+        if (username != null) {
+            usersByUsername.remove(username, userId);
+        }
+        unindexArtist(userId);
+        unindexProducer(userId);
+        matchFeatures.remove(userId);
+        lshIndex.remove(userId);
+        facetIndex.remove(userId);
+    }
+
+    /**
+     * Replaces the indexed artist profile features of a user.
+     * Has no effect for users that are not indexed (e.g. inactive users).
+     *
+     * @param userId  The unique identifier of the profile owner.
+     * @param profile The current state of the artist profile, or {@code null} if the user has none.
+     */
+    public synchronized void updateArtistProfile(UUID userId, ArtistProfile profile) {
+        unindexArtist(userId);
+        if (profile == null || !usernames.containsKey(userId)) {
+            refreshMatchFeatures(userId);
+            return;
+        }
+        ProfileFeatures features = new ProfileFeatures(
+                profile.getExperienceLevel(),
+                profile.isAvailability(),
+                genreIdsOf(profile.getGenres()),
+                skillIdsOf(profile.getSkills()));
+        artistProfiles.put(userId, features);
+        features.genreIds().forEach(genreId -> posting(artistGenrePostings, genreId).add(userId));
+        features.skillIds().forEach(skillId -> posting(skillPostings, skillId).add(userId));
+        if (features.experienceLevel() != null) {
+            artistLevelPostings.get(features.experienceLevel()).add(userId);
+        }
+        if (features.availability()) {
+            availableArtists.add(userId);
+        }
+        refreshMatchFeatures(userId);
+    }
+
+    /**
+     * Replaces the indexed producer profile features of a user.
+     * Has no effect for users that are not indexed (e.g. inactive users).
+     *
+     * @param userId  The unique identifier of the profile owner.
+     * @param profile The current state of the producer profile, or {@code null} if the user has none.
+     */
+    public synchronized void updateProducerProfile(UUID userId, ProducerProfile profile) {
+        unindexProducer(userId);
+        if (profile == null || !usernames.containsKey(userId)) {
+            refreshMatchFeatures(userId);
+            return;
+        }
+        ProfileFeatures features = new ProfileFeatures(
+                profile.getExperienceLevel(),
+                profile.isAvailability(),
+                genreIdsOf(profile.getGenres()),
+                Set.of());
+        producerProfiles.put(userId, features);
+        features.genreIds().forEach(genreId -> posting(producerGenrePostings, genreId).add(userId));
+        if (features.experienceLevel() != null) {
+            producerLevelPostings.get(features.experienceLevel()).add(userId);
+        }
+        if (features.availability()) {
+            availableProducers.add(userId);
+        }
+        refreshMatchFeatures(userId);
+    }
+
+    private void refreshMatchFeatures(UUID userId) {
+        if (!usernames.containsKey(userId)) {
+            matchFeatures.remove(userId);
+            lshIndex.remove(userId);
+            facetIndex.remove(userId);
+            return;
+        }
+        ProfileFeatures artist = artistProfiles.get(userId);
+        ProfileFeatures producer = producerProfiles.get(userId);
+        facetIndex.update(userId, artist, producer);
+        MatchFeatures features = new MatchFeatures(
+                artist != null,
+                artist != null ? MatchFeatures.levelOrdinal(artist.experienceLevel()) : MatchFeatures.NO_LEVEL,
+                artist != null && artist.availability(),
+                artist != null ? featureDictionary.encodeGenres(artist.genreIds()) : FeatureSet.EMPTY,
+                artist != null ? featureDictionary.encodeSkills(artist.skillIds()) : FeatureSet.EMPTY,
+                producer != null,
+                producer != null ? MatchFeatures.levelOrdinal(producer.experienceLevel()) : MatchFeatures.NO_LEVEL,
+                producer != null && producer.availability(),
+                producer != null ? featureDictionary.encodeGenres(producer.genreIds()) : FeatureSet.EMPTY);
+        matchFeatures.put(userId, features);
+        lshIndex.update(userId, features);
+    }
+
+    private void unindexArtist(UUID userId) {
+        ProfileFeatures previous = artistProfiles.remove(userId);
+        if (previous == null) {
+            return;
+        }
+        previous.genreIds().forEach(genreId -> removePosting(artistGenrePostings, genreId, userId));
+        previous.skillIds().forEach(skillId -> removePosting(skillPostings, skillId, userId));
+        if (previous.experienceLevel() != null) {
+            artistLevelPostings.get(previous.experienceLevel()).remove(userId);
+        }
+        availableArtists.remove(userId);
+    }
+
+    private void unindexProducer(UUID userId) {
+        ProfileFeatures previous = producerProfiles.remove(userId);
+        if (previous == null) {
+            return;
+        }
+        previous.genreIds().forEach(genreId -> removePosting(producerGenrePostings, genreId, userId));
+        if (previous.experienceLevel() != null) {
+            producerLevelPostings.get(previous.experienceLevel()).remove(userId);
+        }
+        availableProducers.remove(userId);
+    }
+
+    private static Set<UUID> genreIdsOf(Set<Genre> genres) {
+        return genres.stream().map(Genre::getId).filter(Objects::nonNull).collect(Collectors.toUnmodifiableSet());
+    }
+
+    private static Set<UUID> skillIdsOf(Set<Skill> skills) {
+        return skills.stream().map(Skill::getId).filter(Objects::nonNull).collect(Collectors.toUnmodifiableSet());
+    }
+
+    private static Set<UUID> posting(Map<UUID, Set<UUID>> postings, UUID key) {
+        return postings.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet());
+    }
+
+    private static void removePosting(Map<UUID, Set<UUID>> postings, UUID key, UUID userId) {
+        postings.computeIfPresent(key, (k, users) -> {
+            users.remove(userId);
+            return users.isEmpty() ? null : users;
+        });
+    }
+
+    // --- Queries ---
+
+    /**
+     * Collects the IDs of all indexed users that can receive a positive match score from the caller:
+     * users sharing at least one genre (in either profile), users sharing at least one artist skill,
+     * and users holding the profile type opposite to one of the caller's profiles.
+     * Every other active user scores zero (or only the connection penalty).
+     *
+     * @param callerGenreIds       Genre IDs from both of the caller's profiles.
+     * @param callerArtistSkillIds Skill IDs from the caller's artist profile.
+     * @param callerIsArtist       Whether the caller has an artist profile.
+     * @param callerIsProducer     Whether the caller has a producer profile.
+     * @return A new, mutable set of candidate user IDs (may include the caller).
+     */
+    public Set<UUID> findCandidateIds(Set<UUID> callerGenreIds, Set<UUID> callerArtistSkillIds,
+                                      boolean callerIsArtist, boolean callerIsProducer) {
+        Set<UUID> candidates = new HashSet<>();
+        for (UUID genreId : callerGenreIds) {
+            candidates.addAll(artistGenrePostings.getOrDefault(genreId, Set.of()));
+            candidates.addAll(producerGenrePostings.getOrDefault(genreId, Set.of()));
+        }
+        if (callerIsArtist) {
+            for (UUID skillId : callerArtistSkillIds) {
+                candidates.addAll(skillPostings.getOrDefault(skillId, Set.of()));
+            }
+            candidates.addAll(producerProfiles.keySet());
+        }
+        if (callerIsProducer) {
+            candidates.addAll(artistProfiles.keySet());
+        }
+        return candidates;
+    }
+
+    /**
+     * Approximate alternative to {@link #findCandidateIds}: returns a bounded set of likely high scorers
+     * from the LSH buckets instead of every user that can score above zero. Users holding the profile type
+     * opposite to one of the caller's profiles always score above zero, so they fill whatever the buckets
+     * leave of {@code matching.candidates.max}, available ones first.
+     *
+     * @param callerFeatures The encoded features of the caller.
+     * @return A new, mutable set of candidate user IDs (may include the caller).
+     */
+    public Set<UUID> findApproximateCandidateIds(MatchFeatures callerFeatures) {
+        Set<UUID> candidates = lshIndex.findCandidateIds(callerFeatures);
+        int maxCandidates = lshIndex.getMaxCandidates();
+        if (callerFeatures.isArtist()) {
+            addUpTo(candidates, availableProducers, maxCandidates);
+            addUpTo(candidates, producerProfiles.keySet(), maxCandidates);
+        }
+        if (callerFeatures.isProducer()) {
+            addUpTo(candidates, availableArtists, maxCandidates);
+            addUpTo(candidates, artistProfiles.keySet(), maxCandidates);
+        }
+        return candidates;
+    }
+
+    private static void addUpTo(Set<UUID> candidates, Set<UUID> source, int maxCandidates) {
+        for (UUID userId : source) {
+            if (candidates.size() >= maxCandidates) {
+                return;
+            }
+            candidates.add(userId);
+        }
+    }
+
+    /**
+     * @return Whether candidates should come from {@link #findApproximateCandidateIds}.
+     */
+    public boolean isApproximate() {
+        return lshIndex.isEnabled();
+    }
+
+    /**
+     * Counts the search facets of all indexed users, see {@link UserFacetIndex#count}.
+     *
+     * @param criteria       The current search filters; the search term is not evaluated.
+     * @param excludedUserId The searching user, never counted.
+     * @param restrictTo     If not {@code null}, only these users are counted (e.g. the search term matches).
+     * @return The counts of every facet value.
+     */
+    public UserFacetCountsDto countFacets(UserSearchCriteria criteria, UUID excludedUserId, Collection<UUID> restrictTo) {
+        return facetIndex.count(criteria, excludedUserId, restrictTo);
+    }
+
+    /**
+     * @return The compact match features of an indexed user, or {@code null} if the user is not indexed.
+     */
+    public MatchFeatures getFeatures(UUID userId) {
+        return matchFeatures.get(userId);
+    }
+
+    /**
+     * Encodes profiles that are not (or not yet) reflected in the index, e.g. the freshly loaded caller.
+     *
+     * @param artistProfile   The artist profile, or {@code null}.
+     * @param producerProfile The producer profile, or {@code null}.
+     * @return The encoded features.
+     */
+    public MatchFeatures encode(ArtistProfile artistProfile, ProducerProfile producerProfile) {
+        return new MatchFeatures(
+                artistProfile != null,
+                artistProfile != null ? MatchFeatures.levelOrdinal(artistProfile.getExperienceLevel()) : MatchFeatures.NO_LEVEL,
+                artistProfile != null && artistProfile.isAvailability(),
+                artistProfile != null ? featureDictionary.encodeGenres(genreIdsOf(artistProfile.getGenres())) : FeatureSet.EMPTY,
+                artistProfile != null ? featureDictionary.encodeSkills(skillIdsOf(artistProfile.getSkills())) : FeatureSet.EMPTY,
+                producerProfile != null,
+                producerProfile != null ? MatchFeatures.levelOrdinal(producerProfile.getExperienceLevel()) : MatchFeatures.NO_LEVEL,
+                producerProfile != null && producerProfile.isAvailability(),
+                producerProfile != null ? featureDictionary.encodeGenres(genreIdsOf(producerProfile.getGenres())) : FeatureSet.EMPTY);
+    }
+
+    /**
+     * @return {@code true} if the user is active and present in the index.
+     */
+    public boolean contains(UUID userId) {
+        return usernames.containsKey(userId);
+    }
+
+    /**
+     * @return The indexed username of the user, or {@code null} if the user is not indexed.
+     */
+    public String getUsername(UUID userId) {
+        return usernames.get(userId);
+    }
+
+    /**
+     * @return The number of indexed (active) users.
+     */
+    public int size() {
+        return usernames.size();
+    }
+
+    /**
+     * @return A read-only view of all indexed users, ordered by username.
+     */
+    public NavigableMap<String, UUID> usersByUsername() {
+        return Collections.unmodifiableNavigableMap(usersByUsername);
+    }
+
+    /**
+     * @return A read-only view of the IDs of all indexed (active) users.
+     */
+    public Set<UUID> getUserIds() {
+        return Collections.unmodifiableSet(usernames.keySet());
+    }
+
+    public Set<UUID> getArtistIds() {
+        return Collections.unmodifiableSet(artistProfiles.keySet());
+    }
+
+    public Set<UUID> getProducerIds() {
+        return Collections.unmodifiableSet(producerProfiles.keySet());
+    }
+
+    public Set<UUID> getArtistIdsWithGenre(UUID genreId) {
+        return Collections.unmodifiableSet(artistGenrePostings.getOrDefault(genreId, Set.of()));
+    }
+
+    public Set<UUID> getProducerIdsWithGenre(UUID genreId) {
+        return Collections.unmodifiableSet(producerGenrePostings.getOrDefault(genreId, Set.of()));
+    }
+
+    public Set<UUID> getArtistIdsWithSkill(UUID skillId) {
+        return Collections.unmodifiableSet(skillPostings.getOrDefault(skillId, Set.of()));
+    }
+
+    public Set<UUID> getArtistIdsWithExperience(ExperienceLevel level) {
+        return Collections.unmodifiableSet(artistLevelPostings.get(level));
+    }
+
+    public Set<UUID> getProducerIdsWithExperience(ExperienceLevel level) {
+        return Collections.unmodifiableSet(producerLevelPostings.get(level));
+    }
+
+    public Set<UUID> getAvailableArtistIds() {
+        return Collections.unmodifiableSet(availableArtists);
+    }
+
+    public Set<UUID> getAvailableProducerIds() {
+        return Collections.unmodifiableSet(availableProducers);
+    }
+
+    /**
+     * Clears the whole index. Used before a full rebuild.
+     */
+    public synchronized void clear() {
+        usernames.clear();
+        usersByUsername.clear();
+        artistProfiles.clear();
+        producerProfiles.clear();
+        matchFeatures.clear();
+        artistGenrePostings.clear();
+        producerGenrePostings.clear();
+        skillPostings.clear();
+        artistLevelPostings.values().forEach(Set::clear);
+        producerLevelPostings.values().forEach(Set::clear);
+        availableArtists.clear();
+        availableProducers.clear();
+        lshIndex.clear();
+        facetIndex.clear();
+        log.debug("Match index cleared");
+    }
+}
@@ -0,0 +1,39 @@
+package com.spshpau.userservice.services.matching;
+
+import com.spshpau.userservice.model.User;
+import com.spshpau.userservice.repositories.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Builds the {@link MatchIndex} from the database once the application has started.
+ * The index is built even when matches are scored by the {@link SqlMatchEngine}, since search facet counts
+ * are served from the {@link UserFacetIndex} it maintains.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class MatchIndexInitializer implements CommandLineRunner {
+
+    private final UserRepository userRepository;
+    private final MatchIndex matchIndex;
+    private final SqlMatchEngine sqlMatchEngine;
+
+    @Override
+    @Transactional(readOnly = true)
+    public void run(String... args) throws Exception {
+        if (sqlMatchEngine.isEnabled()) {
+            log.info("Match scoring runs in the database, the in-memory index is built for search facets only");
+        }
+        long start = System.currentTimeMillis();
+        List<User> activeUsers = userRepository.findAllActiveWithProfiles();
+        matchIndex.clear();
+        activeUsers.forEach(matchIndex::indexUser);
+        log.info("Match index built with {} active users in {} ms", matchIndex.size(), System.currentTimeMillis() - start);
+    }
+}
@@ -0,0 +1,18 @@
+package com.spshpau.userservice.services.matching;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Published whenever data that feeds the match results of specific callers changes
+ * (their profiles, or a connection or block between two users).
+ *
+ * @param userIds The callers whose cached match results are no longer valid.
+ */
+public record MatchInputsChangedEvent(Set<UUID> userIds) {
+
+    public static MatchInputsChangedEvent of(UUID... userIds) {
+        return new MatchInputsChangedEvent(Set.copyOf(List.of(userIds)));
+    }
+}
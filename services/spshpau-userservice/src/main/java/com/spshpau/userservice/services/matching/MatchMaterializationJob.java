@@ -0,0 +1,160 @@
+package com.spshpau.userservice.services.matching;
+
+import com.spshpau.userservice.repositories.UserMatchMaterializationRepository;
+import com.spshpau.userservice.services.UserService;
+import com.spshpau.userservice.services.exceptions.UserNotFoundException;
+import com.spshpau.userservice.services.wrappers.MatchRanking;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Background job that keeps {@code user_match_scores} up to date. Every run recomputes, up to the batch size,
+ * users whose matching inputs changed (dirty markers), active users that were never materialized, and
+ * materializations older than the maximum age.
+ * <p>
+ * The job is opt-in ({@code matching.materialization.enabled}); while it is off, {@link MaterializedMatchStore}
+ * neither tracks changes nor serves rankings. Runs are serialized across instances by
+ * {@link MatchMaterializationLock}; an instance that finds the lock taken skips its run. A run recomputes at most
+ * one batch, so the batch size and refresh interval must cover every active user within the maximum age, or
+ * clean rankings grow older than it; {@code matching.materialization.stale} shows the shortfall.
+ * <p>
+ * Metrics: {@code matching.materialization.refreshed} (users recomputed), {@code matching.materialization.throughput}
+ * (users/sec of the last run) and {@code matching.materialization.lag} (seconds since the oldest pending change) and {@code matching.materialization.stale} (clean rankings older than the
+ * maximum age after the last run).
+ */
+@Component
+@Slf4j
+public class MatchMaterializationJob {
+
+    private final UserService userService;
+    private final MaterializedMatchStore materializedMatchStore;
+    private final UserMatchMaterializationRepository userMatchMaterializationRepository;
+    private final MatchMaterializationLock lock;
+    private final boolean enabled;
+    private final int batchSize;
+    private final int topK;
+    private final Duration maxAge;
+
+    private final Counter refreshedCounter;
+    private final AtomicReference<Double> lastThroughput = new AtomicReference<>(0.0);
+    private final AtomicReference<Double> lagSeconds = new AtomicReference<>(0.0);
+    private final AtomicReference<Double> staleCount = new AtomicReference<>(0.0);
+    private volatile boolean applicationReady;
+
+    public MatchMaterializationJob(UserService userService,
+                                   MaterializedMatchStore materializedMatchStore,
+                                   UserMatchMaterializationRepository userMatchMaterializationRepository,
+                                   MatchMaterializationLock lock,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${matching.materialization.enabled:false}") boolean enabled,
+                                   @Value("${matching.materialization.batch-size:500}") int batchSize,
+                                   @Value("${matching.materialization.top-k:200}") int topK,
+                                   @Value("${matching.materialization.max-age:PT1H}") Duration maxAge) {
+        this.userService = userService;
+        this.materializedMatchStore = materializedMatchStore;
+        this.userMatchMaterializationRepository = userMatchMaterializationRepository;
+        this.lock = lock;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.topK = topK;
+        this.maxAge = maxAge;
+
+        this.refreshedCounter = Counter.builder("matching.materialization.refreshed")
+                .description("Users whose materialized match ranking was recomputed")
+                .register(meterRegistry);
+        Gauge.builder("matching.materialization.throughput", lastThroughput, AtomicReference::get)
+                .description("Users recomputed per second during the last refresh run")
+                .baseUnit("users/s")
+                .register(meterRegistry);
+        Gauge.builder("matching.materialization.lag", lagSeconds, AtomicReference::get)
+                .description("Age of the oldest matching input change not yet materialized")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("matching.materialization.stale", staleCount, AtomicReference::get)
+                .description("Clean match rankings older than the maximum age after the last refresh run")
+                .baseUnit("users")
+                .register(meterRegistry);
+    }
+
+    // Scheduling starts before command line runners, so wait until the match index has been built
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        applicationReady = true;
+    }
+
+    @Scheduled(fixedDelayString = "${matching.materialization.refresh-interval:PT1M}")
+    public void refresh() {
+        if (!enabled || !applicationReady) {
+            return;
+        }
+        if (!lock.runExclusively(this::refreshBatch)) {
+            log.debug("Match materialization is running on another instance, skipping this run");
+        }
+    }
+
+    private void refreshBatch() {
+        long start = System.nanoTime();
+
+        Set<UUID> userIds = new LinkedHashSet<>(userMatchMaterializationRepository.findDirtyUserIds(PageRequest.of(0, batchSize)));
+        if (userIds.size() < batchSize) {
+            userIds.addAll(userMatchMaterializationRepository.findUnmaterializedUserIds(PageRequest.of(0, batchSize - userIds.size())));
+        }
+        if (userIds.size() < batchSize) {
+            userIds.addAll(userMatchMaterializationRepository.findStaleUserIds(
+                    LocalDateTime.now().minus(maxAge), PageRequest.of(0, batchSize - userIds.size())));
+        }
+
+        int refreshed = 0;
+        for (UUID userId : userIds) {
+            if (refreshUser(userId)) {
+                refreshed++;
+            }
+        }
+
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        if (refreshed > 0) {
+            lastThroughput.set(refreshed / Math.max(seconds, 0.001));
+            log.info("Materialized match rankings for {} users in {} ms", refreshed, Math.round(seconds * 1000));
+        }
+        lagSeconds.set(userMatchMaterializationRepository.findOldestDirtySince()
+                .map(oldest -> Duration.between(oldest, LocalDateTime.now()).toMillis() / 1000.0)
+                .orElse(0.0));
+        long stale = userMatchMaterializationRepository.countStale(LocalDateTime.now().minus(maxAge));
+        staleCount.set((double) stale);
+        if (stale > 0) {
+            log.warn("{} match rankings are older than {}, the batch size or refresh interval cannot keep up", stale, maxAge);
+        }
+    }
+
+    private boolean refreshUser(UUID userId) {
+        LocalDateTime startedAt = LocalDateTime.now();
+        try {
+            MatchRanking ranking = userService.computeMatchRanking(userId, topK);
+            materializedMatchStore.replace(userId, ranking, startedAt);
+            refreshedCounter.increment();
+            return true;
+        } catch (UserNotFoundException e) {
+            log.debug("User {} is no longer active, dropping its materialized matches", userId);
+            materializedMatchStore.remove(userId);
+            return false;
+        } catch (Exception e) {
+            log.error("Failed to materialize match ranking for user {}", userId, e);
+            return false;
+        }
+    }
+}
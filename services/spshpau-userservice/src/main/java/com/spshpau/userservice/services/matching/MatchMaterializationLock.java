@@ -0,0 +1,57 @@
+package com.spshpau.userservice.services.matching;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Postgres advisory lock that lets only one instance run {@link MatchMaterializationJob} at a time.
+ * <p>
+ * Unlike the transaction-scoped lock of {@code OutboxRelay}, a run commits once per recomputed user, so the lock
+ * is taken at session level on a connection pinned for the whole run and released explicitly afterwards. If the
+ * instance dies mid-run, closing its connection releases the lock.
+ */
+@Component
+@RequiredArgsConstructor
+public class MatchMaterializationLock {
+
+    // Arbitrary key shared by all instances of the service ("matching" in ASCII)
+    static final long LOCK_KEY = 0x6d61746368696e67L;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Runs the given work while holding the lock.
+     *
+     * @return {@code true} if the work ran, {@code false} if another instance holds the lock.
+     */
+    public boolean runExclusively(Runnable work) {
+        Boolean ran = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            if (!call(connection, "SELECT pg_try_advisory_lock(?)")) {
+                return false;
+            }
+            try {
+                work.run();
+                return true;
+            } finally {
+                call(connection, "SELECT pg_advisory_unlock(?)");
+            }
+        });
+        return Boolean.TRUE.equals(ran);
+    }
+
+    private static boolean call(Connection connection, String sql) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setLong(1, LOCK_KEY);
+            try (ResultSet result = statement.executeQuery()) {
+                return result.next() && result.getBoolean(1);
+            }
+        }
+    }
+}
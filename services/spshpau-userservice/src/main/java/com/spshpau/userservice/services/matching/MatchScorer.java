@@ -0,0 +1,149 @@
+package com.spshpau.userservice.services.matching;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Scoring kernel of the matching algorithm, operating on {@link MatchFeatures} bitmasks.
+ * <p>
+ * Rules (all additive):
+ * <ul>
+ * <li>Already connected: -10.</li>
+ * <li>Per complementary profile pair (caller producer / candidate artist and vice versa): +2,
+ * experience compatibility (20/16/12/8/4 by level distance), +5 per genre shared by the pair,
+ * +10 if the candidate's profile is available.</li>
+ * <li>+1 per genre shared across all profiles.</li>
+ * <li>+1 per artist skill shared when both users are artists.</li>
+ * </ul>
+ * Candidate sets of at least {@code matching.scoring.parallel-threshold} entries are scored in parallel
+ * on the common {@link ForkJoinPool}.
+ */
+@Component
+@Slf4j
+public class MatchScorer {
+
+    public static final double CONNECTED_PENALTY = -10.0;
+
+    private static final int MIN_SPLIT_SIZE = 2_048;
+
+    private final int parallelThreshold;
+
+    public MatchScorer(@Value("${matching.scoring.parallel-threshold:20000}") int parallelThreshold) {
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    public static double calculateMatchScore(MatchFeatures caller, MatchFeatures candidate, boolean areAlreadyConnected) {
+        double score = 0.0;
+
+        // Rule 1: Already connected penalty
+        if (areAlreadyConnected) {
+            score += CONNECTED_PENALTY;
+        }
+
+        // Rule 2: Profile genres
+
+        // Scenario 1: Caller is Producer, Candidate is Artist
+        if (caller.isProducer() && candidate.isArtist()) {
+            score += 2.0;
+            score += calculateExperienceScore(caller.getProducerLevel(), candidate.getArtistLevel());
+            score += calculateSpecificGenreMatchScore(caller.getProducerGenres(), candidate.getArtistGenres());
+            if (candidate.isArtistAvailable()) {
+                score += 10.0;
+            }
+        }
+
+        // Scenario 2: Caller is Artist, Candidate is Producer
+        if (caller.isArtist() && candidate.isProducer()) {
+            score += 2.0;
+            score += calculateExperienceScore(caller.getArtistLevel(), candidate.getProducerLevel());
+            score += calculateSpecificGenreMatchScore(caller.getArtistGenres(), candidate.getProducerGenres());
+            if (candidate.isProducerAvailable()) {
+                score += 10.0;
+            }
+        }
+
+        // Rule 3: General matching genre or skill
+        score += caller.getAllGenres().intersectionSize(candidate.getAllGenres()) * 1.0;
+        if (caller.isArtist() && candidate.isArtist()) {
+            score += caller.getArtistSkills().intersectionSize(candidate.getArtistSkills()) * 1.0;
+        }
+        return score;
+    }
+
+    public static double calculateSpecificGenreMatchScore(FeatureSet callerGenres, FeatureSet candidateProfileGenres) {
+        return callerGenres.intersectionSize(candidateProfileGenres) * 5.0;
+    }
+
+    public static double calculateExperienceScore(int levelOrdinal1, int levelOrdinal2) {
+        if (levelOrdinal1 == MatchFeatures.NO_LEVEL || levelOrdinal2 == MatchFeatures.NO_LEVEL) return 0.0;
+        int diff = Math.abs(levelOrdinal1 - levelOrdinal2);
+        return switch (diff) {
+            case 0 -> 20.0; // Exact match -> + 20 points
+            case 1 -> 16.0;  // 1 level difference -> + 16 points
+            case 2 -> 12.0;  // 2 levels difference -> + 12 points
+            case 3 -> 8.0;  // 3 levels difference -> + 8 points
+            case 4 -> 4.0; // Should not happen
+            default -> 0.0; // Should not happen
+        };
+    }
+
+    /**
+     * Scores all candidates against the caller.
+     *
+     * @param caller     Features of the user looking for matches.
+     * @param candidates Features of the candidates to score.
+     * @param connected  For each candidate, whether it already has an accepted connection with the caller.
+     * @return The scores, index-aligned with {@code candidates}.
+     */
+    public double[] scoreAll(MatchFeatures caller, MatchFeatures[] candidates, boolean[] connected) {
+        double[] scores = new double[candidates.length];
+        if (candidates.length >= parallelThreshold) {
+            log.debug("Scoring {} candidates in parallel", candidates.length);
+            ForkJoinPool.commonPool().invoke(new ScoreTask(caller, candidates, connected, scores, 0, candidates.length));
+        } else {
+            scoreRange(caller, candidates, connected, scores, 0, candidates.length);
+        }
+        return scores;
+    }
+
+    private static void scoreRange(MatchFeatures caller, MatchFeatures[] candidates, boolean[] connected,
+                                   double[] scores, int from, int to) {
+        for (int i = from; i < to; i++) {
+            scores[i] = calculateMatchScore(caller, candidates[i], connected[i]);
+        }
+    }
+
+    private static final class ScoreTask extends RecursiveAction {
+        private final MatchFeatures caller;
+        private final MatchFeatures[] candidates;
+        private final boolean[] connected;
+        private final double[] scores;
+        private final int from;
+        private final int to;
+
+        private ScoreTask(MatchFeatures caller, MatchFeatures[] candidates, boolean[] connected,
+                          double[] scores, int from, int to) {
+            this.caller = caller;
+            this.candidates = candidates;
+            this.connected = connected;
+            this.scores = scores;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= MIN_SPLIT_SIZE) {
+                scoreRange(caller, candidates, connected, scores, from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new ScoreTask(caller, candidates, connected, scores, from, mid),
+                    new ScoreTask(caller, candidates, connected, scores, mid, to));
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.spshpau.userservice.services.matching;
+
+import com.spshpau.userservice.model.UserMatchMaterialization;
+import com.spshpau.userservice.model.UserMatchScore;
+import com.spshpau.userservice.repositories.UserMatchMaterializationRepository;
+import com.spshpau.userservice.repositories.UserMatchScoreRepository;
+import com.spshpau.userservice.services.wrappers.MatchRanking;
+import com.spshpau.userservice.services.wrappers.MatchedUser;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Reads and writes the materialized match rankings in {@code user_match_scores} and keeps their
+ * change-tracking markers up to date. Does nothing unless {@code matching.materialization.enabled} is set, so
+ * rankings left over from an earlier run of {@link MatchMaterializationJob} are never served once it is off.
+ */
+@Component
+@Slf4j
+public class MaterializedMatchStore {
+
+    private final UserMatchScoreRepository userMatchScoreRepository;
+    private final UserMatchMaterializationRepository userMatchMaterializationRepository;
+    private final boolean enabled;
+
+    public MaterializedMatchStore(UserMatchScoreRepository userMatchScoreRepository,
+                                  UserMatchMaterializationRepository userMatchMaterializationRepository,
+                                  @Value("${matching.materialization.enabled:false}") boolean enabled) {
+        this.userMatchScoreRepository = userMatchScoreRepository;
+        this.userMatchMaterializationRepository = userMatchMaterializationRepository;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Serves a page of matches from the materialized ranking.
+     *
+     * @return The page, or empty if the user has no clean materialization covering the requested range,
+     * in which case the caller falls back to live scoring.
+     */
+    @Transactional(readOnly = true)
+    public Optional<Page<MatchedUser>> findPage(UUID userId, Pageable pageable) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        Optional<UserMatchMaterialization> marker = userMatchMaterializationRepository.findById(userId);
+        if (marker.isEmpty() || marker.get().getMaterializedAt() == null || marker.get().getDirtySince() != null) {
+            return Optional.empty();
+        }
+        UserMatchMaterialization materialization = marker.get();
+        long end = Math.min(pageable.getOffset() + pageable.getPageSize(), materialization.getTotalMatches());
+        if (end > materialization.getMaterializedCount()) {
+            return Optional.empty(); // Page reaches beyond the materialized top-K
+        }
+        List<MatchedUser> matches = userMatchScoreRepository
+                .findRankRange(userId, (int) pageable.getOffset(), (int) end).stream()
+                .map(row -> new MatchedUser(row.getMatchUserId(), row.getMatchUsername(), row.getScore()))
+                .toList();
+        return Optional.of(new PageImpl<>(matches, pageable, materialization.getTotalMatches()));
+    }
+
+    /**
+     * Replaces a user's materialized ranking and clears its dirty marker unless it changed again meanwhile.
+     *
+     * @param startedAt When the recomputation of {@code ranking} started.
+     */
+    @Transactional
+    public void replace(UUID userId, MatchRanking ranking, LocalDateTime startedAt) {
+        userMatchScoreRepository.deleteAllForUser(userId);
+        List<UserMatchScore> rows = new ArrayList<>(ranking.top().size());
+        for (int rank = 0; rank < ranking.top().size(); rank++) {
+            MatchedUser match = ranking.top().get(rank);
+            rows.add(new UserMatchScore(userId, rank, match.getUserId(), match.getUsername(), match.getScore()));
+        }
+        userMatchScoreRepository.saveAll(rows);
+
+        UserMatchMaterialization marker = userMatchMaterializationRepository.findById(userId)
+                .orElseGet(() -> new UserMatchMaterialization(userId));
+        marker.setMaterializedAt(startedAt);
+        marker.setMaterializedCount(rows.size());
+        marker.setTotalMatches(ranking.total());
+        userMatchMaterializationRepository.saveAndFlush(marker);
+        userMatchMaterializationRepository.clearDirtyIfUnchangedSince(userId, startedAt);
+    }
+
+    /**
+     * Drops the materialized ranking of a user that can no longer be ranked (e.g. deactivated).
+     */
+    @Transactional
+    public void remove(UUID userId) {
+        userMatchScoreRepository.deleteAllForUser(userId);
+        userMatchMaterializationRepository.deleteById(userId);
+    }
+
+    /**
+     * Marks the affected users' rankings as dirty within the transaction that changed their matching inputs,
+     * together with every ranking that lists one of them: those hold a stale score for them or, once they are
+     * deactivated, an entry that can no longer be served. Rankings a changed user newly qualifies for are only
+     * picked up by the maximum age sweep of {@link MatchMaterializationJob}.
+     */
+    @EventListener
+    @Transactional
+    public void onMatchInputsChanged(MatchInputsChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        for (UUID userId : event.userIds()) {
+            UserMatchMaterialization marker = userMatchMaterializationRepository.findById(userId)
+                    .orElseGet(() -> new UserMatchMaterialization(userId));
+            if (marker.getDirtySince() == null) {
+                marker.setDirtySince(now);
+                userMatchMaterializationRepository.save(marker);
+            }
+        }
+        List<UUID> counterparts = userMatchScoreRepository.findUserIdsRanking(event.userIds());
+        if (!counterparts.isEmpty()) {
+            userMatchMaterializationRepository.markDirty(counterparts, now);
+        }
+        log.debug("Marked materialized matches dirty for users {} and {} rankings listing them",
+                event.userIds(), counterparts.size());
+    }
+}
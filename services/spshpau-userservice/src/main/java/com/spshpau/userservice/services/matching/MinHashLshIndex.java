@@ -0,0 +1,277 @@
+package com.spshpau.userservice.services.matching;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Approximate candidate generation for matching ({@code matching.candidates.mode=approximate}).
+ * <p>
+ * Every indexed user is described by a token set: their genres, artist skills and profile roles.
+ * A MinHash signature of {@code bands * rows} values is kept per user and split into bands; users whose
+ * band values are equal share an LSH bucket. A caller is described by their genres and skills plus the
+ * roles complementary to their own profiles, so bucket collisions favour users sharing genres/skills
+ * and users holding the opposite profile type. Colliding users are ranked by estimated Jaccard
+ * similarity and only the best {@code matching.candidates.max} go to exact scoring.
+ * <p>
+ * Recall is probabilistic: a user that would score high but never collides with the caller is missed.
+ * {@link MatchIndex#findApproximateCandidateIds} tops the collisions up with users of the caller's
+ * complementary role, which guarantees them as candidates only while they fit within the same cap.
+ * <p>
+ * Signatures are maintained incrementally by {@link MatchIndex}; in exact mode nothing is stored.
+ */
+@Component
+@Slf4j
+public class MinHashLshIndex {
+
+    public static final String MODE_APPROXIMATE = "approximate";
+
+    // Token namespaces, so genre, skill, level and role ordinals never collide
+    private static final long GENRE_TOKEN = 1L << 32;
+    private static final long SKILL_TOKEN = 2L << 32;
+    private static final long ARTIST_GENRE_TOKEN = 3L << 32;
+    private static final long PRODUCER_GENRE_TOKEN = 4L << 32;
+    private static final long ARTIST_LEVEL_TOKEN = 5L << 32;
+    private static final long PRODUCER_LEVEL_TOKEN = 6L << 32;
+    private static final long ARTIST_ROLE_TOKEN = 7L << 32;
+    private static final long PRODUCER_ROLE_TOKEN = (7L << 32) | 1;
+    private static final long AVAILABLE_ARTIST_TOKEN = (7L << 32) | 2;
+    private static final long AVAILABLE_PRODUCER_TOKEN = (7L << 32) | 3;
+
+    private final boolean enabled;
+    private final int bands;
+    private final int rows;
+    private final int maxCandidates;
+    private final long[] seeds;
+
+    private final Map<UUID, int[]> signatures = new ConcurrentHashMap<>();
+    private final List<Map<Long, Set<UUID>>> buckets;
+
+    public MinHashLshIndex(@Value("${matching.candidates.mode:exact}") String mode,
+                           @Value("${matching.candidates.max:2000}") int maxCandidates,
+                           @Value("${matching.candidates.lsh.bands:32}") int bands,
+                           @Value("${matching.candidates.lsh.rows:2}") int rows) {
+        if (bands <= 0 || rows <= 0) {
+            throw new IllegalArgumentException("LSH bands and rows must be positive");
+        }
+        this.enabled = MODE_APPROXIMATE.equalsIgnoreCase(mode);
+        this.bands = bands;
+        this.rows = rows;
+        this.maxCandidates = maxCandidates;
+        // Fixed seeds keep signatures reproducible across restarts and test runs
+        SplittableRandom random = new SplittableRandom(0x5EED_CAFEL);
+        this.seeds = new long[bands * rows];
+        for (int i = 0; i < seeds.length; i++) {
+            seeds[i] = random.nextLong();
+        }
+        this.buckets = new ArrayList<>(bands);
+        for (int b = 0; b < bands; b++) {
+            buckets.add(new ConcurrentHashMap<>());
+        }
+        log.info("Match candidate generation: {}", enabled
+                ? "approximate (MinHash LSH, " + bands + " bands x " + rows + " rows, max " + maxCandidates + ")"
+                : "exact");
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return The maximum number of candidates passed to exact scoring per request.
+     */
+    public int getMaxCandidates() {
+        return maxCandidates;
+    }
+
+    /**
+     * Replaces the signature of a user. Users without any profile are not indexed, they can only score zero.
+     *
+     * @param userId   The unique identifier of the user.
+     * @param features The user's current match features, or {@code null} to remove the user.
+     */
+    public synchronized void update(UUID userId, MatchFeatures features) {
+        if (!enabled) {
+            return;
+        }
+        remove(userId);
+        if (features == null) {
+            return;
+        }
+        long[] tokens = candidateTokens(features);
+        if (tokens.length == 0) {
+            return;
+        }
+        int[] signature = signature(tokens);
+        signatures.put(userId, signature);
+        for (int b = 0; b < bands; b++) {
+            buckets.get(b).computeIfAbsent(bandKey(signature, b), k -> ConcurrentHashMap.newKeySet()).add(userId);
+        }
+    }
+
+    /**
+     * Removes a user and their bucket entries.
+     *
+     * @param userId The unique identifier of the user.
+     */
+    public synchronized void remove(UUID userId) {
+        int[] previous = signatures.remove(userId);
+        if (previous == null) {
+            return;
+        }
+        for (int b = 0; b < bands; b++) {
+            buckets.get(b).computeIfPresent(bandKey(previous, b), (k, users) -> {
+                users.remove(userId);
+                return users.isEmpty() ? null : users;
+            });
+        }
+    }
+
+    /**
+     * Collects the users colliding with the caller in at least one band, keeping the
+     * {@code matching.candidates.max} users with the highest estimated similarity.
+     *
+     * @param caller Features of the user looking for matches.
+     * @return A new, mutable set of candidate user IDs (may include the caller).
+     */
+    public Set<UUID> findCandidateIds(MatchFeatures caller) {
+        long[] tokens = queryTokens(caller);
+        if (tokens.length == 0) {
+            return new HashSet<>();
+        }
+        int[] query = signature(tokens);
+        Set<UUID> colliding = new HashSet<>();
+        for (int b = 0; b < bands; b++) {
+            colliding.addAll(buckets.get(b).getOrDefault(bandKey(query, b), Set.of()));
+        }
+        if (colliding.size() <= maxCandidates) {
+            return colliding;
+        }
+
+        // Min-heap on similarity keeps the best maxCandidates colliding users
+        PriorityQueue<Map.Entry<UUID, Integer>> best =
+                new PriorityQueue<>(maxCandidates + 1, Map.Entry.comparingByValue());
+        for (UUID userId : colliding) {
+            int[] signature = signatures.get(userId);
+            if (signature == null) {
+                continue;
+            }
+            int agreement = agreement(query, signature);
+            if (best.size() < maxCandidates) {
+                best.add(Map.entry(userId, agreement));
+            } else if (agreement > best.peek().getValue()) {
+                best.poll();
+                best.add(Map.entry(userId, agreement));
+            }
+        }
+        Set<UUID> candidates = new HashSet<>();
+        best.forEach(entry -> candidates.add(entry.getKey()));
+        return candidates;
+    }
+
+    /**
+     * @return The number of users holding a signature.
+     */
+    public int size() {
+        return signatures.size();
+    }
+
+    public synchronized void clear() {
+        signatures.clear();
+        buckets.forEach(Map::clear);
+    }
+
+    private static long[] candidateTokens(MatchFeatures features) {
+        List<Long> tokens = new ArrayList<>();
+        features.getAllGenres().forEach(ordinal -> tokens.add(GENRE_TOKEN | ordinal));
+        features.getArtistSkills().forEach(ordinal -> tokens.add(SKILL_TOKEN | ordinal));
+        if (features.isArtist()) {
+            tokens.add(ARTIST_ROLE_TOKEN);
+            features.getArtistGenres().forEach(ordinal -> tokens.add(ARTIST_GENRE_TOKEN | ordinal));
+            if (features.getArtistLevel() != MatchFeatures.NO_LEVEL) {
+                tokens.add(ARTIST_LEVEL_TOKEN | features.getArtistLevel());
+            }
+            if (features.isArtistAvailable()) {
+                tokens.add(AVAILABLE_ARTIST_TOKEN);
+            }
+        }
+        if (features.isProducer()) {
+            tokens.add(PRODUCER_ROLE_TOKEN);
+            features.getProducerGenres().forEach(ordinal -> tokens.add(PRODUCER_GENRE_TOKEN | ordinal));
+            if (features.getProducerLevel() != MatchFeatures.NO_LEVEL) {
+                tokens.add(PRODUCER_LEVEL_TOKEN | features.getProducerLevel());
+            }
+            if (features.isProducerAvailable()) {
+                tokens.add(AVAILABLE_PRODUCER_TOKEN);
+            }
+        }
+        return tokens.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    // The caller asks for the complementary profile: its genres and level, available ones first
+    private static long[] queryTokens(MatchFeatures caller) {
+        List<Long> tokens = new ArrayList<>();
+        caller.getAllGenres().forEach(ordinal -> tokens.add(GENRE_TOKEN | ordinal));
+        caller.getArtistSkills().forEach(ordinal -> tokens.add(SKILL_TOKEN | ordinal));
+        if (caller.isArtist()) {
+            tokens.add(PRODUCER_ROLE_TOKEN);
+            tokens.add(AVAILABLE_PRODUCER_TOKEN);
+            caller.getArtistGenres().forEach(ordinal -> tokens.add(PRODUCER_GENRE_TOKEN | ordinal));
+            if (caller.getArtistLevel() != MatchFeatures.NO_LEVEL) {
+                tokens.add(PRODUCER_LEVEL_TOKEN | caller.getArtistLevel());
+            }
+        }
+        if (caller.isProducer()) {
+            tokens.add(ARTIST_ROLE_TOKEN);
+            tokens.add(AVAILABLE_ARTIST_TOKEN);
+            caller.getProducerGenres().forEach(ordinal -> tokens.add(ARTIST_GENRE_TOKEN | ordinal));
+            if (caller.getProducerLevel() != MatchFeatures.NO_LEVEL) {
+                tokens.add(ARTIST_LEVEL_TOKEN | caller.getProducerLevel());
+            }
+        }
+        return tokens.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private int[] signature(long[] tokens) {
+        int[] signature = new int[seeds.length];
+        for (int i = 0; i < seeds.length; i++) {
+            long min = Long.MAX_VALUE;
+            for (long token : tokens) {
+                min = Math.min(min, mix(token ^ seeds[i]));
+            }
+            signature[i] = (int) (min ^ (min >>> 32));
+        }
+        return signature;
+    }
+
+    private long bandKey(int[] signature, int band) {
+        long key = band;
+        for (int r = band * rows; r < (band + 1) * rows; r++) {
+            key = key * 0x9E3779B97F4A7C15L + signature[r];
+        }
+        return mix(key);
+    }
+
+    private static int agreement(int[] a, int[] b) {
+        int equal = 0;
+        for (int i = 0; i < a.length; i++) {
+            if (a[i] == b[i]) {
+                equal++;
+            }
+        }
+        return equal;
+    }
+
+    // MurmurHash3 64-bit finalizer
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
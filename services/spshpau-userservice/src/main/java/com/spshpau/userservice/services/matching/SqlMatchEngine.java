@@ -0,0 +1,65 @@
+package com.spshpau.userservice.services.matching;
+
+import com.spshpau.userservice.repositories.MatchScoreRepository;
+import com.spshpau.userservice.services.wrappers.MatchedUser;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Database-side alternative to the in-memory matching pipeline. When {@code matching.engine=sql},
+ * the scoring formula is evaluated by PostgreSQL and only the requested slice of the ranking
+ * is transferred to the JVM.
+ */
+@Component
+@Slf4j
+public class SqlMatchEngine {
+
+    public static final String ENGINE_SQL = "sql";
+
+    private final MatchScoreRepository matchScoreRepository;
+    private final boolean enabled;
+
+    public SqlMatchEngine(MatchScoreRepository matchScoreRepository,
+                          @Value("${matching.engine:java}") String engine) {
+        this.matchScoreRepository = matchScoreRepository;
+        this.enabled = ENGINE_SQL.equalsIgnoreCase(engine);
+        log.info("Match engine: {}", enabled ? "sql" : "java");
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return One page of the caller's ranking together with the number of rankable users.
+     */
+    public Page<MatchedUser> findMatches(UUID currentUserId, Pageable pageable) {
+        List<MatchedUser> matches = toMatchedUsers(matchScoreRepository.findMatchScores(
+                currentUserId, pageable.getPageSize(), pageable.getOffset()));
+        return new PageImpl<>(matches, pageable, matchScoreRepository.countRankableUsers(currentUserId));
+    }
+
+    /**
+     * @return Up to {@code limit} matches ranked strictly after {@code after}, or from the top if it is null.
+     */
+    public List<MatchedUser> findMatchesAfter(UUID currentUserId, MatchCursor after, int limit) {
+        if (after == null) {
+            return toMatchedUsers(matchScoreRepository.findMatchScores(currentUserId, limit, 0));
+        }
+        return toMatchedUsers(matchScoreRepository.findMatchScoresAfter(
+                currentUserId, after.score(), after.username(), limit));
+    }
+
+    private static List<MatchedUser> toMatchedUsers(List<MatchScoreRepository.MatchScoreRow> rows) {
+        return rows.stream()
+                .map(row -> new MatchedUser(row.getUserId(), row.getUsername(), row.getScore()))
+                .toList();
+    }
+}
@@ -0,0 +1,349 @@
+package com.spshpau.userservice.services.matching;
+
+import com.spshpau.userservice.dto.userdto.UserFacetCountsDto;
+import com.spshpau.userservice.dto.userdto.UserSearchCriteria;
+import com.spshpau.userservice.model.enums.ExperienceLevel;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.stereotype.Component;
+import org.springframework.util.CollectionUtils;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Compressed bitmaps over the profile features of all active users, used to count search facets.
+ * <p>
+ * Every indexed user gets a dense ordinal; each genre, skill, experience level, availability flag and profile
+ * type keeps a {@link RoaringBitmap} of the ordinals holding it. A facet request evaluates the filters of
+ * {@link UserSearchCriteria} with bitwise operations and counts every facet value with one AND cardinality,
+ * instead of one COUNT query per value. Counts follow disjunctive faceting: the filters of a facet's own
+ * group are left out when counting that facet, so selecting one genre does not zero out the others.
+ * <p>
+ * Kept up to date by {@link MatchIndex}, which mirrors every user and profile change here.
+ */
+@Component
+public class UserFacetIndex {
+
+    /**
+     * Filter groups of a search, each counted without its own constraints.
+     */
+    private enum Group {
+        GENRE, SKILL, ARTIST_PROFILE, PRODUCER_PROFILE,
+        ARTIST_LEVEL, PRODUCER_LEVEL, ARTIST_AVAILABILITY, PRODUCER_AVAILABILITY
+    }
+
+    private record Constraint(RoaringBitmap bitmap, boolean exclude) {
+    }
+
+    // Indexed profiles of a user, needed to clear their bits again
+    private record Entry(MatchIndex.ProfileFeatures artist, MatchIndex.ProfileFeatures producer) {
+    }
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<UUID, Integer> ordinals = new HashMap<>();
+    private final Map<UUID, Entry> entries = new HashMap<>();
+    private final Deque<Integer> freeOrdinals = new ArrayDeque<>();
+    private int nextOrdinal = 0;
+
+    private final RoaringBitmap users = new RoaringBitmap();
+    private final RoaringBitmap artists = new RoaringBitmap();
+    private final RoaringBitmap producers = new RoaringBitmap();
+    private final RoaringBitmap availableArtists = new RoaringBitmap();
+    private final RoaringBitmap availableProducers = new RoaringBitmap();
+    private final Map<UUID, RoaringBitmap> genres = new HashMap<>();
+    private final Map<UUID, RoaringBitmap> skills = new HashMap<>();
+    private final Map<ExperienceLevel, RoaringBitmap> artistLevels = new EnumMap<>(ExperienceLevel.class);
+    private final Map<ExperienceLevel, RoaringBitmap> producerLevels = new EnumMap<>(ExperienceLevel.class);
+
+    public UserFacetIndex() {
+        for (ExperienceLevel level : ExperienceLevel.values()) {
+            artistLevels.put(level, new RoaringBitmap());
+            producerLevels.put(level, new RoaringBitmap());
+        }
+    }
+
+    // --- Updates ---
+
+    /**
+     * Replaces the facet bits of an active user.
+     *
+     * @param userId   The unique identifier of the user.
+     * @param artist   The indexed artist profile, or {@code null} if the user has none.
+     * @param producer The indexed producer profile, or {@code null} if the user has none.
+     */
+    void update(UUID userId, MatchIndex.ProfileFeatures artist, MatchIndex.ProfileFeatures producer) {
+        lock.writeLock().lock();
+        try {
+            int ordinal = ordinals.computeIfAbsent(userId, id -> freeOrdinals.isEmpty() ? nextOrdinal++ : freeOrdinals.pop());
+            clearBits(ordinal, entries.put(userId, new Entry(artist, producer)));
+            users.add(ordinal);
+            if (artist != null) {
+                artists.add(ordinal);
+                artist.genreIds().forEach(genreId -> bitmap(genres, genreId).add(ordinal));
+                artist.skillIds().forEach(skillId -> bitmap(skills, skillId).add(ordinal));
+                if (artist.experienceLevel() != null) {
+                    artistLevels.get(artist.experienceLevel()).add(ordinal);
+                }
+                if (artist.availability()) {
+                    availableArtists.add(ordinal);
+                }
+            }
+            if (producer != null) {
+                producers.add(ordinal);
+                producer.genreIds().forEach(genreId -> bitmap(genres, genreId).add(ordinal));
+                if (producer.experienceLevel() != null) {
+                    producerLevels.get(producer.experienceLevel()).add(ordinal);
+                }
+                if (producer.availability()) {
+                    availableProducers.add(ordinal);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a user and releases their ordinal for reuse.
+     *
+     * @param userId The unique identifier of the user.
+     */
+    void remove(UUID userId) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinals.remove(userId);
+            if (ordinal == null) {
+                return;
+            }
+            clearBits(ordinal, entries.remove(userId));
+            users.remove(ordinal);
+            freeOrdinals.push(ordinal);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void clear() {
+        lock.writeLock().lock();
+        try {
+            ordinals.clear();
+            entries.clear();
+            freeOrdinals.clear();
+            nextOrdinal = 0;
+            users.clear();
+            artists.clear();
+            producers.clear();
+            availableArtists.clear();
+            availableProducers.clear();
+            genres.clear();
+            skills.clear();
+            artistLevels.values().forEach(RoaringBitmap::clear);
+            producerLevels.values().forEach(RoaringBitmap::clear);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void clearBits(int ordinal, Entry previous) {
+        if (previous == null) {
+            return;
+        }
+        if (previous.artist() != null) {
+            artists.remove(ordinal);
+            availableArtists.remove(ordinal);
+            previous.artist().genreIds().forEach(genreId -> removeBit(genres, genreId, ordinal));
+            previous.artist().skillIds().forEach(skillId -> removeBit(skills, skillId, ordinal));
+            if (previous.artist().experienceLevel() != null) {
+                artistLevels.get(previous.artist().experienceLevel()).remove(ordinal);
+            }
+        }
+        if (previous.producer() != null) {
+            producers.remove(ordinal);
+            availableProducers.remove(ordinal);
+            previous.producer().genreIds().forEach(genreId -> removeBit(genres, genreId, ordinal));
+            if (previous.producer().experienceLevel() != null) {
+                producerLevels.get(previous.producer().experienceLevel()).remove(ordinal);
+            }
+        }
+    }
+
+    private static RoaringBitmap bitmap(Map<UUID, RoaringBitmap> bitmaps, UUID key) {
+        return bitmaps.computeIfAbsent(key, k -> new RoaringBitmap());
+    }
+
+    private static void removeBit(Map<UUID, RoaringBitmap> bitmaps, UUID key, int ordinal) {
+        RoaringBitmap bitmap = bitmaps.get(key);
+        if (bitmap == null) {
+            return;
+        }
+        bitmap.remove(ordinal);
+        if (bitmap.isEmpty()) {
+            bitmaps.remove(key);
+        }
+    }
+
+    // --- Queries ---
+
+    /**
+     * Counts every facet value for a search. The search term of the criteria is not evaluated here;
+     * pass the IDs of the users matching it as {@code restrictTo} instead.
+     *
+     * @param criteria       The current search filters.
+     * @param excludedUserId The searching user, never counted.
+     * @param restrictTo     If not {@code null}, only these users are counted.
+     * @return The counts of every facet value.
+     */
+    public UserFacetCountsDto count(UserSearchCriteria criteria, UUID excludedUserId, Collection<UUID> restrictTo) {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap universe = users.clone();
+            if (restrictTo != null) {
+                universe.and(ordinalsOf(restrictTo));
+            }
+            Integer excludedOrdinal = ordinals.get(excludedUserId);
+            if (excludedOrdinal != null) {
+                universe.remove(excludedOrdinal);
+            }
+            Map<Group, List<Constraint>> constraints = constraints(criteria);
+
+            UserFacetCountsDto counts = new UserFacetCountsDto();
+            counts.setTotal(filter(universe, constraints, null).getLongCardinality());
+
+            RoaringBitmap genreBase = filter(universe, constraints, Group.GENRE);
+            Map<UUID, Long> genreCounts = new HashMap<>();
+            genres.forEach((genreId, bitmap) -> putNonZero(genreCounts, genreId, RoaringBitmap.andCardinality(genreBase, bitmap)));
+            counts.setGenres(genreCounts);
+
+            RoaringBitmap skillBase = filter(universe, constraints, Group.SKILL);
+            Map<UUID, Long> skillCounts = new HashMap<>();
+            skills.forEach((skillId, bitmap) -> putNonZero(skillCounts, skillId, RoaringBitmap.andCardinality(skillBase, bitmap)));
+            counts.setSkills(skillCounts);
+
+            counts.setArtistExperienceLevels(levelCounts(filter(universe, constraints, Group.ARTIST_LEVEL), artistLevels));
+            counts.setProducerExperienceLevels(levelCounts(filter(universe, constraints, Group.PRODUCER_LEVEL), producerLevels));
+
+            RoaringBitmap artistAvailabilityBase = filter(universe, constraints, Group.ARTIST_AVAILABILITY);
+            long available = RoaringBitmap.andCardinality(artistAvailabilityBase, availableArtists);
+            counts.setAvailableArtists(available);
+            counts.setUnavailableArtists(RoaringBitmap.andCardinality(artistAvailabilityBase, artists) - available);
+
+            RoaringBitmap producerAvailabilityBase = filter(universe, constraints, Group.PRODUCER_AVAILABILITY);
+            available = RoaringBitmap.andCardinality(producerAvailabilityBase, availableProducers);
+            counts.setAvailableProducers(available);
+            counts.setUnavailableProducers(RoaringBitmap.andCardinality(producerAvailabilityBase, producers) - available);
+
+            counts.setArtists(RoaringBitmap.andCardinality(filter(universe, constraints, Group.ARTIST_PROFILE), artists));
+            counts.setProducers(RoaringBitmap.andCardinality(filter(universe, constraints, Group.PRODUCER_PROFILE), producers));
+            return counts;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return The number of indexed users.
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return users.getCardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Same semantics as UserSpecification, one group per criterion
+    private Map<Group, List<Constraint>> constraints(UserSearchCriteria criteria) {
+        Map<Group, List<Constraint>> constraints = new EnumMap<>(Group.class);
+        if (!CollectionUtils.isEmpty(criteria.getGenreIds())) {
+            constraints.put(Group.GENRE, valueConstraints(genres, criteria.getGenreIds(), criteria.getMatchAllGenres()));
+        }
+        if (!CollectionUtils.isEmpty(criteria.getSkillIds())) {
+            constraints.put(Group.SKILL, valueConstraints(skills, criteria.getSkillIds(), criteria.getMatchAllSkills()));
+        }
+        if (criteria.getHasArtistProfile() != null) {
+            constraints.put(Group.ARTIST_PROFILE, List.of(new Constraint(artists, !criteria.getHasArtistProfile())));
+        }
+        if (criteria.getHasProducerProfile() != null) {
+            constraints.put(Group.PRODUCER_PROFILE, List.of(new Constraint(producers, !criteria.getHasProducerProfile())));
+        }
+        if (criteria.getArtistExperienceLevel() != null) {
+            constraints.put(Group.ARTIST_LEVEL, List.of(new Constraint(artistLevels.get(criteria.getArtistExperienceLevel()), false)));
+        }
+        if (criteria.getProducerExperienceLevel() != null) {
+            constraints.put(Group.PRODUCER_LEVEL, List.of(new Constraint(producerLevels.get(criteria.getProducerExperienceLevel()), false)));
+        }
+        if (criteria.getArtistAvailability() != null) {
+            constraints.put(Group.ARTIST_AVAILABILITY, availabilityConstraints(artists, availableArtists, criteria.getArtistAvailability()));
+        }
+        if (criteria.getProducerAvailability() != null) {
+            constraints.put(Group.PRODUCER_AVAILABILITY, availabilityConstraints(producers, availableProducers, criteria.getProducerAvailability()));
+        }
+        return constraints;
+    }
+
+    private static List<Constraint> valueConstraints(Map<UUID, RoaringBitmap> bitmaps, Collection<UUID> ids, Boolean matchAll) {
+        if (Boolean.TRUE.equals(matchAll)) {
+            return new LinkedHashSet<>(ids).stream()
+                    .map(id -> new Constraint(bitmaps.getOrDefault(id, new RoaringBitmap()), false))
+                    .toList();
+        }
+        RoaringBitmap any = new RoaringBitmap();
+        ids.forEach(id -> {
+            RoaringBitmap bitmap = bitmaps.get(id);
+            if (bitmap != null) {
+                any.or(bitmap);
+            }
+        });
+        return List.of(new Constraint(any, false));
+    }
+
+    // Availability filters imply the profile exists, as in the inner join of UserSpecification
+    private static List<Constraint> availabilityConstraints(RoaringBitmap holders, RoaringBitmap available, boolean availability) {
+        return availability
+                ? List.of(new Constraint(available, false))
+                : List.of(new Constraint(holders, false), new Constraint(available, true));
+    }
+
+    private static RoaringBitmap filter(RoaringBitmap universe, Map<Group, List<Constraint>> constraints, Group skipped) {
+        RoaringBitmap result = universe.clone();
+        constraints.forEach((group, groupConstraints) -> {
+            if (group == skipped) {
+                return;
+            }
+            for (Constraint constraint : groupConstraints) {
+                if (constraint.exclude()) {
+                    result.andNot(constraint.bitmap());
+                } else {
+                    result.and(constraint.bitmap());
+                }
+            }
+        });
+        return result;
+    }
+
+    private static Map<ExperienceLevel, Long> levelCounts(RoaringBitmap base, Map<ExperienceLevel, RoaringBitmap> levels) {
+        Map<ExperienceLevel, Long> counts = new EnumMap<>(ExperienceLevel.class);
+        levels.forEach((level, bitmap) -> counts.put(level, (long) RoaringBitmap.andCardinality(base, bitmap)));
+        return counts;
+    }
+
+    private static void putNonZero(Map<UUID, Long> counts, UUID key, long count) {
+        if (count > 0) {
+            counts.put(key, count);
+        }
+    }
+
+    private RoaringBitmap ordinalsOf(Collection<UUID> userIds) {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        for (UUID userId : userIds) {
+            Integer ordinal = ordinals.get(userId);
+            if (ordinal != null) {
+                bitmap.add(ordinal);
+            }
+        }
+        return bitmap;
+    }
+}
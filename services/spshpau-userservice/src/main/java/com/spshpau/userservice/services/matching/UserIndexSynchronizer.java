@@ -0,0 +1,138 @@
+package com.spshpau.userservice.services.matching;
+
+import com.spshpau.userservice.model.User;
+import com.spshpau.userservice.repositories.UserRepository;
+import com.spshpau.userservice.services.profile.UserProfileChangedEvent;
+import com.spshpau.userservice.services.search.UsernamePrefixIndex;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+
+/**
+ * Keeps the {@link MatchIndex} and the {@link UsernamePrefixIndex} in line with the database.
+ * <p>
+ * A user is reloaded and reindexed only once the transaction that changed them or their profiles has
+ * committed ({@link UserProfileChangedEvent}), so a rolled back change never reaches the indexes.
+ * <p>
+ * The indexes are local to each instance, so changes made through other instances only reach them through a
+ * periodic reconciliation with all active users. It is opt-in ({@code matching.index.rebuild.enabled}) because
+ * every instance rereads every active user: the active IDs are read first and the users are then loaded in
+ * batches of {@code matching.index.rebuild.batch-size}, each in its own short transaction. Users changed while a
+ * reconciliation runs are reloaded afterwards, so it never overwrites a newer change with an older snapshot.
+ */
+@Component
+@Slf4j
+public class UserIndexSynchronizer {
+
+    private final UserRepository userRepository;
+    private final MatchIndex matchIndex;
+    private final UsernamePrefixIndex usernamePrefixIndex;
+    private final boolean rebuildEnabled;
+    private final int rebuildBatchSize;
+
+    private final Object rebuildLock = new Object();
+    private final Object stateLock = new Object();
+    // Users reindexed while a reconciliation runs, reloaded once its snapshot is applied; guarded by stateLock
+    private Set<UUID> changedDuringRebuild;
+
+    public UserIndexSynchronizer(UserRepository userRepository,
+                                 MatchIndex matchIndex,
+                                 UsernamePrefixIndex usernamePrefixIndex,
+                                 @Value("${matching.index.rebuild.enabled:false}") boolean rebuildEnabled,
+                                 @Value("${matching.index.rebuild.batch-size:500}") int rebuildBatchSize) {
+        this.userRepository = userRepository;
+        this.matchIndex = matchIndex;
+        this.usernamePrefixIndex = usernamePrefixIndex;
+        this.rebuildEnabled = rebuildEnabled;
+        this.rebuildBatchSize = rebuildBatchSize;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onUserProfileChanged(UserProfileChangedEvent event) {
+        // Recorded before loading, so a reconciliation that misses this change reloads the user itself
+        synchronized (stateLock) {
+            if (changedDuringRebuild != null) {
+                changedDuringRebuild.add(event.userId());
+            }
+        }
+        reindex(event.userId());
+    }
+
+    /**
+     * Reindexes every active user and removes the users that are no longer active. Runs on a fixed delay when
+     * enabled; the initial build at startup is done by {@link MatchIndexInitializer}.
+     */
+    @Scheduled(fixedDelayString = "${matching.index.rebuild-interval:PT10M}",
+            initialDelayString = "${matching.index.rebuild-interval:PT10M}")
+    public void rebuild() {
+        if (!rebuildEnabled) {
+            return;
+        }
+        synchronized (rebuildLock) {
+            long start = System.currentTimeMillis();
+            synchronized (stateLock) {
+                changedDuringRebuild = new HashSet<>();
+            }
+            try {
+                List<UUID> scannedIds = userRepository.findAllActiveIds();
+                // Users deactivated since the ID scan are not loaded, so the sweep below drops them too
+                Set<UUID> activeIds = new HashSet<>();
+                for (int from = 0; from < scannedIds.size(); from += rebuildBatchSize) {
+                    List<UUID> batch = scannedIds.subList(from, Math.min(from + rebuildBatchSize, scannedIds.size()));
+                    for (User user : userRepository.findActiveWithProfilesByIdIn(batch)) {
+                        matchIndex.indexUser(user);
+                        usernamePrefixIndex.indexUser(user);
+                        activeIds.add(user.getId());
+                    }
+                }
+                removeInactive(activeIds);
+                // Reloaded last: the snapshot and the sweep may have undone these changes
+                Set<UUID> changed;
+                synchronized (stateLock) {
+                    changed = changedDuringRebuild;
+                    changedDuringRebuild = null;
+                }
+                changed.forEach(this::reindex);
+                log.info("Match and username indexes reconciled with {} active users in {} ms",
+                        activeIds.size(), System.currentTimeMillis() - start);
+            } catch (RuntimeException e) {
+                log.warn("Reconciling the match and username indexes failed, keeping the current ones", e);
+            } finally {
+                synchronized (stateLock) {
+                    changedDuringRebuild = null;
+                }
+            }
+        }
+    }
+
+    private void reindex(UUID userId) {
+        List<User> users = userRepository.findActiveWithProfilesByIdIn(List.of(userId));
+        if (users.isEmpty()) {
+            matchIndex.removeUser(userId);
+            usernamePrefixIndex.removeUser(userId);
+        } else {
+            matchIndex.indexUser(users.get(0));
+            usernamePrefixIndex.indexUser(users.get(0));
+        }
+    }
+
+    private void removeInactive(Set<UUID> activeIds) {
+        for (UUID userId : new ArrayList<>(matchIndex.getUserIds())) {
+            if (!activeIds.contains(userId)) {
+                matchIndex.removeUser(userId);
+            }
+        }
+        for (UUID userId : new ArrayList<>(usernamePrefixIndex.getUserIds())) {
+            if (!activeIds.contains(userId)) {
+                usernamePrefixIndex.removeUser(userId);
+            }
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.spshpau.userservice.services.outbox;
+
+import com.spshpau.userservice.model.enums.DomainEventType;
+
+import java.util.UUID;
+
+/**
+ * Published when a connection or block between two users changes, to be recorded in the outbox.
+ *
+ * @param type        The kind of change.
+ * @param userId      The user who made the change.
+ * @param otherUserId The other user of the connection or block.
+ */
+public record InteractionChangedEvent(DomainEventType type, UUID userId, UUID otherUserId) {
+}
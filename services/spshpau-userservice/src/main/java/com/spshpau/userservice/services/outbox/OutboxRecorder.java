@@ -0,0 +1,72 @@
+package com.spshpau.userservice.services.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.spshpau.userservice.dto.userdto.UserDetailDto;
+import com.spshpau.userservice.model.OutboxEvent;
+import com.spshpau.userservice.model.enums.DomainEventType;
+import com.spshpau.userservice.repositories.OutboxEventRepository;
+import com.spshpau.userservice.repositories.UserRepository;
+import com.spshpau.userservice.services.profile.UserProfileChangedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.UUID;
+
+/**
+ * Writes interaction and user changes to {@code outbox_events} just before the transaction that made them
+ * commits, so an event is stored if and only if its change is. The {@link OutboxRelay} then publishes them.
+ * <p>
+ * User changes are recorded from the {@link UserProfileChangedEvent} every user and profile mutation already
+ * publishes, with a snapshot of the account fields as it will be committed.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OutboxRecorder {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final UserRepository userRepository;
+    private final ObjectMapper objectMapper;
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onInteractionChanged(InteractionChangedEvent event) {
+        outboxEventRepository.save(new OutboxEvent(event.type(), event.userId(), event.otherUserId(), null));
+        log.debug("Recorded {} event for users {} and {} in the outbox", event.type(), event.userId(), event.otherUserId());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onUserProfileChanged(UserProfileChangedEvent event) {
+        // The query flushes pending changes first, so the snapshot matches what is about to commit
+        String payload = userRepository.findDetailById(event.userId())
+                .map(user -> toJson(UserSnapshot.of(user, event.previousUsername())))
+                .orElse(null);
+        outboxEventRepository.save(new OutboxEvent(DomainEventType.USER_UPDATED, event.userId(), null, payload));
+        log.debug("Recorded {} event for user {} in the outbox", DomainEventType.USER_UPDATED, event.userId());
+    }
+
+    private String toJson(UserSnapshot snapshot) {
+        try {
+            return objectMapper.writeValueAsString(snapshot);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize snapshot of user " + snapshot.id(), e);
+        }
+    }
+
+    /**
+     * Payload of {@code USER_UPDATED}: the account fields other services keep in their replicas.
+     *
+     * @param previousUsername The username before the change if the user was renamed, otherwise {@code null}.
+     */
+    record UserSnapshot(UUID id, String username, String previousUsername, String firstName, String lastName,
+                        String location, boolean active) {
+
+        static UserSnapshot of(UserDetailDto user, String previousUsername) {
+            return new UserSnapshot(user.getId(), user.getUsername(), previousUsername, user.getFirstName(),
+                    user.getLastName(), user.getLocation(), user.isActive());
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.spshpau.userservice.services.outbox;
+
+import com.spshpau.userservice.model.OutboxEvent;
+import com.spshpau.userservice.repositories.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Publishes the events recorded in {@code outbox_events} by giving them consecutive feed positions, and deletes
+ * published events once they are older than the retention period.
+ * <p>
+ * Only committed events are visible to the relay, and positions are assigned under a transaction-scoped advisory
+ * lock, so across instances the feed only ever grows at its end: a reader that has seen position {@code n} will
+ * never miss an event later published below it. An event whose transaction commits late simply gets a later
+ * position than events inserted after it.
+ * <p>
+ * Metric: {@code outbox.relay.published} (events given a feed position).
+ */
+@Component
+@Slf4j
+public class OutboxRelay {
+
+    // Arbitrary key shared by all instances of the service ("outbox" in ASCII)
+    static final long RELAY_LOCK_KEY = 0x6f7574626f78L;
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final int batchSize;
+    private final Duration retention;
+    private final Counter publishedCounter;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       MeterRegistry meterRegistry,
+                       @Value("${outbox.relay.batch-size:500}") int batchSize,
+                       @Value("${outbox.retention:P7D}") Duration retention) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.batchSize = batchSize;
+        this.retention = retention;
+        this.publishedCounter = Counter.builder("outbox.relay.published")
+                .description("Outbox events given a position in the event feed")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Publishes up to one batch of pending events.
+     */
+    @Scheduled(fixedDelayString = "${outbox.relay.interval:PT1S}")
+    @Transactional
+    public void relay() {
+        outboxEventRepository.acquireTransactionLock(RELAY_LOCK_KEY);
+        List<OutboxEvent> pending = outboxEventRepository.findUnpublished(PageRequest.of(0, batchSize));
+        if (pending.isEmpty()) {
+            return;
+        }
+        long position = outboxEventRepository.findHeadPosition();
+        LocalDateTime now = LocalDateTime.now();
+        for (OutboxEvent event : pending) {
+            event.setPosition(++position);
+            event.setPublishedAt(now);
+        }
+        publishedCounter.increment(pending.size());
+        log.debug("Published {} outbox events up to position {}", pending.size(), position);
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.retention-cleanup-interval:PT1H}")
+    @Transactional
+    public void deleteExpired() {
+        int deleted = outboxEventRepository.deletePublishedBefore(LocalDateTime.now().minus(retention));
+        if (deleted > 0) {
+            log.info("Deleted {} outbox events published more than {} ago", deleted, retention);
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.spshpau.userservice.services.profile;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.spshpau.userservice.dto.profiledto.ArtistProfileDetailDto;
+import com.spshpau.userservice.dto.profiledto.ProducerProfileDetailDto;
+import com.spshpau.userservice.dto.userdto.UserDetailDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Read-through caches of the profile views served by the user detail and profile endpoints, keyed by user ID,
+ * plus a username to user ID alias cache for the by-username endpoints.
+ * <p>
+ * Entries are evicted once a change to the user has committed, signalled by the {@link UserProfileChangedEvent}
+ * the user, artist profile and producer profile services publish from every mutating method. Views are bounded
+ * by weight (roughly the number of genres, skills and bio text they hold), aliases by count, and both expire
+ * after a while as a safety net for changes made outside the service. Only existing users and profiles are
+ * cached, so lookups of unknown IDs cannot fill the caches.
+ * <p>
+ * Cached DTOs are shared between requests and must not be modified by callers. Loaders run inside the
+ * read-only transaction of the calling service, since they map lazily loaded genres and skills. Hit, miss and eviction statistics are published as {@code cache.*} metrics for each cache name.
+ */
+@Component
+@Slf4j
+public class ProfileReadCache implements MeterBinder {
+
+    public static final String USER_DETAILS_CACHE = "userDetails";
+    public static final String ARTIST_PROFILES_CACHE = "artistProfileDetails";
+    public static final String PRODUCER_PROFILES_CACHE = "producerProfileDetails";
+    public static final String USERNAME_ALIASES_CACHE = "usernameAliases";
+
+    private static final long DEFAULT_MAX_WEIGHT = 200_000;
+    private static final long DEFAULT_MAX_ALIASES = 50_000;
+    private static final Duration DEFAULT_EXPIRE_AFTER_WRITE = Duration.ofHours(1);
+
+    // Bio characters counted as one weight unit, next to one unit per entry, genre and skill
+    private static final int BIO_CHARS_PER_WEIGHT_UNIT = 128;
+
+    private final Cache<UUID, UserDetailDto> userDetails;
+    private final Cache<UUID, ArtistProfileDetailDto> artistProfiles;
+    private final Cache<UUID, ProducerProfileDetailDto> producerProfiles;
+    private final Cache<String, UUID> userIdsByUsername;
+
+    public ProfileReadCache() {
+        this(DEFAULT_MAX_WEIGHT, DEFAULT_MAX_ALIASES, DEFAULT_EXPIRE_AFTER_WRITE);
+    }
+
+    @Autowired
+    public ProfileReadCache(@Value("${profiles.cache.max-weight:200000}") long maxWeight,
+                            @Value("${profiles.cache.max-aliases:50000}") long maxAliases,
+                            @Value("${profiles.cache.expire-after-write:PT1H}") Duration expireAfterWrite) {
+        this.userDetails = Caffeine.newBuilder()
+                .maximumWeight(maxWeight)
+                .weigher((UUID userId, UserDetailDto detail) -> 1 + weigh(detail.getArtistProfile()) + weigh(detail.getProducerProfile()))
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        this.artistProfiles = Caffeine.newBuilder()
+                .maximumWeight(maxWeight)
+                .weigher((UUID userId, ArtistProfileDetailDto profile) -> weigh(profile))
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        this.producerProfiles = Caffeine.newBuilder()
+                .maximumWeight(maxWeight)
+                .weigher((UUID userId, ProducerProfileDetailDto profile) -> weigh(profile))
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        this.userIdsByUsername = Caffeine.newBuilder()
+                .maximumSize(maxAliases)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, userDetails, USER_DETAILS_CACHE);
+        CaffeineCacheMetrics.monitor(registry, artistProfiles, ARTIST_PROFILES_CACHE);
+        CaffeineCacheMetrics.monitor(registry, producerProfiles, PRODUCER_PROFILES_CACHE);
+        CaffeineCacheMetrics.monitor(registry, userIdsByUsername, USERNAME_ALIASES_CACHE);
+    }
+
+    // --- Reads ---
+
+    /**
+     * @param userId The unique identifier of the user.
+     * @param loader Loads the view of a user that is not cached; empty if the user does not exist.
+     * @return The user's detail view, if the user exists.
+     */
+    public Optional<UserDetailDto> getUserDetail(UUID userId, Function<UUID, Optional<UserDetailDto>> loader) {
+        return Optional.ofNullable(userDetails.get(userId, id -> loader.apply(id).orElse(null)));
+    }
+
+    /**
+     * @param userId The unique identifier of the user.
+     * @return The user's cached detail view, without loading it if it is not cached.
+     */
+    public Optional<UserDetailDto> peekUserDetail(UUID userId) {
+        return Optional.ofNullable(userDetails.getIfPresent(userId));
+    }
+
+    /**
+     * @param userId The unique identifier of the user.
+     * @param loader Loads the profile of a user that is not cached; empty if the user has no artist profile.
+     * @return The user's artist profile view, if the user has one.
+     */
+    public Optional<ArtistProfileDetailDto> getArtistProfile(UUID userId, Function<UUID, Optional<ArtistProfileDetailDto>> loader) {
+        return Optional.ofNullable(artistProfiles.get(userId, id -> loader.apply(id).orElse(null)));
+    }
+
+    /**
+     * @param userId The unique identifier of the user.
+     * @param loader Loads the profile of a user that is not cached; empty if the user has no producer profile.
+     * @return The user's producer profile view, if the user has one.
+     */
+    public Optional<ProducerProfileDetailDto> getProducerProfile(UUID userId, Function<UUID, Optional<ProducerProfileDetailDto>> loader) {
+        return Optional.ofNullable(producerProfiles.get(userId, id -> loader.apply(id).orElse(null)));
+    }
+
+    /**
+     * @param username The username.
+     * @param loader   Looks up the ID of a username that is not cached; empty if no user has it.
+     * @return The ID of the user with the username, if one exists.
+     */
+    public Optional<UUID> resolveUserId(String username, Function<String, Optional<UUID>> loader) {
+        if (username == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(userIdsByUsername.get(username, name -> loader.apply(name).orElse(null)));
+    }
+
+    // --- Invalidation ---
+
+    /**
+     * Evicts every cached view of a user, and their former username if they were renamed.
+     *
+     * @param userId           The unique identifier of the user.
+     * @param previousUsername The username before a rename, or {@code null}.
+     */
+    public void invalidate(UUID userId, String previousUsername) {
+        userDetails.invalidate(userId);
+        artistProfiles.invalidate(userId);
+        producerProfiles.invalidate(userId);
+        if (previousUsername != null) {
+            userIdsByUsername.invalidate(previousUsername);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserProfileChanged(UserProfileChangedEvent event) {
+        invalidate(event.userId(), event.previousUsername());
+        log.debug("Evicted cached profile views of user {}", event.userId());
+    }
+
+    // Runs pending evictions now instead of on a later access; for tests
+    void cleanUp() {
+        userDetails.cleanUp();
+        artistProfiles.cleanUp();
+        producerProfiles.cleanUp();
+        userIdsByUsername.cleanUp();
+    }
+
+    private static int weigh(ArtistProfileDetailDto profile) {
+        if (profile == null) {
+            return 0;
+        }
+        return 1 + size(profile.getGenres()) + size(profile.getSkills()) + bioWeight(profile.getBio());
+    }
+
+    private static int weigh(ProducerProfileDetailDto profile) {
+        if (profile == null) {
+            return 0;
+        }
+        return 1 + size(profile.getGenres()) + bioWeight(profile.getBio());
+    }
+
+    private static int size(Collection<?> values) {
+        return values == null ? 0 : values.size();
+    }
+
+    private static int bioWeight(String bio) {
+        return bio == null ? 0 : bio.length() / BIO_CHARS_PER_WEIGHT_UNIT;
+    }
+}
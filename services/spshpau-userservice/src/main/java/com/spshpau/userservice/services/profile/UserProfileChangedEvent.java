@@ -0,0 +1,16 @@
+package com.spshpau.userservice.services.profile;
+
+import java.util.UUID;
+
+/**
+ * Published whenever data shown on a user's profile pages changes (the user's details or either profile).
+ *
+ * @param userId           The user whose cached profile views are no longer valid.
+ * @param previousUsername The user's username before the change, if it was renamed; otherwise {@code null}.
+ */
+public record UserProfileChangedEvent(UUID userId, String previousUsername) {
+
+    public static UserProfileChangedEvent of(UUID userId) {
+        return new UserProfileChangedEvent(userId, null);
+    }
+}
@@ -0,0 +1,167 @@
+package com.spshpau.userservice.services.search;
+
+import com.spshpau.userservice.dto.userdto.UserSuggestionDto;
+import com.spshpau.userservice.model.User;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Predicate;
+
+/**
+ * In-memory prefix index over the usernames and display names of all active users, serving typeahead
+ * suggestions without touching the database.
+ * <p>
+ * Keys are lower-cased and kept in sorted skip lists, so the users for a prefix are a contiguous key range
+ * found with a logarithmic seek. Username matches rank before display name ("first last" or last name)
+ * matches; within each, keys are in lexicographic order, so shorter completions come first.
+ * <p>
+ * The index is populated by {@link UsernamePrefixIndexInitializer} and kept up to date by the
+ * {@link com.spshpau.userservice.services.matching.UserIndexSynchronizer} once changes to a user have committed.
+ */
+@Component
+public class UsernamePrefixIndex {
+
+    // Separates the searchable key from the user ID, so equal names of different users get distinct keys
+    private static final char KEY_SEPARATOR = '\u0000';
+
+    private final Map<UUID, UserSuggestionDto> users = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<String, UUID> usernameKeys = new ConcurrentSkipListMap<>();
+    private final ConcurrentSkipListMap<String, UUID> nameKeys = new ConcurrentSkipListMap<>();
+
+    // --- Updates ---
+
+    /**
+     * (Re)indexes a user, or removes them if they are not active.
+     *
+     * @param user The user entity.
+     */
+    public void indexUser(User user) {
+        if (user == null || user.getId() == null) {
+            return;
+        }
+        if (!user.isActive()) {
+            removeUser(user.getId());
+            return;
+        }
+        put(new UserSuggestionDto(user.getId(), user.getUsername(), user.getFirstName(), user.getLastName()));
+    }
+
+    /**
+     * (Re)indexes an active user.
+     *
+     * @param suggestion The user's ID, username and display name.
+     */
+    public synchronized void put(UserSuggestionDto suggestion) {
+        UserSuggestionDto previous = users.put(suggestion.getId(), suggestion);
+        if (previous != null) {
+            unindex(previous);
+        }
+        UUID userId = suggestion.getId();
+        keyOf(suggestion.getUsername(), userId).ifPresent(key -> usernameKeys.put(key, userId));
+        nameKeysOf(suggestion).forEach(key -> nameKeys.put(key, userId));
+    }
+
+    /**
+     * Removes a user from the index.
+     *
+     * @param userId The unique identifier of the user.
+     */
+    public synchronized void removeUser(UUID userId) {
+        UserSuggestionDto previous = users.remove(userId);
+        if (previous != null) {
+            unindex(previous);
+        }
+    }
+
+    /**
+     * Clears the whole index. Used before a full rebuild.
+     */
+    public synchronized void clear() {
+        users.clear();
+        usernameKeys.clear();
+        nameKeys.clear();
+    }
+
+    private void unindex(UserSuggestionDto suggestion) {
+        keyOf(suggestion.getUsername(), suggestion.getId()).ifPresent(usernameKeys::remove);
+        nameKeysOf(suggestion).forEach(nameKeys::remove);
+    }
+
+    private static List<String> nameKeysOf(UserSuggestionDto suggestion) {
+        List<String> keys = new ArrayList<>(2);
+        String fullName = String.join(" ",
+                Objects.toString(suggestion.getFirstName(), ""), Objects.toString(suggestion.getLastName(), "")).trim();
+        keyOf(fullName, suggestion.getId()).ifPresent(keys::add);
+        // The full name already covers first name prefixes
+        keyOf(suggestion.getLastName(), suggestion.getId()).filter(key -> !keys.contains(key)).ifPresent(keys::add);
+        return keys;
+    }
+
+    private static Optional<String> keyOf(String value, UUID userId) {
+        if (value == null || value.isBlank()) {
+            return Optional.empty();
+        }
+        return Optional.of(normalize(value) + KEY_SEPARATOR + userId);
+    }
+
+    private static String normalize(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // --- Queries ---
+
+    /**
+     * Finds active users whose username, full name or last name starts with the prefix (case-insensitive).
+     *
+     * @param prefix   The typed prefix.
+     * @param limit    The maximum number of suggestions.
+     * @param excluded Users that must not be suggested (e.g. the caller and users blocked in either direction).
+     * @return Up to {@code limit} suggestions, username matches first.
+     */
+    public List<UserSuggestionDto> suggest(String prefix, int limit, Predicate<UUID> excluded) {
+        if (prefix == null || prefix.isBlank() || limit <= 0) {
+            return List.of();
+        }
+        String from = normalize(prefix);
+        String to = from + Character.MAX_VALUE;
+        Set<UUID> found = new LinkedHashSet<>();
+        collect(usernameKeys.subMap(from, to).values(), found, limit, excluded);
+        collect(nameKeys.subMap(from, to).values(), found, limit, excluded);
+
+        List<UserSuggestionDto> suggestions = new ArrayList<>(found.size());
+        for (UUID userId : found) {
+            UserSuggestionDto suggestion = users.get(userId);
+            if (suggestion != null) {
+                suggestions.add(suggestion);
+            }
+        }
+        return suggestions;
+    }
+
+    private static void collect(Collection<UUID> candidates, Set<UUID> found, int limit, Predicate<UUID> excluded) {
+        for (UUID userId : candidates) {
+            if (found.size() >= limit) {
+                return;
+            }
+            if (!excluded.test(userId)) {
+                found.add(userId);
+            }
+        }
+    }
+
+    /**
+     * @return The number of indexed (active) users.
+     */
+    public int size() {
+        return users.size();
+    }
+
+    /**
+     * @return A read-only view of the IDs of all indexed users.
+     */
+    public Set<UUID> getUserIds() {
+        return Collections.unmodifiableSet(users.keySet());
+    }
+}
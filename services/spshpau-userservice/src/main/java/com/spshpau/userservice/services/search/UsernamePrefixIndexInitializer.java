@@ -0,0 +1,34 @@
+package com.spshpau.userservice.services.search;
+
+import com.spshpau.userservice.dto.userdto.UserSuggestionDto;
+import com.spshpau.userservice.repositories.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Builds the {@link UsernamePrefixIndex} from the database once the application has started.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class UsernamePrefixIndexInitializer implements CommandLineRunner {
+
+    private final UserRepository userRepository;
+    private final UsernamePrefixIndex usernamePrefixIndex;
+
+    @Override
+    @Transactional(readOnly = true)
+    public void run(String... args) {
+        long start = System.currentTimeMillis();
+        List<UserSuggestionDto> activeUsers = userRepository.findAllActiveSuggestions();
+        usernamePrefixIndex.clear();
+        activeUsers.forEach(usernamePrefixIndex::put);
+        log.info("Username prefix index built with {} active users in {} ms",
+                usernamePrefixIndex.size(), System.currentTimeMillis() - start);
+    }
+}
@@ -0,0 +1,9 @@
+package com.spshpau.userservice.services.wrappers;
+
+import java.util.List;
+
+/**
+ * The first entries of a user's match ranking together with the total number of rankable users.
+ */
+public record MatchRanking(List<MatchedUser> top, long total) {
+}
@@ -1,12 +1,14 @@
 package com.spshpau.userservice.services.wrappers;
 
-import com.spshpau.userservice.model.User;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 
+import java.util.UUID;
+
 @Getter
 @AllArgsConstructor
 public class MatchedUser {
-    private User user;
+    private UUID userId;
+    private String username;
     private double score;
 }
@@ -0,0 +1,139 @@
+package com.spshpau.userservice.controller.impl;
+
+import com.spshpau.userservice.dto.userdto.UserSummaryDto;
+import com.spshpau.userservice.services.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.security.web.method.annotation.AuthenticationPrincipalArgumentResolver;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class UserControllerImplTest {
+
+    private static final String NDJSON = "application/x-ndjson";
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private Iterator<List<UserSummaryDto>> chunks;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private UserControllerImpl controller;
+    private MockMvc mockMvc;
+    private UUID userId;
+    private Jwt jwt;
+
+    @BeforeEach
+    void setUp() {
+        userId = UUID.randomUUID();
+        jwt = Jwt.withTokenValue("token").header("alg", "none").subject(userId.toString()).build();
+        SecurityContextHolder.getContext().setAuthentication(new JwtAuthenticationToken(jwt));
+
+        controller = new UserControllerImpl(userService, objectMapper);
+        mockMvc = MockMvcBuilders.standaloneSetup(controller)
+                .setCustomArgumentResolvers(new AuthenticationPrincipalArgumentResolver())
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void streamMatchesAsNdjson_shouldWriteOneMatchPerLineInRankingOrder() throws Exception {
+        UserSummaryDto first = summary("first");
+        UserSummaryDto second = summary("second");
+        UserSummaryDto third = summary("third");
+        when(userService.streamMatches(userId, 3)).thenReturn(List.of(List.of(first, second), List.of(third)).iterator());
+
+        MvcResult result = mockMvc.perform(get("/api/v1/users/matches/stream").param("limit", "3").accept(NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String expected = objectMapper.writeValueAsString(first) + "\n"
+                + objectMapper.writeValueAsString(second) + "\n"
+                + objectMapper.writeValueAsString(third) + "\n";
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(NDJSON))
+                .andExpect(content().string(expected));
+    }
+
+    @Test
+    void streamMatchesAsNdjson_shouldStopRankingOnceTheClientDisconnects() throws Exception {
+        when(chunks.hasNext()).thenReturn(true);
+        when(chunks.next()).thenReturn(List.of(summary("first")));
+        when(userService.streamMatches(userId, 1000)).thenReturn(chunks);
+
+        ResponseEntity<StreamingResponseBody> response = controller.streamMatchesAsNdjson(jwt, 1000);
+        OutputStream disconnected = new OutputStream() {
+            @Override
+            public void write(int b) {
+            }
+
+            @Override
+            public void flush() throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+
+        assertThrows(IOException.class, () -> response.getBody().writeTo(disconnected));
+        // The first chunk could not be delivered, so no further chunk is computed
+        verify(chunks, times(1)).next();
+    }
+
+    @Test
+    void streamMatchesAsNdjson_shouldCapTheLimitAt1000() throws Exception {
+        when(userService.streamMatches(userId, 1000)).thenReturn(List.<List<UserSummaryDto>>of().iterator());
+
+        mockMvc.perform(get("/api/v1/users/matches/stream").param("limit", "1001").accept(NDJSON))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v1/users/matches/stream").param("limit", "0").accept(NDJSON))
+                .andExpect(status().isBadRequest());
+        verify(userService, never()).streamMatches(any(UUID.class), anyInt());
+
+        MvcResult result = mockMvc.perform(get("/api/v1/users/matches/stream").param("limit", "1000").accept(NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().string(""));
+        verify(userService).streamMatches(userId, 1000);
+    }
+
+    private static UserSummaryDto summary(String username) {
+        return new UserSummaryDto(UUID.randomUUID(), username, "First", "Last", "Location");
+    }
+}
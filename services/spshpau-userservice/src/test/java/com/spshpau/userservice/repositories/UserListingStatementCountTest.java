@@ -0,0 +1,260 @@
+package com.spshpau.userservice.repositories;
+
+import com.spshpau.userservice.dto.userdto.UserSearchCriteria;
+import com.spshpau.userservice.dto.userdto.UserSummaryDto;
+import com.spshpau.userservice.model.*;
+import com.spshpau.userservice.model.enums.ConnectionStatus;
+import com.spshpau.userservice.model.enums.ExperienceLevel;
+import com.spshpau.userservice.repositories.specifications.UserSearchCursor;
+import com.spshpau.userservice.repositories.specifications.UserSpecification;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.data.domain.*;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Counts the statements Hibernate prepares for the user listings. Each page must cost a constant number of
+ * statements, whatever its size; a mapping that lazy-loads profiles or connected users row by row fails here.
+ */
+@DataJpaTest(properties = {
+        "spring.cloud.config.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.generate_statistics=true"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+class UserListingStatementCountTest {
+
+    private static final int USERS = 30;
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16");
+
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private UserConnectionRepository userConnectionRepository;
+
+    private Statistics statistics;
+    private User me;
+
+    @BeforeEach
+    void seed() {
+        me = persistUser("me", 0);
+        for (int i = 1; i <= USERS; i++) {
+            User other = persistUser("user" + String.format("%02d", i), i);
+            UserConnection connection = i % 2 == 0 ? new UserConnection(me, other) : new UserConnection(other, me);
+            if (i % 3 != 0) {
+                connection.setStatus(ConnectionStatus.ACCEPTED);
+            }
+            entityManager.persist(connection);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void searchPage_shouldUseSelectAndCountOnlyForAnyPageSize() {
+        UserSpecification spec = new UserSpecification(new UserSearchCriteria(), me.getId());
+
+        for (int size : List.of(5, 25)) {
+            long statements = countStatements(() -> summarize(
+                    userRepository.findAll(spec, PageRequest.of(0, size, Sort.by("username"))).getContent()));
+            assertEquals(2, statements, "page size " + size);
+        }
+    }
+
+    @Test
+    void searchSlice_shouldUseSingleSelectForAnySliceSize() {
+        UserSpecification spec = new UserSpecification(new UserSearchCriteria(), me.getId());
+
+        for (int size : List.of(5, 25)) {
+            long statements = countStatements(() -> summarize(userRepository.findBy(spec,
+                    query -> query.sortBy(UserSearchCursor.SORT).limit(size).scroll(ScrollPosition.keyset())).getContent()));
+            assertEquals(1, statements, "slice size " + size);
+        }
+    }
+
+    @Test
+    void searchSummaries_shouldUseSelectAndCountOnlyAndLeaveProfilesOut() {
+        UserSpecification spec = new UserSpecification(new UserSearchCriteria(), me.getId());
+
+        for (int size : List.of(5, 25)) {
+            List<UserSummaryDto> summaries = new ArrayList<>();
+            long statements = countStatements(() -> summaries.addAll(
+                    userRepository.findSummaries(spec, PageRequest.of(0, size, Sort.by("username"))).getContent()));
+            assertEquals(2, statements, "page size " + size);
+            assertEquals(size, summaries.size());
+            assertTrue(summaries.stream().allMatch(summary ->
+                    summary.getArtistProfile() == null && summary.getProducerProfile() == null));
+        }
+    }
+
+    @Test
+    void searchPage_shouldStillMapBothProfiles() {
+        UserSpecification spec = new UserSpecification(new UserSearchCriteria(), me.getId());
+
+        List<User> users = userRepository.findAll(spec, PageRequest.of(0, USERS, Sort.by("username"))).getContent();
+
+        assertEquals(USERS, users.size());
+        assertEquals(USERS / 2, users.stream().filter(user -> user.getArtistProfile() != null).count());
+        assertEquals(USERS / 3, users.stream().filter(user -> user.getProducerProfile() != null).count());
+    }
+
+    @Test
+    void connectionListings_shouldUseConstantStatementsForAnyPageSize() {
+        for (int size : List.of(5, 15)) {
+            Pageable pageable = PageRequest.of(0, size);
+            assertEquals(2, countStatements(() ->
+                    userConnectionRepository.findConnectedUserSummaries(me.getId(), ConnectionStatus.ACCEPTED, pageable)));
+            assertEquals(2, countStatements(() ->
+                    userConnectionRepository.findRequesterSummariesByAddresseeIdAndStatus(me.getId(), ConnectionStatus.PENDING, PageRequest.of(0, 2))));
+            assertEquals(2, countStatements(() ->
+                    userConnectionRepository.findAddresseeSummariesByRequesterIdAndStatus(me.getId(), ConnectionStatus.PENDING, PageRequest.of(0, 2))));
+        }
+        assertEquals(1, countStatements(() ->
+                userConnectionRepository.findAllConnectedUserSummaries(me.getId(), ConnectionStatus.ACCEPTED)));
+    }
+
+    @Test
+    void connectionListings_shouldReturnTheOtherUser() {
+        List<UserSummaryDto> connected = userConnectionRepository.findAllConnectedUserSummaries(me.getId(), ConnectionStatus.ACCEPTED);
+        Page<UserSummaryDto> incoming = userConnectionRepository.findRequesterSummariesByAddresseeIdAndStatus(
+                me.getId(), ConnectionStatus.PENDING, PageRequest.of(0, USERS));
+        Page<UserSummaryDto> outgoing = userConnectionRepository.findAddresseeSummariesByRequesterIdAndStatus(
+                me.getId(), ConnectionStatus.PENDING, PageRequest.of(0, USERS));
+
+        assertEquals(USERS - USERS / 3, connected.size());
+        assertTrue(connected.stream().noneMatch(summary -> summary.getId().equals(me.getId())));
+        // Users divisible by 3 stay pending: odd ones sent the request to me, even ones received mine
+        assertEquals(List.of("user03", "user09", "user15", "user21", "user27"),
+                incoming.map(UserSummaryDto::getUsername).getContent().stream().sorted().toList());
+        assertEquals(List.of("user06", "user12", "user18", "user24", "user30"),
+                outgoing.map(UserSummaryDto::getUsername).getContent().stream().sorted().toList());
+    }
+
+    @Test
+    void batchLookup_shouldUseSingleSelectAndSkipUnknownIds() {
+        List<UUID> ids = userRepository.findAll().stream().map(User::getId).limit(20).toList();
+        List<UUID> requested = new ArrayList<>(ids);
+        requested.add(UUID.randomUUID());
+
+        assertEquals(1, countStatements(() -> userRepository.findSummariesByIdIn(requested)));
+        List<UserSummaryDto> summaries = userRepository.findSummariesByIdIn(requested);
+        assertEquals(Set.copyOf(ids), summaries.stream().map(UserSummaryDto::getId).collect(Collectors.toSet()));
+    }
+
+    @Test
+    void batchInteractionStatus_shouldUseSingleConnectionSelectWithDirection() {
+        List<UUID> others = userRepository.findAll().stream().map(User::getId).filter(id -> !id.equals(me.getId())).toList();
+
+        assertEquals(1, countStatements(() -> userConnectionRepository.findConnectionRowsBetween(me.getId(), others)));
+        List<UserConnectionRepository.ConnectionRow> rows = userConnectionRepository.findConnectionRowsBetween(me.getId(), others);
+        assertEquals(USERS, rows.size());
+        assertEquals(USERS / 2, rows.stream().filter(row -> row.getRequesterId().equals(me.getId())).count());
+        assertEquals(USERS / 3, rows.stream().filter(row -> row.getStatus() == ConnectionStatus.PENDING).count());
+    }
+
+    @Test
+    void connectionGraphScan_shouldReadAcceptedPairsInSingleSelect() {
+        assertEquals(1, countStatements(() -> userConnectionRepository.findConnectionRowsByStatus(ConnectionStatus.ACCEPTED)));
+        List<UserConnectionRepository.ConnectionRow> rows = userConnectionRepository.findConnectionRowsByStatus(ConnectionStatus.ACCEPTED);
+        assertEquals(USERS - USERS / 3, rows.size());
+        assertTrue(rows.stream().allMatch(row -> row.getStatus() == ConnectionStatus.ACCEPTED
+                && (row.getRequesterId().equals(me.getId()) || row.getAddresseeId().equals(me.getId()))));
+    }
+
+    @Test
+    void blockedUserListings_shouldReadOnlyTheRequestedRowsInUsernameOrder() {
+        User blocker = entityManager.find(User.class, me.getId());
+        blocker.getBlockedUsers().addAll(userRepository.findAll().stream()
+                .filter(user -> !user.getId().equals(me.getId())).toList());
+        entityManager.flush();
+        List<String> expected = blocker.getBlockedUsers().stream().map(User::getUsername).sorted().toList();
+
+        for (int size : List.of(5, 25)) {
+            assertEquals(2, countStatements(() -> userRepository.findBlockedUserSummaries(me.getId(), PageRequest.of(0, size))));
+        }
+        Page<UserSummaryDto> secondPage = userRepository.findBlockedUserSummaries(me.getId(), PageRequest.of(1, 10));
+        assertEquals(USERS, secondPage.getTotalElements());
+        assertEquals(expected.subList(10, 20), secondPage.map(UserSummaryDto::getUsername).getContent());
+
+        // Walks the whole list by keyset, one statement per slice
+        List<String> walked = new ArrayList<>();
+        String username = "";
+        UUID id = new UUID(0L, 0L);
+        while (true) {
+            List<UserSummaryDto> slice = new ArrayList<>();
+            String afterUsername = username;
+            UUID afterId = id;
+            assertEquals(1, countStatements(() -> slice.addAll(
+                    userRepository.findBlockedUserSummariesAfter(me.getId(), afterUsername, afterId, PageRequest.of(0, 7)))));
+            if (slice.isEmpty()) {
+                break;
+            }
+            slice.forEach(summary -> walked.add(summary.getUsername()));
+            username = slice.get(slice.size() - 1).getUsername();
+            id = slice.get(slice.size() - 1).getId();
+        }
+        assertEquals(expected, walked);
+    }
+
+    private long countStatements(Supplier<?> listing) {
+        entityManager.clear();
+        statistics.clear();
+        listing.get();
+        return statistics.getPrepareStatementCount();
+    }
+
+    // Touches the same profile attributes as the summary mapping of UserServiceImpl
+    private static List<String> summarize(List<User> users) {
+        return users.stream()
+                .map(user -> user.getUsername()
+                        + (user.getArtistProfile() != null ? " " + user.getArtistProfile().getExperienceLevel() : "")
+                        + (user.getProducerProfile() != null ? " " + user.getProducerProfile().isAvailability() : ""))
+                .toList();
+    }
+
+    private User persistUser(String username, int i) {
+        User user = new User();
+        user.setId(UUID.randomUUID());
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        user.setActive(true);
+        if (i > 0 && i % 2 == 0) {
+            ArtistProfile artistProfile = new ArtistProfile();
+            artistProfile.setExperienceLevel(ExperienceLevel.INTERMEDIATE);
+            artistProfile.setAvailability(true);
+            user.setArtistProfile(artistProfile);
+        }
+        if (i > 0 && i % 3 == 0) {
+            ProducerProfile producerProfile = new ProducerProfile();
+            producerProfile.setExperienceLevel(ExperienceLevel.EXPERT);
+            user.setProducerProfile(producerProfile);
+        }
+        return entityManager.persist(user);
+    }
+}
@@ -0,0 +1,140 @@
+package com.spshpau.userservice.repositories.specifications;
+
+import com.spshpau.userservice.config.SearchIndexInitializer;
+import com.spshpau.userservice.dto.userdto.UserSearchCriteria;
+import com.spshpau.userservice.model.User;
+import com.spshpau.userservice.repositories.UserRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Seeds a sizeable {@code users} table into PostgreSQL and checks that search term filtering is served by the
+ * pg_trgm indexes, that relevance ordering ranks the closest match first and that keyset scrolling returns the
+ * same users as offset pages.
+ */
+@DataJpaTest(properties = {"spring.cloud.config.enabled=false", "spring.jpa.hibernate.ddl-auto=create-drop"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+class UserSpecificationSearchTest {
+
+    private static final int SEEDED_USERS = 20_000;
+    private static final String[] FIRST_NAMES = {"Anna", "Petr", "Jana", "Tomas", "Eva", "Martin", "Lucie", "Jakub"};
+    private static final String[] LAST_NAMES = {"Novak", "Svoboda", "Dvorak", "Cerny", "Prochazka", "Kucera"};
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private UserRepository userRepository;
+
+    @BeforeEach
+    void seed() {
+        Random random = new Random(3);
+        List<Object[]> rows = new ArrayList<>(SEEDED_USERS);
+        for (int i = 0; i < SEEDED_USERS; i++) {
+            rows.add(new Object[]{UUID.randomUUID(), "user" + i, "user" + i + "@example.com",
+                    FIRST_NAMES[random.nextInt(FIRST_NAMES.length)], LAST_NAMES[random.nextInt(LAST_NAMES.length)]});
+        }
+        rows.add(new Object[]{UUID.randomUUID(), "jazz", "jazz@example.com", "Jazz", "Player"});
+        rows.add(new Object[]{UUID.randomUUID(), "jazzmaster99", "jm@example.com", "Ondrej", "Novak"});
+        rows.add(new Object[]{UUID.randomUUID(), "smoothjazzfan", "sjf@example.com", "Anna", "Cerny"});
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO users (id, username, email, first_name, last_name, active) VALUES (?, ?, ?, ?, ?, true)", rows);
+
+        new SearchIndexInitializer(jdbcTemplate).run();
+        jdbcTemplate.execute("ANALYZE users");
+    }
+
+    @Test
+    void searchTermPredicate_shouldUseTrigramIndexes() {
+        // Same shape as the predicate UserSpecification builds for a search term
+        List<String> plan = jdbcTemplate.queryForList(
+                "EXPLAIN SELECT u.id FROM users u WHERE u.active = true AND u.id <> ? " +
+                        "AND (lower(u.username) LIKE ? OR lower(u.first_name) LIKE ? OR lower(u.last_name) LIKE ?)",
+                String.class, UUID.randomUUID(), "%jazz%", "%jazz%", "%jazz%");
+        String joinedPlan = String.join("\n", plan);
+
+        assertTrue(joinedPlan.contains("idx_users_username_trgm"), joinedPlan);
+        assertTrue(joinedPlan.contains("idx_users_first_name_trgm"), joinedPlan);
+        assertTrue(joinedPlan.contains("idx_users_last_name_trgm"), joinedPlan);
+        assertFalse(joinedPlan.contains("Seq Scan on users"), joinedPlan);
+    }
+
+    @Test
+    void searchTerm_withRelevanceOrdering_shouldRankClosestMatchFirst() {
+        UserSearchCriteria criteria = new UserSearchCriteria();
+        criteria.setSearchTerm("Jazz");
+        criteria.setOrderByRelevance(true);
+
+        Page<User> result = userRepository.findAll(new UserSpecification(criteria, UUID.randomUUID()), PageRequest.of(0, 10));
+
+        assertEquals(3, result.getTotalElements());
+        assertEquals("jazz", result.getContent().get(0).getUsername());
+        assertEquals(List.of("jazz", "jazzmaster99", "smoothjazzfan"),
+                result.getContent().stream().map(User::getUsername).toList());
+    }
+
+    @Test
+    void searchTerm_withoutRelevanceOrdering_shouldStillFilterByAllNameColumns() {
+        UserSearchCriteria criteria = new UserSearchCriteria();
+        criteria.setSearchTerm("ondrej");
+
+        Page<User> result = userRepository.findAll(new UserSpecification(criteria, UUID.randomUUID()), PageRequest.of(0, 10));
+
+        assertEquals(List.of("jazzmaster99"), result.getContent().stream().map(User::getUsername).toList());
+    }
+
+    @Test
+    void keysetScroll_shouldWalkSameUsersAsOffsetPages() {
+        UserSearchCriteria criteria = new UserSearchCriteria();
+        criteria.setSearchTerm("novak");
+        UserSpecification specification = new UserSpecification(criteria, UUID.randomUUID());
+
+        List<String> offsetUsernames = userRepository
+                .findAll(specification, PageRequest.of(0, SEEDED_USERS, UserSearchCursor.SORT))
+                .map(User::getUsername).getContent();
+
+        List<String> keysetUsernames = new ArrayList<>();
+        ScrollPosition position = ScrollPosition.keyset();
+        int slices = 0;
+        while (true) {
+            ScrollPosition current = position;
+            Window<User> window = userRepository.findBy(specification,
+                    query -> query.sortBy(UserSearchCursor.SORT).limit(500).scroll(current));
+            window.forEach(user -> keysetUsernames.add(user.getUsername()));
+            slices++;
+            if (!window.hasNext()) {
+                break;
+            }
+            User last = window.getContent().get(window.size() - 1);
+            position = UserSearchCursor.decode(new UserSearchCursor(last.getUsername(), last.getId()).encode())
+                    .toScrollPosition();
+        }
+
+        assertTrue(slices > 1);
+        assertEquals(offsetUsernames, keysetUsernames);
+    }
+}
@@ -0,0 +1,193 @@
+package com.spshpau.userservice.repositories.specifications;
+
+import com.spshpau.userservice.dto.userdto.UserSearchCriteria;
+import com.spshpau.userservice.model.*;
+import com.spshpau.userservice.model.enums.ExperienceLevel;
+import com.spshpau.userservice.repositories.UserRepository;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pins the SQL generated by {@link UserSpecification}: one select plus one count per page, genre and skill
+ * filters as correlated EXISTS subqueries, and no DISTINCT or fan-out joins on the many-to-many tables.
+ * A new filter that joins a collection instead will fail these tests.
+ */
+@DataJpaTest(properties = {
+        "spring.cloud.config.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.spshpau.userservice.repositories.specifications.UserSpecificationSqlShapeTest$SqlCapture"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+class UserSpecificationSqlShapeTest {
+
+    private static final Pattern SEARCH_STATEMENT = Pattern.compile("^select .* from users \\w+ ");
+    private static final Pattern EXISTS = Pattern.compile("exists\\s*\\(");
+    private static final List<String> COLLECTION_TABLES = List.of("artist_genres", "producer_genres", "artist_skills");
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16");
+
+    /**
+     * Records every SQL statement Hibernate prepares.
+     */
+    public static class SqlCapture implements StatementInspector {
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql.toLowerCase(Locale.ROOT));
+            return sql;
+        }
+    }
+
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private UserRepository userRepository;
+
+    private Genre rock;
+    private Genre jazz;
+    private Skill guitar;
+    private Skill vocals;
+
+    @BeforeEach
+    void seed() {
+        rock = entityManager.persist(new Genre("Rock"));
+        jazz = entityManager.persist(new Genre("Jazz"));
+        Genre pop = entityManager.persist(new Genre("Pop"));
+        guitar = entityManager.persist(new Skill("Guitar"));
+        vocals = entityManager.persist(new Skill("Vocals"));
+
+        persistUser("alice", artist(Set.of(rock, jazz), Set.of(guitar, vocals)), null);
+        persistUser("bob", artist(Set.of(rock), Set.of(guitar)), producer(Set.of(jazz)));
+        persistUser("carol", null, producer(Set.of(rock, jazz)));
+        persistUser("dave", artist(Set.of(pop), Set.of()), null);
+        persistUser("eve", null, null);
+        entityManager.flush();
+        entityManager.clear();
+        SqlCapture.STATEMENTS.clear();
+    }
+
+    @Test
+    void anyGenre_shouldUseOneExistsPerProfileAndNoDistinct() {
+        UserSearchCriteria criteria = new UserSearchCriteria();
+        criteria.setGenreIds(List.of(rock.getId(), jazz.getId()));
+
+        assertEquals(List.of("alice", "bob"), firstPageUsernames(criteria));
+        assertSqlShape(2);
+    }
+
+    @Test
+    void allGenres_shouldUseOneExistsPerGenreAndProfile() {
+        UserSearchCriteria criteria = new UserSearchCriteria();
+        criteria.setGenreIds(List.of(rock.getId(), jazz.getId()));
+        criteria.setMatchAllGenres(true);
+
+        // bob has Rock as an artist and Jazz as a producer, which still counts as having both
+        Page<User> page = findFirstPage(criteria);
+        assertEquals(List.of("alice", "bob"), page.map(User::getUsername).getContent());
+        assertEquals(3, page.getTotalElements());
+        assertSqlShape(4);
+    }
+
+    @Test
+    void anyAndAllSkills_shouldFilterArtistSkillsThroughExists() {
+        UserSearchCriteria any = new UserSearchCriteria();
+        any.setSkillIds(List.of(guitar.getId(), vocals.getId()));
+        assertEquals(List.of("alice", "bob"), firstPageUsernames(any));
+        assertSqlShape(1);
+
+        SqlCapture.STATEMENTS.clear();
+        UserSearchCriteria all = new UserSearchCriteria();
+        all.setSkillIds(List.of(guitar.getId(), vocals.getId()));
+        all.setMatchAllSkills(true);
+        assertEquals(List.of("alice"), firstPageUsernames(all));
+        assertSqlShape(2);
+    }
+
+    @Test
+    void combinedFilters_shouldKeepSingleRowPerUser() {
+        UserSearchCriteria criteria = new UserSearchCriteria();
+        criteria.setGenreIds(List.of(rock.getId(), jazz.getId()));
+        criteria.setSkillIds(List.of(guitar.getId(), vocals.getId()));
+        criteria.setArtistExperienceLevel(ExperienceLevel.INTERMEDIATE);
+
+        assertEquals(List.of("alice", "bob"), firstPageUsernames(criteria));
+        assertSqlShape(3);
+    }
+
+    private Page<User> findFirstPage(UserSearchCriteria criteria) {
+        // Page size below the total, so Spring Data also issues the count query
+        return userRepository.findAll(new UserSpecification(criteria, UUID.randomUUID()),
+                PageRequest.of(0, 2, Sort.by("username")));
+    }
+
+    private List<String> firstPageUsernames(UserSearchCriteria criteria) {
+        return findFirstPage(criteria).map(User::getUsername).getContent();
+    }
+
+    private void assertSqlShape(int expectedExistsPerStatement) {
+        // Only the search statements themselves; profile loads of the returned users select from their own tables
+        List<String> statements = SqlCapture.STATEMENTS.stream()
+                .filter(sql -> SEARCH_STATEMENT.matcher(sql).find())
+                .toList();
+        assertFalse(statements.isEmpty());
+        assertTrue(statements.size() <= 2, "Expected a select and at most one count, got " + statements);
+        for (String sql : statements) {
+            assertFalse(sql.contains("distinct"), sql);
+            Matcher exists = EXISTS.matcher(sql);
+            assertEquals(expectedExistsPerStatement, exists.results().count(), sql);
+            // Collection tables may only appear inside the EXISTS subqueries, never joined in the outer query
+            String outerQuery = exists.reset().find() ? sql.substring(0, exists.start()) : sql;
+            COLLECTION_TABLES.forEach(table -> assertFalse(outerQuery.contains(table), sql));
+        }
+    }
+
+    private void persistUser(String username, ArtistProfile artistProfile, ProducerProfile producerProfile) {
+        User user = new User();
+        user.setId(UUID.randomUUID());
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        user.setActive(true);
+        user.setArtistProfile(artistProfile);
+        user.setProducerProfile(producerProfile);
+        entityManager.persist(user);
+    }
+
+    private static ArtistProfile artist(Set<Genre> genres, Set<Skill> skills) {
+        ArtistProfile profile = new ArtistProfile();
+        profile.setExperienceLevel(ExperienceLevel.INTERMEDIATE);
+        profile.setGenres(new HashSet<>(genres));
+        profile.setSkills(new HashSet<>(skills));
+        return profile;
+    }
+
+    private static ProducerProfile producer(Set<Genre> genres) {
+        ProducerProfile profile = new ProducerProfile();
+        profile.setExperienceLevel(ExperienceLevel.INTERMEDIATE);
+        profile.setGenres(new HashSet<>(genres));
+        return profile;
+    }
+}
@@ -0,0 +1,89 @@
+package com.spshpau.userservice.services.blocking;
+
+import com.spshpau.userservice.repositories.UserRepository;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class BlockRelationStoreTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final BlockRelationStore store = new BlockRelationStore(userRepository);
+
+    @Test
+    void sortedUuidArray_shouldKeepMembershipThroughUpdates() {
+        List<UUID> ids = IntStream.range(0, 100).mapToObj(i -> UUID.randomUUID()).toList();
+        SortedUuidArray updated = SortedUuidArray.of(ids.subList(0, 50));
+
+        for (UUID id : ids.subList(50, 100)) {
+            updated = updated.with(id);
+        }
+        for (UUID id : ids.subList(0, 25)) {
+            updated = updated.without(id);
+        }
+        SortedUuidArray array = updated;
+
+        assertEquals(75, array.size());
+        ids.subList(0, 25).forEach(id -> assertFalse(array.contains(id)));
+        ids.subList(25, 100).forEach(id -> assertTrue(array.contains(id)));
+        Set<UUID> collected = new HashSet<>();
+        array.addTo(collected);
+        assertEquals(Set.copyOf(ids.subList(25, 100)), collected);
+    }
+
+    @Test
+    void bloomFilter_shouldHaveNoFalseNegativesAndFewFalsePositives() {
+        BlockPairBloomFilter filter = BlockPairBloomFilter.create(10_000, 0.01);
+        List<UUID[]> pairs = IntStream.range(0, 10_000)
+                .mapToObj(i -> new UUID[]{UUID.randomUUID(), UUID.randomUUID()})
+                .toList();
+        pairs.forEach(pair -> filter.put(pair[0], pair[1]));
+
+        pairs.forEach(pair -> assertTrue(filter.mightContain(pair[0], pair[1])));
+        long falsePositives = IntStream.range(0, 10_000)
+                .filter(i -> filter.mightContain(UUID.randomUUID(), UUID.randomUUID()))
+                .count();
+        assertTrue(falsePositives < 300, "false positives: " + falsePositives);
+        // Direction matters: the reversed pairs were never put
+        long reversedPositives = pairs.stream().filter(pair -> filter.mightContain(pair[1], pair[0])).count();
+        assertTrue(reversedPositives < 300, "reversed positives: " + reversedPositives);
+    }
+
+    @Test
+    void unblock_shouldBeAnsweredByTheBlockListsWhileThePairIsStillInTheFilter() {
+        UUID blockerId = UUID.randomUUID();
+        UUID blockedId = UUID.randomUUID();
+        when(userRepository.findAllBlockRows()).thenReturn(List.of());
+        when(userRepository.findBlockRowsInvolving(any())).thenReturn(List.of());
+        store.rebuildFilter();
+        assertTrue(store.getBlockRelatedUserIds(blockerId).isEmpty());
+
+        store.recordBlock(blockerId, blockedId);
+        assertTrue(store.isBlocked(blockerId, blockedId));
+        store.recordUnblock(blockerId, blockedId);
+
+        // The filter still holds the pair, so the (empty) block list decides
+        assertFalse(store.isBlocked(blockerId, blockedId));
+        verify(userRepository).findBlockRowsInvolving(blockerId);
+    }
+
+    @Test
+    void rebuildFilter_shouldKeepThePreviousFilterWhenTheScanFails() {
+        UUID blockerId = UUID.randomUUID();
+        UUID blockedId = UUID.randomUUID();
+        when(userRepository.findAllBlockRows()).thenReturn(List.of());
+        store.rebuildFilter();
+        when(userRepository.findAllBlockRows()).thenThrow(new IllegalStateException("database down"));
+
+        store.rebuildFilter();
+
+        assertFalse(store.isBlocked(blockerId, blockedId));
+        verify(userRepository, never()).findBlockRowsInvolving(any());
+    }
+}
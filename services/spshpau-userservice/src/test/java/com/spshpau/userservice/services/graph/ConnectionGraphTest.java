@@ -0,0 +1,172 @@
+package com.spshpau.userservice.services.graph;
+
+import com.spshpau.userservice.model.enums.ConnectionStatus;
+import com.spshpau.userservice.repositories.UserConnectionRepository;
+import com.spshpau.userservice.repositories.UserConnectionRepository.ConnectionRow;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ConnectionGraphTest {
+
+    private final UserConnectionRepository userConnectionRepository = mock(UserConnectionRepository.class);
+
+    @Test
+    void csr_shouldCountCommonNeighborsLikeSets() {
+        Random random = new Random(42);
+        List<UUID> users = IntStream.range(0, 2000).mapToObj(i -> UUID.randomUUID()).toList();
+        List<ConnectionRow> rows = new ArrayList<>();
+        Map<UUID, Set<UUID>> expected = new HashMap<>();
+        for (int i = 0; i < 3000; i++) {
+            // User 0 is a hub connected to many users, so the searching intersection is exercised too
+            UUID a = users.get(i % 3 == 0 ? 0 : random.nextInt(users.size()));
+            UUID b = users.get(random.nextInt(users.size()));
+            rows.add(row(a, b));
+            if (i % 10 == 0) {
+                rows.add(row(b, a)); // duplicates in the other direction are dropped
+            }
+            if (!a.equals(b)) {
+                expected.computeIfAbsent(a, id -> new HashSet<>()).add(b);
+                expected.computeIfAbsent(b, id -> new HashSet<>()).add(a);
+            }
+        }
+
+        CsrAdjacency graph = CsrAdjacency.build(rows);
+
+        assertEquals(expected.values().stream().mapToInt(Set::size).sum() / 2, graph.edgeCount());
+        for (int i = 0; i < 2000; i++) {
+            UUID a = users.get(i < 500 ? 0 : random.nextInt(users.size()));
+            UUID b = users.get(random.nextInt(users.size()));
+            int nodeA = graph.indexOf(a);
+            int nodeB = graph.indexOf(b);
+            Set<UUID> common = new HashSet<>(expected.getOrDefault(a, Set.of()));
+            common.retainAll(expected.getOrDefault(b, Set.of()));
+            int actual = nodeA < 0 || nodeB < 0 ? 0 : graph.countCommonNeighbors(nodeA, nodeB);
+            assertEquals(common.size(), actual, "pair " + i);
+        }
+        assertEquals(-1, graph.indexOf(UUID.randomUUID()));
+    }
+
+    @Test
+    void changes_shouldBeVisibleOnTopOfTheBase() {
+        UUID me = UUID.randomUUID();
+        UUID friend = UUID.randomUUID();
+        UUID other = UUID.randomUUID();
+        UUID newcomer = UUID.randomUUID();
+        ConnectionGraph graph = buildGraph(List.of(row(me, friend), row(friend, other), row(me, other)));
+        assertEquals(1, graph.countMutualConnections(me, friend));
+        assertEquals(1, graph.countMutualConnections(me, other));
+
+        graph.onConnectionChanged(ConnectionChangedEvent.disconnected(friend, other));
+        graph.onConnectionChanged(ConnectionChangedEvent.connected(newcomer, me));
+        graph.onConnectionChanged(ConnectionChangedEvent.connected(newcomer, other));
+
+        assertEquals(0, graph.countMutualConnections(me, friend));
+        assertEquals(1, graph.countMutualConnections(me, other));
+        assertEquals(1, graph.countMutualConnections(newcomer, me));
+
+        // Restoring the base connection leaves the base rows in charge again
+        graph.onConnectionChanged(ConnectionChangedEvent.connected(other, friend));
+        assertEquals(2, graph.countMutualConnections(me, other));
+    }
+
+    @Test
+    void rebuild_shouldReplayChangesCommittedDuringTheScan() {
+        UUID me = UUID.randomUUID();
+        UUID friend = UUID.randomUUID();
+        UUID other = UUID.randomUUID();
+        ConnectionGraph graph = new ConnectionGraph(userConnectionRepository);
+        when(userConnectionRepository.findConnectionRowsByStatus(ConnectionStatus.ACCEPTED)).thenAnswer(invocation -> {
+            // Committed after the scan read the table, so only the replay knows about it
+            graph.onConnectionChanged(ConnectionChangedEvent.connected(friend, other));
+            return List.of(row(me, friend), row(me, other));
+        });
+
+        graph.rebuild();
+
+        assertEquals(1, graph.countMutualConnections(me, friend));
+        verify(userConnectionRepository, times(1)).findConnectionRowsByStatus(ConnectionStatus.ACCEPTED);
+    }
+
+    @Test
+    void rebuild_shouldKeepThePreviousGraphWhenTheScanFails() {
+        UUID me = UUID.randomUUID();
+        UUID friend = UUID.randomUUID();
+        UUID other = UUID.randomUUID();
+        ConnectionGraph graph = buildGraph(List.of(row(me, friend), row(friend, other)));
+        when(userConnectionRepository.findConnectionRowsByStatus(ConnectionStatus.ACCEPTED))
+                .thenThrow(new IllegalStateException("database down"));
+
+        graph.rebuild();
+
+        assertEquals(1, graph.countMutualConnections(me, other));
+    }
+
+    @Test
+    void secondDegreeConnections_shouldRankByMutualConnectionsAndSkipExcludedUsers() {
+        UUID me = UUID.randomUUID();
+        UUID friend1 = UUID.randomUUID();
+        UUID friend2 = UUID.randomUUID();
+        UUID strong = UUID.randomUUID();
+        UUID weak = UUID.randomUUID();
+        UUID blocked = UUID.randomUUID();
+        ConnectionGraph graph = buildGraph(List.of(
+                row(me, friend1), row(me, friend2), row(friend1, friend2),
+                row(friend1, strong), row(friend2, strong), row(friend1, weak),
+                row(friend1, blocked), row(friend2, blocked)));
+
+        List<ConnectionGraph.SecondDegreeConnection> suggestions =
+                graph.findSecondDegreeConnections(me, Set.of(blocked), 10);
+
+        assertEquals(List.of(new ConnectionGraph.SecondDegreeConnection(strong, 2),
+                new ConnectionGraph.SecondDegreeConnection(weak, 1)), suggestions);
+        assertEquals(1, graph.findSecondDegreeConnections(me, Set.of(blocked), 1).size());
+    }
+
+    @Test
+    void secondDegreeConnections_shouldSkipConnectionsBeyondTheExpansionBudget() {
+        UUID me = UUID.randomUUID();
+        UUID hub = UUID.randomUUID();
+        UUID friend = UUID.randomUUID();
+        UUID friendOfFriend = UUID.randomUUID();
+        List<ConnectionRow> rows = new ArrayList<>(List.of(row(me, hub), row(me, friend), row(friend, friendOfFriend)));
+        IntStream.range(0, 50).forEach(i -> rows.add(row(hub, UUID.randomUUID())));
+        when(userConnectionRepository.findConnectionRowsByStatus(ConnectionStatus.ACCEPTED)).thenReturn(rows);
+        ConnectionGraph graph = new ConnectionGraph(userConnectionRepository, 10);
+
+        List<ConnectionGraph.SecondDegreeConnection> suggestions = graph.findSecondDegreeConnections(me, Set.of(), 100);
+
+        assertEquals(List.of(new ConnectionGraph.SecondDegreeConnection(friendOfFriend, 1)), suggestions);
+    }
+
+    private ConnectionGraph buildGraph(List<ConnectionRow> rows) {
+        when(userConnectionRepository.findConnectionRowsByStatus(ConnectionStatus.ACCEPTED)).thenReturn(rows);
+        ConnectionGraph graph = new ConnectionGraph(userConnectionRepository);
+        graph.rebuild();
+        return graph;
+    }
+
+    private static ConnectionRow row(UUID requesterId, UUID addresseeId) {
+        return new ConnectionRow() {
+            @Override
+            public UUID getRequesterId() {
+                return requesterId;
+            }
+
+            @Override
+            public UUID getAddresseeId() {
+                return addresseeId;
+            }
+
+            @Override
+            public ConnectionStatus getStatus() {
+                return ConnectionStatus.ACCEPTED;
+            }
+        };
+    }
+}
@@ -11,6 +11,9 @@ import com.spshpau.userservice.repositories.GenreRepository;
 import com.spshpau.userservice.repositories.SkillRepository;
 import com.spshpau.userservice.repositories.UserRepository;
 import com.spshpau.userservice.services.exceptions.*;
+import com.spshpau.userservice.services.matching.MatchInputsChangedEvent;
+import com.spshpau.userservice.services.profile.ProfileReadCache;
+import com.spshpau.userservice.services.profile.UserProfileChangedEvent;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -18,7 +21,9 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.util.HashSet;
 import java.util.Optional;
@@ -40,6 +45,10 @@ class ArtistProfileServiceImplTest {
     private GenreRepository genreRepository;
     @Mock
     private SkillRepository skillRepository;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Spy
+    private ProfileReadCache profileReadCache = new ProfileReadCache();
 
     @InjectMocks
     private ArtistProfileServiceImpl artistProfileService;
@@ -209,6 +218,8 @@ class ArtistProfileServiceImplTest {
         assertTrue(result.getGenres().stream().anyMatch(g -> g.getId().equals(genre1Id)));
         assertTrue(artistProfile.getGenres().contains(genre1));
         assertTrue(genre1.getArtistProfiles().contains(artistProfile));
+        verify(eventPublisher).publishEvent(MatchInputsChangedEvent.of(userId));
+        verify(eventPublisher).publishEvent(UserProfileChangedEvent.of(userId));
     }
 
     @Test
@@ -259,6 +270,7 @@ class ArtistProfileServiceImplTest {
         assertTrue(result.getSkills().stream().anyMatch(s -> s.getId().equals(skill1Id)));
         assertTrue(artistProfile.getSkills().contains(skill1));
         assertTrue(skill1.getArtistProfiles().contains(artistProfile));
+        verify(eventPublisher).publishEvent(MatchInputsChangedEvent.of(userId));
     }
 
     @Test
@@ -365,4 +377,42 @@ class ArtistProfileServiceImplTest {
         assertEquals(1, result.size());
         assertEquals("Guitar", result.iterator().next().getName());
     }
-}
\ No newline at end of file
+
+    // --- Tests for the cached read path ---
+    @Test
+    void getArtistProfileGenresByUsername_repeatedReads_shouldHitRepositoriesOnce() {
+        artistProfile.addGenre(genre1);
+        when(userRepository.findByUsername(user.getUsername())).thenReturn(Optional.of(user));
+        when(artistProfileRepository.findById(userId)).thenReturn(Optional.of(artistProfile));
+
+        artistProfileService.getArtistProfileGenresByUsername(user.getUsername());
+        artistProfileService.getArtistProfileByUserId(userId);
+        Set<GenreSummaryDto> result = artistProfileService.getArtistProfileGenresByUsername(user.getUsername());
+
+        assertEquals(1, result.size());
+        verify(userRepository, times(1)).findByUsername(user.getUsername());
+        verify(artistProfileRepository, times(1)).findById(userId);
+    }
+
+    @Test
+    void getArtistProfileGenres_returnedSet_shouldNotAffectCachedProfile() {
+        artistProfile.addGenre(genre1);
+        when(artistProfileRepository.findById(userId)).thenReturn(Optional.of(artistProfile));
+
+        artistProfileService.getArtistProfileGenres(userId).clear();
+
+        assertEquals(1, artistProfileService.getArtistProfileGenres(userId).size());
+    }
+
+    @Test
+    void getArtistProfileByUserId_afterProfileChanged_shouldReload() {
+        when(artistProfileRepository.findById(userId)).thenReturn(Optional.of(artistProfile));
+        artistProfileService.getArtistProfileByUserId(userId);
+
+        artistProfile.setBio("Changed Bio");
+        profileReadCache.onUserProfileChanged(UserProfileChangedEvent.of(userId));
+
+        assertEquals("Changed Bio", artistProfileService.getArtistProfileByUserId(userId).orElseThrow().getBio());
+        verify(artistProfileRepository, times(2)).findById(userId);
+    }
+}
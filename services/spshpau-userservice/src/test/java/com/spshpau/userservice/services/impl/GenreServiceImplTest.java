@@ -4,6 +4,9 @@ import com.spshpau.userservice.dto.profiledto.GenreDto;
 import com.spshpau.userservice.dto.profiledto.GenreSummaryDto;
 import com.spshpau.userservice.model.Genre;
 import com.spshpau.userservice.repositories.GenreRepository;
+import com.spshpau.userservice.services.catalog.CatalogChangedEvent;
+import com.spshpau.userservice.services.catalog.CatalogSnapshot;
+import com.spshpau.userservice.services.catalog.CatalogSnapshotCache;
 import com.spshpau.userservice.services.exceptions.DuplicateException;
 import com.spshpau.userservice.services.exceptions.GenreNotFoundException;
 
@@ -13,12 +16,15 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 
 import java.util.Collections;
 import java.util.List;
@@ -34,6 +40,10 @@ class GenreServiceImplTest {
 
     @Mock
     private GenreRepository genreRepository;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Spy
+    private CatalogSnapshotCache catalogSnapshotCache = new CatalogSnapshotCache();
 
     @InjectMocks
     private GenreServiceImpl genreService;
@@ -69,6 +79,7 @@ class GenreServiceImplTest {
 
         verify(genreRepository).findByNameIgnoreCase(genreDto.getName());
         verify(genreRepository).save(any(Genre.class));
+        verify(eventPublisher).publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Catalog.GENRES));
 
         Genre capturedGenre = genreArgumentCaptor.getValue();
         assertEquals(genreDto.getName(), capturedGenre.getName());
@@ -100,6 +111,7 @@ class GenreServiceImplTest {
 
         verify(genreRepository).existsById(genreId);
         verify(genreRepository).deleteById(genreId);
+        verify(eventPublisher).publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Catalog.GENRES));
     }
 
     @Test
@@ -168,4 +180,44 @@ class GenreServiceImplTest {
 
         verify(genreRepository).findAll(pageable);
     }
-}
\ No newline at end of file
+
+    // --- Tests for getGenreCatalog ---
+    @Test
+    void getGenreCatalog_shouldLoadOnceAndServeSnapshot() {
+        Genre other = new Genre("Jazz"); other.setId(UUID.randomUUID());
+        when(genreRepository.findAll(Sort.by("name"))).thenReturn(List.of(other, genre));
+
+        CatalogSnapshot<GenreSummaryDto> first = genreService.getGenreCatalog();
+        CatalogSnapshot<GenreSummaryDto> second = genreService.getGenreCatalog();
+
+        assertSame(first, second);
+        assertEquals(List.of("Jazz", "Rock"), first.items().stream().map(GenreSummaryDto::getName).toList());
+        assertFalse(first.etag().isBlank());
+        verify(genreRepository, times(1)).findAll(Sort.by("name"));
+    }
+
+    @Test
+    void getGenreCatalog_afterCatalogChanged_shouldReloadWithNewEtag() {
+        Genre added = new Genre("Jazz"); added.setId(UUID.randomUUID());
+        when(genreRepository.findAll(Sort.by("name"))).thenReturn(List.of(genre), List.of(added, genre));
+
+        String before = genreService.getGenreCatalog().etag();
+        catalogSnapshotCache.onCatalogChanged(new CatalogChangedEvent(CatalogChangedEvent.Catalog.GENRES));
+        CatalogSnapshot<GenreSummaryDto> after = genreService.getGenreCatalog();
+
+        assertNotEquals(before, after.etag());
+        assertEquals(2, after.items().size());
+        verify(genreRepository, times(2)).findAll(Sort.by("name"));
+    }
+
+    @Test
+    void getGenreCatalog_withSameContent_shouldKeepEtag() {
+        Genre sameContent = new Genre(genre.getName()); sameContent.setId(genreId);
+        when(genreRepository.findAll(Sort.by("name"))).thenReturn(List.of(genre), List.of(sameContent));
+
+        String before = genreService.getGenreCatalog().etag();
+        catalogSnapshotCache.onCatalogChanged(new CatalogChangedEvent(CatalogChangedEvent.Catalog.GENRES));
+
+        assertEquals(before, genreService.getGenreCatalog().etag());
+    }
+}
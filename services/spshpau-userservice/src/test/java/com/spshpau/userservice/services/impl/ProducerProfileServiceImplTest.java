@@ -14,6 +14,9 @@ import com.spshpau.userservice.services.exceptions.GenreLimitExceededException;
 import com.spshpau.userservice.services.exceptions.GenreNotFoundException;
 import com.spshpau.userservice.services.exceptions.ProfileNotFoundException;
 import com.spshpau.userservice.services.exceptions.UserNotFoundException;
+import com.spshpau.userservice.services.matching.MatchInputsChangedEvent;
+import com.spshpau.userservice.services.profile.ProfileReadCache;
+import com.spshpau.userservice.services.profile.UserProfileChangedEvent;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -21,7 +24,9 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.util.HashSet;
 import java.util.Optional;
@@ -43,6 +48,10 @@ class ProducerProfileServiceImplTest {
 
     @Mock
     private GenreRepository genreRepository;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Spy
+    private ProfileReadCache profileReadCache = new ProfileReadCache();
 
     @InjectMocks
     private ProducerProfileServiceImpl producerProfileService;
@@ -217,6 +226,8 @@ class ProducerProfileServiceImplTest {
         assertTrue(producerProfile.getGenres().contains(genre1));
         assertTrue(genre1.getProducerProfiles().contains(producerProfile));
         verify(producerProfileRepository).save(producerProfile);
+        verify(eventPublisher).publishEvent(MatchInputsChangedEvent.of(userId));
+        verify(eventPublisher).publishEvent(UserProfileChangedEvent.of(userId));
     }
 
     @Test
@@ -355,4 +366,42 @@ class ProducerProfileServiceImplTest {
             producerProfileService.getProducerProfileGenresByUsername(user.getUsername());
         });
     }
-}
\ No newline at end of file
+
+    // --- Tests for the cached read path ---
+    @Test
+    void getProducerProfileGenresByUsername_repeatedReads_shouldHitRepositoriesOnce() {
+        producerProfile.addGenre(genre1);
+        when(userRepository.findByUsername(user.getUsername())).thenReturn(Optional.of(user));
+        when(producerProfileRepository.findById(userId)).thenReturn(Optional.of(producerProfile));
+
+        producerProfileService.getProducerProfileGenresByUsername(user.getUsername());
+        producerProfileService.getProducerProfileByUserId(userId);
+        Set<GenreSummaryDto> result = producerProfileService.getProducerProfileGenresByUsername(user.getUsername());
+
+        assertEquals(1, result.size());
+        verify(userRepository, times(1)).findByUsername(user.getUsername());
+        verify(producerProfileRepository, times(1)).findById(userId);
+    }
+
+    @Test
+    void getProducerProfileGenres_returnedSet_shouldNotAffectCachedProfile() {
+        producerProfile.addGenre(genre1);
+        when(producerProfileRepository.findById(userId)).thenReturn(Optional.of(producerProfile));
+
+        producerProfileService.getProducerProfileGenres(userId).clear();
+
+        assertEquals(1, producerProfileService.getProducerProfileGenres(userId).size());
+    }
+
+    @Test
+    void getProducerProfileByUserId_afterProfileChanged_shouldReload() {
+        when(producerProfileRepository.findById(userId)).thenReturn(Optional.of(producerProfile));
+        producerProfileService.getProducerProfileByUserId(userId);
+
+        producerProfile.setBio("Changed Bio");
+        profileReadCache.onUserProfileChanged(UserProfileChangedEvent.of(userId));
+
+        assertEquals("Changed Bio", producerProfileService.getProducerProfileByUserId(userId).orElseThrow().getBio());
+        verify(producerProfileRepository, times(2)).findById(userId);
+    }
+}
@@ -4,6 +4,9 @@ import com.spshpau.userservice.dto.profiledto.SkillDto;
 import com.spshpau.userservice.dto.profiledto.SkillSummaryDto;
 import com.spshpau.userservice.model.Skill;
 import com.spshpau.userservice.repositories.SkillRepository;
+import com.spshpau.userservice.services.catalog.CatalogChangedEvent;
+import com.spshpau.userservice.services.catalog.CatalogSnapshot;
+import com.spshpau.userservice.services.catalog.CatalogSnapshotCache;
 import com.spshpau.userservice.services.exceptions.DuplicateException;
 import com.spshpau.userservice.services.exceptions.SkillNotFoundException;
 
@@ -13,12 +16,15 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 
 import java.util.Collections;
 import java.util.List;
@@ -34,6 +40,10 @@ class SkillServiceImplTest {
 
     @Mock
     private SkillRepository skillRepository;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Spy
+    private CatalogSnapshotCache catalogSnapshotCache = new CatalogSnapshotCache();
 
     @InjectMocks
     private SkillServiceImpl skillService;
@@ -68,6 +78,7 @@ class SkillServiceImplTest {
 
         verify(skillRepository).findByNameIgnoreCase(skillDto.getName());
         verify(skillRepository).save(any(Skill.class));
+        verify(eventPublisher).publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Catalog.SKILLS));
 
         Skill capturedSkill = skillArgumentCaptor.getValue();
         assertEquals(skillDto.getName(), capturedSkill.getName());
@@ -99,6 +110,7 @@ class SkillServiceImplTest {
 
         verify(skillRepository).existsById(skillId);
         verify(skillRepository).deleteById(skillId);
+        verify(eventPublisher).publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Catalog.SKILLS));
     }
 
     @Test
@@ -168,4 +180,44 @@ class SkillServiceImplTest {
 
         verify(skillRepository).findAll(pageable);
     }
-}
\ No newline at end of file
+
+    // --- Tests for getSkillCatalog ---
+    @Test
+    void getSkillCatalog_shouldLoadOnceAndServeSnapshot() {
+        Skill other = new Skill("Drums"); other.setId(UUID.randomUUID());
+        when(skillRepository.findAll(Sort.by("name"))).thenReturn(List.of(other, skill));
+
+        CatalogSnapshot<SkillSummaryDto> first = skillService.getSkillCatalog();
+        CatalogSnapshot<SkillSummaryDto> second = skillService.getSkillCatalog();
+
+        assertSame(first, second);
+        assertEquals(List.of("Drums", "Guitar"), first.items().stream().map(SkillSummaryDto::getName).toList());
+        assertFalse(first.etag().isBlank());
+        verify(skillRepository, times(1)).findAll(Sort.by("name"));
+    }
+
+    @Test
+    void getSkillCatalog_afterCatalogChanged_shouldReloadWithNewEtag() {
+        Skill added = new Skill("Drums"); added.setId(UUID.randomUUID());
+        when(skillRepository.findAll(Sort.by("name"))).thenReturn(List.of(skill), List.of(added, skill));
+
+        String before = skillService.getSkillCatalog().etag();
+        catalogSnapshotCache.onCatalogChanged(new CatalogChangedEvent(CatalogChangedEvent.Catalog.SKILLS));
+        CatalogSnapshot<SkillSummaryDto> after = skillService.getSkillCatalog();
+
+        assertNotEquals(before, after.etag());
+        assertEquals(2, after.items().size());
+        verify(skillRepository, times(2)).findAll(Sort.by("name"));
+    }
+
+    @Test
+    void getSkillCatalog_withSameContent_shouldKeepEtag() {
+        Skill sameContent = new Skill(skill.getName()); sameContent.setId(skillId);
+        when(skillRepository.findAll(Sort.by("name"))).thenReturn(List.of(skill), List.of(sameContent));
+
+        String before = skillService.getSkillCatalog().etag();
+        catalogSnapshotCache.onCatalogChanged(new CatalogChangedEvent(CatalogChangedEvent.Catalog.SKILLS));
+
+        assertEquals(before, skillService.getSkillCatalog().etag());
+    }
+}
@@ -1,36 +1,51 @@
 package com.spshpau.userservice.services.impl;
 
+import com.spshpau.userservice.dto.userdto.ConnectionSuggestionDto;
+import com.spshpau.userservice.dto.userdto.UserSearchSliceDto;
 import com.spshpau.userservice.dto.userdto.UserSummaryDto;
 import com.spshpau.userservice.model.User;
 import com.spshpau.userservice.model.UserConnection;
 import com.spshpau.userservice.model.enums.ConnectionStatus;
+import com.spshpau.userservice.model.enums.DomainEventType;
 import com.spshpau.userservice.repositories.UserConnectionRepository;
 import com.spshpau.userservice.repositories.UserRepository;
+import com.spshpau.userservice.repositories.specifications.UserSearchCursor;
+import com.spshpau.userservice.services.blocking.BlockRelationStore;
 import com.spshpau.userservice.services.enums.InteractionStatus;
 import com.spshpau.userservice.services.exceptions.*;
+import com.spshpau.userservice.services.graph.ConnectionChangedEvent;
+import com.spshpau.userservice.services.graph.ConnectionGraph;
+import com.spshpau.userservice.services.matching.MatchInputsChangedEvent;
+import com.spshpau.userservice.services.outbox.InteractionChangedEvent;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -43,7 +58,11 @@ class UserInteractionServiceImplTest {
     @Mock
     private UserConnectionRepository userConnectionRepository;
 
-    @InjectMocks
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private BlockRelationStore blockRelationStore;
+    private ConnectionGraph connectionGraph;
     private UserInteractionServiceImpl userInteractionService;
 
     private User requester;
@@ -86,6 +105,47 @@ class UserInteractionServiceImplTest {
         blocked.setUsername("blockedUser");
         blocked.setActive(true);
         blocked.setBlockedUsers(new HashSet<>());
+
+        // The block store reads the same relations the tests set up on the entities
+        List<User> users = List.of(requester, addressee, blocker, blocked);
+        when(userRepository.findBlockRowsInvolving(any())).thenAnswer(invocation -> blockRows(users, invocation.getArgument(0)));
+        when(userRepository.existsBlockBetween(any(), any())).thenAnswer(invocation -> {
+            UUID otherId = invocation.getArgument(1);
+            return blockRows(users, invocation.getArgument(0)).stream()
+                    .anyMatch(row -> row.getBlockerId().equals(otherId) || row.getBlockedId().equals(otherId));
+        });
+        when(userRepository.findExistingIds(anyCollection())).thenAnswer(invocation -> {
+            Collection<UUID> ids = invocation.getArgument(0);
+            return new HashSet<>(ids.stream().filter(id -> users.stream().anyMatch(user -> user.getId().equals(id))).toList());
+        });
+        blockRelationStore = new BlockRelationStore(userRepository);
+        connectionGraph = new ConnectionGraph(userConnectionRepository);
+        userInteractionService = new UserInteractionServiceImpl(userRepository, userConnectionRepository, eventPublisher,
+                blockRelationStore, connectionGraph);
+    }
+
+    private static List<UserRepository.BlockRow> blockRows(List<User> users, UUID userId) {
+        List<UserRepository.BlockRow> rows = new ArrayList<>();
+        for (User user : users) {
+            for (User blockedUser : user.getBlockedUsers()) {
+                if (user.getId().equals(userId) || blockedUser.getId().equals(userId)) {
+                    rows.add(new BlockRowStub(user.getId(), blockedUser.getId()));
+                }
+            }
+        }
+        return rows;
+    }
+
+    private record BlockRowStub(UUID blockerId, UUID blockedId) implements UserRepository.BlockRow {
+        @Override
+        public UUID getBlockerId() {
+            return blockerId;
+        }
+
+        @Override
+        public UUID getBlockedId() {
+            return blockedId;
+        }
     }
 
     // --- Tests for sendConnectionRequest ---
@@ -107,6 +167,7 @@ class UserInteractionServiceImplTest {
         assertEquals(addressee, result.getAddressee());
         assertEquals(ConnectionStatus.PENDING, result.getStatus());
         verify(userConnectionRepository).save(any(UserConnection.class));
+        verify(eventPublisher).publishEvent(new InteractionChangedEvent(DomainEventType.CONNECTION_REQUESTED, requesterId, addresseeId));
     }
 
     @Test
@@ -170,6 +231,22 @@ class UserInteractionServiceImplTest {
         });
     }
 
+    @Test
+    void sendConnectionRequest_blockNotYetSeenByTheBlockStore_shouldThrowBlockedException() {
+        // Built before the block, as on an instance the block was not made through
+        when(userRepository.findAllBlockRows()).thenReturn(List.of());
+        blockRelationStore.rebuildFilter();
+        addressee.getBlockedUsers().add(requester);
+        when(userRepository.findById(requesterId)).thenReturn(Optional.of(requester));
+        when(userRepository.findById(addresseeId)).thenReturn(Optional.of(addressee));
+
+        assertFalse(blockRelationStore.isBlocked(requesterId, addresseeId));
+        assertThrows(BlockedException.class, () -> {
+            userInteractionService.sendConnectionRequest(requesterId, addresseeId);
+        });
+        verify(userConnectionRepository, never()).save(any(UserConnection.class));
+    }
+
     @Test
     void sendConnectionRequest_connectionAlreadyExists_shouldThrowConnectionException() {
         UserConnection existingConnection = new UserConnection(requester, addressee);
@@ -207,6 +284,27 @@ class UserInteractionServiceImplTest {
 
         UserConnection captured = connectionCaptor.getValue();
         assertEquals(ConnectionStatus.ACCEPTED, captured.getStatus());
+        verify(eventPublisher).publishEvent(MatchInputsChangedEvent.of(addresseeId, requesterId));
+        verify(eventPublisher).publishEvent(ConnectionChangedEvent.connected(addresseeId, requesterId));
+        verify(eventPublisher).publishEvent(new InteractionChangedEvent(DomainEventType.CONNECTION_ACCEPTED, addresseeId, requesterId));
+    }
+
+    @Test
+    void acceptConnectionRequest_blockedAfterTheRequest_shouldThrowBlockedException() {
+        UserConnection pendingConnection = new UserConnection(requester, addressee);
+        pendingConnection.setStatus(ConnectionStatus.PENDING);
+        when(userRepository.findAllBlockRows()).thenReturn(List.of());
+        blockRelationStore.rebuildFilter();
+        requester.getBlockedUsers().add(addressee);
+        when(userConnectionRepository.findByRequesterIdAndAddresseeIdAndStatus(requesterId, addresseeId, ConnectionStatus.PENDING))
+                .thenReturn(Optional.of(pendingConnection));
+
+        assertThrows(BlockedException.class, () -> {
+            userInteractionService.acceptConnectionRequest(addresseeId, requesterId);
+        });
+        assertEquals(ConnectionStatus.PENDING, pendingConnection.getStatus());
+        verify(userConnectionRepository, never()).save(any(UserConnection.class));
+        verify(eventPublisher, never()).publishEvent(any());
     }
 
     @Test
@@ -245,6 +343,7 @@ class UserInteractionServiceImplTest {
         userInteractionService.rejectConnectionRequest(addresseeId, requesterId);
 
         verify(userConnectionRepository).delete(pendingConnection);
+        verify(eventPublisher).publishEvent(new InteractionChangedEvent(DomainEventType.CONNECTION_REJECTED, addresseeId, requesterId));
     }
 
     // --- Tests for removeConnection ---
@@ -257,26 +356,41 @@ class UserInteractionServiceImplTest {
 
         userInteractionService.removeConnection(requesterId, addresseeId);
         verify(userConnectionRepository).delete(acceptedConnection);
+        verify(eventPublisher).publishEvent(MatchInputsChangedEvent.of(requesterId, addresseeId));
+        verify(eventPublisher).publishEvent(ConnectionChangedEvent.disconnected(requesterId, addresseeId));
+        verify(eventPublisher).publishEvent(new InteractionChangedEvent(DomainEventType.CONNECTION_REMOVED, requesterId, addresseeId));
     }
 
     // --- Tests for getConnectionsDto ---
     @Test
     void getConnectionsDto_shouldReturnPageOfSummaries() {
         Pageable pageable = PageRequest.of(0, 10);
-        User user3 = new User(); user3.setId(UUID.randomUUID()); user3.setUsername("user3");
-        UserConnection conn1 = new UserConnection(requester, addressee); conn1.setStatus(ConnectionStatus.ACCEPTED);
-        UserConnection conn2 = new UserConnection(user3, requester); conn2.setStatus(ConnectionStatus.ACCEPTED);
-        List<UserConnection> connections = List.of(conn1, conn2);
-        Page<UserConnection> connectionPage = new PageImpl<>(connections, pageable, connections.size());
+        List<UserSummaryDto> summaries = List.of(
+                new UserSummaryDto(addresseeId, addressee.getUsername(), null, null, null),
+                new UserSummaryDto(UUID.randomUUID(), "user3", null, null, null));
+        Page<UserSummaryDto> summaryPage = new PageImpl<>(summaries, pageable, summaries.size());
 
-        when(userConnectionRepository.findAcceptedConnectionsForUser(requesterId, ConnectionStatus.ACCEPTED, pageable))
-                .thenReturn(connectionPage);
+        when(userConnectionRepository.findConnectedUserSummaries(requesterId, ConnectionStatus.ACCEPTED, pageable))
+                .thenReturn(summaryPage);
 
         Page<UserSummaryDto> result = userInteractionService.getConnectionsDto(requesterId, pageable);
 
         assertEquals(2, result.getTotalElements());
         assertTrue(result.getContent().stream().anyMatch(dto -> dto.getUsername().equals(addressee.getUsername())));
-        assertTrue(result.getContent().stream().anyMatch(dto -> dto.getUsername().equals(user3.getUsername())));
+        assertTrue(result.getContent().stream().anyMatch(dto -> dto.getUsername().equals("user3")));
+        verify(userConnectionRepository, never()).findAcceptedConnectionsForUser(any(), any(), any());
+    }
+
+    @Test
+    void getPendingRequestsDto_shouldUseSummaryProjections() {
+        Pageable pageable = PageRequest.of(0, 10);
+        Page<UserSummaryDto> incoming = new PageImpl<>(List.of(new UserSummaryDto(requesterId, requester.getUsername(), null, null, null)), pageable, 1);
+        Page<UserSummaryDto> outgoing = new PageImpl<>(List.of(new UserSummaryDto(addresseeId, addressee.getUsername(), null, null, null)), pageable, 1);
+        when(userConnectionRepository.findRequesterSummariesByAddresseeIdAndStatus(addresseeId, ConnectionStatus.PENDING, pageable)).thenReturn(incoming);
+        when(userConnectionRepository.findAddresseeSummariesByRequesterIdAndStatus(requesterId, ConnectionStatus.PENDING, pageable)).thenReturn(outgoing);
+
+        assertEquals(incoming, userInteractionService.getPendingIncomingRequestsDto(addresseeId, pageable));
+        assertEquals(outgoing, userInteractionService.getPendingOutgoingRequestsDto(requesterId, pageable));
     }
 
     // --- Tests for blockUser ---
@@ -294,6 +408,10 @@ class UserInteractionServiceImplTest {
         assertTrue(blocker.getBlockedUsers().contains(blocked));
         verify(userConnectionRepository).delete(existingConnection);
         verify(userRepository).save(blocker);
+        verify(eventPublisher).publishEvent(MatchInputsChangedEvent.of(blockerId, blockedId));
+        verify(eventPublisher).publishEvent(ConnectionChangedEvent.disconnected(blockerId, blockedId));
+        verify(eventPublisher).publishEvent(new InteractionChangedEvent(DomainEventType.CONNECTION_REMOVED, blockerId, blockedId));
+        verify(eventPublisher).publishEvent(new InteractionChangedEvent(DomainEventType.USER_BLOCKED, blockerId, blockedId));
     }
 
     @Test
@@ -307,6 +425,8 @@ class UserInteractionServiceImplTest {
         assertTrue(blocker.getBlockedUsers().contains(blocked));
         verify(userConnectionRepository, never()).delete(any());
         verify(userRepository).save(blocker);
+        verify(eventPublisher).publishEvent(new InteractionChangedEvent(DomainEventType.USER_BLOCKED, blockerId, blockedId));
+        verify(eventPublisher, never()).publishEvent(new InteractionChangedEvent(DomainEventType.CONNECTION_REMOVED, blockerId, blockedId));
     }
 
 
@@ -359,9 +479,24 @@ class UserInteractionServiceImplTest {
         userInteractionService.blockUser(blockerId, blockedId);
 
         verify(userRepository, never()).save(blocker);
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
     }
 
 
+    @Test
+    void blockUser_shouldUpdateCachedBlockRelationsWithoutReloading() {
+        when(userRepository.findById(blockerId)).thenReturn(Optional.of(blocker));
+        when(userRepository.findById(blockedId)).thenReturn(Optional.of(blocked));
+        when(userConnectionRepository.findConnectionBetweenUsers(blockerId, blockedId)).thenReturn(Optional.empty());
+        assertFalse(userInteractionService.isBlocked(blockerId, blockedId));
+
+        userInteractionService.blockUser(blockerId, blockedId);
+
+        assertTrue(userInteractionService.isBlocked(blockerId, blockedId));
+        assertTrue(userInteractionService.isBlocked(blockedId, blockerId));
+        verify(userRepository, times(1)).findBlockRowsInvolving(blockerId);
+    }
+
     // --- Tests for unblockUser ---
     @Test
     void unblockUser_valid_shouldUnblock() {
@@ -373,6 +508,8 @@ class UserInteractionServiceImplTest {
 
         assertFalse(blocker.getBlockedUsers().contains(blocked));
         verify(userRepository).save(blocker);
+        verify(eventPublisher).publishEvent(MatchInputsChangedEvent.of(blockerId, blockedId));
+        verify(eventPublisher).publishEvent(new InteractionChangedEvent(DomainEventType.USER_UNBLOCKED, blockerId, blockedId));
     }
 
     @Test
@@ -389,20 +526,72 @@ class UserInteractionServiceImplTest {
     }
 
 
+    @Test
+    void unblockUser_shouldUpdateCachedBlockRelationsWithoutReloading() {
+        blocker.getBlockedUsers().add(blocked);
+        when(userRepository.findById(blockerId)).thenReturn(Optional.of(blocker));
+        when(userRepository.findById(blockedId)).thenReturn(Optional.of(blocked));
+        assertTrue(userInteractionService.isBlocked(blockerId, blockedId));
+
+        userInteractionService.unblockUser(blockerId, blockedId);
+
+        assertFalse(userInteractionService.isBlocked(blockerId, blockedId));
+        verify(userRepository, times(1)).findBlockRowsInvolving(blockerId);
+    }
+
     // --- Tests for getBlockedUsers ---
     @Test
-    void getBlockedUsers_shouldReturnPageOfBlockedUsers() {
-        Pageable pageable = PageRequest.of(0, 10);
-        User blockedUser1 = new User(); blockedUser1.setId(UUID.randomUUID());
-        User blockedUser2 = new User(); blockedUser2.setId(UUID.randomUUID());
-        blocker.setBlockedUsers(new HashSet<>(Set.of(blockedUser1, blockedUser2)));
+    void getBlockedUsers_shouldReturnPageFromRepositoryWithoutLoadingBlocker() {
+        Pageable pageable = PageRequest.of(1, 2, Sort.by("email"));
+        UserSummaryDto summary = new UserSummaryDto(UUID.randomUUID(), "blockedC", null, null, null);
+        when(userRepository.existsById(blockerId)).thenReturn(true);
+        when(userRepository.findBlockedUserSummaries(blockerId, PageRequest.of(1, 2)))
+                .thenReturn(new PageImpl<>(List.of(summary), PageRequest.of(1, 2), 3));
 
-        when(userRepository.findById(blockerId)).thenReturn(Optional.of(blocker));
+        Page<UserSummaryDto> result = userInteractionService.getBlockedUsers(blockerId, pageable);
 
-        Page<User> result = userInteractionService.getBlockedUsers(blockerId, pageable);
+        assertEquals(3, result.getTotalElements());
+        assertEquals(List.of(summary), result.getContent());
+        verify(userRepository, never()).findById(any());
+    }
 
-        assertEquals(2, result.getTotalElements());
-        assertTrue(result.getContent().contains(blockedUser1));
+    @Test
+    void getBlockedUsers_unknownUser_shouldThrowUserNotFoundException() {
+        when(userRepository.existsById(blockerId)).thenReturn(false);
+
+        assertThrows(UserNotFoundException.class, () -> userInteractionService.getBlockedUsers(blockerId, PageRequest.of(0, 10)));
+        verify(userRepository, never()).findBlockedUserSummaries(any(), any());
+    }
+
+    @Test
+    void getBlockedUsersAfter_shouldWalkSlicesByKeyset() {
+        UserSummaryDto first = new UserSummaryDto(UUID.randomUUID(), "alpha", null, null, null);
+        UserSummaryDto second = new UserSummaryDto(UUID.randomUUID(), "beta", null, null, null);
+        UserSummaryDto third = new UserSummaryDto(UUID.randomUUID(), "gamma", null, null, null);
+        when(userRepository.existsById(blockerId)).thenReturn(true);
+        when(userRepository.findBlockedUserSummariesAfter(eq(blockerId), eq(""), any(), eq(PageRequest.of(0, 3))))
+                .thenReturn(List.of(first, second, third));
+        when(userRepository.findBlockedUserSummariesAfter(blockerId, "beta", second.getId(), PageRequest.of(0, 3)))
+                .thenReturn(List.of(third));
+
+        UserSearchSliceDto firstSlice = userInteractionService.getBlockedUsersAfter(blockerId, "", 2);
+        UserSearchSliceDto lastSlice = userInteractionService.getBlockedUsersAfter(blockerId, firstSlice.getNextCursor(), 2);
+
+        assertEquals(List.of(first, second), firstSlice.getContent());
+        assertTrue(firstSlice.isHasNext());
+        assertEquals(new UserSearchCursor("beta", second.getId()).encode(), firstSlice.getNextCursor());
+        assertEquals(List.of(third), lastSlice.getContent());
+        assertFalse(lastSlice.isHasNext());
+        assertNull(lastSlice.getNextCursor());
+        verify(userRepository, never()).findById(any());
+    }
+
+    @Test
+    void getBlockedUsersAfter_malformedCursor_shouldThrowIllegalArgumentException() {
+        when(userRepository.existsById(blockerId)).thenReturn(true);
+
+        assertThrows(IllegalArgumentException.class, () -> userInteractionService.getBlockedUsersAfter(blockerId, "not-a-cursor", 10));
+        verify(userRepository, never()).findBlockedUserSummariesAfter(any(), any(), any(), any());
     }
 
     // --- Tests for checkInteractionStatus ---
@@ -485,6 +674,135 @@ class UserInteractionServiceImplTest {
         assertEquals(InteractionStatus.NONE, userInteractionService.checkInteractionStatus(requesterId, addresseeId));
     }
 
+    @Test
+    void checkInteractionStatus_unknownTarget_shouldThrowUserNotFoundException() {
+        UUID unknownId = UUID.randomUUID();
+
+        assertThrows(UserNotFoundException.class, () -> userInteractionService.checkInteractionStatus(requesterId, unknownId));
+        verify(userRepository, never()).findById(any());
+    }
+
+    @Test
+    void checkInteractionStatus_shouldNotLoadUserEntities() {
+        requester.getBlockedUsers().add(addressee);
+
+        assertEquals(InteractionStatus.BLOCKED_BY_YOU, userInteractionService.checkInteractionStatus(requesterId, addresseeId));
+        verify(userRepository, never()).findById(any());
+        verify(userRepository, never()).findBlockRowsInvolving(addresseeId);
+    }
+
+    // --- Tests for checkInteractionStatuses ---
+    @Test
+    void checkInteractionStatuses_shouldResolveEveryStatusWithOneConnectionQuery() {
+        requester.getBlockedUsers().add(blocker);
+        blocked.getBlockedUsers().add(requester);
+        UUID unknownId = UUID.randomUUID();
+        when(userConnectionRepository.findConnectionRowsBetween(eq(requesterId), anyCollection()))
+                .thenReturn(List.of(connectionRow(addresseeId, requesterId, ConnectionStatus.PENDING)));
+
+        Map<UUID, InteractionStatus> statuses = userInteractionService.checkInteractionStatuses(requesterId,
+                List.of(addresseeId, unknownId, blockerId, blockedId, requesterId, addresseeId));
+
+        assertEquals(List.of(addresseeId, blockerId, blockedId, requesterId), List.copyOf(statuses.keySet()));
+        assertEquals(InteractionStatus.PENDING_INCOMING, statuses.get(addresseeId));
+        assertEquals(InteractionStatus.BLOCKED_BY_YOU, statuses.get(blockerId));
+        assertEquals(InteractionStatus.BLOCKED_BY_OTHER, statuses.get(blockedId));
+        assertEquals(InteractionStatus.NONE, statuses.get(requesterId));
+        verify(userRepository, times(1)).findExistingIds(anyCollection());
+        verify(userConnectionRepository, times(1)).findConnectionRowsBetween(eq(requesterId), anyCollection());
+        verify(userRepository, times(1)).findBlockRowsInvolving(requesterId);
+        verify(userRepository, never()).findById(any());
+        verify(userConnectionRepository, never()).findConnectionBetweenUsers(any(), any());
+    }
+
+    @Test
+    void checkInteractionStatuses_unknownViewingUser_shouldThrowUserNotFoundException() {
+        UUID unknownId = UUID.randomUUID();
+
+        assertThrows(UserNotFoundException.class,
+                () -> userInteractionService.checkInteractionStatuses(unknownId, List.of(requesterId)));
+        verify(userConnectionRepository, never()).findConnectionRowsBetween(any(), anyCollection());
+    }
+
+    private static UserConnectionRepository.ConnectionRow connectionRow(UUID requesterId, UUID addresseeId, ConnectionStatus status) {
+        return new UserConnectionRepository.ConnectionRow() {
+            @Override
+            public UUID getRequesterId() {
+                return requesterId;
+            }
+
+            @Override
+            public UUID getAddresseeId() {
+                return addresseeId;
+            }
+
+            @Override
+            public ConnectionStatus getStatus() {
+                return status;
+            }
+        };
+    }
+
+    // --- Tests for the connection graph ---
+    @Test
+    void countMutualConnections_shouldAnswerFromTheGraphInRequestOrder() {
+        UUID shared = UUID.randomUUID();
+        UUID unknownId = UUID.randomUUID();
+        when(userRepository.existsById(requesterId)).thenReturn(true);
+        when(userConnectionRepository.findConnectionRowsByStatus(ConnectionStatus.ACCEPTED)).thenReturn(List.of(
+                connectionRow(requesterId, shared, ConnectionStatus.ACCEPTED),
+                connectionRow(shared, addresseeId, ConnectionStatus.ACCEPTED),
+                connectionRow(requesterId, addresseeId, ConnectionStatus.ACCEPTED)));
+
+        Map<UUID, Integer> counts = userInteractionService.countMutualConnections(requesterId,
+                List.of(addresseeId, unknownId, requesterId, shared));
+
+        assertEquals(List.of(addresseeId, unknownId, shared), List.copyOf(counts.keySet()));
+        assertEquals(1, counts.get(addresseeId));
+        assertEquals(0, counts.get(unknownId));
+        assertEquals(1, counts.get(shared));
+        verify(userConnectionRepository, times(1)).findConnectionRowsByStatus(ConnectionStatus.ACCEPTED);
+    }
+
+    @Test
+    void suggestConnections_shouldSkipBlockedPendingAndInactiveUsers() {
+        UUID strong = UUID.randomUUID();
+        UUID weak = UUID.randomUUID();
+        UUID pending = UUID.randomUUID();
+        UUID inactive = UUID.randomUUID();
+        requester.getBlockedUsers().add(blocked);
+        when(userRepository.existsById(requesterId)).thenReturn(true);
+        when(userConnectionRepository.findConnectedUserIds(requesterId, ConnectionStatus.PENDING)).thenReturn(Set.of(pending));
+        when(userConnectionRepository.findConnectionRowsByStatus(ConnectionStatus.ACCEPTED)).thenReturn(List.of(
+                connectionRow(requesterId, addresseeId, ConnectionStatus.ACCEPTED),
+                connectionRow(requesterId, blockerId, ConnectionStatus.ACCEPTED),
+                connectionRow(addresseeId, strong, ConnectionStatus.ACCEPTED),
+                connectionRow(blockerId, strong, ConnectionStatus.ACCEPTED),
+                connectionRow(addresseeId, weak, ConnectionStatus.ACCEPTED),
+                connectionRow(addresseeId, blockedId, ConnectionStatus.ACCEPTED),
+                connectionRow(blockerId, pending, ConnectionStatus.ACCEPTED),
+                connectionRow(blockerId, inactive, ConnectionStatus.ACCEPTED),
+                connectionRow(addresseeId, inactive, ConnectionStatus.ACCEPTED)));
+        when(userRepository.findActiveSummariesByIdIn(anyCollection())).thenAnswer(invocation -> {
+            Collection<UUID> ids = invocation.getArgument(0);
+            return ids.stream().filter(id -> !id.equals(inactive))
+                    .map(id -> new UserSummaryDto(id, "user-" + id, null, null, null)).toList();
+        });
+
+        List<ConnectionSuggestionDto> suggestions = userInteractionService.suggestConnections(requesterId, 10);
+
+        assertEquals(List.of(strong, weak), suggestions.stream().map(suggestion -> suggestion.getUser().getId()).toList());
+        assertEquals(List.of(2, 1), suggestions.stream().map(ConnectionSuggestionDto::getMutualConnections).toList());
+    }
+
+    @Test
+    void suggestConnections_unknownUser_shouldThrowUserNotFoundException() {
+        when(userRepository.existsById(requesterId)).thenReturn(false);
+
+        assertThrows(UserNotFoundException.class, () -> userInteractionService.suggestConnections(requesterId, 10));
+        verify(userConnectionRepository, never()).findConnectionRowsByStatus(any());
+    }
+
     // --- Tests for isBlocked ---
     @Test
     void isBlocked_user1BlocksUser2_shouldReturnTrue() {
@@ -509,4 +827,14 @@ class UserInteractionServiceImplTest {
         when(userRepository.findById(addresseeId)).thenReturn(Optional.of(addressee));
         assertFalse(userInteractionService.isBlocked(requesterId, addresseeId));
     }
-}
\ No newline at end of file
+
+    @Test
+    void isBlocked_withBuiltFilterAndNoBlocks_shouldNotQuery() {
+        when(userRepository.findAllBlockRows()).thenReturn(List.of());
+        blockRelationStore.rebuildFilter();
+
+        assertFalse(userInteractionService.isBlocked(requesterId, addresseeId));
+        verify(userRepository, never()).findBlockRowsInvolving(any());
+        verify(userRepository, never()).findById(any());
+    }
+}
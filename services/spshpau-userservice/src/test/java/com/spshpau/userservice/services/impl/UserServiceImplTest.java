@@ -1,15 +1,32 @@
 package com.spshpau.userservice.services.impl;
 
+import com.spshpau.userservice.dto.userdto.MatchCursorPageDto;
 import com.spshpau.userservice.dto.userdto.UserDetailDto;
+import com.spshpau.userservice.dto.userdto.UserFacetCountsDto;
+import com.spshpau.userservice.dto.userdto.UserFieldSelection;
 import com.spshpau.userservice.dto.userdto.UserSearchCriteria;
+import com.spshpau.userservice.dto.userdto.UserSearchSliceDto;
+import com.spshpau.userservice.dto.userdto.UserSuggestionDto;
 import com.spshpau.userservice.dto.userdto.UserSummaryDto;
 import com.spshpau.userservice.model.*;
 import com.spshpau.userservice.model.enums.ConnectionStatus;
 import com.spshpau.userservice.model.enums.ExperienceLevel;
 import com.spshpau.userservice.repositories.UserConnectionRepository;
 import com.spshpau.userservice.repositories.UserRepository;
+import com.spshpau.userservice.repositories.specifications.UserSearchCursor;
 import com.spshpau.userservice.repositories.specifications.UserSpecification;
 import com.spshpau.userservice.services.exceptions.UserNotFoundException;
+import com.spshpau.userservice.services.matching.FeatureDictionary;
+import com.spshpau.userservice.services.blocking.BlockRelationStore;
+import com.spshpau.userservice.services.matching.MatchIndex;
+import com.spshpau.userservice.services.matching.MatchScorer;
+import com.spshpau.userservice.services.matching.MaterializedMatchStore;
+import com.spshpau.userservice.services.matching.SqlMatchEngine;
+import com.spshpau.userservice.services.profile.ProfileReadCache;
+import com.spshpau.userservice.services.profile.UserProfileChangedEvent;
+import com.spshpau.userservice.services.search.UsernamePrefixIndex;
+import com.spshpau.userservice.services.wrappers.MatchRanking;
+import com.spshpau.userservice.services.wrappers.MatchedUser;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -17,9 +34,11 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.*;
 import org.springframework.data.jpa.domain.Specification;
 
@@ -27,6 +46,7 @@ import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -39,6 +59,30 @@ class UserServiceImplTest {
     @Mock
     private UserConnectionRepository userConnectionRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private MatchIndex matchIndex = new MatchIndex(new FeatureDictionary());
+
+    @Spy
+    private MatchScorer matchScorer = new MatchScorer(20_000);
+
+    @Mock
+    private SqlMatchEngine sqlMatchEngine;
+
+    @Mock
+    private MaterializedMatchStore materializedMatchStore;
+
+    @Spy
+    private UsernamePrefixIndex usernamePrefixIndex = new UsernamePrefixIndex();
+
+    @Mock
+    private BlockRelationStore blockRelationStore;
+
+    @Spy
+    private ProfileReadCache profileReadCache = new ProfileReadCache();
+
     @InjectMocks
     private UserServiceImpl userService;
 
@@ -234,6 +278,7 @@ class UserServiceImplTest {
     void getUserDetailByUsername_whenUserExists_shouldReturnDto() {
         String username = "testuser";
         when(userRepository.findByUsername(username)).thenReturn(Optional.of(sampleUser));
+        when(userRepository.findById(userId)).thenReturn(Optional.of(sampleUser));
 
         Optional<UserDetailDto> resultOpt = userService.getUserDetailByUsername(username);
 
@@ -250,6 +295,126 @@ class UserServiceImplTest {
     }
 
 
+    @Test
+    void getUserDetailById_repeatedReads_shouldLoadOnce() {
+        when(userRepository.findById(userId)).thenReturn(Optional.of(sampleUser));
+
+        UserDetailDto first = userService.getUserDetailById(userId).orElseThrow();
+        UserDetailDto second = userService.getUserDetailById(userId).orElseThrow();
+
+        assertSame(first, second);
+        verify(userRepository, times(1)).findById(userId);
+    }
+
+    @Test
+    void getUserDetailByUsername_repeatedReads_shouldResolveAndLoadOnce() {
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(sampleUser));
+        when(userRepository.findById(userId)).thenReturn(Optional.of(sampleUser));
+
+        userService.getUserDetailByUsername("testuser");
+        userService.getUserDetailById(userId);
+        Optional<UserDetailDto> result = userService.getUserDetailByUsername("testuser");
+
+        assertEquals(userId, result.orElseThrow().getId());
+        verify(userRepository, times(1)).findByUsername("testuser");
+        verify(userRepository, times(1)).findById(userId);
+    }
+
+    @Test
+    void getUserDetailById_afterProfileChanged_shouldReload() {
+        when(userRepository.findById(userId)).thenReturn(Optional.of(sampleUser));
+        userService.getUserDetailById(userId);
+
+        sampleUser.setLocation("Elsewhere");
+        profileReadCache.onUserProfileChanged(UserProfileChangedEvent.of(userId));
+
+        assertEquals("Elsewhere", userService.getUserDetailById(userId).orElseThrow().getLocation());
+        verify(userRepository, times(2)).findById(userId);
+    }
+
+    @Test
+    void getUserDetailById_whenUserNotFound_shouldNotCacheAbsence() {
+        when(userRepository.findById(userId)).thenReturn(Optional.empty(), Optional.of(sampleUser));
+
+        assertTrue(userService.getUserDetailById(userId).isEmpty());
+        assertTrue(userService.getUserDetailById(userId).isPresent());
+    }
+
+    @Test
+    void getUserDetailById_withoutProfileFields_shouldUseProjectionAndNotCache() {
+        UserDetailDto projected = new UserDetailDto(userId, "testuser", "test@example.com", "Test", "User", null, true);
+        when(userRepository.findDetailById(userId)).thenReturn(Optional.of(projected));
+
+        Optional<UserDetailDto> result = userService.getUserDetailById(userId, UserFieldSelection.parse("id,username"));
+
+        assertSame(projected, result.orElseThrow());
+        verify(userRepository, never()).findById(any());
+        verify(userRepository, never()).findWithProfilesById(any());
+        assertTrue(profileReadCache.peekUserDetail(userId).isEmpty());
+    }
+
+    @Test
+    void getUserDetailById_withArtistGenresOnly_shouldNotMapSkillsOrProducerProfile() {
+        ArtistProfile artistProfile = new ArtistProfile();
+        artistProfile.setId(userId);
+        Genre genre = new Genre("Rock"); genre.setId(UUID.randomUUID());
+        artistProfile.setGenres(new HashSet<>(Set.of(genre)));
+        Set<Skill> skills = spy(new HashSet<Skill>());
+        artistProfile.setSkills(skills);
+        sampleUser.setArtistProfile(artistProfile);
+        ProducerProfile producerProfile = new ProducerProfile();
+        producerProfile.setId(userId);
+        sampleUser.setProducerProfile(producerProfile);
+        when(userRepository.findWithProfilesById(userId)).thenReturn(Optional.of(sampleUser));
+
+        UserDetailDto result = userService.getUserDetailById(userId, UserFieldSelection.parse("username,artistProfile.genres"))
+                .orElseThrow();
+
+        assertEquals(1, result.getArtistProfile().getGenres().size());
+        assertNull(result.getArtistProfile().getSkills());
+        assertNull(result.getProducerProfile());
+        verifyNoInteractions(skills);
+        verify(userRepository, never()).findById(any());
+    }
+
+    @Test
+    void getUserDetailById_withFieldsAndCachedFullView_shouldServeCachedView() {
+        when(userRepository.findById(userId)).thenReturn(Optional.of(sampleUser));
+        UserDetailDto full = userService.getUserDetailById(userId).orElseThrow();
+
+        Optional<UserDetailDto> result = userService.getUserDetailById(userId, UserFieldSelection.parse("username"));
+
+        assertSame(full, result.orElseThrow());
+        verify(userRepository, never()).findDetailById(any());
+    }
+
+    @Test
+    void profileMutations_shouldPublishProfileChangedEvents() {
+        when(userRepository.findById(userId)).thenReturn(Optional.of(sampleUser));
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        userService.updateUserLocation(userId, "New Location");
+        userService.deactivateUser(userId);
+        userService.reactivateUser(userId);
+
+        verify(eventPublisher, times(3)).publishEvent(UserProfileChangedEvent.of(userId));
+    }
+
+    @Test
+    void syncUserFromKeycloak_whenRenamed_shouldEvictPreviousUsername() {
+        User existingUserInDb = new User();
+        existingUserInDb.setId(keycloakId);
+        existingUserInDb.setUsername("oldUsername");
+        when(userRepository.findById(keycloakId)).thenReturn(Optional.of(existingUserInDb));
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        userService.syncUserFromKeycloak(keycloakId, "newUsername", "new@example.com", "New", "User");
+        userService.syncUserFromKeycloak(keycloakId, "newUsername", "new@example.com", "New", "User");
+
+        verify(eventPublisher).publishEvent(new UserProfileChangedEvent(keycloakId, "oldUsername"));
+        verify(eventPublisher).publishEvent(UserProfileChangedEvent.of(keycloakId));
+    }
+
     // --- Test for getUserEntityById ---
     @Test
     void getUserEntityById_whenUserExists_shouldReturnUser() {
@@ -266,6 +431,27 @@ class UserServiceImplTest {
         assertTrue(result.isEmpty());
     }
 
+    // --- Tests for getUserSummariesByIds ---
+    @Test
+    void getUserSummariesByIds_shouldQueryOnceAndKeepRequestOrder() {
+        UUID secondId = UUID.randomUUID();
+        UUID unknownId = UUID.randomUUID();
+        UserSummaryDto first = new UserSummaryDto(userId, "testuser", "Test", "User", "Test Location");
+        UserSummaryDto second = new UserSummaryDto(secondId, "second", null, null, null);
+        when(userRepository.findSummariesByIdIn(anyCollection())).thenReturn(List.of(first, second));
+
+        List<UserSummaryDto> result = userService.getUserSummariesByIds(List.of(secondId, unknownId, userId, secondId));
+
+        assertEquals(List.of(second, first), result);
+        verify(userRepository).findSummariesByIdIn(Set.of(secondId, unknownId, userId));
+    }
+
+    @Test
+    void getUserSummariesByIds_withNoIds_shouldNotQuery() {
+        assertTrue(userService.getUserSummariesByIds(List.of()).isEmpty());
+        verify(userRepository, never()).findSummariesByIdIn(anyCollection());
+    }
+
     // --- Test for deactivateUser ---
     @Test
     void deactivateUser_whenUserExists_shouldDeactivate() {
@@ -329,6 +515,122 @@ class UserServiceImplTest {
         verify(userRepository).findAll(any(UserSpecification.class), eq(pageable));
     }
 
+    @Test
+    void findActiveUsers_withoutProfileFields_shouldProjectSummaries() {
+        Pageable pageable = PageRequest.of(0, 10);
+        List<UserSummaryDto> summaries = List.of(new UserSummaryDto(UUID.randomUUID(), "user1", null, null, null));
+        when(userRepository.findSummaries(any(UserSpecification.class), eq(pageable)))
+                .thenReturn(new PageImpl<>(summaries, pageable, 1));
+
+        Page<UserSummaryDto> resultPage = userService.findActiveUsers(UUID.randomUUID(), new UserSearchCriteria(),
+                pageable, UserFieldSelection.parse("id,username"));
+
+        assertEquals(summaries, resultPage.getContent());
+        verify(userRepository, never()).findAll(any(Specification.class), any(Pageable.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void findActiveUsersAfter_shouldReturnSliceWithCursorOfLastUserAndSkipCount() {
+        UUID currentUserId = UUID.randomUUID();
+        UserSearchCriteria criteria = new UserSearchCriteria();
+
+        User user1 = new User(); user1.setId(UUID.randomUUID()); user1.setUsername("user1");
+        User user2 = new User(); user2.setId(UUID.randomUUID()); user2.setUsername("user2");
+        Window<User> window = Window.from(List.of(user1, user2), i -> ScrollPosition.keyset(), true);
+        when(userRepository.findBy(any(Specification.class), any())).thenReturn(window);
+
+        UserSearchSliceDto slice = userService.findActiveUsersAfter(currentUserId, criteria, "", 2);
+
+        assertEquals(List.of("user1", "user2"), slice.getContent().stream().map(UserSummaryDto::getUsername).toList());
+        assertTrue(slice.isHasNext());
+        assertEquals(new UserSearchCursor("user2", user2.getId()), UserSearchCursor.decode(slice.getNextCursor()));
+        verify(userRepository, never()).findAll(any(Specification.class), any(Pageable.class));
+        verify(userRepository, never()).count(any(Specification.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void findActiveUsersAfter_onLastSlice_shouldNotReturnCursor() {
+        User user1 = new User(); user1.setId(UUID.randomUUID()); user1.setUsername("user1");
+        when(userRepository.findBy(any(Specification.class), any()))
+                .thenReturn(Window.from(List.of(user1), i -> ScrollPosition.keyset(), false));
+
+        String cursor = new UserSearchCursor("user0", UUID.randomUUID()).encode();
+        UserSearchSliceDto slice = userService.findActiveUsersAfter(UUID.randomUUID(), new UserSearchCriteria(), cursor, 10);
+
+        assertEquals(1, slice.getContent().size());
+        assertFalse(slice.isHasNext());
+        assertNull(slice.getNextCursor());
+    }
+
+    @Test
+    void findActiveUsersAfter_malformedCursor_shouldThrowIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class,
+                () -> userService.findActiveUsersAfter(UUID.randomUUID(), new UserSearchCriteria(), "not-a-cursor", 10));
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void countSearchFacets_withSearchTerm_shouldRestrictCountsToTermMatches() {
+        User jazzFan = new User(); jazzFan.setId(UUID.randomUUID()); jazzFan.setUsername("jazzfan"); jazzFan.setActive(true);
+        User other = new User(); other.setId(UUID.randomUUID()); other.setUsername("other"); other.setActive(true);
+        matchIndex.indexUser(jazzFan);
+        matchIndex.indexUser(other);
+        when(userRepository.findActiveIdsBySearchPattern("%jazz%")).thenReturn(List.of(jazzFan.getId()));
+
+        UserSearchCriteria criteria = new UserSearchCriteria();
+        criteria.setSearchTerm("Jazz");
+        UserFacetCountsDto counts = userService.countSearchFacets(UUID.randomUUID(), criteria);
+
+        assertEquals(1, counts.getTotal());
+        verify(userRepository).findActiveIdsBySearchPattern("%jazz%");
+    }
+
+    @Test
+    void countSearchFacets_withoutSearchTerm_shouldNotQueryDatabase() {
+        User user = new User(); user.setId(UUID.randomUUID()); user.setUsername("user"); user.setActive(true);
+        matchIndex.indexUser(user);
+
+        UserFacetCountsDto counts = userService.countSearchFacets(UUID.randomUUID(), new UserSearchCriteria());
+
+        assertEquals(1, counts.getTotal());
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void suggestUsers_shouldExcludeCallerAndBlockedUsers() {
+        UUID blockedId = UUID.randomUUID();
+        usernamePrefixIndex.put(new UserSuggestionDto(userId, "testuser", "Test", "User"));
+        usernamePrefixIndex.put(new UserSuggestionDto(blockedId, "testblocked", "Blocked", "User"));
+        UUID visibleId = UUID.randomUUID();
+        usernamePrefixIndex.put(new UserSuggestionDto(visibleId, "tester", "Visible", "User"));
+        when(blockRelationStore.isBlocked(userId, blockedId)).thenReturn(true);
+
+        List<UserSuggestionDto> suggestions = userService.suggestUsers(userId, "test", 10);
+
+        assertEquals(List.of(visibleId), suggestions.stream().map(UserSuggestionDto::getId).toList());
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void deactivateAndReactivateUser_shouldLeaveIndexesToTheCommitListener() {
+        when(userRepository.findById(userId)).thenReturn(Optional.of(sampleUser));
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        usernamePrefixIndex.indexUser(sampleUser);
+        matchIndex.indexUser(sampleUser);
+
+        userService.deactivateUser(userId);
+
+        // A rollback must not leave the in-memory indexes ahead of the database
+        assertTrue(usernamePrefixIndex.getUserIds().contains(userId));
+        assertTrue(matchIndex.contains(userId));
+        verify(eventPublisher).publishEvent(UserProfileChangedEvent.of(userId));
+
+        userService.reactivateUser(userId);
+        verify(eventPublisher, times(2)).publishEvent(UserProfileChangedEvent.of(userId));
+    }
+
     // --- Tests for findMatches ---
     @Test
     void findMatches_whenCurrentUserNotFound_shouldThrowUserNotFoundException() {
@@ -397,17 +699,14 @@ class UserServiceImplTest {
 
         // --- Mocking ---
         when(userRepository.findById(currentUserId)).thenReturn(Optional.of(sampleUser));
-        when(userRepository.findBlockerUserIdsByBlockedId(currentUserId)).thenReturn(Collections.emptySet());
-        when(userRepository.findBlockedUserIdsByBlockerId(currentUserId)).thenReturn(Collections.emptySet());
-        when(userRepository.findAll(any(Specification.class))).thenReturn(allCandidatesInDb);
+        when(blockRelationStore.getBlockRelatedUserIds(currentUserId)).thenReturn(new HashSet<>());
+        when(userRepository.findActiveWithProfilesByIdIn(anyCollection())).thenReturn(allCandidatesInDb);
+        matchIndex.indexUser(sampleUser);
+        allCandidatesInDb.forEach(matchIndex::indexUser);
 
         // Mock connections
-        UserConnection connectionToCandidate2 = new UserConnection(sampleUser, candidate2);
-        connectionToCandidate2.setStatus(ConnectionStatus.ACCEPTED);
-
-        when(userConnectionRepository.findConnectionBetweenUsers(eq(currentUserId), eq(candidate1.getId()))).thenReturn(Optional.empty());
-        when(userConnectionRepository.findConnectionBetweenUsers(eq(currentUserId), eq(candidate2.getId()))).thenReturn(Optional.of(connectionToCandidate2));
-        when(userConnectionRepository.findConnectionBetweenUsers(eq(currentUserId), eq(candidate3.getId()))).thenReturn(Optional.empty());
+        when(userConnectionRepository.findConnectedUserIds(currentUserId, ConnectionStatus.ACCEPTED))
+                .thenReturn(Set.of(candidate2.getId()));
 
         // --- Execute ---
         Page<UserSummaryDto> result = userService.findMatches(currentUserId, pageable);
@@ -424,12 +723,13 @@ class UserServiceImplTest {
 
 
         verify(userRepository).findById(currentUserId);
-        verify(userRepository).findAll(any(Specification.class)); // The main one should be called
-        verify(userRepository, never()).findAll(any(Specification.class), any(Pageable.class)); // Fallback should not be called
+        verify(userRepository, times(1)).findActiveWithProfilesByIdIn(anyCollection()); // No scoring candidates, only the page is loaded
+        verify(userRepository, never()).findAll(any(Specification.class)); // No full scan of active users
 
-        verify(userConnectionRepository, times(1)).findConnectionBetweenUsers(currentUserId, candidate1.getId());
-        verify(userConnectionRepository, times(1)).findConnectionBetweenUsers(currentUserId, candidate2.getId());
-        verify(userConnectionRepository, times(1)).findConnectionBetweenUsers(currentUserId, candidate3.getId());
+        verify(blockRelationStore, times(1)).getBlockRelatedUserIds(currentUserId);
+        verify(userConnectionRepository, times(1)).findConnectedUserIds(currentUserId, ConnectionStatus.ACCEPTED);
+        verify(userConnectionRepository, never()).findAllAcceptedConnectionsForUser(any(UUID.class), any(ConnectionStatus.class));
+        verify(userConnectionRepository, never()).findConnectionBetweenUsers(any(UUID.class), any(UUID.class));
     }
 
     @Test
@@ -493,16 +793,32 @@ class UserServiceImplTest {
         candidate3.setArtistProfile(candidate3Ap);
 
 
+        // Blocked producer, would otherwise be the best match
+        User blockedProducer = new User();
+        blockedProducer.setId(UUID.randomUUID());
+        blockedProducer.setUsername("blockedProducer");
+        blockedProducer.setActive(true);
+        ProducerProfile blockedPp = new ProducerProfile();
+        blockedPp.setId(blockedProducer.getId());
+        blockedPp.setUser(blockedProducer);
+        blockedPp.setAvailability(true);
+        blockedPp.setExperienceLevel(ExperienceLevel.INTERMEDIATE);
+        blockedPp.setGenres(new HashSet<>(Set.of(commonGenre)));
+        blockedProducer.setProducerProfile(blockedPp);
+
+
         List<User> allCandidatesInDb = Arrays.asList(candidate1, candidate2, candidate3);
 
         when(userRepository.findById(currentUserId)).thenReturn(Optional.of(currentUser));
-        when(userRepository.findBlockerUserIdsByBlockedId(currentUserId)).thenReturn(Collections.emptySet());
-        when(userRepository.findBlockedUserIdsByBlockerId(currentUserId)).thenReturn(Collections.emptySet());
+        when(blockRelationStore.getBlockRelatedUserIds(currentUserId)).thenReturn(new HashSet<>(Set.of(blockedProducer.getId())));
 
-        when(userRepository.findAll(any(Specification.class))).thenReturn(allCandidatesInDb);
+        when(userRepository.findActiveWithProfilesByIdIn(anyCollection())).thenReturn(allCandidatesInDb);
+        matchIndex.indexUser(currentUser);
+        matchIndex.indexUser(blockedProducer);
+        allCandidatesInDb.forEach(matchIndex::indexUser);
 
-        when(userConnectionRepository.findConnectionBetweenUsers(eq(currentUserId), any(UUID.class)))
-                .thenReturn(Optional.empty());
+        when(userConnectionRepository.findConnectedUserIds(currentUserId, ConnectionStatus.ACCEPTED))
+                .thenReturn(Set.of());
 
         // --- Execute ---
         Page<UserSummaryDto> resultPage = userService.findMatches(currentUserId, pageable);
@@ -517,8 +833,302 @@ class UserServiceImplTest {
         assertEquals("candidateArtistOnly", resultPage.getContent().get(2).getUsername());
 
 
-        verify(userRepository).findAll(any(Specification.class));
-        verify(userConnectionRepository, times(allCandidatesInDb.size()))
-                .findConnectionBetweenUsers(eq(currentUserId), any(UUID.class));
+        // Candidates are scored from index features, only the page itself is loaded
+        verify(userRepository, times(1)).findActiveWithProfilesByIdIn(anyCollection());
+        verify(matchScorer, times(1)).scoreAll(any(), any(), any());
+        verify(userRepository, never()).findAll(any(Specification.class));
+        verify(userConnectionRepository, never()).findConnectionBetweenUsers(any(UUID.class), any(UUID.class));
+    }
+
+    @Test
+    void findMatchesAfter_walkingAllCursors_shouldMatchOffsetPages() {
+        UUID currentUserId = UUID.randomUUID();
+        User currentUser = new User();
+        currentUser.setId(currentUserId);
+        currentUser.setUsername("currentUserArtist");
+        currentUser.setActive(true);
+        Genre rock = new Genre("Rock");
+        rock.setId(UUID.randomUUID());
+        ArtistProfile currentUserAp = new ArtistProfile();
+        currentUserAp.setId(currentUserId);
+        currentUserAp.setUser(currentUser);
+        currentUserAp.setExperienceLevel(ExperienceLevel.INTERMEDIATE);
+        currentUserAp.setGenres(new HashSet<>(Set.of(rock)));
+        currentUser.setArtistProfile(currentUserAp);
+
+        Map<UUID, User> usersById = new HashMap<>();
+        Set<UUID> connectedIds = new HashSet<>();
+        ExperienceLevel[] levels = ExperienceLevel.values();
+        for (int i = 0; i < 13; i++) {
+            User candidate = new User();
+            candidate.setId(UUID.randomUUID());
+            candidate.setUsername("candidate" + (char) ('a' + i));
+            candidate.setActive(true);
+            if (i % 3 == 0) {
+                ProducerProfile pp = new ProducerProfile();
+                pp.setId(candidate.getId());
+                pp.setUser(candidate);
+                pp.setAvailability(i % 2 == 0);
+                pp.setExperienceLevel(levels[i % levels.length]);
+                pp.setGenres(new HashSet<>(i % 6 == 0 ? Set.of(rock) : Set.of()));
+                candidate.setProducerProfile(pp);
+            }
+            if (i % 4 == 1) {
+                connectedIds.add(candidate.getId());
+            }
+            usersById.put(candidate.getId(), candidate);
+            matchIndex.indexUser(candidate);
+        }
+        matchIndex.indexUser(currentUser);
+
+        when(userRepository.findById(currentUserId)).thenReturn(Optional.of(currentUser));
+        when(blockRelationStore.getBlockRelatedUserIds(currentUserId)).thenReturn(new HashSet<>());
+        when(userConnectionRepository.findConnectedUserIds(currentUserId, ConnectionStatus.ACCEPTED)).thenReturn(connectedIds);
+        when(userRepository.findActiveWithProfilesByIdIn(anyCollection())).thenAnswer(invocation -> {
+            Collection<UUID> ids = invocation.getArgument(0);
+            return ids.stream().map(usersById::get).toList();
+        });
+
+        List<String> byOffset = new ArrayList<>();
+        for (int page = 0; page < 3; page++) {
+            userService.findMatches(currentUserId, PageRequest.of(page, 5)).getContent()
+                    .forEach(dto -> byOffset.add(dto.getUsername()));
+        }
+
+        List<String> byCursor = new ArrayList<>();
+        String cursor = "";
+        int requests = 0;
+        do {
+            MatchCursorPageDto page = userService.findMatchesAfter(currentUserId, cursor, 5);
+            page.getContent().forEach(dto -> byCursor.add(dto.getUsername()));
+            cursor = page.getNextCursor();
+            requests++;
+        } while (cursor != null);
+
+        assertEquals(13, byOffset.size());
+        assertEquals(byOffset, byCursor);
+        assertEquals(3, requests);
+    }
+
+    @Test
+    void streamMatches_shouldEmitGrowingChunksInRankingOrder() {
+        UUID currentUserId = userId;
+        Genre rock = new Genre("Rock");
+        rock.setId(UUID.randomUUID());
+        ArtistProfile currentUserAp = new ArtistProfile();
+        currentUserAp.setExperienceLevel(ExperienceLevel.ADVANCED);
+        currentUserAp.setGenres(new HashSet<>(Set.of(rock)));
+        sampleUser.setArtistProfile(currentUserAp);
+
+        Map<UUID, User> usersById = new HashMap<>();
+        ExperienceLevel[] levels = ExperienceLevel.values();
+        for (int i = 0; i < 50; i++) {
+            User candidate = new User();
+            candidate.setId(UUID.randomUUID());
+            candidate.setUsername("candidate" + String.format("%02d", i));
+            candidate.setActive(true);
+            if (i % 2 == 0) {
+                ProducerProfile pp = new ProducerProfile();
+                pp.setAvailability(i % 4 == 0);
+                pp.setExperienceLevel(levels[i % levels.length]);
+                pp.setGenres(new HashSet<>(i % 3 == 0 ? Set.of(rock) : Set.of()));
+                candidate.setProducerProfile(pp);
+            }
+            usersById.put(candidate.getId(), candidate);
+            matchIndex.indexUser(candidate);
+        }
+        matchIndex.indexUser(sampleUser);
+        usersById.put(currentUserId, sampleUser);
+
+        when(userRepository.findById(currentUserId)).thenReturn(Optional.of(sampleUser));
+        when(userRepository.findActiveWithProfilesByIdIn(anyCollection())).thenAnswer(invocation -> {
+            Collection<UUID> ids = invocation.getArgument(0);
+            return ids.stream().map(usersById::get).toList();
+        });
+
+        Iterator<List<UserSummaryDto>> chunks = userService.streamMatches(currentUserId, 45);
+        List<Integer> chunkSizes = new ArrayList<>();
+        List<String> streamed = new ArrayList<>();
+        while (chunks.hasNext()) {
+            List<UserSummaryDto> chunk = chunks.next();
+            chunkSizes.add(chunk.size());
+            chunk.forEach(dto -> streamed.add(dto.getUsername()));
+        }
+
+        List<String> paged = userService.findMatches(currentUserId, PageRequest.of(0, 45)).getContent().stream()
+                .map(UserSummaryDto::getUsername).toList();
+        assertEquals(List.of(20, 25), chunkSizes);
+        assertEquals(paged, streamed);
+        assertThrows(NoSuchElementException.class, chunks::next);
+    }
+
+    @Test
+    void streamMatches_whenCurrentUserNotFound_shouldThrowBeforeStreaming() {
+        when(userRepository.findActiveWithProfilesByIdIn(List.of(userId))).thenReturn(List.of());
+
+        assertThrows(UserNotFoundException.class, () -> userService.streamMatches(userId, 10));
+    }
+
+    @Test
+    void findMatchesAfter_malformedCursor_shouldThrowIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class,
+                () -> userService.findMatchesAfter(userId, "not a cursor!", 10));
+    }
+
+    @Test
+    void findMatches_withSqlEngine_shouldDelegateScoringToDatabase() {
+        UUID currentUserId = userId;
+        Pageable pageable = PageRequest.of(1, 2);
+        User match = new User();
+        match.setId(UUID.randomUUID());
+        match.setUsername("sqlMatch");
+        match.setActive(true);
+
+        when(sqlMatchEngine.isEnabled()).thenReturn(true);
+        when(userRepository.findById(currentUserId)).thenReturn(Optional.of(sampleUser));
+        when(sqlMatchEngine.findMatches(currentUserId, pageable))
+                .thenReturn(new PageImpl<>(List.of(new MatchedUser(match.getId(), "sqlMatch", 12.0)), pageable, 3));
+        when(userRepository.findActiveWithProfilesByIdIn(anyCollection())).thenReturn(List.of(match));
+
+        Page<UserSummaryDto> result = userService.findMatches(currentUserId, pageable);
+
+        assertEquals(3, result.getTotalElements());
+        assertEquals(List.of("sqlMatch"), result.getContent().stream().map(UserSummaryDto::getUsername).toList());
+        verify(blockRelationStore, never()).getBlockRelatedUserIds(any(UUID.class));
+        verify(matchScorer, never()).scoreAll(any(), any(), any());
+    }
+
+    @Test
+    void findMatches_withMaterializedRanking_shouldServeFromTableWithoutScoring() {
+        UUID currentUserId = userId;
+        Pageable pageable = PageRequest.of(0, 10);
+        User match = new User();
+        match.setId(UUID.randomUUID());
+        match.setUsername("materializedMatch");
+        match.setActive(true);
+
+        when(materializedMatchStore.findPage(currentUserId, pageable))
+                .thenReturn(Optional.of(new PageImpl<>(List.of(new MatchedUser(match.getId(), "materializedMatch", 30.0)), pageable, 1)));
+        when(userRepository.findActiveWithProfilesByIdIn(anyCollection())).thenReturn(List.of(match));
+
+        Page<UserSummaryDto> result = userService.findMatches(currentUserId, pageable);
+
+        assertEquals(1, result.getTotalElements());
+        assertEquals("materializedMatch", result.getContent().get(0).getUsername());
+        verify(userRepository, never()).findById(any(UUID.class));
+        verify(matchScorer, never()).scoreAll(any(), any(), any());
+    }
+
+    @Test
+    void findMatches_withMaterializedRankingListingInactiveUser_shouldScoreLive() {
+        UUID currentUserId = userId;
+        Pageable pageable = PageRequest.of(0, 10);
+        User match = new User();
+        match.setId(UUID.randomUUID());
+        match.setUsername("liveMatch");
+        match.setActive(true);
+        UUID deactivatedId = UUID.randomUUID();
+
+        when(materializedMatchStore.findPage(currentUserId, pageable))
+                .thenReturn(Optional.of(new PageImpl<>(List.of(new MatchedUser(deactivatedId, "deactivated", 40.0),
+                        new MatchedUser(match.getId(), "liveMatch", 30.0)), pageable, 2)));
+        when(sqlMatchEngine.isEnabled()).thenReturn(true);
+        when(userRepository.findById(currentUserId)).thenReturn(Optional.of(sampleUser));
+        when(sqlMatchEngine.findMatches(currentUserId, pageable))
+                .thenReturn(new PageImpl<>(List.of(new MatchedUser(match.getId(), "liveMatch", 30.0)), pageable, 1));
+        when(userRepository.findActiveWithProfilesByIdIn(anyCollection())).thenReturn(List.of(match));
+
+        Page<UserSummaryDto> result = userService.findMatches(currentUserId, pageable);
+
+        // The short materialized page is discarded, so the total counts active matches only
+        assertEquals(1, result.getTotalElements());
+        assertEquals(List.of("liveMatch"), result.getContent().stream().map(UserSummaryDto::getUsername).toList());
+        verify(sqlMatchEngine).findMatches(currentUserId, pageable);
+    }
+
+    @Test
+    void computeMatchRanking_shouldReturnScoredTopEntries() {
+        UUID currentUserId = userId;
+        Genre rock = new Genre("Rock");
+        rock.setId(UUID.randomUUID());
+        ArtistProfile ap = new ArtistProfile();
+        ap.setExperienceLevel(ExperienceLevel.EXPERT);
+        ap.setGenres(new HashSet<>(Set.of(rock)));
+        sampleUser.setArtistProfile(ap);
+
+        User producer = new User();
+        producer.setId(UUID.randomUUID());
+        producer.setUsername("producer");
+        producer.setActive(true);
+        ProducerProfile pp = new ProducerProfile();
+        pp.setExperienceLevel(ExperienceLevel.EXPERT);
+        pp.setAvailability(true);
+        pp.setGenres(new HashSet<>(Set.of(rock)));
+        producer.setProducerProfile(pp);
+        User other = new User();
+        other.setId(UUID.randomUUID());
+        other.setUsername("other");
+        other.setActive(true);
+
+        matchIndex.indexUser(sampleUser);
+        matchIndex.indexUser(producer);
+        matchIndex.indexUser(other);
+        when(userRepository.findById(currentUserId)).thenReturn(Optional.of(sampleUser));
+
+        MatchRanking ranking = userService.computeMatchRanking(currentUserId, 1);
+
+        assertEquals(2, ranking.total());
+        assertEquals(1, ranking.top().size());
+        assertEquals("producer", ranking.top().get(0).getUsername());
+        // 2 (pair) + 20 (same level) + 5 (shared pair genre) + 10 (available) + 1 (shared genre)
+        assertEquals(38.0, ranking.top().get(0).getScore());
+    }
+
+    @Test
+    void computeMatchRanking_inApproximateMode_shouldRankAndCountOnlyTheCandidates() {
+        UUID currentUserId = userId;
+        Genre rock = new Genre("Rock");
+        rock.setId(UUID.randomUUID());
+        ArtistProfile ap = new ArtistProfile();
+        ap.setExperienceLevel(ExperienceLevel.EXPERT);
+        ap.setGenres(new HashSet<>(Set.of(rock)));
+        sampleUser.setArtistProfile(ap);
+
+        User producer = new User();
+        producer.setId(UUID.randomUUID());
+        producer.setUsername("producer");
+        producer.setActive(true);
+        ProducerProfile pp = new ProducerProfile();
+        pp.setExperienceLevel(ExperienceLevel.EXPERT);
+        pp.setAvailability(true);
+        pp.setGenres(new HashSet<>(Set.of(rock)));
+        producer.setProducerProfile(pp);
+        // Would score above zero, but the LSH buckets did not return it
+        User missedProducer = new User();
+        missedProducer.setId(UUID.randomUUID());
+        missedProducer.setUsername("missedProducer");
+        missedProducer.setActive(true);
+        ProducerProfile missedProfile = new ProducerProfile();
+        missedProfile.setGenres(new HashSet<>(Set.of(rock)));
+        missedProducer.setProducerProfile(missedProfile);
+        User other = new User();
+        other.setId(UUID.randomUUID());
+        other.setUsername("other");
+        other.setActive(true);
+
+        matchIndex.indexUser(sampleUser);
+        matchIndex.indexUser(producer);
+        matchIndex.indexUser(missedProducer);
+        matchIndex.indexUser(other);
+        doReturn(true).when(matchIndex).isApproximate();
+        doReturn(new HashSet<>(Set.of(producer.getId()))).when(matchIndex).findApproximateCandidateIds(any());
+        when(userRepository.findById(currentUserId)).thenReturn(Optional.of(sampleUser));
+        when(userConnectionRepository.findConnectedUserIds(currentUserId, ConnectionStatus.ACCEPTED))
+                .thenReturn(new HashSet<>(Set.of(other.getId())));
+
+        MatchRanking ranking = userService.computeMatchRanking(currentUserId, 10);
+
+        assertEquals(1, ranking.total());
+        assertEquals(List.of("producer"), ranking.top().stream().map(MatchedUser::getUsername).toList());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,53 @@
+package com.spshpau.userservice.services.matching;
+
+import com.spshpau.userservice.config.CacheConfig;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MatchCacheInvalidatorTest {
+
+    private Cache cache;
+    private MatchCacheInvalidator invalidator;
+
+    @BeforeEach
+    void setUp() {
+        CacheManager cacheManager = new CacheConfig().cacheManager();
+        cache = cacheManager.getCache(CacheConfig.USER_MATCHES_CACHE);
+        invalidator = new MatchCacheInvalidator(cacheManager);
+    }
+
+    @Test
+    void matchCacheKey_equalInputs_shouldHitSameEntry() {
+        UUID userId = UUID.randomUUID();
+        cache.put(MatchCacheKey.of(userId, PageRequest.of(0, 10)), "page");
+
+        assertNotNull(cache.get(MatchCacheKey.of(UUID.fromString(userId.toString()), PageRequest.of(0, 10))));
+        assertNull(cache.get(MatchCacheKey.of(userId, PageRequest.of(1, 10))));
+    }
+
+    @Test
+    void onMatchInputsChanged_shouldEvictOnlyAffectedCallers() {
+        UUID alice = UUID.randomUUID();
+        UUID bob = UUID.randomUUID();
+        UUID carol = UUID.randomUUID();
+        cache.put(MatchCacheKey.of(alice, PageRequest.of(0, 10)), "alice-0");
+        cache.put(MatchCacheKey.of(alice, PageRequest.of(1, 10)), "alice-1");
+        cache.put(MatchCacheKey.of(bob, PageRequest.of(0, 10)), "bob-0");
+        cache.put(MatchCacheKey.of(carol, PageRequest.of(0, 10)), "carol-0");
+
+        invalidator.onMatchInputsChanged(MatchInputsChangedEvent.of(alice, bob));
+
+        assertNull(cache.get(MatchCacheKey.of(alice, PageRequest.of(0, 10))));
+        assertNull(cache.get(MatchCacheKey.of(alice, PageRequest.of(1, 10))));
+        assertNull(cache.get(MatchCacheKey.of(bob, PageRequest.of(0, 10))));
+        assertNotNull(cache.get(MatchCacheKey.of(carol, PageRequest.of(0, 10))));
+    }
+}
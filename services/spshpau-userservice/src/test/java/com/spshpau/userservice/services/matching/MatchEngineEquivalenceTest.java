@@ -0,0 +1,196 @@
+package com.spshpau.userservice.services.matching;
+
+import com.spshpau.userservice.dto.userdto.MatchCursorPageDto;
+import com.spshpau.userservice.dto.userdto.UserSummaryDto;
+import com.spshpau.userservice.model.*;
+import com.spshpau.userservice.model.enums.ConnectionStatus;
+import com.spshpau.userservice.model.enums.ExperienceLevel;
+import com.spshpau.userservice.repositories.MatchScoreRepository;
+import com.spshpau.userservice.repositories.UserConnectionRepository;
+import com.spshpau.userservice.repositories.UserMatchMaterializationRepository;
+import com.spshpau.userservice.repositories.UserMatchScoreRepository;
+import com.spshpau.userservice.repositories.UserRepository;
+import com.spshpau.userservice.services.blocking.BlockRelationStore;
+import com.spshpau.userservice.services.impl.UserServiceImpl;
+import com.spshpau.userservice.services.profile.ProfileReadCache;
+import com.spshpau.userservice.services.search.UsernamePrefixIndex;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Seeds a randomized but deterministic dataset into PostgreSQL, including profiles without an experience level,
+ * and checks that the in-memory and the native SQL match engines produce identical rankings, totals and cursor walks.
+ */
+@DataJpaTest(properties = {"spring.cloud.config.enabled=false", "spring.jpa.hibernate.ddl-auto=create-drop"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+class MatchEngineEquivalenceTest {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16");
+
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private UserConnectionRepository userConnectionRepository;
+    @Autowired
+    private MatchScoreRepository matchScoreRepository;
+    @Autowired
+    private UserMatchScoreRepository userMatchScoreRepository;
+    @Autowired
+    private UserMatchMaterializationRepository userMatchMaterializationRepository;
+
+    private final List<User> users = new ArrayList<>();
+    private UserServiceImpl javaEngineService;
+    private UserServiceImpl sqlEngineService;
+
+    @BeforeEach
+    void seed() {
+        Random random = new Random(7);
+        ExperienceLevel[] levels = ExperienceLevel.values();
+
+        List<Genre> genres = new ArrayList<>();
+        for (String name : List.of("Rock", "Jazz", "Pop", "Techno", "Blues", "Folk", "Metal", "Soul")) {
+            genres.add(entityManager.persist(new Genre(name)));
+        }
+        List<Skill> skills = new ArrayList<>();
+        for (String name : List.of("Guitar", "Vocals", "Drums", "Piano", "Bass")) {
+            skills.add(entityManager.persist(new Skill(name)));
+        }
+
+        for (int i = 0; i < 80; i++) {
+            User user = new User();
+            user.setId(UUID.randomUUID());
+            // Mixed case exercises byte-order username tie-breaking
+            user.setUsername((i % 3 == 0 ? "User" : "user") + String.format("%02d", (i * 37) % 80));
+            user.setEmail("user" + i + "@example.com");
+            user.setActive(i % 17 != 5);
+            if (random.nextInt(3) > 0) {
+                ArtistProfile ap = new ArtistProfile();
+                ap.setExperienceLevel(levels[random.nextInt(levels.length)]);
+                ap.setAvailability(random.nextBoolean());
+                ap.setGenres(new HashSet<>(pick(random, genres, 3)));
+                ap.setSkills(new HashSet<>(pick(random, skills, 3)));
+                user.setArtistProfile(ap);
+            }
+            if (random.nextInt(3) == 0) {
+                ProducerProfile pp = new ProducerProfile();
+                pp.setExperienceLevel(levels[random.nextInt(levels.length)]);
+                pp.setAvailability(random.nextBoolean());
+                pp.setGenres(new HashSet<>(pick(random, genres, 3)));
+                user.setProducerProfile(pp);
+            }
+            users.add(entityManager.persist(user));
+        }
+
+        for (int i = 0; i < 120; i++) {
+            User a = users.get(random.nextInt(users.size()));
+            User b = users.get(random.nextInt(users.size()));
+            if (a.equals(b)) {
+                continue;
+            }
+            if (i % 10 == 0) {
+                a.getBlockedUsers().add(b);
+            } else if (userConnectionRepository.findConnectionBetweenUsers(a.getId(), b.getId()).isEmpty()) {
+                UserConnection connection = new UserConnection(a, b);
+                connection.setStatus(i % 3 == 0 ? ConnectionStatus.PENDING : ConnectionStatus.ACCEPTED);
+                entityManager.persist(connection);
+            }
+            entityManager.flush();
+        }
+        clearExperienceLevels();
+        entityManager.clear();
+
+        MatchIndex matchIndex = new MatchIndex(new FeatureDictionary());
+        userRepository.findAllActiveWithProfiles().forEach(matchIndex::indexUser);
+        MatchScorer matchScorer = new MatchScorer(20_000);
+        // Materialization is off, so both services score live
+        MaterializedMatchStore materializedMatchStore =
+                new MaterializedMatchStore(userMatchScoreRepository, userMatchMaterializationRepository, false);
+        javaEngineService = new UserServiceImpl(userRepository, userConnectionRepository, matchIndex, matchScorer,
+                event -> { }, new SqlMatchEngine(matchScoreRepository, "java"), materializedMatchStore,
+                new UsernamePrefixIndex(), new BlockRelationStore(userRepository), new ProfileReadCache());
+        sqlEngineService = new UserServiceImpl(userRepository, userConnectionRepository, matchIndex, matchScorer,
+                event -> { }, new SqlMatchEngine(matchScoreRepository, SqlMatchEngine.ENGINE_SQL), materializedMatchStore,
+                new UsernamePrefixIndex(), new BlockRelationStore(userRepository), new ProfileReadCache());
+    }
+
+    // Rows written before experience levels became mandatory have none; both engines must still award the pair base
+    private void clearExperienceLevels() {
+        User artist = users.stream().filter(u -> u.isActive() && u.getArtistProfile() != null).findFirst().orElseThrow();
+        User producer = users.stream().filter(u -> u.isActive() && u.getProducerProfile() != null).findFirst().orElseThrow();
+        EntityManager em = entityManager.getEntityManager();
+        em.createNativeQuery("ALTER TABLE artist_profiles ALTER COLUMN experience_level DROP NOT NULL").executeUpdate();
+        em.createNativeQuery("ALTER TABLE producer_profiles ALTER COLUMN experience_level DROP NOT NULL").executeUpdate();
+        em.createNativeQuery("UPDATE artist_profiles SET experience_level = NULL WHERE user_id = :id")
+                .setParameter("id", artist.getId()).executeUpdate();
+        em.createNativeQuery("UPDATE producer_profiles SET experience_level = NULL WHERE user_id = :id")
+                .setParameter("id", producer.getId()).executeUpdate();
+    }
+
+    private static <T> List<T> pick(Random random, List<T> source, int max) {
+        List<T> shuffled = new ArrayList<>(source);
+        Collections.shuffle(shuffled, random);
+        return shuffled.subList(0, random.nextInt(max + 1));
+    }
+
+    private static List<String> usernames(List<UserSummaryDto> dtos) {
+        return dtos.stream().map(UserSummaryDto::getUsername).toList();
+    }
+
+    @Test
+    void bothEngines_shouldRankEveryActiveUserIdentically() {
+        for (User caller : users) {
+            if (!caller.isActive()) {
+                continue;
+            }
+            Page<UserSummaryDto> javaPage = javaEngineService.findMatches(caller.getId(), PageRequest.of(0, 200));
+            Page<UserSummaryDto> sqlPage = sqlEngineService.findMatches(caller.getId(), PageRequest.of(0, 200));
+
+            assertEquals(javaPage.getTotalElements(), sqlPage.getTotalElements(), "Total for " + caller.getUsername());
+            assertEquals(usernames(javaPage.getContent()), usernames(sqlPage.getContent()),
+                    "Ranking for " + caller.getUsername());
+        }
+    }
+
+    @Test
+    void bothEngines_shouldReturnIdenticalOffsetAndCursorPages() {
+        User caller = users.stream().filter(User::isActive).findFirst().orElseThrow();
+        for (int page = 0; page < 12; page++) {
+            PageRequest pageRequest = PageRequest.of(page, 7);
+            assertEquals(usernames(javaEngineService.findMatches(caller.getId(), pageRequest).getContent()),
+                    usernames(sqlEngineService.findMatches(caller.getId(), pageRequest).getContent()),
+                    "Page " + page);
+        }
+
+        String javaCursor = "";
+        String sqlCursor = "";
+        do {
+            MatchCursorPageDto javaPage = javaEngineService.findMatchesAfter(caller.getId(), javaCursor, 9);
+            MatchCursorPageDto sqlPage = sqlEngineService.findMatchesAfter(caller.getId(), sqlCursor, 9);
+            assertEquals(usernames(javaPage.getContent()), usernames(sqlPage.getContent()));
+            javaCursor = javaPage.getNextCursor();
+            sqlCursor = sqlPage.getNextCursor();
+            assertEquals(javaCursor, sqlCursor);
+        } while (javaCursor != null);
+    }
+}
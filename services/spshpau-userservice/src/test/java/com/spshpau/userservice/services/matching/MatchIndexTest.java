@@ -0,0 +1,174 @@
+package com.spshpau.userservice.services.matching;
+
+import com.spshpau.userservice.model.*;
+import com.spshpau.userservice.model.enums.ExperienceLevel;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MatchIndexTest {
+
+    private MatchIndex matchIndex;
+    private Genre rock;
+    private Genre jazz;
+    private Skill guitar;
+
+    @BeforeEach
+    void setUp() {
+        matchIndex = new MatchIndex(new FeatureDictionary());
+        rock = new Genre("Rock");
+        rock.setId(UUID.randomUUID());
+        jazz = new Genre("Jazz");
+        jazz.setId(UUID.randomUUID());
+        guitar = new Skill("Guitar");
+        guitar.setId(UUID.randomUUID());
+    }
+
+    private User user(String username) {
+        User user = new User();
+        user.setId(UUID.randomUUID());
+        user.setUsername(username);
+        user.setActive(true);
+        return user;
+    }
+
+    private ArtistProfile artist(User user, ExperienceLevel level, boolean available, Set<Genre> genres, Set<Skill> skills) {
+        ArtistProfile ap = new ArtistProfile();
+        ap.setId(user.getId());
+        ap.setExperienceLevel(level);
+        ap.setAvailability(available);
+        ap.setGenres(new HashSet<>(genres));
+        ap.setSkills(new HashSet<>(skills));
+        user.setArtistProfile(ap);
+        return ap;
+    }
+
+    private ProducerProfile producer(User user, ExperienceLevel level, boolean available, Set<Genre> genres) {
+        ProducerProfile pp = new ProducerProfile();
+        pp.setId(user.getId());
+        pp.setExperienceLevel(level);
+        pp.setAvailability(available);
+        pp.setGenres(new HashSet<>(genres));
+        user.setProducerProfile(pp);
+        return pp;
+    }
+
+    @Test
+    void indexUser_shouldPopulatePostingLists() {
+        User alice = user("alice");
+        artist(alice, ExperienceLevel.ADVANCED, true, Set.of(rock), Set.of(guitar));
+        User bob = user("bob");
+        producer(bob, ExperienceLevel.BEGINNER, false, Set.of(rock, jazz));
+
+        matchIndex.indexUser(alice);
+        matchIndex.indexUser(bob);
+
+        assertEquals(2, matchIndex.size());
+        assertEquals(Set.of(alice.getId()), matchIndex.getArtistIdsWithGenre(rock.getId()));
+        assertEquals(Set.of(bob.getId()), matchIndex.getProducerIdsWithGenre(jazz.getId()));
+        assertEquals(Set.of(alice.getId()), matchIndex.getArtistIdsWithSkill(guitar.getId()));
+        assertEquals(Set.of(alice.getId()), matchIndex.getArtistIdsWithExperience(ExperienceLevel.ADVANCED));
+        assertEquals(Set.of(bob.getId()), matchIndex.getProducerIdsWithExperience(ExperienceLevel.BEGINNER));
+        assertEquals(Set.of(alice.getId()), matchIndex.getAvailableArtistIds());
+        assertTrue(matchIndex.getAvailableProducerIds().isEmpty());
+        assertEquals(List.of("alice", "bob"), List.copyOf(matchIndex.usersByUsername().keySet()));
+    }
+
+    @Test
+    void indexUser_inactiveUser_shouldNotBeIndexed() {
+        User inactive = user("inactive");
+        inactive.setActive(false);
+        artist(inactive, ExperienceLevel.EXPERT, true, Set.of(rock), Set.of());
+
+        matchIndex.indexUser(inactive);
+
+        assertFalse(matchIndex.contains(inactive.getId()));
+        assertTrue(matchIndex.getArtistIdsWithGenre(rock.getId()).isEmpty());
+    }
+
+    @Test
+    void updateArtistProfile_shouldReplacePreviousPostings() {
+        User alice = user("alice");
+        ArtistProfile ap = artist(alice, ExperienceLevel.BEGINNER, false, Set.of(rock), Set.of(guitar));
+        matchIndex.indexUser(alice);
+
+        ap.removeGenre(rock);
+        ap.addGenre(jazz);
+        ap.removeSkill(guitar);
+        ap.setExperienceLevel(ExperienceLevel.EXPERT);
+        ap.setAvailability(true);
+        matchIndex.updateArtistProfile(alice.getId(), ap);
+
+        assertTrue(matchIndex.getArtistIdsWithGenre(rock.getId()).isEmpty());
+        assertEquals(Set.of(alice.getId()), matchIndex.getArtistIdsWithGenre(jazz.getId()));
+        assertTrue(matchIndex.getArtistIdsWithSkill(guitar.getId()).isEmpty());
+        assertTrue(matchIndex.getArtistIdsWithExperience(ExperienceLevel.BEGINNER).isEmpty());
+        assertEquals(Set.of(alice.getId()), matchIndex.getArtistIdsWithExperience(ExperienceLevel.EXPERT));
+        assertEquals(Set.of(alice.getId()), matchIndex.getAvailableArtistIds());
+    }
+
+    @Test
+    void indexUser_usernameChange_shouldReplaceUsernameEntry() {
+        User alice = user("alice");
+        matchIndex.indexUser(alice);
+
+        alice.setUsername("alicia");
+        matchIndex.indexUser(alice);
+
+        assertEquals(1, matchIndex.size());
+        assertEquals("alicia", matchIndex.getUsername(alice.getId()));
+        assertEquals(List.of("alicia"), List.copyOf(matchIndex.usersByUsername().keySet()));
+    }
+
+    @Test
+    void removeUser_shouldDropUserFromAllPostings() {
+        User bob = user("bob");
+        producer(bob, ExperienceLevel.INTERMEDIATE, true, Set.of(rock));
+        matchIndex.indexUser(bob);
+
+        matchIndex.removeUser(bob.getId());
+
+        assertFalse(matchIndex.contains(bob.getId()));
+        assertTrue(matchIndex.getProducerIdsWithGenre(rock.getId()).isEmpty());
+        assertTrue(matchIndex.getProducerIds().isEmpty());
+        assertTrue(matchIndex.getAvailableProducerIds().isEmpty());
+        assertTrue(matchIndex.usersByUsername().isEmpty());
+    }
+
+    @Test
+    void findCandidateIds_shouldReturnSharedFeaturesAndOppositeProfiles() {
+        User artistWithRock = user("artistWithRock");
+        artist(artistWithRock, ExperienceLevel.BEGINNER, false, Set.of(rock), Set.of());
+        User artistWithGuitar = user("artistWithGuitar");
+        artist(artistWithGuitar, ExperienceLevel.BEGINNER, false, Set.of(), Set.of(guitar));
+        User producerNoGenres = user("producerNoGenres");
+        producer(producerNoGenres, ExperienceLevel.EXPERT, false, Set.of());
+        User artistNothingShared = user("artistNothingShared");
+        artist(artistNothingShared, ExperienceLevel.EXPERT, true, Set.of(jazz), Set.of());
+        User noProfile = user("noProfile");
+
+        List.of(artistWithRock, artistWithGuitar, producerNoGenres, artistNothingShared, noProfile)
+                .forEach(matchIndex::indexUser);
+
+        // Caller is an artist with Rock and Guitar: shares genre/skill with two artists, opposite type with the producer
+        Set<UUID> artistCallerCandidates = matchIndex.findCandidateIds(
+                Set.of(rock.getId()), Set.of(guitar.getId()), true, false);
+        assertEquals(Set.of(artistWithRock.getId(), artistWithGuitar.getId(), producerNoGenres.getId()),
+                artistCallerCandidates);
+
+        // Caller is a producer without genres: every artist is a candidate, nobody else
+        Set<UUID> producerCallerCandidates = matchIndex.findCandidateIds(Set.of(), Set.of(), false, true);
+        assertEquals(Set.of(artistWithRock.getId(), artistWithGuitar.getId(), artistNothingShared.getId()),
+                producerCallerCandidates);
+
+        // Caller without profiles has no candidates
+        assertTrue(matchIndex.findCandidateIds(Set.of(), Set.of(), false, false).isEmpty());
+    }
+}
@@ -0,0 +1,135 @@
+package com.spshpau.userservice.services.matching;
+
+import com.spshpau.userservice.repositories.UserMatchMaterializationRepository;
+import com.spshpau.userservice.services.UserService;
+import com.spshpau.userservice.services.exceptions.UserNotFoundException;
+import com.spshpau.userservice.services.wrappers.MatchRanking;
+import com.spshpau.userservice.services.wrappers.MatchedUser;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.domain.Pageable;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class MatchMaterializationJobTest {
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private MaterializedMatchStore materializedMatchStore;
+
+    @Mock
+    private UserMatchMaterializationRepository userMatchMaterializationRepository;
+
+    @Mock
+    private MatchMaterializationLock lock;
+
+    private SimpleMeterRegistry meterRegistry;
+    private MatchMaterializationJob job;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        job = new MatchMaterializationJob(userService, materializedMatchStore, userMatchMaterializationRepository,
+                lock, meterRegistry, true, 2, 50, Duration.ofHours(1));
+        when(userMatchMaterializationRepository.findOldestDirtySince()).thenReturn(Optional.empty());
+        when(lock.runExclusively(any(Runnable.class))).thenAnswer(invocation -> {
+            invocation.getArgument(0, Runnable.class).run();
+            return true;
+        });
+    }
+
+    @Test
+    void refresh_beforeApplicationReady_shouldDoNothing() {
+        job.refresh();
+
+        verifyNoInteractions(userService, materializedMatchStore);
+        verify(userMatchMaterializationRepository, never()).findDirtyUserIds(any(Pageable.class));
+    }
+
+    @Test
+    void refresh_whenAnotherInstanceHoldsTheLock_shouldDoNothing() {
+        when(lock.runExclusively(any(Runnable.class))).thenReturn(false);
+
+        job.onApplicationReady();
+        job.refresh();
+
+        verifyNoInteractions(userService, materializedMatchStore, userMatchMaterializationRepository);
+    }
+
+    @Test
+    void refresh_shouldPreferDirtyUsersAndFillBatchWithUnmaterialized() {
+        UUID dirtyId = UUID.randomUUID();
+        UUID newId = UUID.randomUUID();
+        MatchRanking ranking = new MatchRanking(List.of(new MatchedUser(UUID.randomUUID(), "match", 12.0)), 1);
+        when(userMatchMaterializationRepository.findDirtyUserIds(any(Pageable.class))).thenReturn(List.of(dirtyId));
+        when(userMatchMaterializationRepository.findUnmaterializedUserIds(any(Pageable.class))).thenReturn(List.of(newId));
+        when(userService.computeMatchRanking(any(UUID.class), anyInt())).thenReturn(ranking);
+
+        job.onApplicationReady();
+        job.refresh();
+
+        verify(userService).computeMatchRanking(dirtyId, 50);
+        verify(userService).computeMatchRanking(newId, 50);
+        verify(materializedMatchStore).replace(eq(dirtyId), eq(ranking), any(LocalDateTime.class));
+        verify(materializedMatchStore).replace(eq(newId), eq(ranking), any(LocalDateTime.class));
+        // The batch is already full, so stale materializations wait for the next run
+        verify(userMatchMaterializationRepository, never()).findStaleUserIds(any(), any(Pageable.class));
+        assertEquals(2.0, meterRegistry.get("matching.materialization.refreshed").counter().count());
+    }
+
+    @Test
+    void refresh_whenUserNoLongerActive_shouldDropMaterialization() {
+        UUID goneId = UUID.randomUUID();
+        when(userMatchMaterializationRepository.findDirtyUserIds(any(Pageable.class))).thenReturn(List.of(goneId));
+        when(userService.computeMatchRanking(goneId, 50)).thenThrow(new UserNotFoundException("gone"));
+
+        job.onApplicationReady();
+        job.refresh();
+
+        verify(materializedMatchStore).remove(goneId);
+        verify(materializedMatchStore, never()).replace(any(), any(), any());
+        assertEquals(0.0, meterRegistry.get("matching.materialization.refreshed").counter().count());
+    }
+
+    @Test
+    void refresh_shouldReportLagOfOldestDirtyMarker() {
+        when(userMatchMaterializationRepository.findOldestDirtySince())
+                .thenReturn(Optional.of(LocalDateTime.now().minusSeconds(90)));
+
+        job.onApplicationReady();
+        job.refresh();
+
+        assertTrue(meterRegistry.get("matching.materialization.lag").gauge().value() >= 90.0);
+    }
+
+    @Test
+    void refresh_shouldReportRankingsOlderThanMaxAge() {
+        when(userMatchMaterializationRepository.countStale(any(LocalDateTime.class))).thenReturn(7L);
+
+        job.onApplicationReady();
+        job.refresh();
+
+        assertEquals(7.0, meterRegistry.get("matching.materialization.stale").gauge().value());
+    }
+}
@@ -0,0 +1,88 @@
+package com.spshpau.userservice.services.matching;
+
+import com.spshpau.userservice.model.enums.ExperienceLevel;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MatchScorerTest {
+
+    private static MatchFeatures artist(ExperienceLevel level, boolean available, FeatureSet genres, FeatureSet skills) {
+        return new MatchFeatures(true, MatchFeatures.levelOrdinal(level), available, genres, skills,
+                false, MatchFeatures.NO_LEVEL, false, FeatureSet.EMPTY);
+    }
+
+    private static MatchFeatures producer(ExperienceLevel level, boolean available, FeatureSet genres) {
+        return new MatchFeatures(false, MatchFeatures.NO_LEVEL, false, FeatureSet.EMPTY, FeatureSet.EMPTY,
+                true, MatchFeatures.levelOrdinal(level), available, genres);
+    }
+
+    @Test
+    void calculateMatchScore_artistCallerAndProducerCandidate_shouldApplyAllRules() {
+        MatchFeatures caller = artist(ExperienceLevel.INTERMEDIATE, false, FeatureSet.of(0, 1), FeatureSet.of(0));
+        MatchFeatures candidate = producer(ExperienceLevel.INTERMEDIATE, true, FeatureSet.of(1, 2));
+
+        // 2 (pair) + 20 (same level) + 5 (shared pair genre) + 10 (available) + 1 (shared genre)
+        assertEquals(38.0, MatchScorer.calculateMatchScore(caller, candidate, false));
+        assertEquals(28.0, MatchScorer.calculateMatchScore(caller, candidate, true));
+    }
+
+    @Test
+    void calculateMatchScore_twoArtists_shouldOnlyCountSharedGenresAndSkills() {
+        MatchFeatures caller = artist(ExperienceLevel.BEGINNER, true, FeatureSet.of(0, 1), FeatureSet.of(3, 4));
+        MatchFeatures candidate = artist(ExperienceLevel.EXPERT, true, FeatureSet.of(1), FeatureSet.of(3, 4, 5));
+
+        assertEquals(3.0, MatchScorer.calculateMatchScore(caller, candidate, false));
+        assertEquals(0.0, MatchScorer.calculateMatchScore(MatchFeatures.NONE, candidate, false));
+    }
+
+    @Test
+    void calculateExperienceScore_shouldFollowLevelDistance() {
+        assertEquals(20.0, MatchScorer.calculateExperienceScore(2, 2));
+        assertEquals(16.0, MatchScorer.calculateExperienceScore(1, 2));
+        assertEquals(12.0, MatchScorer.calculateExperienceScore(3, 1));
+        assertEquals(8.0, MatchScorer.calculateExperienceScore(0, 3));
+        assertEquals(0.0, MatchScorer.calculateExperienceScore(MatchFeatures.NO_LEVEL, 2));
+    }
+
+    @Test
+    void featureSet_ordinalsBeyondSixtyFour_shouldIntersectAndUnion() {
+        FeatureSet a = FeatureSet.of(1, 70, 200);
+        FeatureSet b = FeatureSet.of(1, 70, 130);
+
+        assertEquals(2, a.intersectionSize(b));
+        assertEquals(4, a.union(b).size());
+        assertTrue(a.union(b).contains(130));
+        assertFalse(a.contains(130));
+        assertEquals(FeatureSet.of(1, 70), FeatureSet.of(70, 1));
+        assertEquals(5.0 * 2, MatchScorer.calculateSpecificGenreMatchScore(a, b));
+    }
+
+    @Test
+    void scoreAll_parallelAndSequential_shouldProduceSameScores() {
+        Random random = new Random(42);
+        ExperienceLevel[] levels = ExperienceLevel.values();
+        MatchFeatures[] candidates = IntStream.range(0, 10_000)
+                .mapToObj(i -> random.nextBoolean()
+                        ? artist(levels[random.nextInt(levels.length)], random.nextBoolean(),
+                                FeatureSet.of(random.nextInt(100), random.nextInt(100)), FeatureSet.of(random.nextInt(10)))
+                        : producer(levels[random.nextInt(levels.length)], random.nextBoolean(),
+                                FeatureSet.of(random.nextInt(100))))
+                .toArray(MatchFeatures[]::new);
+        boolean[] connected = new boolean[candidates.length];
+        for (int i = 0; i < connected.length; i++) {
+            connected[i] = random.nextInt(10) == 0;
+        }
+        MatchFeatures caller = new MatchFeatures(true, 1, true, FeatureSet.of(3, 80), FeatureSet.of(2),
+                true, 2, false, FeatureSet.of(5, 99));
+
+        double[] sequential = new MatchScorer(Integer.MAX_VALUE).scoreAll(caller, candidates, connected);
+        double[] parallel = new MatchScorer(1).scoreAll(caller, candidates, connected);
+
+        assertArrayEquals(sequential, parallel);
+    }
+}
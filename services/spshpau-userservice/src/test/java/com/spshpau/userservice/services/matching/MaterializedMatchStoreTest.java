@@ -0,0 +1,54 @@
+package com.spshpau.userservice.services.matching;
+
+import com.spshpau.userservice.model.UserMatchMaterialization;
+import com.spshpau.userservice.repositories.UserMatchMaterializationRepository;
+import com.spshpau.userservice.repositories.UserMatchScoreRepository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class MaterializedMatchStoreTest {
+
+    private final UserMatchScoreRepository userMatchScoreRepository = mock(UserMatchScoreRepository.class);
+    private final UserMatchMaterializationRepository userMatchMaterializationRepository =
+            mock(UserMatchMaterializationRepository.class);
+
+    @Test
+    void onMatchInputsChanged_shouldAlsoDirtyRankingsListingTheChangedUser() {
+        MaterializedMatchStore store = new MaterializedMatchStore(userMatchScoreRepository, userMatchMaterializationRepository, true);
+        UUID deactivatedId = UUID.randomUUID();
+        UUID rankerId = UUID.randomUUID();
+        when(userMatchMaterializationRepository.findById(deactivatedId)).thenReturn(Optional.empty());
+        when(userMatchScoreRepository.findUserIdsRanking(Set.of(deactivatedId))).thenReturn(List.of(rankerId));
+
+        store.onMatchInputsChanged(MatchInputsChangedEvent.of(deactivatedId));
+
+        verify(userMatchMaterializationRepository).save(argThat((UserMatchMaterialization marker) ->
+                marker.getUserId().equals(deactivatedId) && marker.getDirtySince() != null));
+        verify(userMatchMaterializationRepository).markDirty(eq(List.of(rankerId)), any(LocalDateTime.class));
+    }
+
+    @Test
+    void whenDisabled_shouldNeitherTrackChangesNorServeRankings() {
+        MaterializedMatchStore store = new MaterializedMatchStore(userMatchScoreRepository, userMatchMaterializationRepository, false);
+        UUID userId = UUID.randomUUID();
+
+        store.onMatchInputsChanged(MatchInputsChangedEvent.of(userId));
+
+        assertTrue(store.findPage(userId, PageRequest.of(0, 10)).isEmpty());
+        verify(userMatchScoreRepository, never()).findUserIdsRanking(anyCollection());
+        verifyNoInteractions(userMatchMaterializationRepository);
+    }
+}
@@ -0,0 +1,198 @@
+package com.spshpau.userservice.services.matching;
+
+import com.spshpau.userservice.model.*;
+import com.spshpau.userservice.model.enums.ExperienceLevel;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MinHashLshIndexTest {
+
+    // Small enough for the unit suite; the cap keeps the default ratio of 2000 candidates per 20k users
+    private static final int FIXTURE_USERS = 2_000;
+    private static final int FIXTURE_CALLERS = 50;
+    private static final int FIXTURE_MAX_CANDIDATES = 200;
+    private static final int TOP_K = 10;
+
+    private static FeatureSet randomFeatureSet(Random random, int catalogSize, int maxCount) {
+        int[] ordinals = new int[random.nextInt(maxCount + 1)];
+        for (int i = 0; i < ordinals.length; i++) {
+            // Skewed towards low ordinals, so some genres/skills are far more popular than others
+            ordinals[i] = (int) Math.min(catalogSize - 1, Math.abs(random.nextGaussian()) * catalogSize / 3);
+        }
+        return FeatureSet.of(ordinals);
+    }
+
+    private static MatchFeatures randomFeatures(Random random) {
+        boolean artist = random.nextInt(10) < 7;
+        boolean producer = random.nextInt(10) < 3;
+        return new MatchFeatures(
+                artist, artist ? random.nextInt(4) : MatchFeatures.NO_LEVEL, artist && random.nextBoolean(),
+                artist ? randomFeatureSet(random, 40, 4) : FeatureSet.EMPTY,
+                artist ? randomFeatureSet(random, 12, 3) : FeatureSet.EMPTY,
+                producer, producer ? random.nextInt(4) : MatchFeatures.NO_LEVEL, producer && random.nextBoolean(),
+                producer ? randomFeatureSet(random, 40, 4) : FeatureSet.EMPTY);
+    }
+
+    /**
+     * Recall@K of approximate candidate generation against exhaustive scoring: the share of the approximate
+     * top K (exactly scored LSH candidates) scoring at least as high as the K-th best exhaustive match.
+     * Callers without any profile are skipped, every user scores zero for them.
+     */
+    @Test
+    void approximateCandidates_shouldRecallExactTopMatchesOnFixedDataset() {
+        Random random = new Random(11);
+        MinHashLshIndex lshIndex = new MinHashLshIndex(MinHashLshIndex.MODE_APPROXIMATE, FIXTURE_MAX_CANDIDATES, 32, 2);
+        List<UUID> userIds = new ArrayList<>(FIXTURE_USERS);
+        List<MatchFeatures> features = new ArrayList<>(FIXTURE_USERS);
+        Map<UUID, Integer> positions = new HashMap<>();
+        for (int i = 0; i < FIXTURE_USERS; i++) {
+            UUID userId = new UUID(0L, i);
+            MatchFeatures userFeatures = randomFeatures(random);
+            userIds.add(userId);
+            features.add(userFeatures);
+            positions.put(userId, i);
+            lshIndex.update(userId, userFeatures);
+        }
+
+        double recallSum = 0.0;
+        long candidateSum = 0;
+        for (int evaluated = 0; evaluated < FIXTURE_CALLERS; ) {
+            int callerIndex = random.nextInt(FIXTURE_USERS);
+            MatchFeatures caller = features.get(callerIndex);
+            if (!caller.isArtist() && !caller.isProducer()) {
+                continue;
+            }
+            evaluated++;
+
+            double[] exactScores = new double[FIXTURE_USERS];
+            for (int i = 0; i < FIXTURE_USERS; i++) {
+                exactScores[i] = i == callerIndex
+                        ? Double.NEGATIVE_INFINITY
+                        : MatchScorer.calculateMatchScore(caller, features.get(i), false);
+            }
+            double kthExactScore = Arrays.stream(exactScores).boxed()
+                    .sorted(Comparator.reverseOrder()).skip(TOP_K - 1).findFirst().orElseThrow();
+
+            Set<UUID> candidates = lshIndex.findCandidateIds(caller);
+            candidates.remove(userIds.get(callerIndex));
+            candidateSum += candidates.size();
+            long hits = candidates.stream()
+                    .map(id -> exactScores[positions.get(id)])
+                    .sorted(Comparator.reverseOrder())
+                    .limit(TOP_K)
+                    .filter(score -> score >= kthExactScore)
+                    .count();
+            recallSum += hits / (double) TOP_K;
+        }
+
+        double recall = recallSum / FIXTURE_CALLERS;
+        assertTrue(recall >= 0.95, "Recall@" + TOP_K + " was " + recall);
+        assertTrue(candidateSum / FIXTURE_CALLERS <= FIXTURE_MAX_CANDIDATES);
+    }
+
+    @Test
+    void matchIndex_shouldKeepSignaturesUpToDateOnProfileChanges() {
+        MinHashLshIndex lshIndex = new MinHashLshIndex(MinHashLshIndex.MODE_APPROXIMATE, 2_000, 64, 1);
+        MatchIndex matchIndex = new MatchIndex(new FeatureDictionary(), lshIndex);
+        Genre rock = new Genre("Rock");
+        rock.setId(UUID.randomUUID());
+
+        User artist = new User();
+        artist.setId(UUID.randomUUID());
+        artist.setUsername("artist");
+        artist.setActive(true);
+        ArtistProfile ap = new ArtistProfile();
+        ap.setExperienceLevel(ExperienceLevel.ADVANCED);
+        ap.setAvailability(true);
+        ap.setGenres(new HashSet<>(Set.of(rock)));
+        artist.setArtistProfile(ap);
+
+        User producer = new User();
+        producer.setId(UUID.randomUUID());
+        producer.setUsername("producer");
+        producer.setActive(true);
+        ProducerProfile pp = new ProducerProfile();
+        pp.setExperienceLevel(ExperienceLevel.ADVANCED);
+        pp.setAvailability(true);
+        pp.setGenres(new HashSet<>(Set.of(rock)));
+
+        matchIndex.indexUser(artist);
+        matchIndex.indexUser(producer);
+        MatchFeatures callerFeatures = matchIndex.getFeatures(artist.getId());
+        assertTrue(matchIndex.isApproximate());
+        assertEquals(1, lshIndex.size());
+        assertFalse(matchIndex.findApproximateCandidateIds(callerFeatures).contains(producer.getId()));
+
+        matchIndex.updateProducerProfile(producer.getId(), pp);
+        assertEquals(2, lshIndex.size());
+        assertTrue(matchIndex.findApproximateCandidateIds(callerFeatures).contains(producer.getId()));
+
+        matchIndex.updateProducerProfile(producer.getId(), null);
+        assertFalse(matchIndex.findApproximateCandidateIds(callerFeatures).contains(producer.getId()));
+
+        matchIndex.updateProducerProfile(producer.getId(), pp);
+        matchIndex.removeUser(producer.getId());
+        assertEquals(1, lshIndex.size());
+        assertFalse(matchIndex.findApproximateCandidateIds(callerFeatures).contains(producer.getId()));
+    }
+
+    @Test
+    void approximateCandidates_shouldIncludeComplementaryRoleUsersUpToTheCap() {
+        Genre rock = new Genre("Rock");
+        rock.setId(UUID.randomUUID());
+        Genre jazz = new Genre("Jazz");
+        jazz.setId(UUID.randomUUID());
+        User artist = new User();
+        artist.setId(UUID.randomUUID());
+        artist.setUsername("artist");
+        artist.setActive(true);
+        ArtistProfile ap = new ArtistProfile();
+        ap.setExperienceLevel(ExperienceLevel.BEGINNER);
+        ap.setGenres(new HashSet<>(Set.of(rock)));
+        artist.setArtistProfile(ap);
+        List<User> producers = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            User producer = new User();
+            producer.setId(UUID.randomUUID());
+            producer.setUsername("producer" + i);
+            producer.setActive(true);
+            ProducerProfile pp = new ProducerProfile();
+            pp.setExperienceLevel(ExperienceLevel.EXPERT);
+            pp.setAvailability(i == 0);
+            pp.setGenres(new HashSet<>(Set.of(jazz)));
+            producer.setProducerProfile(pp);
+            producers.add(producer);
+        }
+
+        MatchIndex roomyIndex = new MatchIndex(new FeatureDictionary(),
+                new MinHashLshIndex(MinHashLshIndex.MODE_APPROXIMATE, 10, 32, 2));
+        MatchIndex tightIndex = new MatchIndex(new FeatureDictionary(),
+                new MinHashLshIndex(MinHashLshIndex.MODE_APPROXIMATE, 3, 32, 2));
+        for (MatchIndex index : List.of(roomyIndex, tightIndex)) {
+            index.indexUser(artist);
+            producers.forEach(index::indexUser);
+        }
+
+        // Every producer scores above zero for an artist, colliding or not
+        Set<UUID> roomy = roomyIndex.findApproximateCandidateIds(roomyIndex.getFeatures(artist.getId()));
+        producers.forEach(producer -> assertTrue(roomy.contains(producer.getId())));
+        Set<UUID> tight = tightIndex.findApproximateCandidateIds(tightIndex.getFeatures(artist.getId()));
+        assertEquals(3, tight.size());
+    }
+
+    @Test
+    void exactMode_shouldNotStoreSignatures() {
+        MinHashLshIndex lshIndex = new MinHashLshIndex("exact", 2_000, 32, 2);
+        MatchFeatures features = new MatchFeatures(true, 1, true, FeatureSet.of(1), FeatureSet.EMPTY,
+                false, MatchFeatures.NO_LEVEL, false, FeatureSet.EMPTY);
+
+        lshIndex.update(UUID.randomUUID(), features);
+
+        assertFalse(lshIndex.isEnabled());
+        assertEquals(0, lshIndex.size());
+    }
+}
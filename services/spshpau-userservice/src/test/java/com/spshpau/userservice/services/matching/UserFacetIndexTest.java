@@ -0,0 +1,259 @@
+package com.spshpau.userservice.services.matching;
+
+import com.spshpau.userservice.dto.userdto.UserFacetCountsDto;
+import com.spshpau.userservice.dto.userdto.UserSearchCriteria;
+import com.spshpau.userservice.model.*;
+import com.spshpau.userservice.model.enums.ExperienceLevel;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserFacetIndexTest {
+
+    private final List<Genre> genres = new ArrayList<>();
+    private final List<Skill> skills = new ArrayList<>();
+    private final Map<UUID, User> users = new LinkedHashMap<>();
+    private MatchIndex matchIndex;
+    private Random random;
+
+    @BeforeEach
+    void setUp() {
+        matchIndex = new MatchIndex(new FeatureDictionary());
+        random = new Random(5);
+        for (String name : List.of("Rock", "Jazz", "Pop", "Techno", "Blues", "Folk")) {
+            Genre genre = new Genre(name);
+            genre.setId(UUID.randomUUID());
+            genres.add(genre);
+        }
+        for (String name : List.of("Guitar", "Vocals", "Drums", "Piano")) {
+            Skill skill = new Skill(name);
+            skill.setId(UUID.randomUUID());
+            skills.add(skill);
+        }
+        for (int i = 0; i < 300; i++) {
+            User user = new User();
+            user.setId(UUID.randomUUID());
+            user.setUsername("user" + i);
+            user.setActive(true);
+            randomizeProfiles(user);
+            users.put(user.getId(), user);
+            matchIndex.indexUser(user);
+        }
+    }
+
+    @Test
+    void countFacets_shouldMatchBruteForceCountsForRandomFilters() {
+        for (int i = 0; i < 200; i++) {
+            UserSearchCriteria criteria = randomCriteria();
+            UUID caller = randomUserId();
+            assertCountsMatchBruteForce(criteria, caller, null);
+        }
+    }
+
+    @Test
+    void countFacets_withRestriction_shouldOnlyCountGivenUsers() {
+        List<UUID> restrictTo = users.keySet().stream().filter(id -> random.nextBoolean()).toList();
+
+        assertCountsMatchBruteForce(new UserSearchCriteria(), randomUserId(), restrictTo);
+        UserSearchCriteria criteria = new UserSearchCriteria();
+        criteria.setGenreIds(List.of(genres.get(0).getId()));
+        criteria.setHasProducerProfile(true);
+        assertCountsMatchBruteForce(criteria, randomUserId(), restrictTo);
+    }
+
+    @Test
+    void countFacets_shouldFollowIncrementalProfileAndStatusChanges() {
+        List<User> changed = users.values().stream().limit(60).toList();
+        for (User user : changed) {
+            randomizeProfiles(user);
+            matchIndex.updateArtistProfile(user.getId(), user.getArtistProfile());
+            matchIndex.updateProducerProfile(user.getId(), user.getProducerProfile());
+        }
+        changed.stream().limit(20).forEach(user -> {
+            user.setActive(false);
+            matchIndex.removeUser(user.getId());
+        });
+        changed.stream().limit(5).forEach(user -> {
+            user.setActive(true);
+            matchIndex.indexUser(user);
+        });
+
+        for (int i = 0; i < 50; i++) {
+            assertCountsMatchBruteForce(randomCriteria(), randomUserId(), null);
+        }
+    }
+
+    @Test
+    void countFacets_shouldNotCountTheCaller() {
+        User caller = users.values().iterator().next();
+        int active = (int) users.values().stream().filter(User::isActive).count();
+
+        UserFacetCountsDto counts = matchIndex.countFacets(new UserSearchCriteria(), caller.getId(), null);
+
+        assertEquals(active - 1, counts.getTotal());
+    }
+
+    // --- Brute force reference, following UserSpecification ---
+
+    private void assertCountsMatchBruteForce(UserSearchCriteria criteria, UUID caller, Collection<UUID> restrictTo) {
+        UserFacetCountsDto counts = matchIndex.countFacets(criteria, caller, restrictTo);
+        String description = criteria.toString();
+
+        assertEquals(count(criteria, caller, restrictTo, c -> { }), counts.getTotal(), description);
+        for (Genre genre : genres) {
+            long expected = count(criteria, caller, restrictTo, c -> c.setGenreIds(List.of(genre.getId())));
+            assertEquals(expected, counts.getGenres().getOrDefault(genre.getId(), 0L), description);
+        }
+        for (Skill skill : skills) {
+            long expected = count(criteria, caller, restrictTo, c -> c.setSkillIds(List.of(skill.getId())));
+            assertEquals(expected, counts.getSkills().getOrDefault(skill.getId(), 0L), description);
+        }
+        for (ExperienceLevel level : ExperienceLevel.values()) {
+            assertEquals(count(criteria, caller, restrictTo, c -> c.setArtistExperienceLevel(level)),
+                    counts.getArtistExperienceLevels().get(level), description);
+            assertEquals(count(criteria, caller, restrictTo, c -> c.setProducerExperienceLevel(level)),
+                    counts.getProducerExperienceLevels().get(level), description);
+        }
+        assertEquals(count(criteria, caller, restrictTo, c -> c.setArtistAvailability(true)), counts.getAvailableArtists(), description);
+        assertEquals(count(criteria, caller, restrictTo, c -> c.setArtistAvailability(false)), counts.getUnavailableArtists(), description);
+        assertEquals(count(criteria, caller, restrictTo, c -> c.setProducerAvailability(true)), counts.getAvailableProducers(), description);
+        assertEquals(count(criteria, caller, restrictTo, c -> c.setProducerAvailability(false)), counts.getUnavailableProducers(), description);
+        assertEquals(count(criteria, caller, restrictTo, c -> c.setHasArtistProfile(true)), counts.getArtists(), description);
+        assertEquals(count(criteria, caller, restrictTo, c -> c.setHasProducerProfile(true)), counts.getProducers(), description);
+    }
+
+    private long count(UserSearchCriteria criteria, UUID caller, Collection<UUID> restrictTo, Consumer<UserSearchCriteria> selection) {
+        UserSearchCriteria selected = copy(criteria);
+        selection.accept(selected);
+        return users.values().stream()
+                .filter(User::isActive)
+                .filter(user -> !user.getId().equals(caller))
+                .filter(user -> restrictTo == null || restrictTo.contains(user.getId()))
+                .filter(matches(selected))
+                .count();
+    }
+
+    private static Predicate<User> matches(UserSearchCriteria criteria) {
+        return user -> {
+            ArtistProfile ap = user.getArtistProfile();
+            ProducerProfile pp = user.getProducerProfile();
+            if (criteria.getHasArtistProfile() != null && criteria.getHasArtistProfile() != (ap != null)) {
+                return false;
+            }
+            if (criteria.getHasProducerProfile() != null && criteria.getHasProducerProfile() != (pp != null)) {
+                return false;
+            }
+            if ((criteria.getArtistExperienceLevel() != null || criteria.getArtistAvailability() != null) && ap == null) {
+                return false;
+            }
+            if (criteria.getArtistExperienceLevel() != null && ap.getExperienceLevel() != criteria.getArtistExperienceLevel()) {
+                return false;
+            }
+            if (criteria.getArtistAvailability() != null && ap.isAvailability() != criteria.getArtistAvailability()) {
+                return false;
+            }
+            if ((criteria.getProducerExperienceLevel() != null || criteria.getProducerAvailability() != null) && pp == null) {
+                return false;
+            }
+            if (criteria.getProducerExperienceLevel() != null && pp.getExperienceLevel() != criteria.getProducerExperienceLevel()) {
+                return false;
+            }
+            if (criteria.getProducerAvailability() != null && pp.isAvailability() != criteria.getProducerAvailability()) {
+                return false;
+            }
+            Set<UUID> userGenres = new HashSet<>();
+            if (ap != null) ap.getGenres().forEach(g -> userGenres.add(g.getId()));
+            if (pp != null) pp.getGenres().forEach(g -> userGenres.add(g.getId()));
+            if (!matchesValues(criteria.getGenreIds(), criteria.getMatchAllGenres(), userGenres)) {
+                return false;
+            }
+            Set<UUID> userSkills = new HashSet<>();
+            if (ap != null) ap.getSkills().forEach(s -> userSkills.add(s.getId()));
+            return matchesValues(criteria.getSkillIds(), criteria.getMatchAllSkills(), userSkills);
+        };
+    }
+
+    private static boolean matchesValues(List<UUID> selected, Boolean matchAll, Set<UUID> held) {
+        if (selected == null || selected.isEmpty()) {
+            return true;
+        }
+        return Boolean.TRUE.equals(matchAll) ? held.containsAll(selected) : selected.stream().anyMatch(held::contains);
+    }
+
+    private static UserSearchCriteria copy(UserSearchCriteria criteria) {
+        UserSearchCriteria copy = new UserSearchCriteria();
+        copy.setGenreIds(criteria.getGenreIds());
+        copy.setSkillIds(criteria.getSkillIds());
+        copy.setMatchAllGenres(criteria.getMatchAllGenres());
+        copy.setMatchAllSkills(criteria.getMatchAllSkills());
+        copy.setHasArtistProfile(criteria.getHasArtistProfile());
+        copy.setHasProducerProfile(criteria.getHasProducerProfile());
+        copy.setArtistExperienceLevel(criteria.getArtistExperienceLevel());
+        copy.setArtistAvailability(criteria.getArtistAvailability());
+        copy.setProducerExperienceLevel(criteria.getProducerExperienceLevel());
+        copy.setProducerAvailability(criteria.getProducerAvailability());
+        return copy;
+    }
+
+    // --- Random data ---
+
+    private UUID randomUserId() {
+        return new ArrayList<>(users.keySet()).get(random.nextInt(users.size()));
+    }
+
+    private void randomizeProfiles(User user) {
+        ExperienceLevel[] levels = ExperienceLevel.values();
+        if (random.nextInt(3) > 0) {
+            ArtistProfile ap = new ArtistProfile();
+            ap.setId(user.getId());
+            ap.setExperienceLevel(levels[random.nextInt(levels.length)]);
+            ap.setAvailability(random.nextBoolean());
+            ap.setGenres(new HashSet<>(pick(genres, 3)));
+            ap.setSkills(new HashSet<>(pick(skills, 2)));
+            user.setArtistProfile(ap);
+        } else {
+            user.setArtistProfile(null);
+        }
+        if (random.nextInt(3) == 0) {
+            ProducerProfile pp = new ProducerProfile();
+            pp.setId(user.getId());
+            pp.setExperienceLevel(levels[random.nextInt(levels.length)]);
+            pp.setAvailability(random.nextBoolean());
+            pp.setGenres(new HashSet<>(pick(genres, 3)));
+            user.setProducerProfile(pp);
+        } else {
+            user.setProducerProfile(null);
+        }
+    }
+
+    private UserSearchCriteria randomCriteria() {
+        UserSearchCriteria criteria = new UserSearchCriteria();
+        if (random.nextBoolean()) {
+            criteria.setGenreIds(pick(genres, 3).stream().map(Genre::getId).toList());
+            criteria.setMatchAllGenres(random.nextBoolean());
+        }
+        if (random.nextInt(3) == 0) {
+            criteria.setSkillIds(pick(skills, 2).stream().map(Skill::getId).toList());
+            criteria.setMatchAllSkills(random.nextBoolean());
+        }
+        if (random.nextInt(4) == 0) criteria.setHasArtistProfile(random.nextBoolean());
+        if (random.nextInt(4) == 0) criteria.setHasProducerProfile(random.nextBoolean());
+        if (random.nextInt(4) == 0) criteria.setArtistExperienceLevel(ExperienceLevel.values()[random.nextInt(ExperienceLevel.values().length)]);
+        if (random.nextInt(4) == 0) criteria.setProducerExperienceLevel(ExperienceLevel.values()[random.nextInt(ExperienceLevel.values().length)]);
+        if (random.nextInt(4) == 0) criteria.setArtistAvailability(random.nextBoolean());
+        if (random.nextInt(4) == 0) criteria.setProducerAvailability(random.nextBoolean());
+        return criteria;
+    }
+
+    private <T> List<T> pick(List<T> values, int max) {
+        List<T> shuffled = new ArrayList<>(values);
+        Collections.shuffle(shuffled, random);
+        return shuffled.subList(0, random.nextInt(max + 1));
+    }
+}
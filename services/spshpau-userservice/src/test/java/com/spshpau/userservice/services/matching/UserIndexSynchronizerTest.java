@@ -0,0 +1,114 @@
+package com.spshpau.userservice.services.matching;
+
+import com.spshpau.userservice.model.User;
+import com.spshpau.userservice.repositories.UserRepository;
+import com.spshpau.userservice.services.profile.UserProfileChangedEvent;
+import com.spshpau.userservice.services.search.UsernamePrefixIndex;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class UserIndexSynchronizerTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final MatchIndex matchIndex = new MatchIndex(new FeatureDictionary());
+    private final UsernamePrefixIndex usernamePrefixIndex = new UsernamePrefixIndex();
+    private final UserIndexSynchronizer synchronizer =
+            new UserIndexSynchronizer(userRepository, matchIndex, usernamePrefixIndex, true, 2);
+
+    @Test
+    void onUserProfileChanged_shouldIndexTheCommittedStateOfTheUser() {
+        User user = user("alice");
+        when(userRepository.findActiveWithProfilesByIdIn(List.of(user.getId()))).thenReturn(List.of(user));
+
+        synchronizer.onUserProfileChanged(UserProfileChangedEvent.of(user.getId()));
+
+        assertTrue(matchIndex.contains(user.getId()));
+        assertTrue(usernamePrefixIndex.getUserIds().contains(user.getId()));
+
+        // Deactivated users are no longer returned by the active lookup
+        when(userRepository.findActiveWithProfilesByIdIn(List.of(user.getId()))).thenReturn(List.of());
+
+        synchronizer.onUserProfileChanged(UserProfileChangedEvent.of(user.getId()));
+
+        assertFalse(matchIndex.contains(user.getId()));
+        assertFalse(usernamePrefixIndex.getUserIds().contains(user.getId()));
+    }
+
+    @Test
+    void rebuild_shouldDropInactiveUsersAndReplayChangesCommittedDuringTheScan() {
+        User kept = user("kept");
+        User deactivated = user("deactivated");
+        User newcomer = user("newcomer");
+        matchIndex.indexUser(deactivated);
+        usernamePrefixIndex.indexUser(deactivated);
+        when(userRepository.findActiveWithProfilesByIdIn(List.of(newcomer.getId()))).thenReturn(List.of(newcomer));
+        when(userRepository.findAllActiveIds()).thenAnswer(invocation -> {
+            // Committed after the scan read the table, so only the replay knows about it
+            synchronizer.onUserProfileChanged(UserProfileChangedEvent.of(newcomer.getId()));
+            return List.of(kept.getId());
+        });
+        when(userRepository.findActiveWithProfilesByIdIn(List.of(kept.getId()))).thenReturn(List.of(kept));
+
+        synchronizer.rebuild();
+
+        assertEquals(2, matchIndex.size());
+        assertTrue(matchIndex.contains(kept.getId()));
+        assertTrue(matchIndex.contains(newcomer.getId()));
+        assertFalse(matchIndex.contains(deactivated.getId()));
+        assertEquals(2, usernamePrefixIndex.size());
+        assertFalse(usernamePrefixIndex.getUserIds().contains(deactivated.getId()));
+    }
+
+    @Test
+    void rebuild_shouldLoadUsersInBatchesAndDropThoseDeactivatedSinceTheIdScan() {
+        User first = user("first");
+        User second = user("second");
+        User third = user("third");
+        matchIndex.indexUser(third);
+        when(userRepository.findAllActiveIds()).thenReturn(List.of(first.getId(), second.getId(), third.getId()));
+        when(userRepository.findActiveWithProfilesByIdIn(List.of(first.getId(), second.getId())))
+                .thenReturn(List.of(first, second));
+        // Deactivated between the ID scan and the load of its batch
+        when(userRepository.findActiveWithProfilesByIdIn(List.of(third.getId()))).thenReturn(List.of());
+
+        synchronizer.rebuild();
+
+        assertEquals(2, matchIndex.size());
+        assertFalse(matchIndex.contains(third.getId()));
+        verify(userRepository, never()).findAllActiveWithProfiles();
+    }
+
+    @Test
+    void rebuild_shouldDoNothingUnlessEnabled() {
+        UserIndexSynchronizer disabled = new UserIndexSynchronizer(userRepository, matchIndex, usernamePrefixIndex, false, 2);
+
+        disabled.rebuild();
+
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void rebuild_shouldKeepTheCurrentIndexesWhenTheScanFails() {
+        User user = user("alice");
+        matchIndex.indexUser(user);
+        when(userRepository.findAllActiveIds()).thenThrow(new IllegalStateException("database down"));
+
+        synchronizer.rebuild();
+
+        assertTrue(matchIndex.contains(user.getId()));
+    }
+
+    private static User user(String username) {
+        User user = new User();
+        user.setId(UUID.randomUUID());
+        user.setUsername(username);
+        user.setActive(true);
+        return user;
+    }
+}
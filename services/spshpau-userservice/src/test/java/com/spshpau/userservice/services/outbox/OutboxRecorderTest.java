@@ -0,0 +1,81 @@
+package com.spshpau.userservice.services.outbox;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.spshpau.userservice.dto.userdto.UserDetailDto;
+import com.spshpau.userservice.model.OutboxEvent;
+import com.spshpau.userservice.model.enums.DomainEventType;
+import com.spshpau.userservice.repositories.OutboxEventRepository;
+import com.spshpau.userservice.repositories.UserRepository;
+import com.spshpau.userservice.services.profile.UserProfileChangedEvent;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class OutboxRecorderTest {
+
+    private final OutboxEventRepository outboxEventRepository = mock(OutboxEventRepository.class);
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final OutboxRecorder recorder = new OutboxRecorder(outboxEventRepository, userRepository, objectMapper);
+
+    @Test
+    void onInteractionChanged_shouldRecordBothUsersWithoutPayload() {
+        UUID blockerId = UUID.randomUUID();
+        UUID blockedId = UUID.randomUUID();
+
+        recorder.onInteractionChanged(new InteractionChangedEvent(DomainEventType.USER_BLOCKED, blockerId, blockedId));
+
+        OutboxEvent recorded = captureSaved();
+        assertEquals(DomainEventType.USER_BLOCKED, recorded.getType());
+        assertEquals(blockerId, recorded.getUserId());
+        assertEquals(blockedId, recorded.getOtherUserId());
+        assertNull(recorded.getPayload());
+        assertNull(recorded.getPosition());
+    }
+
+    @Test
+    void onUserProfileChanged_shouldRecordSnapshotOfTheAccountFields() throws Exception {
+        UUID userId = UUID.randomUUID();
+        when(userRepository.findDetailById(userId)).thenReturn(Optional.of(
+                new UserDetailDto(userId, "newname", "user@example.com", "Jane", null, "Brno", true)));
+
+        recorder.onUserProfileChanged(new UserProfileChangedEvent(userId, "oldname"));
+
+        OutboxEvent recorded = captureSaved();
+        assertEquals(DomainEventType.USER_UPDATED, recorded.getType());
+        assertEquals(userId, recorded.getUserId());
+        assertNull(recorded.getOtherUserId());
+        JsonNode payload = objectMapper.readTree(recorded.getPayload());
+        assertEquals(userId.toString(), payload.get("id").asText());
+        assertEquals("newname", payload.get("username").asText());
+        assertEquals("oldname", payload.get("previousUsername").asText());
+        assertTrue(payload.get("lastName").isNull());
+        assertTrue(payload.get("active").asBoolean());
+        assertFalse(payload.has("email"));
+    }
+
+    @Test
+    void onUserProfileChanged_unknownUser_shouldRecordEventWithoutPayload() {
+        UUID userId = UUID.randomUUID();
+        when(userRepository.findDetailById(userId)).thenReturn(Optional.empty());
+
+        recorder.onUserProfileChanged(UserProfileChangedEvent.of(userId));
+
+        OutboxEvent recorded = captureSaved();
+        assertEquals(DomainEventType.USER_UPDATED, recorded.getType());
+        assertNull(recorded.getPayload());
+    }
+
+    private OutboxEvent captureSaved() {
+        ArgumentCaptor<OutboxEvent> captor = ArgumentCaptor.forClass(OutboxEvent.class);
+        verify(outboxEventRepository).save(captor.capture());
+        return captor.getValue();
+    }
+}
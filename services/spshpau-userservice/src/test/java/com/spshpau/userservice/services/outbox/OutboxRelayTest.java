@@ -0,0 +1,118 @@
+package com.spshpau.userservice.services.outbox;
+
+import com.spshpau.userservice.dto.eventdto.DomainEventDto;
+import com.spshpau.userservice.dto.eventdto.DomainEventFeedDto;
+import com.spshpau.userservice.model.OutboxEvent;
+import com.spshpau.userservice.model.enums.DomainEventType;
+import com.spshpau.userservice.repositories.OutboxEventRepository;
+import com.spshpau.userservice.services.exceptions.EventsExpiredException;
+import com.spshpau.userservice.services.impl.EventFeedServiceImpl;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the relay and the feed against Postgres, which the advisory lock of the relay requires.
+ */
+@DataJpaTest(properties = {
+        "spring.cloud.config.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+class OutboxRelayTest {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16");
+
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    private OutboxRelay relay;
+    private EventFeedServiceImpl eventFeedService;
+
+    @BeforeEach
+    void setUp() {
+        relay = new OutboxRelay(outboxEventRepository, new SimpleMeterRegistry(), 2, Duration.ofDays(7));
+        eventFeedService = new EventFeedServiceImpl(outboxEventRepository);
+    }
+
+    @Test
+    void relay_shouldPublishInInsertionOrderWithConsecutivePositions() {
+        List<UUID> users = record(3);
+        assertEquals(0, eventFeedService.getEventsAfter(0, 10).getEvents().size());
+
+        relay.relay();
+        relay.relay();
+        relay.relay(); // nothing left to publish
+
+        DomainEventFeedDto first = eventFeedService.getEventsAfter(0, 2);
+        assertEquals(List.of(1L, 2L), first.getEvents().stream().map(DomainEventDto::getPosition).toList());
+        assertEquals(users.subList(0, 2), first.getEvents().stream().map(DomainEventDto::getUserId).toList());
+        assertEquals(2, first.getLastPosition());
+        assertTrue(first.isHasMore());
+
+        DomainEventFeedDto second = eventFeedService.getEventsAfter(first.getLastPosition(), 2);
+        assertEquals(List.of(users.get(2)), second.getEvents().stream().map(DomainEventDto::getUserId).toList());
+        assertEquals(3, second.getLastPosition());
+        assertFalse(second.isHasMore());
+
+        DomainEventFeedDto caughtUp = eventFeedService.getEventsAfter(3, 2);
+        assertTrue(caughtUp.getEvents().isEmpty());
+        assertEquals(3, caughtUp.getLastPosition());
+        assertEquals(3, eventFeedService.getHeadPosition());
+    }
+
+    @Test
+    void deleteExpired_shouldKeepTheNewestEventAndRejectReadsFromDeletedPositions() {
+        record(3);
+        relay.relay();
+        relay.relay();
+        outboxEventRepository.findAll().forEach(event -> event.setPublishedAt(LocalDateTime.now().minusDays(8)));
+        entityManager.flush();
+
+        relay.deleteExpired();
+        entityManager.clear();
+
+        assertEquals(1, outboxEventRepository.count());
+        assertThrows(EventsExpiredException.class, () -> eventFeedService.getEventsAfter(0, 10));
+        assertEquals(List.of(3L), eventFeedService.getEventsAfter(2, 10).getEvents().stream()
+                .map(DomainEventDto::getPosition).toList());
+
+        // Positions continue from the retained head instead of starting over
+        record(1);
+        relay.relay();
+        assertEquals(List.of(4L), eventFeedService.getEventsAfter(3, 10).getEvents().stream()
+                .map(DomainEventDto::getPosition).toList());
+    }
+
+    private List<UUID> record(int count) {
+        List<UUID> users = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            UUID userId = UUID.randomUUID();
+            users.add(userId);
+            entityManager.persist(new OutboxEvent(DomainEventType.CONNECTION_REQUESTED, userId, UUID.randomUUID(), null));
+        }
+        entityManager.flush();
+        return users;
+    }
+}
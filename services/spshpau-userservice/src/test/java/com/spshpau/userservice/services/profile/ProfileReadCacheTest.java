@@ -0,0 +1,144 @@
+package com.spshpau.userservice.services.profile;
+
+import com.spshpau.userservice.dto.profiledto.ArtistProfileDetailDto;
+import com.spshpau.userservice.dto.profiledto.ProducerProfileDetailDto;
+import com.spshpau.userservice.dto.profiledto.SkillSummaryDto;
+import com.spshpau.userservice.dto.userdto.UserDetailDto;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProfileReadCacheTest {
+
+    private final ProfileReadCache cache = new ProfileReadCache();
+    private final UUID userId = UUID.randomUUID();
+
+    @Test
+    void getUserDetail_shouldLoadOnceAndServeTheCachedView() {
+        AtomicInteger loads = new AtomicInteger();
+        Function<UUID, Optional<UserDetailDto>> loader = id -> {
+            loads.incrementAndGet();
+            return Optional.of(detail(id, "alice"));
+        };
+
+        UserDetailDto first = cache.getUserDetail(userId, loader).orElseThrow();
+        UserDetailDto second = cache.getUserDetail(userId, loader).orElseThrow();
+
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void reads_shouldNotCacheMissingUsersOrProfiles() {
+        AtomicInteger loads = new AtomicInteger();
+
+        for (int i = 0; i < 2; i++) {
+            assertTrue(cache.getUserDetail(userId, id -> { loads.incrementAndGet(); return Optional.empty(); }).isEmpty());
+            assertTrue(cache.getArtistProfile(userId, id -> { loads.incrementAndGet(); return Optional.empty(); }).isEmpty());
+            assertTrue(cache.getProducerProfile(userId, id -> { loads.incrementAndGet(); return Optional.empty(); }).isEmpty());
+            assertTrue(cache.resolveUserId("nobody", name -> { loads.incrementAndGet(); return Optional.empty(); }).isEmpty());
+        }
+
+        assertEquals(8, loads.get());
+    }
+
+    @Test
+    void invalidate_shouldEvictAllViewsOfTheUserOnly() {
+        UUID otherId = UUID.randomUUID();
+        cache.getUserDetail(userId, id -> Optional.of(detail(id, "alice")));
+        cache.getUserDetail(otherId, id -> Optional.of(detail(id, "bob")));
+        cache.getArtistProfile(userId, id -> Optional.of(artist(id, 0)));
+        cache.getProducerProfile(userId, id -> Optional.of(producer(id)));
+        cache.resolveUserId("alice", name -> Optional.of(userId));
+
+        cache.onUserProfileChanged(UserProfileChangedEvent.of(userId));
+
+        assertTrue(cache.getUserDetail(userId, id -> Optional.empty()).isEmpty());
+        assertTrue(cache.getArtistProfile(userId, id -> Optional.empty()).isEmpty());
+        assertTrue(cache.getProducerProfile(userId, id -> Optional.empty()).isEmpty());
+        assertTrue(cache.getUserDetail(otherId, id -> Optional.empty()).isPresent());
+        // The username still belongs to the user
+        assertEquals(Optional.of(userId), cache.resolveUserId("alice", name -> Optional.empty()));
+    }
+
+    @Test
+    void invalidate_afterRename_shouldEvictThePreviousUsername() {
+        cache.resolveUserId("alice", name -> Optional.of(userId));
+
+        cache.onUserProfileChanged(new UserProfileChangedEvent(userId, "alice"));
+
+        assertTrue(cache.resolveUserId("alice", name -> Optional.empty()).isEmpty());
+    }
+
+    @Test
+    void views_shouldBeBoundedByWeight() {
+        ProfileReadCache small = new ProfileReadCache(50, 10, Duration.ofHours(1));
+        AtomicInteger loads = new AtomicInteger();
+        List<UUID> userIds = new ArrayList<>();
+
+        // Each profile weighs 1 + 9 skills = 10, so at most five fit
+        for (int i = 0; i < 20; i++) {
+            UUID id = UUID.randomUUID();
+            userIds.add(id);
+            small.getArtistProfile(id, key -> { loads.incrementAndGet(); return Optional.of(artist(key, 9)); });
+        }
+        small.cleanUp();
+        loads.set(0);
+        for (UUID id : userIds) {
+            small.getArtistProfile(id, key -> { loads.incrementAndGet(); return Optional.of(artist(key, 9)); });
+        }
+
+        assertTrue(loads.get() >= 15, "Expected most profiles to be evicted, reloaded " + loads.get());
+    }
+
+    @Test
+    void bindTo_shouldPublishCacheMetricsPerCache() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        cache.bindTo(registry);
+
+        cache.getUserDetail(userId, id -> Optional.of(detail(id, "alice")));
+        cache.getUserDetail(userId, id -> Optional.of(detail(id, "alice")));
+
+        assertEquals(1.0, registry.get("cache.gets").tags("cache", ProfileReadCache.USER_DETAILS_CACHE, "result", "hit")
+                .functionCounter().count());
+        assertEquals(1.0, registry.get("cache.gets").tags("cache", ProfileReadCache.USER_DETAILS_CACHE, "result", "miss")
+                .functionCounter().count());
+        for (String name : List.of(ProfileReadCache.ARTIST_PROFILES_CACHE, ProfileReadCache.PRODUCER_PROFILES_CACHE,
+                ProfileReadCache.USERNAME_ALIASES_CACHE)) {
+            assertNotNull(registry.find("cache.size").tag("cache", name).gauge(), name);
+        }
+    }
+
+    private static UserDetailDto detail(UUID userId, String username) {
+        UserDetailDto detail = new UserDetailDto();
+        detail.setId(userId);
+        detail.setUsername(username);
+        detail.setActive(true);
+        return detail;
+    }
+
+    private static ArtistProfileDetailDto artist(UUID userId, int skills) {
+        ArtistProfileDetailDto profile = new ArtistProfileDetailDto();
+        profile.setId(userId);
+        profile.setGenres(new HashSet<>());
+        profile.setSkills(new HashSet<>());
+        for (int i = 0; i < skills; i++) {
+            profile.getSkills().add(new SkillSummaryDto(UUID.randomUUID(), "Skill " + i));
+        }
+        return profile;
+    }
+
+    private static ProducerProfileDetailDto producer(UUID userId) {
+        ProducerProfileDetailDto profile = new ProducerProfileDetailDto();
+        profile.setId(userId);
+        profile.setGenres(new HashSet<>());
+        return profile;
+    }
+}
@@ -0,0 +1,100 @@
+package com.spshpau.userservice.services.search;
+
+import com.spshpau.userservice.dto.userdto.UserSuggestionDto;
+import com.spshpau.userservice.model.User;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UsernamePrefixIndexTest {
+
+    private UsernamePrefixIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new UsernamePrefixIndex();
+    }
+
+    private UserSuggestionDto put(String username, String firstName, String lastName) {
+        UserSuggestionDto suggestion = new UserSuggestionDto(UUID.randomUUID(), username, firstName, lastName);
+        index.put(suggestion);
+        return suggestion;
+    }
+
+    private List<String> suggestUsernames(String prefix, int limit) {
+        return index.suggest(prefix, limit, id -> false).stream().map(UserSuggestionDto::getUsername).toList();
+    }
+
+    @Test
+    void suggest_shouldRankUsernameMatchesBeforeNameMatches() {
+        put("jazzmaster99", "Ondrej", "Novak");
+        put("jazz", "Jazz", "Player");
+        put("smoothjazzfan", "Jazzy", "Cerny");
+        put("rocker", "Anna", "Jazzova");
+
+        assertEquals(List.of("jazz", "jazzmaster99", "rocker", "smoothjazzfan"), suggestUsernames("Jazz", 10));
+        assertEquals(List.of("jazz", "jazzmaster99"), suggestUsernames("jazz", 2));
+    }
+
+    @Test
+    void suggest_shouldMatchFullAndLastNamesCaseInsensitively() {
+        put("user1", "Anna", "Novak");
+        put("user2", "Petr", "Novotny");
+
+        assertEquals(List.of("user1"), suggestUsernames("anna n", 10));
+        assertEquals(List.of("user1", "user2"), suggestUsernames("NOV", 10));
+        assertTrue(suggestUsernames("ovak", 10).isEmpty());
+    }
+
+    @Test
+    void suggest_shouldSkipExcludedUsersWithoutShrinkingTheLimit() {
+        UserSuggestionDto first = put("anna1", null, null);
+        put("anna2", null, null);
+        put("anna3", null, null);
+
+        List<UserSuggestionDto> suggestions = index.suggest("anna", 2, id -> id.equals(first.getId()));
+
+        assertEquals(List.of("anna2", "anna3"), suggestions.stream().map(UserSuggestionDto::getUsername).toList());
+    }
+
+    @Test
+    void put_shouldReplacePreviousKeysOfUser() {
+        UserSuggestionDto user = put("oldname", "Old", "Name");
+
+        index.put(new UserSuggestionDto(user.getId(), "newname", "New", "Name"));
+
+        assertTrue(suggestUsernames("old", 10).isEmpty());
+        assertEquals(List.of("newname"), suggestUsernames("new", 10));
+        assertEquals(List.of("newname"), suggestUsernames("name", 10));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void indexUser_whenInactive_shouldRemoveUser() {
+        User user = new User();
+        user.setId(UUID.randomUUID());
+        user.setUsername("leaving");
+        user.setActive(true);
+        index.indexUser(user);
+        assertEquals(List.of("leaving"), suggestUsernames("lea", 10));
+
+        user.setActive(false);
+        index.indexUser(user);
+
+        assertTrue(suggestUsernames("lea", 10).isEmpty());
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void suggest_withBlankPrefix_shouldReturnNothing() {
+        put("anyone", "Any", "One");
+
+        assertTrue(suggestUsernames(" ", 10).isEmpty());
+        assertTrue(suggestUsernames(null, 10).isEmpty());
+    }
+}